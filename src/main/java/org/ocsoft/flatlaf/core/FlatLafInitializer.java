@@ -11,12 +11,15 @@ import javax.swing.JSpinner;
 import javax.swing.UIDefaults;
 import javax.swing.UIManager;
 
+import org.ocsoft.flatlaf.core.ManagersInitializer.Manager;
+import org.ocsoft.flatlaf.core.ManagersInitializer.Mode;
 import org.ocsoft.flatlaf.core.constants.FlatLafConstants;
 import org.ocsoft.flatlaf.extended.colorchooser.GradientColorData;
 import org.ocsoft.flatlaf.extended.colorchooser.GradientData;
 import org.ocsoft.flatlaf.extended.tab.DocumentPaneState;
 import org.ocsoft.flatlaf.managers.drag.DragManager;
 import org.ocsoft.flatlaf.managers.focus.FocusManager;
+import org.ocsoft.flatlaf.managers.hotkey.HotkeyData;
 import org.ocsoft.flatlaf.managers.hotkey.HotkeyManager;
 import org.ocsoft.flatlaf.managers.language.WebLanguageManager;
 import org.ocsoft.flatlaf.managers.proxy.WebProxyManager;
@@ -69,6 +72,10 @@ public class FlatLafInitializer {
                         XmlUtils.processAnnotations(GradientColorData.class);
                         XmlUtils.processAnnotations(HSBColor.class);
                         
+                        // Hotkey data might be read from XML or settings
+                        // before lazy HotkeyManager is initialized
+                        XmlUtils.processAnnotations(HotkeyData.class);
+                        
                         // Initializing WebLaF managers
                         initializeManagers();
                         
@@ -91,19 +98,117 @@ public class FlatLafInitializer {
     }
     
     /**
-     * Initializes library managers. Initialization order is strict since some
-     * managers require other managers to be loaded.
+     * Last managers initialization.
+     */
+    private static volatile ManagersInitializer managersInitializer = null;
+    
+    /**
+     * Initializes library managers. Managers that require other managers to be
+     * loaded are initialized after them, other managers are initialized in
+     * parallel. Managers that are only used on demand are initialized on their
+     * first use.
      */
     static synchronized void initializeManagers() {
         FlatLafLogger.initialize();
-        WebLanguageManager.initialize();
-        WebSettingsManager.initialize();
-        HotkeyManager.initialize();
-        FocusManager.initialize();
-        TooltipManager.initialize();
-        StyleManager.initialize();
-        WebProxyManager.initialize();
-        DragManager.initialize();
+        
+        final ManagersInitializer initializer = new ManagersInitializer();
+        
+        // Managers required on startup
+        initializer.add("WebLanguageManager", Mode.parallel, new Runnable() {
+            @Override
+            public void run() {
+                WebLanguageManager.initialize();
+            }
+        });
+        final Manager settings = initializer.add("WebSettingsManager",
+                Mode.parallel, new Runnable() {
+                    @Override
+                    public void run() {
+                        WebSettingsManager.initialize();
+                    }
+                });
+        initializer.add("WebProxyManager", Mode.parallel, new Runnable() {
+            @Override
+            public void run() {
+                WebProxyManager.initialize();
+            }
+        }, settings);
+        
+        // Skin is applied on this thread since it might update components
+        initializer.add("StyleManager", Mode.caller, new Runnable() {
+            @Override
+            public void run() {
+                StyleManager.initialize();
+            }
+        });
+        
+        // Managers initialized on their first use
+        initializer.add("HotkeyManager", Mode.lazy, new Runnable() {
+            @Override
+            public void run() {
+                HotkeyManager.initialize();
+            }
+        });
+        initializer.add("FocusManager", Mode.lazy, new Runnable() {
+            @Override
+            public void run() {
+                FocusManager.initialize();
+            }
+        });
+        initializer.add("TooltipManager", Mode.lazy, new Runnable() {
+            @Override
+            public void run() {
+                TooltipManager.initialize();
+            }
+        });
+        initializer.add("DragManager", Mode.lazy, new Runnable() {
+            @Override
+            public void run() {
+                DragManager.initialize();
+            }
+        });
+        
+        // Lazy managers report to this initializer from now on
+        managersInitializer = initializer;
+        initializer.initialize(
+                FlatLafSettings.isParallelManagersInitialization(),
+                FlatLafSettings.isLazyManagersInitialization());
+        
+        FlatLafLogger.debug(FlatLafInitializer.class, initializer.getReport());
+    }
+    
+    /**
+     * Records time spent on initialization of the manager that was left for
+     * its first use. This method is called by lazy managers once they are
+     * initialized and does nothing if that manager initialization wasn't
+     * deferred.
+     *
+     * @param name
+     *            manager name
+     * @param start
+     *            initialization start time in nanoseconds
+     */
+    public static void lazyManagerInitialized(final String name,
+            final long start) {
+        // Not synchronized since lazy managers might be initialized by other
+        // threads while managers initialization waits for them
+        final ManagersInitializer initializer = managersInitializer;
+        if (initializer != null) {
+            initializer.lazyInitialized(name, start, System.nanoTime());
+        }
+    }
+    
+    /**
+     * Returns startup report of the last managers initialization listing time
+     * spent on each manager initialization, including lazy managers that were
+     * initialized on their first use since then.
+     *
+     * @return startup report of the last managers initialization or null if
+     *         managers were not initialized yet
+     */
+    public static synchronized String getStartupReport() {
+        final ManagersInitializer initializer = managersInitializer;
+        return initializer != null ? initializer.getReport() : null;
     }
     
     static String[] createSystemColorDefaults(UIDefaults table) {
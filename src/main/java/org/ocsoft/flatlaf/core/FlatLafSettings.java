@@ -69,6 +69,18 @@ public class FlatLafSettings {
      */
     private static boolean decorateDialogs = false;
     
+    /**
+     * Whether managers that don't depend on each other should be initialized
+     * in parallel or not.
+     */
+    private static boolean parallelManagersInitialization = true;
+    
+    /**
+     * Whether managers that are not required on startup should only be
+     * initialized on their first use or not.
+     */
+    private static boolean lazyManagersInitialization = true;
+    
     /**
      * Returns whether look and feel uses custom decoration for newly created
      * frames or not.
@@ -130,6 +142,52 @@ public class FlatLafSettings {
         setDecorateDialogs(decorateAllWindows);
     }
     
+    /**
+     * Returns whether managers that don't depend on each other are initialized
+     * in parallel or not.
+     *
+     * @return true if managers that don't depend on each other are initialized
+     *         in parallel, false otherwise
+     */
+    public static boolean isParallelManagersInitialization() {
+        return parallelManagersInitialization;
+    }
+    
+    /**
+     * Sets whether managers that don't depend on each other should be
+     * initialized in parallel or not.
+     *
+     * @param parallel
+     *            whether managers that don't depend on each other should be
+     *            initialized in parallel or not
+     */
+    public static void setParallelManagersInitialization(final boolean parallel) {
+        FlatLafSettings.parallelManagersInitialization = parallel;
+    }
+    
+    /**
+     * Returns whether managers that are not required on startup are only
+     * initialized on their first use or not.
+     *
+     * @return true if managers that are not required on startup are only
+     *         initialized on their first use, false otherwise
+     */
+    public static boolean isLazyManagersInitialization() {
+        return lazyManagersInitialization;
+    }
+    
+    /**
+     * Sets whether managers that are not required on startup should only be
+     * initialized on their first use or not.
+     *
+     * @param lazy
+     *            whether managers that are not required on startup should
+     *            only be initialized on their first use or not
+     */
+    public static void setLazyManagersInitialization(final boolean lazy) {
+        FlatLafSettings.lazyManagersInitialization = lazy;
+    }
+    
     /*
      * Label-related components.
      */
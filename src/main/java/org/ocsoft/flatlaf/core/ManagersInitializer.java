@@ -0,0 +1,292 @@
+package org.ocsoft.flatlaf.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.ocsoft.flatlaf.utils.DaemonThreadFactory;
+import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
+
+/**
+ * This class initializes library managers according to their dependencies.
+ * Managers that don't depend on each other are initialized in parallel,
+ * managers that are not required on startup are left to be initialized on
+ * their first use. Time spent on each manager initialization is collected
+ * into startup report.
+ *
+ * @author Mikle Garin
+ * @see org.ocsoft.flatlaf.core.FlatLafInitializer
+ */
+
+final class ManagersInitializer {
+    /**
+     * Manager initialization modes.
+     */
+    enum Mode {
+        /**
+         * Manager is initialized on the thread that initializes managers.
+         */
+        caller,
+        
+        /**
+         * Manager is initialized on a separate thread.
+         */
+        parallel,
+        
+        /**
+         * Manager is initialized on its first use.
+         */
+        lazy
+    }
+    
+    /**
+     * Single manager initialization.
+     */
+    static final class Manager implements Runnable {
+        /**
+         * Manager name.
+         */
+        private final String name;
+        
+        /**
+         * Manager initialization mode.
+         */
+        private final Mode mode;
+        
+        /**
+         * Manager initializer.
+         */
+        private final Runnable initializer;
+        
+        /**
+         * Managers that should be initialized before this one.
+         */
+        private final Manager[] dependencies;
+        
+        /**
+         * Initialization completion latch.
+         */
+        private final CountDownLatch done = new CountDownLatch(1);
+        
+        /**
+         * Initialization details.
+         */
+        private volatile String thread;
+        private volatile long start;
+        private volatile long end;
+        private volatile boolean initialized = false;
+        
+        /**
+         * Whether initialization was left for the manager first use or not.
+         */
+        private volatile boolean deferred = false;
+        
+        /**
+         * Constructs new manager initialization.
+         *
+         * @param name
+         *            manager name
+         * @param mode
+         *            manager initialization mode
+         * @param initializer
+         *            manager initializer
+         * @param dependencies
+         *            managers that should be initialized before this one
+         */
+        private Manager(final String name, final Mode mode,
+                final Runnable initializer, final Manager[] dependencies) {
+            super();
+            this.name = name;
+            this.mode = mode;
+            this.initializer = initializer;
+            this.dependencies = dependencies;
+        }
+        
+        @Override
+        public void run() {
+            try {
+                // Waiting for dependencies
+                for (final Manager dependency : dependencies) {
+                    dependency.done.await();
+                }
+                
+                // Initializing manager
+                thread = Thread.currentThread().getName();
+                start = System.nanoTime();
+                initializer.run();
+                initialized = true;
+            } catch (final Throwable e) {
+                FlatLafLogger.error(ManagersInitializer.class,
+                        "Unable to initialize " + name, e);
+            } finally {
+                end = System.nanoTime();
+                done.countDown();
+            }
+        }
+    }
+    
+    /**
+     * Managers in the order they were added.
+     */
+    private final List<Manager> managers = new ArrayList<Manager>();
+    
+    /**
+     * Initialization start and end time.
+     */
+    private long start;
+    private long end;
+    
+    /**
+     * Adds manager initialization.
+     *
+     * @param name
+     *            manager name
+     * @param mode
+     *            manager initialization mode
+     * @param initializer
+     *            manager initializer
+     * @param dependencies
+     *            managers that should be initialized before this one, those
+     *            should be added before it
+     * @return added manager initialization
+     */
+    Manager add(final String name, final Mode mode, final Runnable initializer,
+            final Manager... dependencies) {
+        final Manager manager = new Manager(name, mode, initializer,
+                dependencies);
+        managers.add(manager);
+        return manager;
+    }
+    
+    /**
+     * Initializes all added managers except lazy ones and waits until they are
+     * initialized.
+     *
+     * @param parallel
+     *            whether parallel managers should be initialized on separate
+     *            threads or not
+     * @param lazy
+     *            whether lazy managers should be left for their first use or
+     *            not
+     */
+    void initialize(final boolean parallel, final boolean lazy) {
+        start = System.nanoTime();
+        
+        // Starting parallel managers
+        final List<Manager> background = new ArrayList<Manager>();
+        final List<Manager> foreground = new ArrayList<Manager>();
+        for (final Manager manager : managers) {
+            if (manager.mode == Mode.lazy && lazy) {
+                manager.deferred = true;
+                continue;
+            }
+            if (manager.mode != Mode.caller && parallel) {
+                background.add(manager);
+            } else {
+                foreground.add(manager);
+            }
+        }
+        ExecutorService executor = null;
+        if (background.size() > 0) {
+            // Each manager has its own thread so that waiting for dependencies
+            // never blocks other managers initialization
+            executor = Executors.newFixedThreadPool(background.size(),
+                    new DaemonThreadFactory());
+            for (final Manager manager : background) {
+                executor.execute(manager);
+            }
+        }
+        
+        // Initializing other managers on this thread
+        for (final Manager manager : foreground) {
+            manager.run();
+        }
+        
+        // Waiting for parallel managers
+        if (executor != null) {
+            executor.shutdown();
+            for (final Manager manager : background) {
+                try {
+                    manager.done.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        
+        end = System.nanoTime();
+    }
+    
+    /**
+     * Records initialization of the deferred manager which happened on its
+     * first use. Does nothing if there is no such deferred manager or it was
+     * already recorded.
+     *
+     * @param name
+     *            manager name
+     * @param start
+     *            initialization start time in nanoseconds
+     * @param end
+     *            initialization end time in nanoseconds
+     */
+    void lazyInitialized(final String name, final long start, final long end) {
+        for (final Manager manager : managers) {
+            if (manager.name.equals(name)) {
+                synchronized (manager) {
+                    if (manager.deferred && manager.done.getCount() > 0) {
+                        manager.thread = Thread.currentThread().getName();
+                        manager.start = start;
+                        manager.end = end;
+                        manager.initialized = true;
+                        manager.done.countDown();
+                    }
+                }
+                break;
+            }
+        }
+    }
+    
+    /**
+     * Returns startup report listing time spent on each manager
+     * initialization.
+     *
+     * @return startup report
+     */
+    String getReport() {
+        final StringBuilder report = new StringBuilder();
+        report.append("Managers initialized in ").append(toMillis(end - start))
+                .append(" ms");
+        for (final Manager manager : managers) {
+            report.append("\n    ").append(manager.name).append(": ");
+            if (manager.done.getCount() > 0) {
+                report.append("deferred until first use");
+            } else {
+                report.append(toMillis(manager.end - manager.start))
+                        .append(" ms, started at +")
+                        .append(toMillis(manager.start - start))
+                        .append(" ms on ").append(manager.thread);
+                if (manager.deferred) {
+                    report.append(", on first use");
+                }
+                if (!manager.initialized) {
+                    report.append(", failed");
+                }
+            }
+        }
+        return report.toString();
+    }
+    
+    /**
+     * Returns nanoseconds converted into milliseconds text.
+     *
+     * @param nanos
+     *            nanoseconds
+     * @return nanoseconds converted into milliseconds text
+     */
+    private static String toMillis(final long nanos) {
+        return String.format("%.1f", nanos / 1000000d);
+    }
+}
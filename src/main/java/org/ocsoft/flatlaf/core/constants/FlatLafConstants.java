@@ -23,6 +23,11 @@ import java.util.List;
 
 public final class FlatLafConstants {
     
+    /**
+     * Library version, should be kept in sync with the project build version.
+     */
+    public static final String LIBRARY_VERSION = "0.0.3";
+    
     /**
      * If this client property is set to {@link Boolean#TRUE} on a component, UI
      * delegates should follow the typical Swing behavior of not overriding a
@@ -36,6 +36,7 @@ import javax.swing.SwingConstants;
 
 import org.ocsoft.flatlaf.utils.ImageUtils;
 import org.ocsoft.flatlaf.utils.SwingUtils;
+import org.ocsoft.flatlaf.utils.filters.BlurType;
 import org.ocsoft.flatlaf.utils.filters.ImageFilterUtils;
 import org.ocsoft.flatlaf.utils.graphics.GraphicsUtils;
 import org.ocsoft.flatlaf.utils.laf.ShapeProvider;
@@ -66,6 +67,7 @@ public class WebDecoratedImage extends JComponent implements SwingConstants,
     private boolean grayscale = WebDecoratedImageStyle.grayscale;
     private boolean blur = WebDecoratedImageStyle.blur;
     private float blurFactor = WebDecoratedImageStyle.blurFactor;
+    private BlurType blurType = WebDecoratedImageStyle.blurType;
     private boolean zoomBlur = WebDecoratedImageStyle.zoomBlur;
     private float zoomBlurFactor = WebDecoratedImageStyle.zoomBlurFactor;
     private boolean rotationBlur = WebDecoratedImageStyle.rotationBlur;
@@ -260,6 +262,21 @@ public class WebDecoratedImage extends JComponent implements SwingConstants,
         }
     }
     
+    public BlurType getBlurType() {
+        return blurType;
+    }
+    
+    public void setBlurType(BlurType blurType) {
+        setBlurType(blurType, true);
+    }
+    
+    public void setBlurType(BlurType blurType, boolean update) {
+        this.blurType = blurType;
+        if (update) {
+            updatePreview();
+        }
+    }
+    
     public boolean isZoomBlur() {
         return zoomBlur;
     }
@@ -369,7 +386,8 @@ public class WebDecoratedImage extends JComponent implements SwingConstants,
             ImageFilterUtils.applyGrayscaleFilter(image, image);
         }
         if (blur) {
-            ImageFilterUtils.applyGaussianFilter(image, image, blurFactor);
+            ImageFilterUtils.applyGaussianFilter(image, image, blurFactor,
+                    blurType);
         }
         if (zoomBlur && rotationBlur) {
             ImageFilterUtils.applyMotionBlurFilter(image, image, 0f, 0f,
@@ -21,6 +21,7 @@ import java.awt.Color;
 
 import javax.swing.SwingConstants;
 
+import org.ocsoft.flatlaf.utils.filters.BlurType;
 import org.ocsoft.flatlaf.utils.laf.ShadeType;
 import org.ocsoft.flatlaf.weblaf.FlatLafStyleConstants;
 
@@ -94,6 +95,11 @@ public final class WebDecoratedImageStyle implements SwingConstants {
      */
     public static float blurFactor = 3f;
     
+    /**
+     * Image blur algorithm
+     */
+    public static BlurType blurType = BlurType.gaussian;
+    
     /**
      * Display zoom-blurred image
      */
@@ -0,0 +1,178 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.extended.label;
+
+import java.awt.Font;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This represents all settings which affect styled label text layout. It is
+ * used as a key for cached layout results, so layout is only computed once for
+ * the same text, styles, font and sizing settings.
+ *
+ * @author Mikle Garin
+ */
+
+public class StyledLabelLayoutKey {
+    /**
+     * Label text.
+     */
+    private final String text;
+    
+    /**
+     * Label font.
+     */
+    private final Font font;
+    
+    /**
+     * Style ranges settings which affect layout.
+     */
+    private final int[] styles;
+    
+    /**
+     * Label sizing and wrapping settings.
+     */
+    private final int[] settings;
+    
+    /**
+     * Subscript and superscript font size ratio.
+     */
+    private final float scriptFontRatio;
+    
+    /**
+     * Truncated text suffix.
+     */
+    private final String truncatedTextSuffix;
+    
+    /**
+     * Cached hash code.
+     */
+    private final int hashCode;
+    
+    /**
+     * Constructs new styled label layout key.
+     *
+     * @param text
+     *            label text
+     * @param font
+     *            label font
+     * @param styleRanges
+     *            label style ranges
+     * @param settings
+     *            label sizing and wrapping settings
+     * @param scriptFontRatio
+     *            subscript and superscript font size ratio
+     * @param truncatedTextSuffix
+     *            truncated text suffix
+     */
+    public StyledLabelLayoutKey(final String text, final Font font,
+            final List<StyleRange> styleRanges, final int[] settings,
+            final float scriptFontRatio, final String truncatedTextSuffix) {
+        super();
+        this.text = text;
+        this.font = font;
+        this.styles = getStyles(styleRanges);
+        this.settings = settings;
+        this.scriptFontRatio = scriptFontRatio;
+        this.truncatedTextSuffix = truncatedTextSuffix;
+        this.hashCode = computeHashCode();
+    }
+    
+    /**
+     * Returns style ranges settings which affect layout. Colors and text
+     * decorations are not included since they do not change text size.
+     *
+     * @param styleRanges
+     *            label style ranges
+     * @return style ranges settings which affect layout
+     */
+    private static int[] getStyles(final List<StyleRange> styleRanges) {
+        final int[] styles = new int[styleRanges.size() * 4];
+        int i = 0;
+        for (final StyleRange styleRange : styleRanges) {
+            styles[i++] = styleRange.getStartIndex();
+            styles[i++] = styleRange.getLength();
+            styles[i++] = styleRange.getStyle();
+            styles[i++] = (styleRange.isSuperscript() ? 1 : 0)
+                    | (styleRange.isSubscript() ? 2 : 0);
+        }
+        return styles;
+    }
+    
+    /**
+     * Returns computed hash code.
+     *
+     * @return computed hash code
+     */
+    private int computeHashCode() {
+        int result = text != null ? text.hashCode() : 0;
+        result = 31 * result + (font != null ? font.hashCode() : 0);
+        result = 31 * result + Arrays.hashCode(styles);
+        result = 31 * result + Arrays.hashCode(settings);
+        result = 31 * result + Float.floatToIntBits(scriptFontRatio);
+        result = 31
+                * result
+                + (truncatedTextSuffix != null ? truncatedTextSuffix
+                        .hashCode() : 0);
+        return result;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        
+        if (!(o instanceof StyledLabelLayoutKey)) {
+            return false;
+        }
+        
+        final StyledLabelLayoutKey key = (StyledLabelLayoutKey) o;
+        return hashCode == key.hashCode
+                && Float.compare(scriptFontRatio, key.scriptFontRatio) == 0
+                && equals(text, key.text) && equals(font, key.font)
+                && Arrays.equals(styles, key.styles)
+                && Arrays.equals(settings, key.settings)
+                && equals(truncatedTextSuffix, key.truncatedTextSuffix);
+    }
+    
+    /**
+     * Returns whether specified objects are equal or not.
+     *
+     * @param o1
+     *            first object
+     * @param o2
+     *            second object
+     * @return true if specified objects are equal, false otherwise
+     */
+    private static boolean equals(final Object o1, final Object o2) {
+        return o1 == null ? o2 == null : o1.equals(o2);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
@@ -25,6 +25,7 @@ import java.awt.Graphics2D;
 import java.awt.Insets;
 import java.awt.Rectangle;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -35,6 +36,7 @@ import javax.swing.UIManager;
 
 import org.ocsoft.flatlaf.core.FlatLookAndFeel;
 import org.ocsoft.flatlaf.managers.style.skin.web.WebLabelPainter;
+import org.ocsoft.flatlaf.utils.FontUtils;
 import org.ocsoft.flatlaf.utils.SwingUtils;
 import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
 
@@ -58,9 +60,54 @@ public class WebStyledLabelPainter<E extends WebStyledLabel> extends
      * Runtime variables.
      */
     protected final List<TextRange> textRanges = new ArrayList<TextRange>();
+    protected String textRangesText = null;
     protected boolean retrievingPreferredSize = false;
     protected boolean truncated = false;
     
+    /**
+     * Text layouts cache.
+     * It contains preferred sizes and row counts for recently used layout
+     * settings, mostly useful when label is used as a cell renderer.
+     */
+    protected final Map<StyledLabelLayoutKey, CachedTextLayout> layoutCache = new LinkedHashMap<StyledLabelLayoutKey, CachedTextLayout>(
+            16, 0.75f, true) {
+        /**
+         * Serialization version.
+         */
+        private static final long serialVersionUID = -2406237195316453911L;
+        
+        @Override
+        protected boolean removeEldestEntry(
+                final Map.Entry<StyledLabelLayoutKey, CachedTextLayout> eldest) {
+            return size() > WebStyledLabelStyle.layoutCacheSize;
+        }
+    };
+    
+    /**
+     * Painted text segments cache.
+     * It contains text split into rows and styled segments for recently
+     * painted layouts, so text is not laid out again on each repaint.
+     */
+    protected final Map<StyledLabelLayoutKey, CachedTextSegments> segmentsCache = new LinkedHashMap<StyledLabelLayoutKey, CachedTextSegments>(
+            16, 0.75f, true) {
+        /**
+         * Serialization version.
+         */
+        private static final long serialVersionUID = 5183420957713862304L;
+        
+        @Override
+        protected boolean removeEldestEntry(
+                final Map.Entry<StyledLabelLayoutKey, CachedTextSegments> eldest) {
+            return size() > WebStyledLabelStyle.layoutCacheSize;
+        }
+    };
+    
+    /**
+     * Text segments collected while text is being laid out for painting, null
+     * if text is not being laid out for painting at the moment.
+     */
+    protected List<TextSegment> paintedSegments = null;
+    
     /**
      * Returns preferred row count.
      *
@@ -76,6 +123,7 @@ public class WebStyledLabelPainter<E extends WebStyledLabel> extends
     @Override
     public void setPreferredRowCount(final int rows) {
         this.preferredRowCount = rows;
+        clearLayoutCache();
         revalidate();
         repaint();
     }
@@ -113,6 +161,7 @@ public class WebStyledLabelPainter<E extends WebStyledLabel> extends
     @Override
     public void setScriptFontRatio(final float ratio) {
         this.scriptFontRatio = ratio;
+        clearLayoutCache();
         revalidate();
         repaint();
     }
@@ -132,6 +181,7 @@ public class WebStyledLabelPainter<E extends WebStyledLabel> extends
     @Override
     public void setTruncatedTextSuffix(final String suffix) {
         this.truncatedTextSuffix = suffix;
+        clearLayoutCache();
         revalidate();
         repaint();
     }
@@ -142,6 +192,31 @@ public class WebStyledLabelPainter<E extends WebStyledLabel> extends
     @Override
     public void updateTextRanges() {
         textRanges.clear();
+        textRangesText = null;
+    }
+    
+    /**
+     * Clears text layouts cache.
+     */
+    public void clearLayoutCache() {
+        layoutCache.clear();
+        segmentsCache.clear();
+    }
+    
+    /**
+     * Builds text ranges for the current label text and styles unless they are
+     * already built.
+     *
+     * @param label
+     *            label to build text ranges for
+     */
+    protected void buildTextRanges(final E label) {
+        final String text = label.getText();
+        if (textRangesText == null || !textRangesText.equals(text)
+                || textRanges.size() == 0) {
+            StyledLabelUtils.buildTextRanges(label, textRanges);
+            textRangesText = text;
+        }
     }
     
     /**
@@ -176,14 +251,162 @@ public class WebStyledLabelPainter<E extends WebStyledLabel> extends
      */
     protected void paintStyledText(final E label, final Graphics2D g,
             final int textX, final int textY) {
-        // Resetting truncated flag
-        truncated = false;
-        
-        // Patinting styled text
         final int labelWidth = getLabelWidth(label);
         final int textWidth = getTextWidth(label);
         final int w = Math.min(labelWidth, textWidth);
-        paintStyledTextImpl(label, g, textX, textY, w);
+        
+        // Laying out text segments unless they are cached
+        final StyledLabelLayoutKey key = getPaintKey(label, textX, textY, w);
+        CachedTextSegments segments = segmentsCache.get(key);
+        if (segments == null) {
+            // Resetting truncated flag
+            truncated = false;
+            
+            paintedSegments = new ArrayList<TextSegment>();
+            try {
+                paintStyledTextImpl(label, g, textX, textY, w);
+                segments = new CachedTextSegments(paintedSegments, truncated);
+            } finally {
+                paintedSegments = null;
+            }
+            segmentsCache.put(key, segments);
+        } else {
+            truncated = segments.truncated;
+        }
+        
+        // Patinting styled text
+        for (final TextSegment segment : segments.segments) {
+            paintSegment(label, g, segment);
+        }
+    }
+    
+    /**
+     * Returns key representing all settings which affect painted text
+     * segments.
+     *
+     * @param label
+     *            painted label
+     * @param textX
+     *            text X coordinate
+     * @param textY
+     *            text Y coordinate
+     * @param w
+     *            painted text max width
+     * @return key representing all settings which affect painted text
+     *         segments
+     */
+    protected StyledLabelLayoutKey getPaintKey(final E label,
+            final int textX, final int textY, final int w) {
+        final int[] layoutSettings = getLayoutSettings(label);
+        final int[] settings = new int[layoutSettings.length + 7];
+        System.arraycopy(layoutSettings, 0, settings, 0,
+                layoutSettings.length);
+        int i = layoutSettings.length;
+        settings[i++] = textX;
+        settings[i++] = textY;
+        settings[i++] = w;
+        settings[i++] = label.getVerticalAlignment();
+        settings[i++] = label.getVerticalTextPosition();
+        settings[i++] = label.getDisplayedMnemonicIndex();
+        settings[i] = (isMnemonicHidden() ? 1 : 0)
+                | (isWindowsMnemonicHidden() ? 2 : 0);
+        return new StyledLabelLayoutKey(label.getText(),
+                StyledLabelUtils.getFont(label), label.getStyleRanges(),
+                settings, scriptFontRatio, truncatedTextSuffix);
+    }
+    
+    /**
+     * Returns whether mnemonics are hidden by the current look and feel or
+     * not.
+     *
+     * @return true if mnemonics are hidden by the current look and feel,
+     *         false otherwise
+     */
+    protected boolean isMnemonicHidden() {
+        return UIManager.getLookAndFeel() instanceof FlatLookAndFeel
+                && FlatLookAndFeel.isMnemonicHidden()
+                || isWindowsMnemonicHidden();
+    }
+    
+    /**
+     * Returns whether mnemonics are hidden by the Windows look and feel or
+     * not.
+     *
+     * @return true if mnemonics are hidden by the Windows look and feel,
+     *         false otherwise
+     */
+    protected boolean isWindowsMnemonicHidden() {
+        return UIManager.getLookAndFeel() instanceof WindowsLookAndFeel
+                && WindowsLookAndFeel.isMnemonicHidden();
+    }
+    
+    /**
+     * Paints single styled text segment.
+     *
+     * @param label
+     *            painted label
+     * @param g
+     *            graphics context
+     * @param segment
+     *            text segment
+     */
+    protected void paintSegment(final E label, final Graphics2D g,
+            final TextSegment segment) {
+        final StyleRange style = textRanges.get(segment.range).styleRange;
+        final FontMetrics fm = segment.fontMetrics;
+        final String s = segment.text;
+        final int x = segment.x;
+        final int y = segment.y;
+        final int strWidth = segment.width;
+        
+        g.setFont(segment.font);
+        
+        if (style != null && style.getBackground() != null) {
+            g.setColor(style.getBackground());
+            g.fillRect(x, y - fm.getHeight(), strWidth, fm.getHeight() + 4);
+        }
+        
+        Color textColor = (style != null && !ignoreColorSettings && style
+                .getForeground() != null) ? style.getForeground() : label
+                .getForeground();
+        if (!label.isEnabled()) {
+            textColor = UIManager.getColor("Label.disabledForeground");
+        }
+        g.setColor(textColor);
+        
+        if (segment.mnemonicIndex >= 0) {
+            SwingUtils.drawStringUnderlineCharAt(g, s, segment.mnemonicIndex,
+                    x, y);
+        } else {
+            SwingUtils.drawString(g, s, x, y);
+        }
+        
+        if (style != null) {
+            if (style.isStrikeThrough()) {
+                final int lineY = y + (fm.getDescent() - fm.getAscent()) / 2;
+                g.drawLine(x, lineY, x + strWidth - 1, lineY);
+            }
+            if (style.isDoubleStrikeThrough()) {
+                final int lineY = y + (fm.getDescent() - fm.getAscent()) / 2;
+                g.drawLine(x, lineY - 1, x + strWidth - 1, lineY - 1);
+                g.drawLine(x, lineY + 1, x + strWidth - 1, lineY + 1);
+            }
+            if (style.isUnderlined()) {
+                final int lineY = y + 1;
+                g.drawLine(x, lineY, x + strWidth - 1, lineY);
+            }
+            if (style.isWaved()) {
+                final int waveY = y + 1;
+                for (int waveX = x; waveX < x + strWidth; waveX += 4) {
+                    if (waveX + 2 <= x + strWidth - 1) {
+                        g.drawLine(waveX, waveY + 2, waveX + 2, waveY);
+                    }
+                    if (waveX + 4 <= x + strWidth - 1) {
+                        g.drawLine(waveX + 3, waveY + 1, waveX + 4, waveY + 2);
+                    }
+                }
+            }
+        }
     }
     
     /**
@@ -236,7 +459,9 @@ public class WebStyledLabelPainter<E extends WebStyledLabel> extends
     }
     
     /**
-     * Paints styled text.
+     * Lays out styled text. Text segments are collected into
+     * {@link #paintedSegments} if graphics context is specified, otherwise
+     * only painted rows amount is computed.
      *
      * @param label
      *            painted label
@@ -258,10 +483,7 @@ public class WebStyledLabelPainter<E extends WebStyledLabel> extends
         final int endX = w + startX;
         
         int mnemonicIndex = label.getDisplayedMnemonicIndex();
-        if (UIManager.getLookAndFeel() instanceof FlatLookAndFeel
-                && FlatLookAndFeel.isMnemonicHidden()
-                || UIManager.getLookAndFeel() instanceof WindowsLookAndFeel
-                && WindowsLookAndFeel.isMnemonicHidden()) {
+        if (isMnemonicHidden()) {
             mnemonicIndex = -1;
         }
         
@@ -396,9 +618,7 @@ public class WebStyledLabelPainter<E extends WebStyledLabel> extends
                 fm2 = nextFm2;
             }
             
-            if (g != null) {
-                g.setFont(font);
-            }
+            final Font segmentFont = font;
             
             boolean stop = false;
             String s = textRange.text.substring(Math.min(nextRowStartIndex,
@@ -584,60 +804,12 @@ public class WebStyledLabelPainter<E extends WebStyledLabel> extends
                 s = s.substring(1);
                 strWidth = fm2.stringWidth(s);
             }
-            if (horizontalAlignment == LEFT && g != null) {
+            if (horizontalAlignment == LEFT && paintedSegments != null) {
                 if (style != null && style.isSuperscript()) {
                     y -= fm.getHeight() - fm2.getHeight();
                 }
-                
-                if (style != null && style.getBackground() != null) {
-                    g.setColor(style.getBackground());
-                    g.fillRect(x, y - fm2.getHeight(), strWidth,
-                            fm2.getHeight() + 4);
-                }
-                
-                Color textColor = (style != null && !ignoreColorSettings && style
-                        .getForeground() != null) ? style.getForeground()
-                        : label.getForeground();
-                if (!label.isEnabled()) {
-                    textColor = UIManager.getColor("Label.disabledForeground");
-                }
-                g.setColor(textColor);
-                
-                if (displayMnemonic) {
-                    SwingUtils.drawStringUnderlineCharAt(g, s, mneIndex, x, y);
-                } else {
-                    SwingUtils.drawString(g, s, x, y);
-                }
-                
-                if (style != null) {
-                    if (style.isStrikeThrough()) {
-                        final int lineY = y
-                                + (fm2.getDescent() - fm2.getAscent()) / 2;
-                        g.drawLine(x, lineY, x + strWidth - 1, lineY);
-                    }
-                    if (style.isDoubleStrikeThrough()) {
-                        final int lineY = y
-                                + (fm2.getDescent() - fm2.getAscent()) / 2;
-                        g.drawLine(x, lineY - 1, x + strWidth - 1, lineY - 1);
-                        g.drawLine(x, lineY + 1, x + strWidth - 1, lineY + 1);
-                    }
-                    if (style.isUnderlined()) {
-                        final int lineY = y + 1;
-                        g.drawLine(x, lineY, x + strWidth - 1, lineY);
-                    }
-                    if (style.isWaved()) {
-                        final int waveY = y + 1;
-                        for (int waveX = x; waveX < x + strWidth; waveX += 4) {
-                            if (waveX + 2 <= x + strWidth - 1) {
-                                g.drawLine(waveX, waveY + 2, waveX + 2, waveY);
-                            }
-                            if (waveX + 4 <= x + strWidth - 1) {
-                                g.drawLine(waveX + 3, waveY + 1, waveX + 4,
-                                        waveY + 2);
-                            }
-                        }
-                    }
-                }
+                paintedSegments.add(new TextSegment(s, x, y, segmentFont, fm2,
+                        i, displayMnemonic ? mneIndex : -1, strWidth));
             }
             // end of actual painting
             
@@ -748,7 +920,8 @@ public class WebStyledLabelPainter<E extends WebStyledLabel> extends
     }
     
     /**
-     * Paints single text row.
+     * Lays out single text row and collects its segments into
+     * {@link #paintedSegments}.
      *
      * @param label
      *            painted label
@@ -774,7 +947,7 @@ public class WebStyledLabelPainter<E extends WebStyledLabel> extends
             final int leftAlignmentX, final int thisLineEndX,
             final int rightMostX, final int textY, final int startOffset,
             final int endOffset, final boolean lastRow) {
-        if (g == null) {
+        if (g == null || paintedSegments == null) {
             return;
         }
         int horizontalTextPosition = label.getHorizontalTextPosition();
@@ -840,8 +1013,7 @@ public class WebStyledLabelPainter<E extends WebStyledLabel> extends
         paintWidth = Math.min(paintWidth, rightMostX - leftAlignmentX);
         
         int mnemonicIndex = label.getDisplayedMnemonicIndex();
-        if (UIManager.getLookAndFeel() instanceof WindowsLookAndFeel
-                && WindowsLookAndFeel.isMnemonicHidden()) {
+        if (isWindowsMnemonicHidden()) {
             mnemonicIndex = -1;
         }
         
@@ -908,7 +1080,7 @@ public class WebStyledLabelPainter<E extends WebStyledLabel> extends
                 fm2 = nextFm2;
             }
             
-            g.setFont(font);
+            final Font segmentFont = font;
             
             String s = textRange.text.substring(Math.min(nextRowStartIndex,
                     textRange.text.length()));
@@ -1058,56 +1230,8 @@ public class WebStyledLabelPainter<E extends WebStyledLabel> extends
             if (style != null && style.isSuperscript()) {
                 y -= fm.getHeight() - fm2.getHeight();
             }
-            
-            if (style != null && style.getBackground() != null) {
-                g.setColor(style.getBackground());
-                g.fillRect(x, y - fm2.getHeight(), strWidth,
-                        fm2.getHeight() + 4);
-            }
-            
-            Color textColor = (style != null && !ignoreColorSettings && style
-                    .getForeground() != null) ? style.getForeground() : label
-                    .getForeground();
-            if (!label.isEnabled()) {
-                textColor = UIManager.getColor("Label.disabledForeground");
-            }
-            g.setColor(textColor);
-            
-            if (displayMnemonic) {
-                SwingUtils.drawStringUnderlineCharAt(g, s, mneIndex, x, y);
-            } else {
-                SwingUtils.drawString(g, s, x, y);
-            }
-            
-            if (style != null) {
-                if (style.isStrikeThrough()) {
-                    final int lineY = y + (fm2.getDescent() - fm2.getAscent())
-                            / 2;
-                    g.drawLine(x, lineY, x + strWidth - 1, lineY);
-                }
-                if (style.isDoubleStrikeThrough()) {
-                    final int lineY = y + (fm2.getDescent() - fm2.getAscent())
-                            / 2;
-                    g.drawLine(x, lineY - 1, x + strWidth - 1, lineY - 1);
-                    g.drawLine(x, lineY + 1, x + strWidth - 1, lineY + 1);
-                }
-                if (style.isUnderlined()) {
-                    final int lineY = y + 1;
-                    g.drawLine(x, lineY, x + strWidth - 1, lineY);
-                }
-                if (style.isWaved()) {
-                    final int waveY = y + 1;
-                    for (int waveX = x; waveX < x + strWidth; waveX += 4) {
-                        if (waveX + 2 <= x + strWidth - 1) {
-                            g.drawLine(waveX, waveY + 2, waveX + 2, waveY);
-                        }
-                        if (waveX + 4 <= x + strWidth - 1) {
-                            g.drawLine(waveX + 3, waveY + 1, waveX + 4,
-                                    waveY + 2);
-                        }
-                    }
-                }
-            }
+            paintedSegments.add(new TextSegment(s, x, y, segmentFont, fm2, i,
+                    displayMnemonic ? mneIndex : -1, strWidth));
             
             // End of actual painting
             x += strWidth;
@@ -1171,9 +1295,63 @@ public class WebStyledLabelPainter<E extends WebStyledLabel> extends
     @Override
     public Dimension getPreferredSize(final E label) {
         retrievingPreferredSize = true;
-        final Dimension ps = getPreferredSizeImpl(label);
-        retrievingPreferredSize = false;
-        return ps;
+        try {
+            // Text ranges are also used for painting, so they should be
+            // actual even if layout is taken from the cache
+            buildTextRanges(label);
+            
+            // Using cached layout if possible
+            final StyledLabelLayoutKey key = getLayoutKey(label);
+            CachedTextLayout layout = layoutCache.get(key);
+            if (layout == null) {
+                final Dimension ps = getPreferredSizeImpl(label);
+                layout = new CachedTextLayout(ps, preferredRowCount);
+                layoutCache.put(key, layout);
+            } else {
+                preferredRowCount = layout.rowCount;
+            }
+            return new Dimension(layout.size);
+        } finally {
+            retrievingPreferredSize = false;
+        }
+    }
+    
+    /**
+     * Returns key representing all settings which affect label text layout.
+     *
+     * @param label
+     *            label to retrieve layout key for
+     * @return key representing all settings which affect label text layout
+     */
+    protected StyledLabelLayoutKey getLayoutKey(final E label) {
+        return new StyledLabelLayoutKey(label.getText(),
+                StyledLabelUtils.getFont(label), label.getStyleRanges(),
+                getLayoutSettings(label), scriptFontRatio, truncatedTextSuffix);
+    }
+    
+    /**
+     * Returns label sizing and wrapping settings which affect text layout.
+     *
+     * @param label
+     *            label to retrieve settings for
+     * @return label sizing and wrapping settings which affect text layout
+     */
+    protected int[] getLayoutSettings(final E label) {
+        final Insets insets = label.getInsets();
+        final Icon icon = label.getIcon();
+        return new int[] { label.isLineWrap() ? 1 : 0,
+                label.getPreferredWidth(), label.getRows(),
+                label.getRowGap(), label.getMaximumRows(),
+                label.getMinimumRows(), label.getWidth(), label.getHeight(),
+                insets != null ? insets.top : 0,
+                insets != null ? insets.left : 0,
+                insets != null ? insets.bottom : 0,
+                insets != null ? insets.right : 0,
+                icon != null ? icon.getIconWidth() : -1,
+                icon != null ? icon.getIconHeight() : -1,
+                label.getIconTextGap(), label.getHorizontalTextPosition(),
+                label.getHorizontalAlignment(),
+                label.getComponentOrientation().isLeftToRight() ? 1 : 0 };
     }
     
     /**
@@ -1184,7 +1362,7 @@ public class WebStyledLabelPainter<E extends WebStyledLabel> extends
      * @return label preferred size
      */
     protected Dimension getPreferredSizeImpl(final E label) {
-        StyledLabelUtils.buildTextRanges(label, textRanges);
+        buildTextRanges(label);
         
         Font font = StyledLabelUtils.getFont(label);
         final FontMetrics fm = label.getFontMetrics(font);
@@ -1612,24 +1790,16 @@ public class WebStyledLabelPainter<E extends WebStyledLabel> extends
         return x;
     }
     
-    /**
-     * Derived fonts cache map.
-     */
-    private static final Map<DerivedFontAttributes, Font> derivedFontsCache = new SoftHashMap<DerivedFontAttributes, Font>();
-    
     /**
      * Clears derived fonts cache.
      */
     public static void clearDerivedFontsCache() {
-        if (derivedFontsCache != null) {
-            derivedFontsCache.clear();
-        }
+        FontUtils.clearDerivedFontsCache();
     }
     
     /**
-     * Get derived font by font, style and size. At first it will get the
-     * derived font from cache. If it cannot hit the derived font, it will
-     * invoke font.deriveFont to derive a font.
+     * Get derived font by font, style and size. Fonts are taken from the
+     * derived fonts cache shared by all painters.
      *
      * @param font
      *            original font
@@ -1641,29 +1811,136 @@ public class WebStyledLabelPainter<E extends WebStyledLabel> extends
      */
     public static Font getCachedDerivedFont(final Font font, final int style,
             final int size) {
-        final DerivedFontAttributes attribute = getFontAttribute(font, style,
-                size);
-        Font derivedFont = derivedFontsCache.get(attribute);
-        if (derivedFont == null) {
-            derivedFont = font.deriveFont(style, size);
-            derivedFontsCache.put(attribute, derivedFont);
+        return FontUtils.getDerivedFont(font, style, size);
+    }
+    
+    /**
+     * Single styled text segment laid out for painting.
+     */
+    protected static class TextSegment {
+        /**
+         * Segment text.
+         */
+        protected final String text;
+        
+        /**
+         * Segment text coordinates.
+         */
+        protected final int x;
+        protected final int y;
+        
+        /**
+         * Segment font and its metrics.
+         */
+        protected final Font font;
+        protected final FontMetrics fontMetrics;
+        
+        /**
+         * Index of the text range segment belongs to.
+         */
+        protected final int range;
+        
+        /**
+         * Index of the underlined mnemonic character, -1 if there is none.
+         */
+        protected final int mnemonicIndex;
+        
+        /**
+         * Segment text width.
+         */
+        protected final int width;
+        
+        /**
+         * Constructs new text segment.
+         *
+         * @param text
+         *            segment text
+         * @param x
+         *            segment text X coordinate
+         * @param y
+         *            segment text Y coordinate
+         * @param font
+         *            segment font
+         * @param fontMetrics
+         *            segment font metrics
+         * @param range
+         *            index of the text range segment belongs to
+         * @param mnemonicIndex
+         *            index of the underlined mnemonic character
+         * @param width
+         *            segment text width
+         */
+        public TextSegment(final String text, final int x, final int y,
+                final Font font, final FontMetrics fontMetrics,
+                final int range, final int mnemonicIndex, final int width) {
+            super();
+            this.text = text;
+            this.x = x;
+            this.y = y;
+            this.font = font;
+            this.fontMetrics = fontMetrics;
+            this.range = range;
+            this.mnemonicIndex = mnemonicIndex;
+            this.width = width;
         }
-        return derivedFont;
     }
     
     /**
-     * Returns derived font attributes object.
-     *
-     * @param font
-     *            original font
-     * @param style
-     *            new font style
-     * @param size
-     *            new font size
-     * @return font attributes object
+     * Cached text segments.
      */
-    protected static DerivedFontAttributes getFontAttribute(final Font font,
-            final int style, final int size) {
-        return new DerivedFontAttributes(font, style, size);
+    protected static class CachedTextSegments {
+        /**
+         * Text segments in painting order.
+         */
+        protected final List<TextSegment> segments;
+        
+        /**
+         * Whether text is truncated or not.
+         */
+        protected final boolean truncated;
+        
+        /**
+         * Constructs new cached text segments.
+         *
+         * @param segments
+         *            text segments in painting order
+         * @param truncated
+         *            whether text is truncated or not
+         */
+        public CachedTextSegments(final List<TextSegment> segments,
+                final boolean truncated) {
+            super();
+            this.segments = segments;
+            this.truncated = truncated;
+        }
+    }
+    
+    /**
+     * Cached text layout.
+     */
+    protected static class CachedTextLayout {
+        /**
+         * Text preferred size.
+         */
+        protected final Dimension size;
+        
+        /**
+         * Text rows count.
+         */
+        protected final int rowCount;
+        
+        /**
+         * Constructs new cached text layout.
+         *
+         * @param size
+         *            text preferred size
+         * @param rowCount
+         *            text rows count
+         */
+        public CachedTextLayout(final Dimension size, final int rowCount) {
+            super();
+            this.size = new Dimension(size);
+            this.rowCount = rowCount;
+        }
     }
-}
\ No newline at end of file
+}
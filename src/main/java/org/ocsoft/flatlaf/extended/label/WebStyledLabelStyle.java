@@ -50,4 +50,9 @@ public final class WebStyledLabelStyle {
      * Truncated text suffix.
      */
     public static String truncatedTextSuffix = "...";
+    
+    /**
+     * Maximum amount of cached text layouts per label painter.
+     */
+    public static int layoutCacheSize = 128;
 }
\ No newline at end of file
@@ -18,11 +18,20 @@
 package org.ocsoft.flatlaf.extended.list;
 
 import java.io.File;
+import java.io.FileFilter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import org.ocsoft.flatlaf.utils.DaemonThreadFactory;
+import org.ocsoft.flatlaf.utils.SwingUtils;
+import org.ocsoft.flatlaf.utils.file.FileChunkListener;
+import org.ocsoft.flatlaf.utils.file.FileUtils;
 import org.ocsoft.flatlaf.weblaf.list.WebListModel;
 
 /**
@@ -32,6 +41,11 @@ import org.ocsoft.flatlaf.weblaf.list.WebListModel;
  */
 
 public class FileListModel extends WebListModel<FileElement> {
+    /**
+     * Executor listing directories in background.
+     */
+    private static ExecutorService listingExecutor = null;
+    
     /**
      * File elements cache lock.
      */
@@ -42,6 +56,12 @@ public class FileListModel extends WebListModel<FileElement> {
      */
     private Map<String, FileElement> elementsCache = new HashMap<String, FileElement>();
     
+    /**
+     * Current background listing number.
+     * Chunks of the listings which were replaced by newer data are dropped.
+     */
+    private volatile int listingId = 0;
+    
     /**
      * Constructs empty file list model.
      */
@@ -98,6 +118,9 @@ public class FileListModel extends WebListModel<FileElement> {
      * Clears file elements cache.
      */
     private void clearCache() {
+        // Dropping chunks of the current background listing
+        listingId++;
+        
         synchronized (elementsCacheLock) {
             for (Map.Entry<String, FileElement> entry : elementsCache
                     .entrySet()) {
@@ -180,6 +203,128 @@ public class FileListModel extends WebListModel<FileElement> {
         setElements(toElementsList(data));
     }
     
+    /**
+     * Appends specified files to the list data.
+     *
+     * @param data
+     *            files list
+     */
+    public void addData(List<File> data) {
+        addElements(toElementsList(data));
+    }
+    
+    /**
+     * Clears list data and fills it with files from the specified directory
+     * chunk by chunk. Directory is listed on a background thread and each
+     * chunk is added on the EDT using single list event, so large directories
+     * neither block the EDT nor cause an event per file.
+     *
+     * @param directory
+     *            directory to process
+     * @param fileFilter
+     *            file filter, might be null
+     * @param chunkSize
+     *            maximum amount of files added at once
+     */
+    public void setData(File directory, FileFilter fileFilter, int chunkSize) {
+        setData(directory, fileFilter, chunkSize, null);
+    }
+    
+    /**
+     * Clears list data and fills it with files from the specified directory
+     * chunk by chunk. Directory is listed on a background thread and each
+     * chunk is added on the EDT using single list event, so large directories
+     * neither block the EDT nor cause an event per file.
+     * <p/>
+     * This method should be called from the EDT.
+     *
+     * @param directory
+     *            directory to process
+     * @param fileFilter
+     *            file filter, might be null
+     * @param chunkSize
+     *            maximum amount of files added at once
+     * @param onComplete
+     *            action performed on the EDT once all files are added, it is
+     *            not performed if list data was replaced before that
+     */
+    public void setData(final File directory, final FileFilter fileFilter,
+            final int chunkSize, final Runnable onComplete) {
+        clearCache();
+        setElements(new ArrayList<FileElement>(0));
+        
+        final int id = listingId;
+        if (directory == null) {
+            if (onComplete != null) {
+                onComplete.run();
+            }
+            return;
+        }
+        getListingExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                if (listingId != id) {
+                    return;
+                }
+                FileUtils.listFiles(directory, fileFilter, chunkSize,
+                        new FileChunkListener() {
+                            @Override
+                            public void filesListed(final List<File> files) {
+                                if (listingId == id) {
+                                    SwingUtils.invokeLater(new Runnable() {
+                                        @Override
+                                        public void run() {
+                                            if (listingId == id) {
+                                                addData(files);
+                                            }
+                                        }
+                                    });
+                                }
+                            }
+                        });
+                SwingUtils.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (listingId == id && onComplete != null) {
+                            onComplete.run();
+                        }
+                    }
+                });
+            }
+        });
+    }
+    
+    /**
+     * Sorts list data using the specified files comparator.
+     *
+     * @param comparator
+     *            files comparator
+     */
+    public void sortData(final Comparator<File> comparator) {
+        final List<FileElement> elements = new ArrayList<FileElement>(
+                getElements());
+        Collections.sort(elements, new Comparator<FileElement>() {
+            @Override
+            public int compare(final FileElement e1, final FileElement e2) {
+                return comparator.compare(e1.getFile(), e2.getFile());
+            }
+        });
+        setElements(elements);
+    }
+    
+    /**
+     * Returns executor listing directories in background.
+     *
+     * @return executor listing directories in background
+     */
+    private static synchronized ExecutorService getListingExecutor() {
+        if (listingExecutor == null) {
+            listingExecutor = Executors
+                    .newCachedThreadPool(new DaemonThreadFactory());
+        }
+        return listingExecutor;
+    }
+    
     /**
      * Returns files under the specified directory.
      *
@@ -189,7 +334,7 @@ public class FileListModel extends WebListModel<FileElement> {
      */
     protected File[] getData(File directory) {
         if (directory != null) {
-            return directory.listFiles();
+            return FileUtils.listFiles(directory, (FileFilter) null);
         } else {
             return new File[0];
         }
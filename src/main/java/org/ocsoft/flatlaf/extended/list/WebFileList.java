@@ -29,6 +29,7 @@ import javax.swing.JList;
 import javax.swing.JScrollBar;
 import javax.swing.ListCellRenderer;
 
+import org.ocsoft.flatlaf.utils.file.FileComparator;
 import org.ocsoft.flatlaf.utils.file.FileUtils;
 import org.ocsoft.flatlaf.weblaf.list.WebList;
 import org.ocsoft.flatlaf.weblaf.list.editor.ListCellEditor;
@@ -72,6 +73,22 @@ public class WebFileList extends WebList {
      */
     protected File displayedDirectory = null;
     
+    /**
+     * Whether displayed directory files are being listed or not.
+     */
+    protected boolean listing = false;
+    
+    /**
+     * Files requested to be selected while displayed directory files are being
+     * listed, selected once listing is complete.
+     */
+    protected List<File> pendingSelection = null;
+    
+    /**
+     * Whether list should be scrolled to pending selection or not.
+     */
+    protected boolean pendingScroll = false;
+    
     /**
      * Scroll pane with fixed preferred size that fits file list settings.
      */
@@ -304,19 +321,70 @@ public class WebFileList extends WebList {
         
         // Saving selection to restore later
         final List<File> oldSelection = getSelectedFiles();
+        final boolean sameDirectory = FileUtils.equals(displayedDirectory,
+                file);
         
-        // Getting files and updating list model
-        final File[] files = file != null ? FileUtils.sortFiles(file
-                .listFiles(fileFilter)) : FileUtils.getDiskRoots();
-        getFileListModel().setData(files);
+        // Saving new displayed directory
+        this.displayedDirectory = file;
         
-        // Restoring selection if its same folder
-        if (FileUtils.equals(displayedDirectory, file)) {
-            setSelectedFiles(oldSelection);
+        if (file != null) {
+            // Listing directory files in background
+            // Selection restore is postponed until all files are listed
+            listing = true;
+            pendingSelection = sameDirectory ? oldSelection : null;
+            pendingScroll = false;
+            getFileListModel().setData(file, fileFilter,
+                    WebFileListStyle.listingChunkSize, new Runnable() {
+                        @Override
+                        public void run() {
+                            listingCompleted();
+                        }
+                    });
+        } else {
+            // Disk roots are listed at once
+            listing = false;
+            pendingSelection = null;
+            getFileListModel().setData(
+                    FileUtils.sortFiles(FileUtils.getDiskRoots()));
+            if (sameDirectory) {
+                setSelectedFiles(oldSelection);
+            }
         }
+    }
+    
+    /**
+     * Sorts listed files and restores selection once displayed directory
+     * files are listed.
+     */
+    protected void listingCompleted() {
+        // Selection made while files were being listed is kept unless
+        // specific files were requested to be selected
+        final List<File> selection = pendingSelection != null ? pendingSelection
+                : getSelectedFiles();
+        final boolean scroll = pendingScroll;
+        listing = false;
+        pendingSelection = null;
+        pendingScroll = false;
         
-        // Saving new displayed directory
-        this.displayedDirectory = file;
+        // Sorting all listed files
+        getFileListModel().sortData(FileComparator.getInstance());
+        
+        // Restoring selection
+        if (selection.size() == 1) {
+            setSelectedFile(selection.get(0), scroll);
+        } else {
+            setSelectedFiles(selection);
+        }
+    }
+    
+    /**
+     * Returns whether displayed directory files are being listed or not.
+     *
+     * @return true if displayed directory files are being listed, false
+     *         otherwise
+     */
+    public boolean isListing() {
+        return listing;
     }
     
     /**
@@ -364,6 +432,15 @@ public class WebFileList extends WebList {
      *            whether to scroll to selected file or not
      */
     public void setSelectedFile(final File file, final boolean shouldScroll) {
+        // Selecting file once it is listed
+        if (listing) {
+            pendingSelection = new ArrayList<File>(1);
+            if (file != null) {
+                pendingSelection.add(file);
+            }
+            pendingScroll = shouldScroll;
+        }
+        
         final FileElement element = getFileListModel().getElement(file);
         if (element != null) {
             setSelectedValue(element, shouldScroll);
@@ -379,6 +456,12 @@ public class WebFileList extends WebList {
      *            files to select
      */
     public void setSelectedFiles(final Collection<File> files) {
+        // Selecting files once they are listed
+        if (listing) {
+            pendingSelection = new ArrayList<File>(files);
+            pendingScroll = false;
+        }
+        
         final List<FileElement> elements = new ArrayList<FileElement>(
                 files.size());
         for (final File file : files) {
@@ -413,6 +496,11 @@ public class WebFileList extends WebList {
      */
     public WebScrollPane createScrollView() {
         return new WebScrollPane(WebFileList.this) {
+            /**
+             * Serialization version.
+             */
+            private static final long serialVersionUID = -4871203561542874630L;
+            
             @Override
             public Dimension getPreferredSize() {
                 final Dimension ps = super.getPreferredSize();
@@ -28,8 +28,11 @@ import java.awt.Rectangle;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.File;
+import java.util.Iterator;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.swing.ImageIcon;
 import javax.swing.JLabel;
@@ -38,6 +41,7 @@ import javax.swing.JList;
 import org.ocsoft.flatlaf.core.constants.FlatLafConstants;
 import org.ocsoft.flatlaf.extended.layout.AbstractLayoutManager;
 import org.ocsoft.flatlaf.utils.DaemonThreadFactory;
+import org.ocsoft.flatlaf.utils.FontUtils;
 import org.ocsoft.flatlaf.utils.ImageUtils;
 import org.ocsoft.flatlaf.utils.file.FileDescription;
 import org.ocsoft.flatlaf.utils.file.FileUtils;
@@ -109,11 +113,30 @@ public class WebFileListCellRenderer extends WebListCellRenderer {
      */
     protected final Object thumbnailsLock = new Object();
     
+    /**
+     * Thread pool for thumbnails generation.
+     * Its queue runs the most recently requested thumbnails first since those
+     * are the ones for currently visible cells.
+     */
+    private final ThreadPoolExecutor thumbnailsExecutor = createExecutorService(
+            WebFileListStyle.thumbnailThreads);
+    
     /**
      * Executor service for thumbnails generation.
      */
-    protected ExecutorService executorService = Executors
-            .newSingleThreadExecutor(new DaemonThreadFactory());
+    protected ExecutorService executorService = thumbnailsExecutor;
+    
+    /**
+     * Thumbnail requests counter used to order queued thumbnails.
+     */
+    protected long thumbnailsCounter = 0;
+    
+    /**
+     * Last known visible cells range.
+     * Thumbnails for cells outside of this range are cancelled.
+     */
+    protected volatile int firstVisibleIndex = -1;
+    protected volatile int lastVisibleIndex = -1;
     
     /**
      * Constructs cell renderer for the specified file list.
@@ -131,17 +154,19 @@ public class WebFileListCellRenderer extends WebListCellRenderer {
         iconLabel.setPreferredSize(new Dimension(imageSide, imageSide));
         
         nameLabel = new WebLabel();
-        nameLabel.setFont(nameLabel.getFont().deriveFont(Font.PLAIN));
+        nameLabel.setFont(FontUtils.getDerivedFont(nameLabel.getFont(),
+                Font.PLAIN));
         nameLabel.setForeground(Color.BLACK);
         nameLabel.setVerticalAlignment(JLabel.CENTER);
         
         descriptionLabel = new WebLabel(WebLabel.LEADING);
-        descriptionLabel.setFont(descriptionLabel.getFont().deriveFont(
-                Font.PLAIN));
+        descriptionLabel.setFont(FontUtils.getDerivedFont(
+                descriptionLabel.getFont(), Font.PLAIN));
         descriptionLabel.setForeground(Color.GRAY);
         
         sizeLabel = new WebLabel(WebLabel.LEADING);
-        sizeLabel.setFont(sizeLabel.getFont().deriveFont(Font.PLAIN));
+        sizeLabel.setFont(FontUtils.getDerivedFont(sizeLabel.getFont(),
+                Font.PLAIN));
         sizeLabel.setForeground(new Color(49, 77, 179));
         
         setLayout(new FileCellLayout());
@@ -266,6 +291,10 @@ public class WebFileListCellRenderer extends WebListCellRenderer {
         // Proper margin
         setMargin(isTilesView() ? tileCellMargin : iconCellMargin);
         
+        // Cancelling thumbnails for cells which are not visible anymore
+        updateVisibleRange(list.getFirstVisibleIndex(),
+                list.getLastVisibleIndex());
+        
         // Renderer icon
         String imageSize = null;
         if (iconLabel.isEnabled()) {
@@ -273,7 +302,7 @@ public class WebFileListCellRenderer extends WebListCellRenderer {
             synchronized (thumbnailsLock) {
                 if (!element.isThumbnailQueued()
                         && !element.isDisabledThumbnailQueued()) {
-                    queueThumbnailLoad(element, false);
+                    queueThumbnailLoad(element, false, index);
                 }
             }
             
@@ -289,7 +318,7 @@ public class WebFileListCellRenderer extends WebListCellRenderer {
             // Disabled thumbnail loading
             synchronized (thumbnailsLock) {
                 if (!element.isDisabledThumbnailQueued()) {
-                    queueThumbnailLoad(element, true);
+                    queueThumbnailLoad(element, true, index);
                 }
             }
             
@@ -336,58 +365,259 @@ public class WebFileListCellRenderer extends WebListCellRenderer {
         return fileList.getFileListViewType().equals(FileListViewType.tiles);
     }
     
+    /**
+     * Returns new executor service for thumbnails generation.
+     *
+     * @param threads
+     *            amount of thumbnail generation threads
+     * @return new executor service for thumbnails generation
+     */
+    protected ThreadPoolExecutor createExecutorService(final int threads) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads,
+                threads, 10, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>(),
+                new DaemonThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    /**
+     * Returns amount of threads used to generate thumbnails.
+     *
+     * @return amount of threads used to generate thumbnails
+     */
+    public int getThumbnailThreads() {
+        return thumbnailsExecutor.getMaximumPoolSize();
+    }
+    
+    /**
+     * Sets amount of threads used to generate thumbnails.
+     *
+     * @param threads
+     *            amount of threads used to generate thumbnails
+     */
+    public void setThumbnailThreads(final int threads) {
+        final int amount = Math.max(1, threads);
+        if (amount > thumbnailsExecutor.getMaximumPoolSize()) {
+            thumbnailsExecutor.setMaximumPoolSize(amount);
+            thumbnailsExecutor.setCorePoolSize(amount);
+        } else {
+            thumbnailsExecutor.setCorePoolSize(amount);
+            thumbnailsExecutor.setMaximumPoolSize(amount);
+        }
+    }
+    
+    /**
+     * Returns amount of thumbnails waiting to be generated.
+     *
+     * @return amount of thumbnails waiting to be generated
+     */
+    public int getThumbnailsQueueSize() {
+        return thumbnailsExecutor.getQueue().size();
+    }
+    
+    /**
+     * Updates visible cells range and cancels queued thumbnails for cells
+     * which are not visible anymore.
+     *
+     * @param first
+     *            first visible cell index
+     * @param last
+     *            last visible cell index
+     */
+    protected void updateVisibleRange(final int first, final int last) {
+        if (first != firstVisibleIndex || last != lastVisibleIndex) {
+            firstVisibleIndex = first;
+            lastVisibleIndex = last;
+            cancelInvisibleThumbnails();
+        }
+    }
+    
+    /**
+     * Cancels queued thumbnails for cells which are not visible anymore.
+     * Cancelled cells will queue their thumbnails again when rendered.
+     */
+    public void cancelInvisibleThumbnails() {
+        final Iterator<Runnable> iterator = thumbnailsExecutor.getQueue()
+                .iterator();
+        while (iterator.hasNext()) {
+            final Runnable runnable = iterator.next();
+            if (runnable instanceof ThumbnailTask) {
+                final ThumbnailTask task = (ThumbnailTask) runnable;
+                if (!isVisible(task.index) && thumbnailsExecutor.remove(task)) {
+                    task.cancel();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Returns whether cell at the specified index is within last known
+     * visible cells range or not.
+     *
+     * @param index
+     *            cell index
+     * @return true if cell at the specified index is within last known visible
+     *         cells range, false otherwise
+     */
+    protected boolean isVisible(final int index) {
+        final int first = firstVisibleIndex;
+        return first == -1 || first <= index && index <= lastVisibleIndex;
+    }
+    
     /**
      * Adds specified element into thumbnails queue.
      *
      * @param element
      *            element to add
+     * @param disabled
+     *            whether disabled thumbnail is required or not
      */
     protected void queueThumbnailLoad(final FileElement element,
             final boolean disabled) {
+        queueThumbnailLoad(element, disabled, -1);
+    }
+    
+    /**
+     * Adds specified element into thumbnails queue.
+     *
+     * @param element
+     *            element to add
+     * @param disabled
+     *            whether disabled thumbnail is required or not
+     * @param index
+     *            element cell index, -1 if it is unknown
+     */
+    protected void queueThumbnailLoad(final FileElement element,
+            final boolean disabled, final int index) {
         element.setThumbnailQueued(true);
         element.setDisabledThumbnailQueued(disabled);
-        
-        executorService.submit(new Runnable() {
-            @Override
-            public void run() {
-                final String absolutePath = element.getFile().getAbsolutePath();
-                final String ext = FileUtils.getFileExtPart(
-                        element.getFile().getName(), false).toLowerCase();
-                if (fileList.isGenerateThumbnails()
-                        && FlatLafConstants.IMAGE_FORMATS.contains(ext)) {
-                    final ImageIcon thumb = element.getEnabledThumbnail() != null ? element
-                            .getEnabledThumbnail() : ImageUtils
+        executorService.execute(new ThumbnailTask(element, disabled, index,
+                thumbnailsCounter++));
+    }
+    
+    /**
+     * Generates thumbnail for the specified element.
+     *
+     * @param element
+     *            element to generate thumbnail for
+     * @param disabled
+     *            whether disabled thumbnail is required or not
+     */
+    protected void loadThumbnail(final FileElement element,
+            final boolean disabled) {
+        final String absolutePath = element.getFile().getAbsolutePath();
+        final String ext = FileUtils.getFileExtPart(
+                element.getFile().getName(), false).toLowerCase();
+        if (fileList.isGenerateThumbnails()
+                && FlatLafConstants.IMAGE_FORMATS.contains(ext)) {
+            final ImageIcon thumb = element.getEnabledThumbnail() != null ?
+                    element.getEnabledThumbnail() : ImageUtils
                             .createThumbnailIcon(absolutePath, thumbSize);
-                    if (thumb != null) {
-                        element.setEnabledThumbnail(thumb);
-                        if (disabled) {
-                            element.setDisabledThumbnail(ImageUtils
-                                    .createDisabledCopy(thumb));
-                        }
-                    } else {
-                        element.setEnabledThumbnail(FileUtils
-                                .getStandartFileIcon(element.getFile(), true,
-                                        true));
-                        if (disabled) {
-                            element.setDisabledThumbnail(FileUtils
-                                    .getStandartFileIcon(element.getFile(),
-                                            true, false));
-                        }
-                    }
-                } else {
-                    element.setEnabledThumbnail(FileUtils.getStandartFileIcon(
-                            element.getFile(), true, true));
-                    if (disabled) {
-                        element.setDisabledThumbnail(FileUtils
-                                .getStandartFileIcon(element.getFile(), true,
-                                        false));
-                    }
+            if (thumb != null) {
+                element.setEnabledThumbnail(thumb);
+                if (disabled) {
+                    element.setDisabledThumbnail(ImageUtils
+                            .createDisabledCopy(thumb));
                 }
-                if (disabled != fileList.isEnabled()) {
-                    fileList.repaint(element);
+            } else {
+                element.setEnabledThumbnail(FileUtils.getStandartFileIcon(
+                        element.getFile(), true, true));
+                if (disabled) {
+                    element.setDisabledThumbnail(FileUtils.getStandartFileIcon(
+                            element.getFile(), true, false));
                 }
             }
-        });
+        } else {
+            element.setEnabledThumbnail(FileUtils.getStandartFileIcon(
+                    element.getFile(), true, true));
+            if (disabled) {
+                element.setDisabledThumbnail(FileUtils.getStandartFileIcon(
+                        element.getFile(), true, false));
+            }
+        }
+        if (disabled != fileList.isEnabled()) {
+            fileList.repaint(element);
+        }
+    }
+    
+    /**
+     * Thumbnail generation task.
+     * Most recently queued tasks are executed first.
+     */
+    protected class ThumbnailTask implements Runnable,
+            Comparable<ThumbnailTask> {
+        /**
+         * Element to generate thumbnail for.
+         */
+        protected final FileElement element;
+        
+        /**
+         * Whether disabled thumbnail is required or not.
+         */
+        protected final boolean disabled;
+        
+        /**
+         * Element cell index at the moment task was queued.
+         */
+        protected final int index;
+        
+        /**
+         * Task order number.
+         */
+        protected final long order;
+        
+        /**
+         * Constructs new thumbnail generation task.
+         *
+         * @param element
+         *            element to generate thumbnail for
+         * @param disabled
+         *            whether disabled thumbnail is required or not
+         * @param index
+         *            element cell index, -1 if it is unknown
+         * @param order
+         *            task order number
+         */
+        public ThumbnailTask(final FileElement element, final boolean disabled,
+                final int index, final long order) {
+            super();
+            this.element = element;
+            this.disabled = disabled;
+            this.index = index;
+            this.order = order;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+            if (index != -1 && !isVisible(index)) {
+                cancel();
+            } else {
+                loadThumbnail(element, disabled);
+            }
+        }
+        
+        /**
+         * Resets element queued marks so that thumbnail will be queued again
+         * next time cell is rendered.
+         */
+        protected void cancel() {
+            synchronized (thumbnailsLock) {
+                element.setThumbnailQueued(false);
+                element.setDisabledThumbnailQueued(false);
+            }
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int compareTo(final ThumbnailTask task) {
+            return order > task.order ? -1 : order < task.order ? 1 : 0;
+        }
     }
     
     /**
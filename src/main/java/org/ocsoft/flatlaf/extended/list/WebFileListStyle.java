@@ -33,6 +33,12 @@ public final class WebFileListStyle {
      */
     public static boolean generateThumbnails = true;
     
+    /**
+     * Amount of threads used to generate image file thumbnails.
+     */
+    public static int thumbnailThreads = Math.max(1, Runtime.getRuntime()
+            .availableProcessors() - 1);
+    
     /**
      * Preferred visible column count.
      */
@@ -52,4 +58,10 @@ public final class WebFileListStyle {
      * File filter.
      */
     public static AbstractFileFilter fileFilter = FlatLafFileFilters.NON_HIDDEN_ONLY_FILTER;
+    
+    /**
+     * Maximum amount of files added into the list at once while directory is
+     * being listed.
+     */
+    public static int listingChunkSize = 500;
 }
\ No newline at end of file
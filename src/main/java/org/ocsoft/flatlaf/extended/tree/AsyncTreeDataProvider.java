@@ -47,6 +47,9 @@ public interface AsyncTreeDataProvider<E extends AsyncUniqueNode> {
      * them, simply inform the listener about that. This request uses a separate
      * thread and might take a lot of time to process without having any UI
      * issues.
+     * <p/>
+     * Large amounts of childs can be passed in chunks if the listener is a
+     * {@link ChildsChunkListener}, tree will display them as they arrive.
      *
      * @param node
      *            parent node
@@ -22,8 +22,10 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 import javax.swing.ImageIcon;
 import javax.swing.tree.MutableTreeNode;
@@ -33,6 +35,7 @@ import org.ocsoft.flatlaf.utils.SwingUtils;
 import org.ocsoft.flatlaf.utils.collection.CollectionUtils;
 import org.ocsoft.flatlaf.utils.general.Filter;
 import org.ocsoft.flatlaf.utils.general.MapUtils;
+import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
 import org.ocsoft.flatlaf.weblaf.tree.AsyncUniqueNode;
 import org.ocsoft.flatlaf.weblaf.tree.TreeState;
 import org.ocsoft.flatlaf.weblaf.tree.WebTreeModel;
@@ -110,12 +113,56 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E> {
      */
     protected final Map<String, List<E>> rawNodeChildsCache = new HashMap<String, List<E>>();
     
+    /**
+     * Childs chunks waiting to be inserted into the tree (parent ID -> list of
+     * filtered and sorted childs). Chunks which arrive while previous ones are
+     * still waiting for EDT are inserted together.
+     */
+    protected final Map<String, List<E>> pendingChunks = new HashMap<String, List<E>>();
+    
     /**
      * Direct nodes cache (node ID -> node). Used for quick node search within
      * the tree.
      */
     protected final DoubleMap<String, E> nodeById = new DoubleMap<String, E>();
     
+    /**
+     * Whether recursive sorting and filtering updates are performed outside of
+     * the event dispatch thread or not.
+     */
+    protected boolean asyncSorting = true;
+    
+    /**
+     * Currently running sorting and filtering tasks.
+     */
+    protected final List<SortingAndFilteringTask<E>> sortingTasks = new ArrayList<SortingAndFilteringTask<E>>();
+    
+    /**
+     * Raw childs structure stamp. It is changed each time raw childs are
+     * changed so that sorting and filtering results computed for older childs
+     * are never applied. Chunked load changes it only once when the whole load
+     * is finished, so running tasks are not restarted on each chunk.
+     */
+    protected volatile int sortingStamp = 0;
+    
+    /**
+     * Raw childs source for sorting and filtering tasks.
+     */
+    protected final SortingAndFilteringSource<E> sortingSource = new SortingAndFilteringSource<E>() {
+        @Override
+        public List<E> getRawChilds(final E parent) {
+            synchronized (cacheLock) {
+                final List<E> childs = rawNodeChildsCache.get(parent.getId());
+                return childs != null ? CollectionUtils.copy(childs) : null;
+            }
+        }
+        
+        @Override
+        public List<E> filterAndSort(final E parent, final List<E> childs) {
+            return AsyncTreeModel.this.filterAndSort(parent, childs);
+        }
+    };
+    
     /**
      * Lock object for busy state changes.
      */
@@ -184,6 +231,29 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E> {
         return dataProvider;
     }
     
+    /**
+     * Returns whether recursive sorting and filtering updates are performed
+     * outside of the event dispatch thread or not.
+     *
+     * @return true if recursive sorting and filtering updates are performed
+     *         outside of the event dispatch thread, false otherwise
+     */
+    public boolean isAsyncSorting() {
+        return asyncSorting;
+    }
+    
+    /**
+     * Sets whether recursive sorting and filtering updates should be performed
+     * outside of the event dispatch thread or not.
+     *
+     * @param asyncSorting
+     *            whether recursive sorting and filtering updates should be
+     *            performed outside of the event dispatch thread or not
+     */
+    public void setAsyncSorting(final boolean asyncSorting) {
+        this.asyncSorting = asyncSorting;
+    }
+    
     /**
      * Returns tree root node.
      *
@@ -228,7 +298,8 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E> {
         final E node = (E) parent;
         if (isLeaf(node)) {
             return 0;
-        } else if (areChildsLoaded(node)) {
+        } else if (areChildsLoaded(node) || node.isLoading()) {
+            // Loading node might already contain some childs chunks
             return super.getChildCount(parent);
         } else {
             return loadChildsCount(node);
@@ -247,7 +318,7 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E> {
     @Override
     public E getChild(final Object parent, final int index) {
         final E node = (E) parent;
-        if (areChildsLoaded(node)) {
+        if (areChildsLoaded(node) || node.isLoading()) {
             return (E) super.getChild(parent, index);
         } else {
             return null;
@@ -307,6 +378,7 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E> {
             
             // Clears node raw childs cache
             final List<E> childs = rawNodeChildsCache.remove(node.getId());
+            sortingStamp++;
             
             // Clears chld nodes cache
             if (childs != null) {
@@ -375,6 +447,43 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E> {
         }
     }
     
+    /**
+     * Cancels pending childs loads for the specified node and all of its
+     * child nodes. Nodes which loads were cancelled return to waiting state
+     * and will load their childs again when requested. Childs load failed
+     * event with {@link java.util.concurrent.CancellationException} cause is
+     * fired for each of those nodes. This method should be called from EDT.
+     *
+     * @param node
+     *            node to cancel childs loads for
+     */
+    public void cancelChildsLoad(final E node) {
+        for (final AsyncUniqueNode cancelled : AsyncTreeQueue.cancel(tree, node)) {
+            synchronized (busyLock) {
+                cancelled.setState(AsyncNodeState.waiting);
+                nodeChanged(cancelled);
+            }
+            
+            // Informing listeners waiting for the load
+            final E parent = findNode(cancelled.getId());
+            if (parent != null) {
+                fireChildsLoadFailed(parent, new CancellationException(
+                        "Childs load was cancelled"));
+            }
+        }
+    }
+    
+    /**
+     * Moves pending childs load for the specified node ahead of other pending
+     * loads of this tree.
+     *
+     * @param node
+     *            node to prioritize childs load for
+     */
+    public void prioritizeChildsLoad(final E node) {
+        AsyncTreeQueue.prioritize(tree, node);
+    }
+    
     /**
      * Loads (or reloads) node childs and returns zero or childs count if async
      * mode is off. This is base method that uses installed
@@ -423,13 +532,38 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E> {
             // Executing childs load in a separate thread to avoid locking EDT
             // This queue will also take care of amount of threads to execute
             // async trees requests
-            AsyncTreeQueue.execute(tree, new Runnable() {
+            AsyncTreeQueue.execute(tree, parent, new Runnable() {
                 @Override
                 public void run() {
                     // Loading childs
-                    dataProvider.loadChilds(parent, new ChildsListener<E>() {
+                    dataProvider.loadChilds(parent, new ChildsChunkListener<E>() {
+                        /**
+                         * Raw childs cached for this load, null until childs
+                         * are passed in chunks. It also identifies this load
+                         * since cache is cleared when node is reloaded.
+                         */
+                        private volatile List<E> rawChilds = null;
+                        
+                        @Override
+                        public void childsChunkLoaded(final List<E> childs) {
+                            if (rawChilds == null) {
+                                rawChilds = new ArrayList<E>();
+                                synchronized (cacheLock) {
+                                    rawNodeChildsCache.put(parent.getId(),
+                                            rawChilds);
+                                }
+                            }
+                            queueChildsChunk(parent, rawChilds, childs);
+                        }
+                        
                         @Override
                         public void childsLoadCompleted(final List<E> childs) {
+                            // Finishing chunked load
+                            if (rawChilds != null) {
+                                completeChunkedLoad(parent, rawChilds, childs);
+                                return;
+                            }
+                            
                             // Caching raw childs
                             synchronized (cacheLock) {
                                 rawNodeChildsCache.put(parent.getId(), childs);
@@ -473,16 +607,35 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E> {
                         @Override
                         public void childsLoadFailed(final Throwable cause) {
                             // Caching childs
+                            // Childs which were already passed in chunks are
+                            // kept
+                            final boolean current;
                             synchronized (cacheLock) {
-                                rawNodeChildsCache.put(parent.getId(),
-                                        new ArrayList<E>(0));
-                                nodeCached.put(parent.getId(), true);
+                                if (rawChilds == null) {
+                                    rawNodeChildsCache.put(parent.getId(),
+                                            new ArrayList<E>(0));
+                                }
+                                current = rawChilds == null
+                                        || isCurrentLoad(parent, rawChilds);
+                                if (current) {
+                                    nodeCached.put(parent.getId(), true);
+                                }
+                            }
+                            
+                            // Dropping load if cache was cleared while it was
+                            // running
+                            if (!current) {
+                                dropStaleLoad(parent);
+                                return;
                             }
                             
                             // Performing event notification in EDT
                             SwingUtils.invokeLater(new Runnable() {
                                 @Override
                                 public void run() {
+                                    // Inserting remaining chunks
+                                    insertPendingChunks(parent);
+                                    
                                     // Releasing node busy state
                                     synchronized (busyLock) {
                                         parent.setState(AsyncNodeState.failed);
@@ -501,9 +654,28 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E> {
             return 0;
         } else {
             // Loading childs
-            dataProvider.loadChilds(parent, new ChildsListener<E>() {
+            // Chunks are simply collected since childs are inserted at once
+            dataProvider.loadChilds(parent, new ChildsChunkListener<E>() {
+                /**
+                 * Childs passed in chunks.
+                 */
+                private final List<E> chunks = new ArrayList<E>();
+                
+                @Override
+                public void childsChunkLoaded(final List<E> childs) {
+                    chunks.addAll(childs);
+                }
+                
                 @Override
-                public void childsLoadCompleted(final List<E> childs) {
+                public void childsLoadCompleted(final List<E> loaded) {
+                    final List<E> childs;
+                    if (chunks.isEmpty()) {
+                        childs = loaded;
+                    } else {
+                        childs = chunks;
+                        childs.addAll(loaded);
+                    }
+                    
                     // Caching raw childs
                     synchronized (cacheLock) {
                         rawNodeChildsCache.put(parent.getId(), childs);
@@ -558,6 +730,222 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E> {
         }
     }
     
+    /**
+     * Caches, filters and sorts childs chunk and queues it for insertion into
+     * the tree. Chunks are inserted in EDT, chunks which arrive while previous
+     * ones are still waiting are inserted together. Chunk is dropped if node
+     * childs cache was cleared since the load has started.
+     *
+     * @param parent
+     *            node which childs are being loaded
+     * @param rawChilds
+     *            raw childs cached for this load
+     * @param childs
+     *            childs chunk
+     * @return true if chunk was queued, false if load is outdated
+     */
+    protected boolean queueChildsChunk(final E parent,
+            final List<E> rawChilds, final List<E> childs) {
+        // Caching raw childs
+        synchronized (cacheLock) {
+            if (!isCurrentLoad(parent, rawChilds)) {
+                return false;
+            }
+            rawChilds.addAll(childs);
+            cacheNodesById(childs);
+        }
+        
+        // Filtering and sorting raw childs
+        final List<E> realChilds = filterAndSort(parent, childs);
+        if (realChilds.size() == 0) {
+            return true;
+        }
+        
+        // Queueing chunk insertion
+        final boolean schedule;
+        synchronized (pendingChunks) {
+            final List<E> pending = pendingChunks.get(parent.getId());
+            if (pending == null) {
+                pendingChunks.put(parent.getId(), new ArrayList<E>(realChilds));
+                schedule = true;
+            } else {
+                pending.addAll(realChilds);
+                schedule = false;
+            }
+        }
+        if (schedule) {
+            SwingUtils.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    insertPendingChunks(parent);
+                }
+            });
+        }
+        return true;
+    }
+    
+    /**
+     * Returns whether specified raw childs are still cached for the node or
+     * node childs cache was cleared since the load has started.
+     *
+     * @param parent
+     *            node which childs are being loaded
+     * @param rawChilds
+     *            raw childs cached for the load
+     * @return true if specified raw childs are still cached for the node,
+     *         false otherwise
+     */
+    protected boolean isCurrentLoad(final E parent, final List<E> rawChilds) {
+        synchronized (cacheLock) {
+            return rawNodeChildsCache.get(parent.getId()) == rawChilds;
+        }
+    }
+    
+    /**
+     * Drops outdated childs load. Chunks waiting for insertion are discarded
+     * and node returns to waiting state, so its childs will be loaded again
+     * when requested.
+     *
+     * @param parent
+     *            node which childs load is outdated
+     */
+    protected void dropStaleLoad(final E parent) {
+        synchronized (pendingChunks) {
+            pendingChunks.remove(parent.getId());
+        }
+        SwingUtils.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (busyLock) {
+                    parent.setState(AsyncNodeState.waiting);
+                    nodeChanged(parent);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Finishes chunked childs load.
+     *
+     * @param parent
+     *            node which childs were loaded
+     * @param rawChilds
+     *            raw childs cached for this load
+     * @param childs
+     *            remaining childs which were not passed in chunks
+     */
+    protected void completeChunkedLoad(final E parent,
+            final List<E> rawChilds, final List<E> childs) {
+        // Queueing remaining childs
+        boolean current = childs == null || childs.size() == 0
+                || queueChildsChunk(parent, rawChilds, childs);
+        
+        // Updating cache
+        synchronized (cacheLock) {
+            current = current && isCurrentLoad(parent, rawChilds);
+            if (current) {
+                nodeCached.put(parent.getId(), true);
+                
+                // Running sorting tasks might have missed some chunks
+                sortingStamp++;
+            }
+        }
+        
+        // Dropping load if cache was cleared while it was running
+        if (!current) {
+            dropStaleLoad(parent);
+            return;
+        }
+        
+        // Performing UI updates and event notification in EDT
+        SwingUtils.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                // Inserting remaining chunks
+                insertPendingChunks(parent);
+                
+                // Releasing node busy state
+                synchronized (busyLock) {
+                    parent.setState(AsyncNodeState.loaded);
+                    nodeChanged(parent);
+                }
+                
+                // Firing load completed event
+                fireChildsLoadCompleted(parent,
+                        SortingAndFilteringTask.getChilds(parent));
+            }
+        });
+    }
+    
+    /**
+     * Inserts childs chunks waiting for the specified node into the tree.
+     * This method should be called from EDT.
+     *
+     * @param parent
+     *            node to insert chunks into
+     */
+    protected void insertPendingChunks(final E parent) {
+        final List<E> childs;
+        synchronized (pendingChunks) {
+            childs = pendingChunks.remove(parent.getId());
+        }
+        if (childs != null && childs.size() > 0) {
+            insertChildsChunk(parent, childs);
+        }
+    }
+    
+    /**
+     * Inserts filtered childs chunk into the node keeping childs sorted.
+     * Only chunk nodes are inserted, each one right after existing childs
+     * which are not greater than it. Single nodes insertion event is fired
+     * for the whole chunk.
+     *
+     * @param parent
+     *            node to insert chunk into
+     * @param childs
+     *            filtered childs chunk
+     */
+    protected void insertChildsChunk(final E parent, final List<E> childs) {
+        final Comparator<E> comparator = dataProvider
+                .getChildsComparator(parent);
+        final int count = parent.getChildCount();
+        if (comparator == null || count == 0) {
+            // Chunk is simply appended
+            if (comparator != null) {
+                Collections.sort(childs, comparator);
+            }
+            insertNodesIntoImpl(childs, parent, count);
+        } else {
+            // Inserting sorted chunk into already sorted childs
+            // Insertion index of each chunk node is found by binary search
+            // starting right after the previous chunk node
+            Collections.sort(childs, comparator);
+            final List<E> existing = SortingAndFilteringTask.getChilds(parent);
+            final int[] indices = new int[childs.size()];
+            int from = 0;
+            for (int j = 0; j < childs.size(); j++) {
+                final E child = childs.get(j);
+                int low = from;
+                int high = count;
+                while (low < high) {
+                    final int mid = (low + high) >>> 1;
+                    if (comparator.compare(child, existing.get(mid)) < 0) {
+                        high = mid;
+                    } else {
+                        low = mid + 1;
+                    }
+                }
+                from = low;
+                
+                // Previously inserted chunk nodes shift the index
+                indices[j] = low + j;
+                parent.insert(child, indices[j]);
+            }
+            nodesWereInserted(parent, indices);
+            registerObservers(childs);
+        }
+    }
+    
     /**
      * Sets child nodes for the specified node. This method might be used to
      * manually change tree node childs without causing any structure
@@ -962,6 +1350,29 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E> {
      */
     protected void performSortingAndFiltering(final E parentNode,
             final boolean recursively) {
+        // Recursive updates are performed outside of the event dispatch thread
+        if (asyncSorting && recursively) {
+            performSortingAndFilteringAsync(parentNode, recursively);
+        } else {
+            performSortingAndFilteringSync(parentNode, recursively);
+        }
+    }
+    
+    /**
+     * Updates node childs using current comparator and filter right away in
+     * the current thread. This method should be called from EDT.
+     *
+     * @param parentNode
+     *            node which childs sorting and filtering should be updated
+     * @param recursively
+     *            whether should update the whole childs structure recursively
+     *            or not
+     */
+    protected void performSortingAndFilteringSync(final E parentNode,
+            final boolean recursively) {
+        // Results of the running tasks are outdated now
+        sortingStamp++;
+        
         // todo Restore tree state only for the updated node
         // Saving tree state to restore it right after childs update
         final TreeState treeState = tree.getTreeState();
@@ -978,6 +1389,96 @@ public class AsyncTreeModel<E extends AsyncUniqueNode> extends WebTreeModel<E> {
         tree.setTreeState(treeState);
     }
     
+    /**
+     * Starts sorting and filtering task for the specified node childs. Running
+     * tasks which results are overridden by the new one are cancelled.
+     *
+     * @param parentNode
+     *            node which childs sorting and filtering should be updated
+     * @param recursively
+     *            whether should update the whole childs structure recursively
+     *            or not
+     */
+    protected void performSortingAndFilteringAsync(final E parentNode,
+            final boolean recursively) {
+        final SortingAndFilteringTask<E> task = new SortingAndFilteringTask<E>(
+                sortingSource, parentNode, recursively, sortingStamp);
+        synchronized (sortingTasks) {
+            final Iterator<SortingAndFilteringTask<E>> iterator = sortingTasks
+                    .iterator();
+            while (iterator.hasNext()) {
+                final SortingAndFilteringTask<E> running = iterator.next();
+                if (task.covers(running.getNode())) {
+                    running.cancel();
+                    iterator.remove();
+                }
+            }
+            sortingTasks.add(task);
+        }
+        task.execute(new Runnable() {
+            @Override
+            public void run() {
+                applySortingAndFiltering(task);
+            }
+        });
+    }
+    
+    /**
+     * Applies results of the finished sorting and filtering task. Cancelled
+     * task results are ignored and task is restarted if raw childs were
+     * changed while it was running. Node childs are updated synchronously if
+     * task has failed.
+     *
+     * @param task
+     *            finished sorting and filtering task
+     */
+    protected void applySortingAndFiltering(
+            final SortingAndFilteringTask<E> task) {
+        synchronized (sortingTasks) {
+            if (!sortingTasks.remove(task) || task.isCancelled()) {
+                return;
+            }
+        }
+        if (task.isFailed()) {
+            FlatLafLogger.warn(this, "Asynchronous sorting and filtering "
+                    + "has failed, updating node childs synchronously");
+            performSortingAndFilteringSync(task.getNode(),
+                    task.isRecursively());
+            return;
+        }
+        if (task.getStamp() != sortingStamp) {
+            performSortingAndFilteringAsync(task.getNode(),
+                    task.isRecursively());
+            return;
+        }
+        
+        // Saving tree state to restore it right after childs update
+        final TreeState treeState = tree.getTreeState();
+        
+        // Replacing childs of all processed nodes at once
+        synchronized (task.getResults()) {
+            for (final Map.Entry<E, List<E>> entry : task.getResults()
+                    .entrySet()) {
+                final E node = entry.getKey();
+                
+                // Childs of the node being loaded are kept sorted and
+                // filtered by chunks insertion until the load is finished
+                if (node.isLoading()) {
+                    continue;
+                }
+                
+                node.removeAllChildren();
+                for (final E child : entry.getValue()) {
+                    node.add(child);
+                }
+            }
+        }
+        nodeStructureChanged(task.getNode());
+        
+        // Restoring tree state including all selections and expansions
+        tree.setTreeState(treeState);
+    }
+    
     /**
      * Updates node childs using current comparator and filter.
      *
@@ -17,15 +17,28 @@
 
 package org.ocsoft.flatlaf.extended.tree;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
-import org.ocsoft.flatlaf.utils.DaemonThreadFactory;
+import javax.swing.tree.TreeNode;
+
+import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
+import org.ocsoft.flatlaf.weblaf.tree.AsyncUniqueNode;
 
 /**
  * Asynchronous tree childs loading queue.
+ * <p/>
+ * All queues share a single work-stealing pool, each queue only limits the
+ * amount of its tasks running simultaneously. Queues take turns when pool is
+ * busy, so a single tree with lots of pending requests cannot block the others.
+ * Childs load requests are queued ahead of other tasks since they usually come
+ * from the node user has just expanded, and they can be cancelled while they
+ * are still waiting in the queue.
  *
  * @author Mikle Garin
  */
@@ -43,21 +56,51 @@ public final class AsyncTreeQueue {
      */
     public static boolean separateLimitForEachTree = true;
     
+    /**
+     * Threads amount of the pool shared by all asynchronous trees.
+     */
+    public static int poolThreadsAmount = Math.max(threadsAmount, Runtime
+            .getRuntime().availableProcessors());
+    
     /**
      * Currently cached queues list.
      */
-    private static final Map<WebAsyncTree, AsyncTreeQueue> queues = new WeakHashMap<WebAsyncTree, AsyncTreeQueue>();
+    private static final Map<WebAsyncTree<?>, AsyncTreeQueue> queues = new WeakHashMap<WebAsyncTree<?>, AsyncTreeQueue>();
+    
+    /**
+     * Lock for tasks scheduling.
+     */
+    private static final Object lock = new Object();
+    
+    /**
+     * Pool shared by all asynchronous trees.
+     */
+    private static ForkJoinPool pool = null;
+    
+    /**
+     * Queues which have pending tasks in the order they will be served.
+     */
+    private static final LinkedList<AsyncTreeQueue> pendingQueues = new LinkedList<AsyncTreeQueue>();
+    
+    /**
+     * Amount of tasks currently running in the shared pool.
+     */
+    private static int runningTotal = 0;
     
     /**
-     * Lock for ExecutorService calls synchronization.
+     * Pending tasks of this queue.
      */
-    private final Object lock = new Object();
+    private final LinkedList<Task> tasks = new LinkedList<Task>();
     
     /**
-     * ExecutorService to limit simultaneously running threads.
+     * Maximum amount of simultaneously running tasks of this queue.
      */
-    private ExecutorService executorService = Executors.newFixedThreadPool(
-            threadsAmount, new DaemonThreadFactory());
+    private int maximumThreadsAmount = threadsAmount;
+    
+    /**
+     * Amount of currently running tasks of this queue.
+     */
+    private int running = 0;
     
     /**
      * Sets maximum threads amount for the specified asynchronous tree.
@@ -67,7 +110,7 @@ public final class AsyncTreeQueue {
      * @param amount
      *            new maximum threads amount
      */
-    public static void setMaximumThreadsAmount(final WebAsyncTree asyncTree,
+    public static void setMaximumThreadsAmount(final WebAsyncTree<?> asyncTree,
             final int amount) {
         getInstance(asyncTree).setMaximumThreadsAmount(amount);
     }
@@ -80,11 +123,56 @@ public final class AsyncTreeQueue {
      * @param runnable
      *            runnable to execute
      */
-    public static void execute(final WebAsyncTree asyncTree,
+    public static void execute(final WebAsyncTree<?> asyncTree,
             final Runnable runnable) {
         getInstance(asyncTree).execute(runnable);
     }
     
+    /**
+     * Executes childs load for the specified node using queue for the
+     * specified asynchronous tree. Such tasks are executed before any other
+     * pending tasks and can be cancelled while they are still pending.
+     *
+     * @param asyncTree
+     *            asynchronous tree to process
+     * @param node
+     *            node which childs are loaded
+     * @param runnable
+     *            runnable to execute
+     */
+    public static void execute(final WebAsyncTree<?> asyncTree,
+            final AsyncUniqueNode node, final Runnable runnable) {
+        getInstance(asyncTree).execute(node, runnable);
+    }
+    
+    /**
+     * Cancels pending childs loads for the specified node and all of its
+     * child nodes.
+     *
+     * @param asyncTree
+     *            asynchronous tree to process
+     * @param node
+     *            node to cancel childs loads for
+     * @return nodes which childs loads were cancelled
+     */
+    public static List<AsyncUniqueNode> cancel(final WebAsyncTree<?> asyncTree,
+            final AsyncUniqueNode node) {
+        return getInstance(asyncTree).cancel(node);
+    }
+    
+    /**
+     * Moves pending childs load for the specified node to the queue head.
+     *
+     * @param asyncTree
+     *            asynchronous tree to process
+     * @param node
+     *            node to prioritize childs load for
+     */
+    public static void prioritize(final WebAsyncTree<?> asyncTree,
+            final AsyncUniqueNode node) {
+        getInstance(asyncTree).prioritize(node);
+    }
+    
     /**
      * Returns an instance of queue for the specified asynchronous tree. This
      * method might return the same queue for all trees depending on
@@ -94,7 +182,7 @@ public final class AsyncTreeQueue {
      *            asynchronous tree to process
      * @return an instance of queue for the specified asynchronous tree
      */
-    public static AsyncTreeQueue getInstance(final WebAsyncTree asyncTree) {
+    public static AsyncTreeQueue getInstance(final WebAsyncTree<?> asyncTree) {
         if (separateLimitForEachTree) {
             return getInstanceImpl(asyncTree);
         } else {
@@ -109,29 +197,60 @@ public final class AsyncTreeQueue {
      *            asynchronous tree to process
      * @return an instance of queue for the specified asynchronous tree
      */
-    private static AsyncTreeQueue getInstanceImpl(final WebAsyncTree asyncTree) {
-        AsyncTreeQueue queue = queues.get(asyncTree);
-        if (queue == null) {
-            // Shutting down all tree-specific queues since the queue generation
-            // rule has changed
-            if (asyncTree == null) {
-                shutdownAllQueues();
+    private static AsyncTreeQueue getInstanceImpl(final WebAsyncTree<?> asyncTree) {
+        synchronized (lock) {
+            AsyncTreeQueue queue = queues.get(asyncTree);
+            if (queue == null) {
+                queue = new AsyncTreeQueue();
+                queues.put(asyncTree, queue);
             }
-            
-            // Creating new queue
-            queue = new AsyncTreeQueue();
-            queues.put(asyncTree, queue);
+            return queue;
+        }
+    }
+    
+    /**
+     * Returns pool shared by all asynchronous trees.
+     *
+     * @return pool shared by all asynchronous trees
+     */
+    private static ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(Math.max(1, poolThreadsAmount),
+                    ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
         }
-        return queue;
+        return pool;
     }
     
     /**
-     * Forces all queues to shutdown.
+     * Starts pending tasks while shared pool has free threads. Queues are
+     * served in turns, each queue starts at most one task per turn.
      */
-    private static void shutdownAllQueues() {
-        for (final Map.Entry<WebAsyncTree, AsyncTreeQueue> queueEntry : queues
-                .entrySet()) {
-            queueEntry.getValue().shutdown();
+    private static void schedule() {
+        synchronized (lock) {
+            final ForkJoinPool pool = getPool();
+            int skipped = 0;
+            while (runningTotal < pool.getParallelism()
+                    && skipped < pendingQueues.size()) {
+                final AsyncTreeQueue queue = pendingQueues.removeFirst();
+                if (queue.tasks.isEmpty()) {
+                    continue;
+                }
+                if (!queue.canRun()) {
+                    // Queue limit reached, it will be scheduled again once one
+                    // of its tasks is finished
+                    pendingQueues.addLast(queue);
+                    skipped++;
+                    continue;
+                }
+                skipped = 0;
+                final Task task = queue.tasks.removeFirst();
+                queue.running++;
+                runningTotal++;
+                if (!queue.tasks.isEmpty()) {
+                    pendingQueues.addLast(queue);
+                }
+                pool.execute(task);
+            }
         }
     }
     
@@ -142,6 +261,15 @@ public final class AsyncTreeQueue {
         super();
     }
     
+    /**
+     * Returns whether this queue can start one more task or not.
+     *
+     * @return true if this queue can start one more task, false otherwise
+     */
+    private boolean canRun() {
+        return maximumThreadsAmount <= 0 || running < maximumThreadsAmount;
+    }
+    
     /**
      * Sets maximum threads amount for this queue.
      *
@@ -150,26 +278,39 @@ public final class AsyncTreeQueue {
      */
     public void setMaximumThreadsAmount(final int amount) {
         synchronized (lock) {
-            if (executorService != null) {
-                executorService.shutdown();
-            }
-            if (amount > 0) {
-                executorService = Executors.newFixedThreadPool(amount,
-                        new DaemonThreadFactory());
-            } else {
-                executorService = null;
-            }
+            maximumThreadsAmount = amount;
         }
+        schedule();
     }
     
     /**
      * Shutdowns this queue.
+     * Queues do not own any threads anymore so this method only exists for
+     * compatibility, already queued tasks will still be executed.
      */
     public void shutdown() {
+        // Nothing to release
+    }
+    
+    /**
+     * Returns amount of pending tasks in this queue.
+     *
+     * @return amount of pending tasks in this queue
+     */
+    public int getPendingCount() {
         synchronized (lock) {
-            if (executorService != null) {
-                executorService.shutdown();
-            }
+            return tasks.size();
+        }
+    }
+    
+    /**
+     * Returns amount of currently running tasks of this queue.
+     *
+     * @return amount of currently running tasks of this queue
+     */
+    public int getRunningCount() {
+        synchronized (lock) {
+            return running;
         }
     }
     
@@ -180,12 +321,163 @@ public final class AsyncTreeQueue {
      *            runnable to execute
      */
     public void execute(final Runnable runnable) {
+        enqueue(new Task(null, runnable), false);
+    }
+    
+    /**
+     * Executes childs load for the specified node using this queue.
+     *
+     * @param node
+     *            node which childs are loaded
+     * @param runnable
+     *            runnable to execute
+     */
+    public void execute(final AsyncUniqueNode node, final Runnable runnable) {
+        enqueue(new Task(node, runnable), true);
+    }
+    
+    /**
+     * Adds task into this queue.
+     *
+     * @param task
+     *            task to add
+     * @param first
+     *            whether task should be placed at the queue head or not
+     */
+    private void enqueue(final Task task, final boolean first) {
         synchronized (lock) {
-            if (executorService != null) {
-                executorService.execute(runnable);
+            if (!pendingQueues.contains(this)) {
+                pendingQueues.addLast(this);
+            }
+            if (first) {
+                tasks.addFirst(task);
             } else {
-                new Thread(runnable, "AsyncTreeQueue").start();
+                tasks.addLast(task);
+            }
+        }
+        schedule();
+    }
+    
+    /**
+     * Cancels pending childs loads for the specified node and all of its
+     * child nodes.
+     *
+     * @param node
+     *            node to cancel childs loads for
+     * @return nodes which childs loads were cancelled
+     */
+    public List<AsyncUniqueNode> cancel(final AsyncUniqueNode node) {
+        final List<AsyncUniqueNode> cancelled = new ArrayList<AsyncUniqueNode>(
+                1);
+        synchronized (lock) {
+            final Iterator<Task> iterator = tasks.iterator();
+            while (iterator.hasNext()) {
+                final Task task = iterator.next();
+                if (task.node != null && isSameOrChild(node, task.node)) {
+                    iterator.remove();
+                    cancelled.add(task.node);
+                }
+            }
+        }
+        return cancelled;
+    }
+    
+    /**
+     * Moves pending childs load for the specified node to the queue head.
+     *
+     * @param node
+     *            node to prioritize childs load for
+     */
+    public void prioritize(final AsyncUniqueNode node) {
+        synchronized (lock) {
+            final Iterator<Task> iterator = tasks.iterator();
+            while (iterator.hasNext()) {
+                final Task task = iterator.next();
+                if (task.node == node) {
+                    iterator.remove();
+                    tasks.addFirst(task);
+                    break;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Returns whether node is the same as parent or one of its childs.
+     *
+     * @param parent
+     *            parent node
+     * @param node
+     *            node to check
+     * @return true if node is the same as parent or one of its childs, false
+     *         otherwise
+     */
+    private static boolean isSameOrChild(final TreeNode parent,
+            final TreeNode node) {
+        TreeNode current = node;
+        while (current != null) {
+            if (current == parent) {
+                return true;
+            }
+            current = current.getParent();
+        }
+        return false;
+    }
+    
+    /**
+     * Marks task of this queue as finished and schedules next tasks.
+     */
+    private void finished() {
+        synchronized (lock) {
+            running--;
+            runningTotal--;
+            if (!tasks.isEmpty() && !pendingQueues.contains(this)) {
+                pendingQueues.addLast(this);
+            }
+        }
+        schedule();
+    }
+    
+    /**
+     * Queued task.
+     */
+    private final class Task implements Runnable {
+        /**
+         * Node which childs are loaded by this task, null for other tasks.
+         */
+        private final AsyncUniqueNode node;
+        
+        /**
+         * Actual task.
+         */
+        private final Runnable runnable;
+        
+        /**
+         * Constructs new queued task.
+         *
+         * @param node
+         *            node which childs are loaded by this task
+         * @param runnable
+         *            actual task
+         */
+        public Task(final AsyncUniqueNode node, final Runnable runnable) {
+            super();
+            this.node = node;
+            this.runnable = runnable;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+            try {
+                runnable.run();
+            } catch (final Throwable e) {
+                FlatLafLogger.error(AsyncTreeQueue.class, e);
+            } finally {
+                finished();
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,48 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.extended.tree;
+
+import java.util.List;
+
+import org.ocsoft.flatlaf.weblaf.tree.AsyncUniqueNode;
+
+/**
+ * Special listener used within AsyncTreeModel to receive childs in chunks
+ * while they are still being loaded.
+ * <p/>
+ * Data provider might call {@link #childsChunkLoaded(List)} any number of
+ * times and then has to finish loading with either
+ * {@link #childsLoadCompleted(List)} providing the remaining childs which were
+ * not passed in chunks (it might be an empty list) or
+ * {@link #childsLoadFailed(Throwable)}. Listeners passed into
+ * {@link AsyncTreeDataProvider#loadChilds(AsyncUniqueNode, ChildsListener)} by
+ * AsyncTreeModel always implement this interface.
+ *
+ * @author Mikle Garin
+ */
+
+public interface ChildsChunkListener<E extends AsyncUniqueNode> extends
+        ChildsListener<E> {
+    /**
+     * Informs model that next chunk of childs was loaded.
+     *
+     * @param childs
+     *            list of loaded childs
+     */
+    public void childsChunkLoaded(List<E> childs);
+}
@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -32,6 +33,7 @@ import org.ocsoft.flatlaf.utils.SwingUtils;
 import org.ocsoft.flatlaf.utils.collection.CollectionUtils;
 import org.ocsoft.flatlaf.utils.general.Filter;
 import org.ocsoft.flatlaf.utils.general.MapUtils;
+import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
 import org.ocsoft.flatlaf.weblaf.tree.TreeState;
 import org.ocsoft.flatlaf.weblaf.tree.UniqueNode;
 import org.ocsoft.flatlaf.weblaf.tree.WebTree;
@@ -86,6 +88,42 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E> {
      */
     protected final DoubleMap<String, E> nodeById = new DoubleMap<String, E>();
     
+    /**
+     * Whether recursive sorting and filtering updates are performed outside of
+     * the event dispatch thread or not.
+     */
+    protected boolean asyncSorting = true;
+    
+    /**
+     * Currently running sorting and filtering tasks.
+     */
+    protected final List<SortingAndFilteringTask<E>> sortingTasks = new ArrayList<SortingAndFilteringTask<E>>();
+    
+    /**
+     * Raw childs structure stamp. It is changed each time raw childs are
+     * changed so that sorting and filtering results computed for older childs
+     * are never applied.
+     */
+    protected volatile int sortingStamp = 0;
+    
+    /**
+     * Raw childs source for sorting and filtering tasks.
+     */
+    protected final SortingAndFilteringSource<E> sortingSource = new SortingAndFilteringSource<E>() {
+        @Override
+        public List<E> getRawChilds(final E parent) {
+            synchronized (cacheLock) {
+                final List<E> childs = rawNodeChildsCache.get(parent.getId());
+                return childs != null ? CollectionUtils.copy(childs) : null;
+            }
+        }
+        
+        @Override
+        public List<E> filterAndSort(final E parent, final List<E> childs) {
+            return ExTreeModel.this.filterAndSort(parent, childs);
+        }
+    };
+    
     /**
      * Constructs default ex tree model using custom data provider.
      *
@@ -111,6 +149,29 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E> {
         return dataProvider;
     }
     
+    /**
+     * Returns whether recursive sorting and filtering updates are performed
+     * outside of the event dispatch thread or not.
+     *
+     * @return true if recursive sorting and filtering updates are performed
+     *         outside of the event dispatch thread, false otherwise
+     */
+    public boolean isAsyncSorting() {
+        return asyncSorting;
+    }
+    
+    /**
+     * Sets whether recursive sorting and filtering updates should be performed
+     * outside of the event dispatch thread or not.
+     *
+     * @param asyncSorting
+     *            whether recursive sorting and filtering updates should be
+     *            performed outside of the event dispatch thread or not
+     */
+    public void setAsyncSorting(final boolean asyncSorting) {
+        this.asyncSorting = asyncSorting;
+    }
+    
     /**
      * Returns tree root node.
      *
@@ -249,6 +310,7 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E> {
             
             // Clears node raw childs cache
             final List<E> childs = rawNodeChildsCache.remove(node.getId());
+            sortingStamp++;
             
             // Clears chld nodes cache
             if (childs != null) {
@@ -642,6 +704,17 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E> {
         updateSortingAndFiltering(getRoot(), true);
     }
     
+    /**
+     * Updates nodes sorting and filtering for all nodes and invokes the
+     * specified action once updated nodes are applied to the tree.
+     *
+     * @param onComplete
+     *            action invoked on the event dispatch thread after update
+     */
+    public void updateSortingAndFiltering(final Runnable onComplete) {
+        updateSortingAndFiltering(getRoot(), true, onComplete);
+    }
+    
     /**
      * Updates sorting and filtering for the specified node childs.
      *
@@ -663,11 +736,29 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E> {
      */
     public void updateSortingAndFiltering(final E parentNode,
             final boolean recursively) {
+        updateSortingAndFiltering(parentNode, recursively, null);
+    }
+    
+    /**
+     * Updates sorting and filtering for the specified node childs and invokes
+     * the specified action once updated nodes are applied to the tree. Action
+     * is not invoked if update gets overridden by a newer one.
+     *
+     * @param parentNode
+     *            node which childs sorting and filtering should be updated
+     * @param recursively
+     *            whether should update the whole childs structure recursively
+     *            or not
+     * @param onComplete
+     *            action invoked on the event dispatch thread after update
+     */
+    public void updateSortingAndFiltering(final E parentNode,
+            final boolean recursively, final Runnable onComplete) {
         // Process only this is not a root node
         // We don't need to update root sorting as there is always one root in
         // the tree
         if (parentNode != null) {
-            performSortingAndFiltering(parentNode, recursively);
+            performSortingAndFiltering(parentNode, recursively, onComplete);
         }
     }
     
@@ -683,6 +774,49 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E> {
      */
     protected void performSortingAndFiltering(final E parentNode,
             final boolean recursively) {
+        performSortingAndFiltering(parentNode, recursively, null);
+    }
+    
+    /**
+     * Updates node childs using current comparator and filter. Updates the
+     * whole node childs structure if recursive update requested.
+     *
+     * @param parentNode
+     *            node which childs sorting and filtering should be updated
+     * @param recursively
+     *            whether should update the whole childs structure recursively
+     *            or not
+     * @param onComplete
+     *            action invoked after update, might be null
+     */
+    protected void performSortingAndFiltering(final E parentNode,
+            final boolean recursively, final Runnable onComplete) {
+        // Recursive updates are performed outside of the event dispatch thread
+        if (asyncSorting && recursively) {
+            performSortingAndFilteringAsync(parentNode, recursively,
+                    onComplete);
+        } else {
+            performSortingAndFilteringSync(parentNode, recursively, onComplete);
+        }
+    }
+    
+    /**
+     * Updates node childs using current comparator and filter right away in
+     * the current thread. This method should be called from EDT.
+     *
+     * @param parentNode
+     *            node which childs sorting and filtering should be updated
+     * @param recursively
+     *            whether should update the whole childs structure recursively
+     *            or not
+     * @param onComplete
+     *            action invoked after update, might be null
+     */
+    protected void performSortingAndFilteringSync(final E parentNode,
+            final boolean recursively, final Runnable onComplete) {
+        // Results of the running tasks are outdated now
+        sortingStamp++;
+        
         // todo Restore tree state only for the updated node
         // Saving tree state to restore it right after childs update
         final TreeState treeState = tree.getTreeState();
@@ -697,6 +831,103 @@ public class ExTreeModel<E extends UniqueNode> extends WebTreeModel<E> {
         
         // Restoring tree state including all selections and expansions
         tree.setTreeState(treeState);
+        
+        // Informing about update completion
+        if (onComplete != null) {
+            onComplete.run();
+        }
+    }
+    
+    /**
+     * Starts sorting and filtering task for the specified node childs. Running
+     * tasks which results are overridden by the new one are cancelled.
+     *
+     * @param parentNode
+     *            node which childs sorting and filtering should be updated
+     * @param recursively
+     *            whether should update the whole childs structure recursively
+     *            or not
+     * @param onComplete
+     *            action invoked after update, might be null
+     */
+    protected void performSortingAndFilteringAsync(final E parentNode,
+            final boolean recursively, final Runnable onComplete) {
+        final SortingAndFilteringTask<E> task = new SortingAndFilteringTask<E>(
+                sortingSource, parentNode, recursively, sortingStamp);
+        synchronized (sortingTasks) {
+            final Iterator<SortingAndFilteringTask<E>> iterator = sortingTasks
+                    .iterator();
+            while (iterator.hasNext()) {
+                final SortingAndFilteringTask<E> running = iterator.next();
+                if (task.covers(running.getNode())) {
+                    running.cancel();
+                    iterator.remove();
+                }
+            }
+            sortingTasks.add(task);
+        }
+        task.execute(new Runnable() {
+            @Override
+            public void run() {
+                applySortingAndFiltering(task, onComplete);
+            }
+        });
+    }
+    
+    /**
+     * Applies results of the finished sorting and filtering task. Cancelled
+     * task results are ignored and task is restarted if raw childs were
+     * changed while it was running. Node childs are updated synchronously if
+     * task has failed.
+     *
+     * @param task
+     *            finished sorting and filtering task
+     * @param onComplete
+     *            action invoked after update, might be null
+     */
+    protected void applySortingAndFiltering(
+            final SortingAndFilteringTask<E> task, final Runnable onComplete) {
+        synchronized (sortingTasks) {
+            if (!sortingTasks.remove(task) || task.isCancelled()) {
+                return;
+            }
+        }
+        if (task.isFailed()) {
+            FlatLafLogger.warn(this, "Asynchronous sorting and filtering "
+                    + "has failed, updating node childs synchronously");
+            performSortingAndFilteringSync(task.getNode(),
+                    task.isRecursively(), onComplete);
+            return;
+        }
+        if (task.getStamp() != sortingStamp) {
+            performSortingAndFilteringAsync(task.getNode(),
+                    task.isRecursively(), onComplete);
+            return;
+        }
+        
+        // Saving tree state to restore it right after childs update
+        final TreeState treeState = tree.getTreeState();
+        
+        // Replacing childs of all processed nodes at once
+        synchronized (task.getResults()) {
+            for (final Map.Entry<E, List<E>> entry : task.getResults()
+                    .entrySet()) {
+                final E node = entry.getKey();
+                node.removeAllChildren();
+                for (final E child : entry.getValue()) {
+                    node.add(child);
+                }
+            }
+        }
+        nodeStructureChanged(task.getNode());
+        
+        // Restoring tree state including all selections and expansions
+        tree.setTreeState(treeState);
+        
+        // Informing about update completion
+        if (onComplete != null) {
+            onComplete.run();
+        }
     }
     
     /**
@@ -18,10 +18,12 @@
 package org.ocsoft.flatlaf.extended.tree;
 
 import java.io.File;
+import java.io.FileFilter;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.ocsoft.flatlaf.utils.collection.CollectionUtils;
+import org.ocsoft.flatlaf.utils.file.FileChunkListener;
 import org.ocsoft.flatlaf.utils.file.FileUtils;
 import org.ocsoft.flatlaf.utils.general.Filter;
 
@@ -38,6 +40,12 @@ public class FileTreeDataProvider extends
      */
     protected List<File> rootFiles;
     
+    /**
+     * Amount of files passed to the tree in a single chunk while directory is
+     * being listed.
+     */
+    protected int chunkSize = 500;
+    
     /**
      * Constructs file tree data provider with the specified files as root.
      *
@@ -112,13 +120,63 @@ public class FileTreeDataProvider extends
     public void loadChilds(final FileTreeNode parent,
             final ChildsListener<FileTreeNode> listener) {
         try {
-            listener.childsLoadCompleted(parent.getFile() == null ? getRootChilds()
-                    : getFileChilds(parent));
+            if (parent.getFile() == null) {
+                listener.childsLoadCompleted(getRootChilds());
+            } else if (listener instanceof ChildsChunkListener) {
+                // Passing directory files to the tree as they are listed
+                final ChildsChunkListener<FileTreeNode> chunkListener = (ChildsChunkListener<FileTreeNode>) listener;
+                FileUtils.listFiles(parent.getFile(), null, chunkSize,
+                        new FileChunkListener() {
+                            @Override
+                            public void filesListed(final List<File> files) {
+                                chunkListener
+                                        .childsChunkLoaded(createFileNodes(files));
+                            }
+                        });
+                listener.childsLoadCompleted(new ArrayList<FileTreeNode>(0));
+            } else {
+                listener.childsLoadCompleted(getFileChilds(parent));
+            }
         } catch (final Throwable cause) {
             listener.childsLoadFailed(cause);
         }
     }
     
+    /**
+     * Returns amount of files passed to the tree in a single chunk.
+     *
+     * @return amount of files passed to the tree in a single chunk
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+    
+    /**
+     * Sets amount of files passed to the tree in a single chunk.
+     *
+     * @param chunkSize
+     *            amount of files passed to the tree in a single chunk
+     */
+    public void setChunkSize(final int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+    
+    /**
+     * Returns nodes for the specified files.
+     *
+     * @param files
+     *            files to create nodes for
+     * @return nodes for the specified files
+     */
+    protected List<FileTreeNode> createFileNodes(final List<File> files) {
+        final List<FileTreeNode> nodes = new ArrayList<FileTreeNode>(
+                files.size());
+        for (final File file : files) {
+            nodes.add(new FileTreeNode(file));
+        }
+        return nodes;
+    }
+    
     /**
      * Returns root child nodes.
      *
@@ -141,8 +199,9 @@ public class FileTreeDataProvider extends
      * @return child nodes
      */
     public List<FileTreeNode> getFileChilds(final FileTreeNode node) {
-        final File[] childsList = node.getFile().listFiles();
-        if (childsList == null || childsList.length == 0) {
+        final File[] childsList = FileUtils.listFiles(node.getFile(),
+                (FileFilter) null);
+        if (childsList.length == 0) {
             return new ArrayList<FileTreeNode>(0);
         } else {
             final List<FileTreeNode> childs = new ArrayList<FileTreeNode>(
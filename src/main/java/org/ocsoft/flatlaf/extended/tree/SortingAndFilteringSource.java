@@ -0,0 +1,53 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.extended.tree;
+
+import java.util.List;
+
+import org.ocsoft.flatlaf.weblaf.tree.UniqueNode;
+
+/**
+ * Special interface used within tree models to provide raw node childs for
+ * sorting and filtering performed outside of the event dispatch thread.
+ *
+ * @author Mikle Garin
+ */
+
+public interface SortingAndFilteringSource<E extends UniqueNode> {
+    /**
+     * Returns copy of the raw childs cached for the specified node or null if
+     * they are not cached yet. Returned list should be safe to use outside of
+     * the model cache lock.
+     *
+     * @param parent
+     *            parent node
+     * @return copy of the raw childs or null if they are not cached yet
+     */
+    public List<E> getRawChilds(E parent);
+    
+    /**
+     * Returns list of filtered and sorted childs for the specified node.
+     *
+     * @param parent
+     *            parent node
+     * @param childs
+     *            raw childs to filter and sort
+     * @return list of filtered and sorted childs
+     */
+    public List<E> filterAndSort(E parent, List<E> childs);
+}
@@ -0,0 +1,372 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.extended.tree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.swing.tree.TreeNode;
+
+import org.ocsoft.flatlaf.utils.SwingUtils;
+import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
+import org.ocsoft.flatlaf.weblaf.tree.UniqueNode;
+
+/**
+ * Tree nodes sorting and filtering task.
+ * <p/>
+ * Task computes filtered and sorted childs for the specified node and,
+ * optionally, for all of its resulting childs structure outside of the event
+ * dispatch thread. Separate subtrees are processed in parallel on the pool
+ * shared by all tree models. Computed childs are not applied to nodes by the
+ * task itself, model receives them on the event dispatch thread when the whole
+ * task is finished and applies them at once.
+ * <p/>
+ * Task should be created on the event dispatch thread. Node childs which might
+ * be walked by filters are copied on creation, since actual node childs can be
+ * modified while task is running. Filters should retrieve node childs through
+ * {@link #getChilds(javax.swing.tree.TreeNode)} method to use those copies.
+ *
+ * @author Mikle Garin
+ */
+
+public class SortingAndFilteringTask<E extends UniqueNode> {
+    /**
+     * Threads amount of the pool shared by all sorting and filtering tasks.
+     */
+    public static int threadsAmount = Runtime.getRuntime()
+            .availableProcessors();
+    
+    /**
+     * Pool shared by all sorting and filtering tasks.
+     */
+    private static ForkJoinPool pool = null;
+    
+    /**
+     * Task processed by the current thread.
+     */
+    private static final ThreadLocal<SortingAndFilteringTask<?>> current = new ThreadLocal<SortingAndFilteringTask<?>>();
+    
+    /**
+     * Raw childs source.
+     */
+    protected final SortingAndFilteringSource<E> source;
+    
+    /**
+     * Node which childs should be sorted and filtered.
+     */
+    protected final E node;
+    
+    /**
+     * Whether should process the whole childs structure or not.
+     */
+    protected final boolean recursively;
+    
+    /**
+     * Model structure stamp this task was created for.
+     */
+    protected final int stamp;
+    
+    /**
+     * Filtered and sorted childs by their parent nodes.
+     */
+    protected final Map<E, List<E>> results = Collections
+            .synchronizedMap(new IdentityHashMap<E, List<E>>());
+    
+    /**
+     * Node childs copied when this task was created.
+     */
+    protected final Map<TreeNode, List<TreeNode>> copiedChilds = new IdentityHashMap<TreeNode, List<TreeNode>>();
+    
+    /**
+     * Whether this task was cancelled or not.
+     */
+    protected volatile boolean cancelled = false;
+    
+    /**
+     * Whether this task has failed or not.
+     */
+    protected volatile boolean failed = false;
+    
+    /**
+     * Constructs new sorting and filtering task.
+     *
+     * @param source
+     *            raw childs source
+     * @param node
+     *            node which childs should be sorted and filtered
+     * @param recursively
+     *            whether should process the whole childs structure or not
+     * @param stamp
+     *            model structure stamp this task is created for
+     */
+    public SortingAndFilteringTask(final SortingAndFilteringSource<E> source,
+            final E node, final boolean recursively, final int stamp) {
+        super();
+        this.source = source;
+        this.node = node;
+        this.recursively = recursively;
+        this.stamp = stamp;
+        copyChilds(node);
+    }
+    
+    /**
+     * Copies childs of the specified node and all nodes which might be
+     * processed after it.
+     *
+     * @param parent
+     *            node to copy childs for
+     */
+    protected void copyChilds(final E parent) {
+        if (copiedChilds.containsKey(parent)) {
+            return;
+        }
+        final List<TreeNode> copy = new ArrayList<TreeNode>(
+                parent.getChildCount());
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            copy.add(parent.getChildAt(i));
+        }
+        copiedChilds.put(parent, copy);
+        
+        // Raw childs are filtered and might have their childs walked
+        final List<E> rawChilds = source.getRawChilds(parent);
+        if (rawChilds != null) {
+            for (final E child : rawChilds) {
+                copyChilds(child);
+            }
+        }
+    }
+    
+    /**
+     * Returns childs of the specified node. Copy of the node childs is
+     * returned if it is requested while sorting and filtering task is
+     * processed by the current thread, otherwise actual node childs are
+     * returned.
+     *
+     * @param node
+     *            node to retrieve childs for
+     * @param <E>
+     *            node type
+     * @return childs of the specified node
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends TreeNode> List<E> getChilds(final E node) {
+        final SortingAndFilteringTask<?> task = current.get();
+        final List<TreeNode> copy = task != null ? task.copiedChilds.get(node)
+                : null;
+        if (copy != null) {
+            return (List<E>) copy;
+        } else {
+            final List<E> actual = new ArrayList<E>(node.getChildCount());
+            for (int i = 0; i < node.getChildCount(); i++) {
+                actual.add((E) node.getChildAt(i));
+            }
+            return actual;
+        }
+    }
+    
+    /**
+     * Returns node which childs should be sorted and filtered.
+     *
+     * @return node which childs should be sorted and filtered
+     */
+    public E getNode() {
+        return node;
+    }
+    
+    /**
+     * Returns whether should process the whole childs structure or not.
+     *
+     * @return true if should process the whole childs structure, false
+     *         otherwise
+     */
+    public boolean isRecursively() {
+        return recursively;
+    }
+    
+    /**
+     * Returns model structure stamp this task was created for.
+     *
+     * @return model structure stamp this task was created for
+     */
+    public int getStamp() {
+        return stamp;
+    }
+    
+    /**
+     * Returns filtered and sorted childs by their parent nodes.
+     *
+     * @return filtered and sorted childs by their parent nodes
+     */
+    public Map<E, List<E>> getResults() {
+        return results;
+    }
+    
+    /**
+     * Returns whether this task was cancelled or not.
+     *
+     * @return true if this task was cancelled, false otherwise
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+    
+    /**
+     * Returns whether this task has failed or not. Results of the failed task
+     * are incomplete and should not be applied.
+     *
+     * @return true if this task has failed, false otherwise
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+    
+    /**
+     * Cancels this task. Cancelled task stops processing nodes as soon as
+     * possible and never informs about its completion.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+    
+    /**
+     * Returns whether this task processes the specified node childs or not.
+     *
+     * @param other
+     *            node to check
+     * @return true if this task processes the specified node childs, false
+     *         otherwise
+     */
+    public boolean covers(final TreeNode other) {
+        TreeNode current = other;
+        while (current != null) {
+            if (current == node) {
+                return true;
+            }
+            current = recursively ? current.getParent() : null;
+        }
+        return false;
+    }
+    
+    /**
+     * Starts this task. Specified runnable will be invoked on the event
+     * dispatch thread after task is finished or has failed unless it was
+     * cancelled.
+     *
+     * @param onComplete
+     *            task completion runnable
+     */
+    public void execute(final Runnable onComplete) {
+        getPool().execute(new RecursiveAction() {
+            /**
+             * Serialization version.
+             */
+            private static final long serialVersionUID = -4417634729837129216L;
+            
+            @Override
+            protected void compute() {
+                try {
+                    new NodeAction(node).invoke();
+                } catch (final Throwable e) {
+                    failed = true;
+                    FlatLafLogger.error(SortingAndFilteringTask.class,
+                            "Unable to sort and filter tree nodes", e);
+                }
+                if (!cancelled) {
+                    SwingUtils.invokeLater(onComplete);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Returns pool shared by all sorting and filtering tasks.
+     *
+     * @return pool shared by all sorting and filtering tasks
+     */
+    private static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(Math.max(1, threadsAmount));
+        }
+        return pool;
+    }
+    
+    /**
+     * Single node childs sorting and filtering action.
+     */
+    private class NodeAction extends RecursiveAction {
+        /**
+         * Serialization version.
+         */
+        private static final long serialVersionUID = 3326189271358706561L;
+        
+        /**
+         * Node which childs should be sorted and filtered.
+         */
+        private final E parent;
+        
+        /**
+         * Constructs new node action.
+         *
+         * @param parent
+         *            node which childs should be sorted and filtered
+         */
+        public NodeAction(final E parent) {
+            super();
+            this.parent = parent;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void compute() {
+            if (cancelled) {
+                return;
+            }
+            
+            // Process only nodes with cached raw childs
+            final List<E> childs = source.getRawChilds(parent);
+            if (childs == null) {
+                return;
+            }
+            final List<E> realChilds;
+            current.set(SortingAndFilteringTask.this);
+            try {
+                realChilds = source.filterAndSort(parent, childs);
+            } finally {
+                current.remove();
+            }
+            results.put(parent, realChilds);
+            
+            // Processing resulting childs in parallel
+            if (recursively && !cancelled && realChilds.size() > 0) {
+                final List<NodeAction> actions = new ArrayList<NodeAction>(
+                        realChilds.size());
+                for (final E child : realChilds) {
+                    actions.add(new NodeAction(child));
+                }
+                invokeAll(actions);
+            }
+        }
+    }
+}
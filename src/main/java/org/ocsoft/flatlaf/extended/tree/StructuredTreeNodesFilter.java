@@ -17,9 +17,11 @@
 
 package org.ocsoft.flatlaf.extended.tree;
 
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.ocsoft.flatlaf.utils.general.Filter;
 import org.ocsoft.flatlaf.utils.general.TextProvider;
@@ -29,6 +31,14 @@ import org.ocsoft.flatlaf.weblaf.tree.UniqueNode;
  * Special smart tree filter that doesn't filter out parent nodes which has
  * childs that are accepted by filter. This can be used in any kind of filter
  * fields to provide a proper visual feedback in tree.
+ * <p/>
+ * Filter keeps node accept states for each search request separately. When
+ * search request narrows down the previous one (for example when another
+ * character is typed) nodes rejected by previous request are rejected without
+ * any checks and only previously accepted nodes are checked again. Same goes
+ * for requests which widen the previous one. Node texts are also indexed once
+ * and reused across all requests, index entries which were not used by recent
+ * requests are pruned so that removed nodes are not kept forever.
  *
  * @author Mikle Garin
  */
@@ -46,9 +56,38 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements
     protected TextProvider<E> textProvider;
     
     /**
-     * Accept states by node IDs cache.
+     * Amount of previous search requests used to resolve node accept states
+     * for the current search request.
      */
-    protected Map<String, Boolean> acceptStatesCache = new HashMap<String, Boolean>();
+    public static int requestsHistorySize = 8;
+    
+    /**
+     * Current search request accept states. It is accessed concurrently since
+     * nodes might be filtered in separate threads.
+     */
+    protected volatile AcceptStates acceptStates = null;
+    
+    /**
+     * Previous search requests accept states, most recent goes first.
+     */
+    protected final LinkedList<AcceptStates> requestsHistory = new LinkedList<AcceptStates>();
+    
+    /**
+     * Last search request generation number.
+     */
+    protected int generation = 0;
+    
+    /**
+     * Amount of search requests since filter creation. Node text index entries
+     * remember the request they were last used by.
+     */
+    protected volatile int requestsCount = 0;
+    
+    /**
+     * Node texts index by node IDs. It also contains last known accept state
+     * for each node.
+     */
+    protected final Map<String, NodeText> nodeTexts = new ConcurrentHashMap<String, NodeText>();
     
     /**
      * Whether should match case or not.
@@ -108,6 +147,7 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements
     public void setTextProvider(final TextProvider<E> textProvider) {
         this.textProvider = textProvider != null ? textProvider
                 : new DefaultTextProvider();
+        clearCache();
     }
     
     /**
@@ -126,7 +166,10 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements
      *            whether should match case or not
      */
     public void setMatchCase(final boolean matchCase) {
-        this.matchCase = matchCase;
+        if (this.matchCase != matchCase) {
+            this.matchCase = matchCase;
+            clearCache();
+        }
     }
     
     /**
@@ -147,7 +190,10 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements
      *            not
      */
     public void setUseSpaceAsSeparator(final boolean useSpaceAsSeparator) {
-        this.useSpaceAsSeparator = useSpaceAsSeparator;
+        if (this.useSpaceAsSeparator != useSpaceAsSeparator) {
+            this.useSpaceAsSeparator = useSpaceAsSeparator;
+            clearAcceptStates();
+        }
     }
     
     /**
@@ -166,7 +212,10 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements
      *            whether should search from node text beginning or not
      */
     public void setSearchFromStart(final boolean searchFromStart) {
-        this.searchFromStart = searchFromStart;
+        if (this.searchFromStart != searchFromStart) {
+            this.searchFromStart = searchFromStart;
+            clearAcceptStates();
+        }
     }
     
     /**
@@ -179,7 +228,9 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements
     }
     
     /**
-     * Sets search request text.
+     * Sets search request text. Accept states cached for previous requests are
+     * used to resolve new request states where possible, so there is no need
+     * to clear cache when only search text is changed.
      *
      * @param searchText
      *            search request text
@@ -189,10 +240,19 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements
     }
     
     /**
-     * Clears accept states cache.
+     * Clears accept states cache and node texts index.
      */
     public void clearCache() {
-        acceptStatesCache.clear();
+        clearAcceptStates();
+        nodeTexts.clear();
+    }
+    
+    /**
+     * Clears accept states of all previous search requests.
+     */
+    protected synchronized void clearAcceptStates() {
+        acceptStates = null;
+        requestsHistory.clear();
     }
     
     /**
@@ -202,11 +262,30 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements
         clearCache(node.getId());
     }
     
+    /**
+     * Clears specific node and, optionally, all of its child nodes accept
+     * state cache.
+     *
+     * @param node
+     *            node to clear cache for
+     * @param recursively
+     *            whether should clear child nodes cache as well or not
+     */
+    public void clearCache(final UniqueNode node, final boolean recursively) {
+        clearCache(node.getId());
+        if (recursively) {
+            for (final UniqueNode child : SortingAndFilteringTask
+                    .getChilds(node)) {
+                clearCache(child, true);
+            }
+        }
+    }
+    
     /**
      * Clears specific node accept state cache.
      */
     public void clearCache(final String nodeId) {
-        acceptStatesCache.remove(nodeId);
+        nodeTexts.remove(nodeId);
     }
     
     /**
@@ -227,7 +306,8 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements
     
     /**
      * Returns whether the specified node or any of its childs match the filter
-     * or not.
+     * or not. Childs copied by the sorting and filtering task are used if node
+     * is filtered within such task.
      *
      * @param node
      *            node to match
@@ -241,8 +321,8 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements
         if (acceptNode(node, searchRequest)) {
             return true;
         }
-        for (int i = 0; i < node.getChildCount(); i++) {
-            if (acceptIncludingChilds((E) node.getChildAt(i), searchRequest)) {
+        for (final E child : SortingAndFilteringTask.getChilds(node)) {
+            if (acceptIncludingChilds(child, searchRequest)) {
                 return true;
             }
         }
@@ -261,14 +341,164 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements
      * @return true if the specified node matches the filter, false otherwise
      */
     protected boolean acceptNode(final E node, final String searchRequest) {
-        Boolean accept = acceptStatesCache.get(node.getId());
+        final AcceptStates states = getAcceptStates(searchRequest);
+        final NodeText nodeText = getNodeTextEntry(node);
+        Boolean accept = states.get(nodeText.state);
         if (accept == null) {
             accept = acceptNodeImpl(node, searchRequest);
-            acceptStatesCache.put(node.getId(), accept);
+            nodeText.state = states.getState(accept);
         }
         return accept;
     }
     
+    /**
+     * Returns accept states for the specified search request. New states are
+     * able to resolve node states from the previous related requests.
+     *
+     * @param searchRequest
+     *            search request text
+     * @return accept states for the specified search request
+     */
+    protected AcceptStates getAcceptStates(final String searchRequest) {
+        final AcceptStates current = acceptStates;
+        if (current != null && current.request.equals(searchRequest)) {
+            return current;
+        }
+        synchronized (this) {
+            if (acceptStates != null
+                    && acceptStates.request.equals(searchRequest)) {
+                return acceptStates;
+            }
+            
+            // Reusing generation of the same recent request
+            // This way node states resolved for it are still valid
+            int requestGeneration = -1;
+            final Iterator<AcceptStates> iterator = requestsHistory.iterator();
+            while (iterator.hasNext()) {
+                final AcceptStates previous = iterator.next();
+                if (previous.request.equals(searchRequest)) {
+                    requestGeneration = previous.generation;
+                    iterator.remove();
+                    break;
+                }
+            }
+            if (requestGeneration == -1) {
+                generation++;
+                requestGeneration = generation;
+            }
+            
+            // Checking relations with previous requests
+            final int size = requestsHistory.size();
+            final int[] generations = new int[size];
+            final boolean[] rejects = new boolean[size];
+            final boolean[] accepts = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                final AcceptStates previous = requestsHistory.get(i);
+                generations[i] = previous.generation;
+                rejects[i] = narrows(previous.request, searchRequest);
+                accepts[i] = narrows(searchRequest, previous.request);
+            }
+            
+            // Creating new request states
+            acceptStates = new AcceptStates(searchRequest, requestGeneration,
+                    generations, rejects, accepts);
+            requestsHistory.addFirst(acceptStates);
+            final int historySize = Math.max(1, requestsHistorySize);
+            while (requestsHistory.size() > historySize) {
+                requestsHistory.removeLast();
+            }
+            
+            // Pruning node texts of nodes not used by recent requests
+            requestsCount++;
+            if (requestsCount % historySize == 0) {
+                pruneNodeTexts(requestsCount - historySize);
+            }
+            return acceptStates;
+        }
+    }
+    
+    /**
+     * Returns whether narrower search request can only accept nodes accepted
+     * by the specified request or not.
+     *
+     * @param searchRequest
+     *            search request text
+     * @param narrower
+     *            possibly narrower search request text
+     * @return true if narrower search request can only accept nodes accepted
+     *         by the specified request, false otherwise
+     */
+    protected boolean narrows(final String searchRequest, final String narrower) {
+        if (useSpaceAsSeparator) {
+            // Each request part should narrow down the corresponding one
+            final StringTokenizer requests = new StringTokenizer(
+                    searchRequest, " ", false);
+            final StringTokenizer narrowers = new StringTokenizer(narrower,
+                    " ", false);
+            if (requests.countTokens() != narrowers.countTokens()) {
+                return false;
+            }
+            while (requests.hasMoreTokens()) {
+                if (!accept(narrowers.nextToken(), requests.nextToken(),
+                        searchFromStart)) {
+                    return false;
+                }
+            }
+            return true;
+        } else {
+            return accept(narrower, searchRequest, searchFromStart);
+        }
+    }
+    
+    /**
+     * Returns node text in the form used for matching. Texts are indexed so
+     * that text provider is asked for each node only once.
+     *
+     * @param node
+     *            node to process
+     * @return node text in the form used for matching
+     */
+    protected String getNodeText(final E node) {
+        return getNodeTextEntry(node).text;
+    }
+    
+    /**
+     * Returns node text index entry.
+     *
+     * @param node
+     *            node to process
+     * @return node text index entry
+     */
+    protected NodeText getNodeTextEntry(final E node) {
+        NodeText nodeText = nodeTexts.get(node.getId());
+        if (nodeText == null) {
+            final String text = textProvider.provide(node);
+            nodeText = new NodeText(matchCase ? text : text.toLowerCase());
+            nodeTexts.put(node.getId(), nodeText);
+        }
+        if (nodeText.used != requestsCount) {
+            nodeText.used = requestsCount;
+        }
+        return nodeText;
+    }
+    
+    /**
+     * Removes node text index entries which were not used since the specified
+     * request. Those mostly belong to nodes which are no longer in the tree,
+     * entries of existing nodes are simply created again when needed.
+     *
+     * @param request
+     *            number of the oldest request which entries should be kept
+     */
+    protected void pruneNodeTexts(final int request) {
+        final Iterator<NodeText> iterator = nodeTexts.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().used < request) {
+                iterator.remove();
+            }
+        }
+    }
+    
     /**
      * Returns whether the specified node matches the filter or not.
      *
@@ -279,8 +509,7 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements
      * @return true if the specified node matches the filter, false otherwise
      */
     protected boolean acceptNodeImpl(final E node, final String searchRequest) {
-        final String nodeText = matchCase ? textProvider.provide(node)
-                : textProvider.provide(node).toLowerCase();
+        final String nodeText = getNodeText(node);
         if (useSpaceAsSeparator) {
             final StringTokenizer tokenizer = new StringTokenizer(
                     searchRequest, " ", false);
@@ -312,4 +541,133 @@ public class StructuredTreeNodesFilter<E extends UniqueNode> implements
         return searchFromStart ? nodeText.startsWith(searchRequest) : nodeText
                 .contains(searchRequest);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Node text index entry.
+     */
+    protected static class NodeText {
+        /**
+         * Node text in the form used for matching.
+         */
+        protected final String text;
+        
+        /**
+         * Last known node accept state, see AcceptStates.getState(boolean).
+         */
+        protected volatile long state = -1;
+        
+        /**
+         * Number of the last search request this entry was used by.
+         */
+        protected volatile int used;
+        
+        /**
+         * Constructs new node text index entry.
+         *
+         * @param text
+         *            node text in the form used for matching
+         */
+        public NodeText(final String text) {
+            super();
+            this.text = text;
+        }
+    }
+    
+    /**
+     * Node accept states resolver for a single search request.
+     */
+    protected static class AcceptStates {
+        /**
+         * Search request text.
+         */
+        protected final String request;
+        
+        /**
+         * Search request generation number.
+         */
+        protected final int generation;
+        
+        /**
+         * Previous requests generation numbers.
+         */
+        protected final int[] generations;
+        
+        /**
+         * Whether nodes rejected by the previous requests are rejected by this
+         * one as well.
+         */
+        protected final boolean[] rejects;
+        
+        /**
+         * Whether nodes accepted by the previous requests are accepted by this
+         * one as well.
+         */
+        protected final boolean[] accepts;
+        
+        /**
+         * Constructs new accept states resolver.
+         *
+         * @param request
+         *            search request text
+         * @param generation
+         *            search request generation number
+         * @param generations
+         *            previous requests generation numbers
+         * @param rejects
+         *            whether nodes rejected by the previous requests are
+         *            rejected by this one as well
+         * @param accepts
+         *            whether nodes accepted by the previous requests are
+         *            accepted by this one as well
+         */
+        public AcceptStates(final String request, final int generation,
+                final int[] generations, final boolean[] rejects,
+                final boolean[] accepts) {
+            super();
+            this.request = request;
+            this.generation = generation;
+            this.generations = generations;
+            this.rejects = rejects;
+            this.accepts = accepts;
+        }
+        
+        /**
+         * Returns node accept state for this request resolved from the last
+         * known node state or null if it cannot be resolved.
+         *
+         * @param state
+         *            last known node state
+         * @return node accept state or null if it cannot be resolved
+         */
+        public Boolean get(final long state) {
+            if (state < 0) {
+                return null;
+            }
+            final int stateGeneration = (int) (state >>> 1);
+            final boolean accepted = (state & 1) == 1;
+            if (stateGeneration == generation) {
+                return accepted;
+            }
+            for (int i = 0; i < generations.length; i++) {
+                if (generations[i] == stateGeneration) {
+                    if (accepted ? accepts[i] : rejects[i]) {
+                        return accepted;
+                    }
+                    break;
+                }
+            }
+            return null;
+        }
+        
+        /**
+         * Returns node state for the specified accept state of this request.
+         *
+         * @param accepted
+         *            whether node is accepted or not
+         * @return node state
+         */
+        public long getState(final boolean accepted) {
+            return ((long) generation << 1) | (accepted ? 1 : 0);
+        }
+    }
+}
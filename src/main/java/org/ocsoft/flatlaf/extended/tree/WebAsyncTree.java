@@ -383,6 +383,34 @@ public class WebAsyncTree<E extends AsyncUniqueNode> extends WebTree<E>
         AsyncTreeQueue.setMaximumThreadsAmount(this, amount);
     }
     
+    /**
+     * Prioritizes childs load for the expanded node.
+     *
+     * @param path
+     *            expanded path
+     */
+    @Override
+    public void fireTreeExpanded(final TreePath path) {
+        super.fireTreeExpanded(path);
+        if (isAsyncModel()) {
+            getAsyncModel().prioritizeChildsLoad(getNodeForPath(path));
+        }
+    }
+    
+    /**
+     * Cancels pending childs loads for the collapsed node and its childs.
+     *
+     * @param path
+     *            collapsed path
+     */
+    @Override
+    public void fireTreeCollapsed(final TreePath path) {
+        super.fireTreeCollapsed(path);
+        if (isAsyncModel()) {
+            getAsyncModel().cancelChildsLoad(getNodeForPath(path));
+        }
+    }
+    
     /**
      * Sets child nodes for the specified node. This method might be used to
      * manually change tree node childs without causing any structure
@@ -198,6 +198,14 @@ public class WebExTree<E extends UniqueNode> extends WebTree<E> {
         getExModel().updateSortingAndFiltering();
     }
     
+    /**
+     * Updates nodes sorting and filtering for all loaded nodes and invokes the
+     * specified action once updated nodes are applied to the tree.
+     */
+    public void updateSortingAndFiltering(final Runnable onComplete) {
+        getExModel().updateSortingAndFiltering(onComplete);
+    }
+    
     /**
      * Updates sorting and filtering for the specified node childs.
      */
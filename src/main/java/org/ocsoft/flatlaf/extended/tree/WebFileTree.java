@@ -135,10 +135,18 @@ public class WebFileTree extends WebAsyncTree<FileTreeNode> {
         // This made to load initial data without delay using EDT
         // This is some kind of workaround for file chooser to allow it proper
         // file expansion on first load
-        final boolean async = isAsyncLoading();
-        setAsyncLoading(false);
-        super.setModel(newModel);
-        setAsyncLoading(async);
+        // Single directory root is still loaded asynchronously since it might
+        // contain a lot of files which would block EDT
+        final Object root = newModel != null ? newModel.getRoot() : null;
+        if (root instanceof FileTreeNode
+                && ((FileTreeNode) root).getFile() != null) {
+            super.setModel(newModel);
+        } else {
+            final boolean async = isAsyncLoading();
+            setAsyncLoading(false);
+            super.setModel(newModel);
+            setAsyncLoading(async);
+        }
     }
     
     /**
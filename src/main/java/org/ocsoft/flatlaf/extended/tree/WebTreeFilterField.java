@@ -32,7 +32,10 @@ import java.lang.ref.WeakReference;
 import javax.swing.ImageIcon;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
 import javax.swing.text.Document;
+import javax.swing.tree.TreeModel;
 
 import org.ocsoft.flatlaf.core.constants.FlatLafConstants;
 import org.ocsoft.flatlaf.extended.image.WebImage;
@@ -101,6 +104,22 @@ public class WebTreeFilterField<E extends UniqueNode> extends WebTextField {
      */
     protected PropertyChangeListener filterChangeListener;
     
+    /**
+     * Tree model change listener.
+     */
+    protected PropertyChangeListener modelChangeListener;
+    
+    /**
+     * Tree model listener that clears filter cache of changed and removed
+     * nodes.
+     */
+    protected TreeModelListener modelListener;
+    
+    /**
+     * Currently listened tree model.
+     */
+    protected TreeModel model;
+    
     /**
      * Whether should automatically handle tree state on filter changes or not.
      */
@@ -314,6 +333,19 @@ public class WebTreeFilterField<E extends UniqueNode> extends WebTextField {
         };
         getTree().addPropertyChangeListener(WebTree.TREE_FILTER_PROPERTY,
                 dataProviderChangeListener);
+        
+        // Tree model change listener to keep filter cache listener installed
+        modelChangeListener = new PropertyChangeListener() {
+            @Override
+            public void propertyChange(final PropertyChangeEvent evt) {
+                // Moving filter cache listener to the new model
+                if (model != null) {
+                    installModelListener((TreeModel) evt.getNewValue());
+                }
+            }
+        };
+        getTree().addPropertyChangeListener(WebTree.TREE_MODEL_PROPERTY,
+                modelChangeListener);
     }
     
     /**
@@ -343,6 +375,8 @@ public class WebTreeFilterField<E extends UniqueNode> extends WebTextField {
             // Removing listener from previous tree
             previousTree.removePropertyChangeListener(
                     WebTree.TREE_MODEL_PROPERTY, dataProviderChangeListener);
+            previousTree.removePropertyChangeListener(
+                    WebTree.TREE_MODEL_PROPERTY, modelChangeListener);
             
             // Removing filter from previous tree
             removeFieldFilter();
@@ -359,6 +393,8 @@ public class WebTreeFilterField<E extends UniqueNode> extends WebTextField {
             // Adding listener into current tree
             tree.addPropertyChangeListener(WebTree.TREE_MODEL_PROPERTY,
                     dataProviderChangeListener);
+            tree.addPropertyChangeListener(WebTree.TREE_MODEL_PROPERTY,
+                    modelChangeListener);
         }
     }
     
@@ -405,6 +441,7 @@ public class WebTreeFilterField<E extends UniqueNode> extends WebTextField {
                 
                 // Updating field tree filter
                 asyncTree.setFilter(filter);
+                installModelListener(asyncTree.getModel());
             } else if (tree instanceof WebExTree) {
                 final WebExTree exTree = (WebExTree) tree;
                 
@@ -420,10 +457,73 @@ public class WebTreeFilterField<E extends UniqueNode> extends WebTextField {
                 
                 // Updating field tree filter
                 exTree.setFilter(filter);
+                installModelListener(exTree.getModel());
             }
         }
     }
     
+    /**
+     * Installs listener that keeps filter cache up to date into the specified
+     * tree model.
+     *
+     * @param treeModel
+     *            tree model to listen
+     */
+    protected void installModelListener(final TreeModel treeModel) {
+        uninstallModelListener();
+        if (modelListener == null) {
+            modelListener = new TreeModelListener() {
+                @Override
+                public void treeNodesChanged(final TreeModelEvent e) {
+                    // Changed nodes might have different text now
+                    final Object[] children = e.getChildren();
+                    if (children != null) {
+                        for (final Object child : children) {
+                            filter.clearCache((UniqueNode) child, false);
+                        }
+                    } else {
+                        filter.clearCache((UniqueNode) e.getTreePath()
+                                .getLastPathComponent(), false);
+                    }
+                }
+                
+                @Override
+                public void treeNodesRemoved(final TreeModelEvent e) {
+                    // Removed nodes are not needed anymore
+                    for (final Object child : e.getChildren()) {
+                        filter.clearCache((UniqueNode) child, true);
+                    }
+                }
+                
+                @Override
+                public void treeNodesInserted(final TreeModelEvent e) {
+                    // New nodes are indexed when filtered
+                }
+                
+                @Override
+                public void treeStructureChanged(final TreeModelEvent e) {
+                    // Structure is changed on each filtering update
+                    // Nodes which are no longer in the tree are pruned from
+                    // the filter cache by the filter itself
+                }
+            };
+        }
+        model = treeModel;
+        if (model != null) {
+            model.addTreeModelListener(modelListener);
+        }
+    }
+    
+    /**
+     * Uninstalls filter cache listener from the currently listened tree model.
+     */
+    protected void uninstallModelListener() {
+        if (model != null) {
+            model.removeTreeModelListener(modelListener);
+            model = null;
+        }
+    }
+    
     /**
      * Removes field tree filter.
      */
@@ -437,6 +537,7 @@ public class WebTreeFilterField<E extends UniqueNode> extends WebTextField {
                 ((WebExTree) tree).setFilter(originalFilter);
             }
             filter.setOriginalFilter(null);
+            uninstallModelListener();
         }
     }
     
@@ -494,10 +595,9 @@ public class WebTreeFilterField<E extends UniqueNode> extends WebTextField {
             if (tree instanceof WebAsyncTree) {
                 // todo Restore/expand behavior
                 
-                // Cleaning up filter cache
-                filter.clearCache();
-                
                 // Updating tree filtering
+                // Filter cache is not cleared here since filter reuses
+                // previous request results for the new one itself
                 ((WebAsyncTree) tree).updateSortingAndFiltering();
             } else if (tree instanceof WebExTree) {
                 // Save tree state before filtering
@@ -508,27 +608,30 @@ public class WebTreeFilterField<E extends UniqueNode> extends WebTextField {
                     }
                 }
                 
-                // Cleaning up filter cache
-                filter.clearCache();
-                
                 // Updating tree filtering
-                ((WebExTree) tree).updateSortingAndFiltering();
-                
-                // Restore tree state or expand tree
-                if (defaultTreeStateBehavior) {
-                    if (isEmpty()) {
-                        // Restore tree state
-                        if (treeState != null) {
-                            tree.setTreeState(treeState);
-                            tree.scrollRectToVisible(visibleRect);
-                            treeState = null;
-                            visibleRect = null;
+                // Filter cache is not cleared here since filter reuses
+                // previous request results for the new one itself
+                // Tree state is updated once filtered nodes are applied
+                ((WebExTree) tree).updateSortingAndFiltering(new Runnable() {
+                    @Override
+                    public void run() {
+                        // Restore tree state or expand tree
+                        if (defaultTreeStateBehavior) {
+                            if (isEmpty()) {
+                                // Restore tree state
+                                if (treeState != null) {
+                                    tree.setTreeState(treeState);
+                                    tree.scrollRectToVisible(visibleRect);
+                                    treeState = null;
+                                    visibleRect = null;
+                                }
+                            } else {
+                                // Expand all
+                                tree.expandAll();
+                            }
                         }
-                    } else {
-                        // Expand all
-                        tree.expandAll();
                     }
-                }
+                });
             }
         }
     }
@@ -68,6 +68,7 @@ import org.ocsoft.flatlaf.utils.laf.ShapeProvider;
 import org.ocsoft.flatlaf.utils.ninepatch.NinePatchIcon;
 import org.ocsoft.flatlaf.utils.ninepatch.NinePatchUtils;
 import org.ocsoft.flatlaf.utils.swing.AncestorAdapter;
+import org.ocsoft.flatlaf.utils.swing.AnimationPulse;
 import org.ocsoft.flatlaf.utils.swing.BorderMethods;
 import org.ocsoft.flatlaf.utils.swing.WebTimer;
 import org.ocsoft.flatlaf.weblaf.FlatLafStyleConstants;
@@ -201,10 +202,11 @@ public class FlatButtonUI extends BasicButtonUI implements ShapeProvider,
                                     }
                                     updateTransparentShineColor();
                                     if (c.isEnabled()) {
-                                        c.repaint();
+                                        AnimationPulse.repaint(c);
                                     }
                                 }
                             });
+                    animator.setBackend(AnimationPulse.getInstance());
                     animator.start();
                 } else {
                     transparency = 1f;
@@ -238,10 +240,11 @@ public class FlatButtonUI extends BasicButtonUI implements ShapeProvider,
                                     }
                                     updateTransparentShineColor();
                                     if (c.isEnabled()) {
-                                        c.repaint();
+                                        AnimationPulse.repaint(c);
                                     }
                                 }
                             });
+                    animator.setBackend(AnimationPulse.getInstance());
                     animator.start();
                 } else {
                     rollover = false;
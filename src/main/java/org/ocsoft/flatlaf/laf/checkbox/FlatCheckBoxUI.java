@@ -57,6 +57,7 @@ import org.ocsoft.flatlaf.utils.SwingUtils;
 import org.ocsoft.flatlaf.utils.graphics.GraphicsUtils;
 import org.ocsoft.flatlaf.utils.laf.ShapeProvider;
 import org.ocsoft.flatlaf.utils.reflection.ReflectUtils;
+import org.ocsoft.flatlaf.utils.swing.AnimationPulse;
 import org.ocsoft.flatlaf.utils.swing.WebTimer;
 import org.ocsoft.flatlaf.weblaf.FlatLafStyleConstants;
 import org.ocsoft.flatlaf.weblaf.checkbox.CheckIcon;
@@ -246,15 +247,16 @@ public class FlatCheckBoxUI extends BasicCheckBoxUI implements ShapeProvider {
                     public void actionPerformed(final ActionEvent e) {
                         if (rollover && bgDarkness < MAX_DARKNESS) {
                             bgDarkness++;
-                            checkBox.repaint();
+                            AnimationPulse.repaint(checkBox);
                         } else if (!rollover && bgDarkness > 0) {
                             bgDarkness--;
-                            checkBox.repaint();
+                            AnimationPulse.repaint(checkBox);
                         } else {
                             bgTimer.stop();
                         }
                     }
                 });
+        bgTimer.setBackend(AnimationPulse.getInstance());
         mouseAdapter = new MouseAdapter() {
             @Override
             public void mouseEntered(final MouseEvent e) {
@@ -302,10 +304,11 @@ public class FlatCheckBoxUI extends BasicCheckBoxUI implements ShapeProvider {
                             checkTimer.stop();
                         } else {
                             checkIcon.doStep();
-                            checkBox.repaint();
+                            AnimationPulse.repaint(checkBox);
                         }
                     }
                 });
+        checkTimer.setBackend(AnimationPulse.getInstance());
         itemListener = new ItemListener() {
             @Override
             public void itemStateChanged(final ItemEvent e) {
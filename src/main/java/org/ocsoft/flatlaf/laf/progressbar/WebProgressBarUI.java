@@ -39,7 +39,6 @@ import java.beans.PropertyChangeListener;
 import javax.swing.JComponent;
 import javax.swing.JProgressBar;
 import javax.swing.LookAndFeel;
-import javax.swing.SwingUtilities;
 import javax.swing.event.AncestorEvent;
 import javax.swing.plaf.ComponentUI;
 import javax.swing.plaf.basic.BasicProgressBarUI;
@@ -50,9 +49,9 @@ import org.ocsoft.flatlaf.utils.SwingUtils;
 import org.ocsoft.flatlaf.utils.graphics.GraphicsUtils;
 import org.ocsoft.flatlaf.utils.laf.ShapeProvider;
 import org.ocsoft.flatlaf.utils.swing.AncestorAdapter;
+import org.ocsoft.flatlaf.utils.swing.AnimationPulse;
 import org.ocsoft.flatlaf.utils.swing.BorderMethods;
 import org.ocsoft.flatlaf.utils.swing.WebTimer;
-import org.ocsoft.flatlaf.utils.system.FlatLafSystemUtils;
 import org.ocsoft.flatlaf.weblaf.FlatLafStyleConstants;
 import org.ocsoft.flatlaf.weblaf.progressbar.WebProgressBarStyle;
 
@@ -291,30 +290,47 @@ public class WebProgressBarUI extends BasicProgressBarUI implements
                                     } else {
                                         animationLocation = 0;
                                     }
-                                    SwingUtilities.invokeLater(new Runnable() {
-                                        @Override
-                                        public void run() {
-                                            progressBar.repaint();
-                                        }
-                                    });
+                                    AnimationPulse.repaint(progressBar);
                                 }
                             });
-                    animator.setUseEventDispatchThread(false);
                 } else {
                     animationLocation = -determinateAnimationWidth;
                     animator = new WebTimer("WebProgressBarUI.animator",
                             FlatLafStyleConstants.animationDelay,
                             new ActionListener() {
+                                /**
+                                 * Whether timer is paused at the moment or
+                                 * not.
+                                 */
+                                private boolean paused = false;
+                                
+                                /**
+                                 * Timer initial delay replaced by the pause.
+                                 */
+                                private long initialDelay;
+                                
                                 @Override
                                 public void actionPerformed(final ActionEvent e) {
+                                    final WebTimer timer = (WebTimer) e
+                                            .getSource();
+                                    if (paused) {
+                                        // Restoring initial delay after pause
+                                        paused = false;
+                                        timer.setInitialDelay(initialDelay);
+                                    }
                                     if (animationLocation < getProgressWidth()) {
                                         animationLocation += 15;
                                         refresh(progressBar);
                                     } else {
                                         animationLocation = -determinateAnimationWidth;
                                         refresh(progressBar);
-                                        FlatLafSystemUtils
-                                                .sleepSafely(determinateAnimationPause);
+                                        
+                                        // Pausing without blocking other
+                                        // animations
+                                        paused = true;
+                                        initialDelay = timer.getInitialDelay();
+                                        timer.restart(determinateAnimationPause,
+                                                timer.getDelay());
                                     }
                                 }
                                 
@@ -323,18 +339,12 @@ public class WebProgressBarUI extends BasicProgressBarUI implements
                                     if (!progressBar.isIndeterminate()
                                             && progressBar.getValue() > progressBar
                                                     .getMinimum()) {
-                                        SwingUtilities
-                                                .invokeLater(new Runnable() {
-                                                    @Override
-                                                    public void run() {
-                                                        progressBar.repaint();
-                                                    }
-                                                });
+                                        AnimationPulse.repaint(progressBar);
                                     }
                                 }
                             });
                 }
-                animator.setUseEventDispatchThread(false);
+                animator.setBackend(AnimationPulse.getInstance());
                 animator.start();
             }
         }
@@ -56,6 +56,7 @@ import org.ocsoft.flatlaf.utils.LafUtils;
 import org.ocsoft.flatlaf.utils.SwingUtils;
 import org.ocsoft.flatlaf.utils.graphics.GraphicsUtils;
 import org.ocsoft.flatlaf.utils.laf.ShapeProvider;
+import org.ocsoft.flatlaf.utils.swing.AnimationPulse;
 import org.ocsoft.flatlaf.utils.swing.WebTimer;
 import org.ocsoft.flatlaf.weblaf.FlatLafStyleConstants;
 import org.ocsoft.flatlaf.weblaf.list.WebListElement;
@@ -150,15 +151,16 @@ public class WebRadioButtonUI extends BasicRadioButtonUI implements
                     public void actionPerformed(final ActionEvent e) {
                         if (rollover && bgDarkness < MAX_DARKNESS) {
                             bgDarkness++;
-                            c.repaint();
+                            AnimationPulse.repaint(c);
                         } else if (!rollover && bgDarkness > 0) {
                             bgDarkness--;
-                            c.repaint();
+                            AnimationPulse.repaint(c);
                         } else {
                             bgTimer.stop();
                         }
                     }
                 });
+        bgTimer.setBackend(AnimationPulse.getInstance());
         mouseAdapter = new MouseAdapter() {
             @Override
             public void mouseEntered(final MouseEvent e) {
@@ -191,15 +193,16 @@ public class WebRadioButtonUI extends BasicRadioButtonUI implements
                     public void actionPerformed(final ActionEvent e) {
                         if (checking && checkIcon < CHECK_STATES.size() - 1) {
                             checkIcon++;
-                            c.repaint();
+                            AnimationPulse.repaint(c);
                         } else if (!checking && checkIcon > 0) {
                             checkIcon--;
-                            c.repaint();
+                            AnimationPulse.repaint(c);
                         } else {
                             checkTimer.stop();
                         }
                     }
                 });
+        checkTimer.setBackend(AnimationPulse.getInstance());
         itemListener = new ItemListener() {
             @Override
             public void itemStateChanged(final ItemEvent e) {
@@ -52,6 +52,7 @@ import org.ocsoft.flatlaf.utils.ColorUtils;
 import org.ocsoft.flatlaf.utils.LafUtils;
 import org.ocsoft.flatlaf.utils.SwingUtils;
 import org.ocsoft.flatlaf.utils.graphics.GraphicsUtils;
+import org.ocsoft.flatlaf.utils.swing.AnimationPulse;
 import org.ocsoft.flatlaf.utils.swing.BorderMethods;
 import org.ocsoft.flatlaf.utils.swing.WebTimer;
 import org.ocsoft.flatlaf.weblaf.FlatLafStyleConstants;
@@ -168,15 +169,16 @@ public class WebSliderUI extends BasicSliderUI implements BorderMethods {
                     public void actionPerformed(final ActionEvent e) {
                         if (rollover && rolloverDarkness < MAX_DARKNESS) {
                             rolloverDarkness++;
-                            slider.repaint();
+                            AnimationPulse.repaint(slider);
                         } else if (!rollover && rolloverDarkness > 0) {
                             rolloverDarkness--;
-                            slider.repaint();
+                            AnimationPulse.repaint(slider);
                         } else {
                             rolloverTimer.stop();
                         }
                     }
                 });
+        rolloverTimer.setBackend(AnimationPulse.getInstance());
         mouseAdapter = new MouseAdapter() {
             @Override
             public void mousePressed(final MouseEvent e) {
@@ -30,6 +30,7 @@ import java.awt.image.BufferedImage;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.ocsoft.flatlaf.core.FlatLafInitializer;
 import org.ocsoft.flatlaf.managers.glasspane.GlassPaneManager;
 import org.ocsoft.flatlaf.managers.glasspane.WebGlassPane;
 import org.ocsoft.flatlaf.utils.SwingUtils;
@@ -77,6 +78,7 @@ public class DragManager {
         if (!initialized) {
             // Remember that initialization happened
             initialized = true;
+            final long start = System.nanoTime();
             
             // View handlers map
             viewHandlers = new HashMap<DataFlavor, DragViewHandler>();
@@ -165,6 +167,9 @@ public class DragManager {
             };
             DragSource.getDefaultDragSource().addDragSourceListener(dsa);
             DragSource.getDefaultDragSource().addDragSourceMotionListener(dsa);
+            
+            // Recording initialization time for the startup report
+            FlatLafInitializer.lazyManagerInitialized("DragManager", start);
         }
     }
     
@@ -175,6 +180,9 @@ public class DragManager {
      *            DragViewHandler to register
      */
     public static void registerViewHandler(final DragViewHandler dragViewHandler) {
+        // Ensure DragManager is initialized
+        initialize();
+        
         viewHandlers.put(dragViewHandler.getObjectFlavor(), dragViewHandler);
     }
     
@@ -186,6 +194,8 @@ public class DragManager {
      */
     public static void unregisterViewHandler(
             final DragViewHandler dragViewHandler) {
-        viewHandlers.remove(dragViewHandler.getObjectFlavor());
+        if (viewHandlers != null) {
+            viewHandlers.remove(dragViewHandler.getObjectFlavor());
+        }
     }
 }
\ No newline at end of file
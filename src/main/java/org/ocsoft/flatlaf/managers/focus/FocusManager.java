@@ -19,6 +19,7 @@ package org.ocsoft.flatlaf.managers.focus;
 
 import java.awt.AWTEvent;
 import java.awt.Component;
+import java.awt.KeyboardFocusManager;
 import java.awt.Toolkit;
 import java.awt.event.AWTEventListener;
 import java.awt.event.FocusEvent;
@@ -30,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
 
+import org.ocsoft.flatlaf.core.FlatLafInitializer;
 import org.ocsoft.flatlaf.core.constants.FlatLafConstants;
 import org.ocsoft.flatlaf.utils.collection.CollectionUtils;
 import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
@@ -87,6 +89,12 @@ public class FocusManager {
         if (!initialized) {
             // Remember that initialization happened
             initialized = true;
+            final long start = System.nanoTime();
+            
+            // Manager might be initialized after the focus was already
+            // transferred, so current focus owner is remembered here
+            focusOwner = new WeakReference<Component>(KeyboardFocusManager
+                    .getCurrentKeyboardFocusManager().getFocusOwner());
             
             // Global focus listener
             Toolkit.getDefaultToolkit().addAWTEventListener(
@@ -189,6 +197,9 @@ public class FocusManager {
                     }
                 }
             });
+            
+            // Recording initialization time for the startup report
+            FlatLafInitializer.lazyManagerInitialized("FocusManager", start);
         }
     }
     
@@ -224,6 +235,9 @@ public class FocusManager {
      * @return currently focused component
      */
     public static Component getFocusOwner() {
+        // Ensure FocusManager is initialized
+        initialize();
+        
         return focusOwner != null ? focusOwner.get() : null;
     }
     
@@ -233,7 +247,10 @@ public class FocusManager {
      * @return previously focused component
      */
     public static Component getOldFocusOwner() {
-        return oldFocusOwner.get();
+        // Ensure FocusManager is initialized
+        initialize();
+        
+        return oldFocusOwner != null ? oldFocusOwner.get() : null;
     }
     
     /**
@@ -244,6 +261,9 @@ public class FocusManager {
      */
     public static void registerGlobalFocusListener(
             final GlobalFocusListener listener) {
+        // Ensure FocusManager is initialized
+        initialize();
+        
         synchronized (listenersLock) {
             globalFocusListeners.add(listener);
         }
@@ -294,6 +314,9 @@ public class FocusManager {
      */
     public static void addFocusTracker(final Component component,
             final FocusTracker focusTracker) {
+        // Ensure FocusManager is initialized
+        initialize();
+        
         synchronized (trackersLock) {
             Map<FocusTracker, Boolean> componentTrackers = trackers
                     .get(component);
@@ -19,8 +19,12 @@ package org.ocsoft.flatlaf.managers.hotkey;
 
 import java.awt.event.KeyEvent;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.swing.KeyStroke;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
 import org.ocsoft.flatlaf.utils.SwingUtils;
 
@@ -64,6 +68,11 @@ public class HotkeyData implements Serializable, Cloneable {
      */
     protected transient Integer hashCode;
     
+    /**
+     * Hotkey data change listeners.
+     */
+    protected transient List<ChangeListener> changeListeners;
+    
     /**
      * Constructs empty hotkey data.
      */
@@ -159,6 +168,7 @@ public class HotkeyData implements Serializable, Cloneable {
     public void setCtrl(final boolean ctrl) {
         isCtrl = ctrl;
         this.hashCode = null;
+        fireStateChanged();
     }
     
     /**
@@ -179,6 +189,7 @@ public class HotkeyData implements Serializable, Cloneable {
     public void setAlt(final boolean alt) {
         isAlt = alt;
         this.hashCode = null;
+        fireStateChanged();
     }
     
     /**
@@ -200,6 +211,7 @@ public class HotkeyData implements Serializable, Cloneable {
     public void setShift(final boolean shift) {
         isShift = shift;
         this.hashCode = null;
+        fireStateChanged();
     }
     
     /**
@@ -220,6 +232,7 @@ public class HotkeyData implements Serializable, Cloneable {
     public void setKeyCode(final Integer keyCode) {
         this.keyCode = keyCode;
         this.hashCode = null;
+        fireStateChanged();
     }
     
     /**
@@ -298,6 +311,63 @@ public class HotkeyData implements Serializable, Cloneable {
         isCtrl = SwingUtils.isCtrl(modifiers);
         isAlt = SwingUtils.isAlt(modifiers);
         isShift = SwingUtils.isShift(modifiers);
+        this.hashCode = null;
+        fireStateChanged();
+    }
+    
+    /**
+     * Adds hotkey data change listener.
+     *
+     * @param listener
+     *            hotkey data change listener
+     */
+    public synchronized void addChangeListener(final ChangeListener listener) {
+        if (changeListeners == null) {
+            changeListeners = new ArrayList<ChangeListener>(1);
+        }
+        changeListeners.add(listener);
+    }
+    
+    /**
+     * Removes hotkey data change listener.
+     *
+     * @param listener
+     *            hotkey data change listener
+     */
+    public synchronized void removeChangeListener(
+            final ChangeListener listener) {
+        if (changeListeners != null) {
+            changeListeners.remove(listener);
+        }
+    }
+    
+    /**
+     * Returns whether the specified change listener is added or not.
+     *
+     * @param listener
+     *            hotkey data change listener
+     * @return true if the specified change listener is added, false otherwise
+     */
+    public synchronized boolean hasChangeListener(
+            final ChangeListener listener) {
+        return changeListeners != null && changeListeners.contains(listener);
+    }
+    
+    /**
+     * Informs listeners that hotkey data has changed.
+     */
+    protected void fireStateChanged() {
+        final List<ChangeListener> listeners;
+        synchronized (this) {
+            if (changeListeners == null || changeListeners.isEmpty()) {
+                return;
+            }
+            listeners = new ArrayList<ChangeListener>(changeListeners);
+        }
+        final ChangeEvent changeEvent = new ChangeEvent(this);
+        for (final ChangeListener listener : listeners) {
+            listener.stateChanged(changeEvent);
+        }
     }
     
     /**
@@ -0,0 +1,321 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.managers.hotkey;
+
+import java.awt.Component;
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.ocsoft.flatlaf.utils.SwingUtils;
+
+/**
+ * Immutable hotkeys lookup table keyed by key code and modifiers.
+ * <p/>
+ * Index is built by HotkeyManager whenever registered hotkeys change and then
+ * used as a read-only snapshot by the AWT key events listener, so hotkeys
+ * lookup doesn't require any synchronization, copying or allocations.
+ * <p/>
+ * Index keeps only weak references to hotkey components through HotkeyInfo.
+ * Component-bound hotkeys whose component was already collected are skipped
+ * by {@link Entry#isAlive(int)} until the next index rebuild.
+ *
+ * @author Mikle Garin
+ * @see HotkeyManager
+ */
+
+public final class HotkeyIndex {
+    /**
+     * Empty hotkeys index.
+     */
+    public static final HotkeyIndex EMPTY = new HotkeyIndex(
+            new LinkedHashMap<Long, List<HotkeyInfo>>(0), -1);
+    
+    /**
+     * Modifier flags used within index keys.
+     */
+    protected static final int CTRL = 1;
+    protected static final int ALT = 2;
+    protected static final int SHIFT = 4;
+    
+    /**
+     * Open-addressing table entries, null marks an empty slot.
+     */
+    protected final Entry[] entries;
+    
+    /**
+     * Table mask.
+     */
+    protected final int mask;
+    
+    /**
+     * Indexed hotkeys amount.
+     */
+    protected final int size;
+    
+    /**
+     * Hotkeys modification count this index was built for.
+     */
+    protected final int modCount;
+    
+    /**
+     * Constructs new hotkeys index.
+     *
+     * @param hotkeys
+     *            hotkeys grouped by index key
+     * @param modCount
+     *            hotkeys modification count this index is built for
+     */
+    protected HotkeyIndex(final Map<Long, List<HotkeyInfo>> hotkeys,
+            final int modCount) {
+        super();
+        int capacity = 4;
+        while (capacity < hotkeys.size() * 2) {
+            capacity <<= 1;
+        }
+        this.entries = new Entry[capacity];
+        this.mask = capacity - 1;
+        this.modCount = modCount;
+        
+        int count = 0;
+        for (final Map.Entry<Long, List<HotkeyInfo>> entry : hotkeys
+                .entrySet()) {
+            final long key = entry.getKey();
+            final List<HotkeyInfo> list = entry.getValue();
+            int slot = slot(key);
+            while (entries[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            entries[slot] = new Entry(key, list);
+            count += list.size();
+        }
+        this.size = count;
+    }
+    
+    /**
+     * Returns new index built from the specified registered hotkeys.
+     *
+     * @param hotkeys
+     *            registered hotkeys
+     * @param modCount
+     *            hotkeys modification count this index is built for
+     * @return new index built from the specified registered hotkeys
+     */
+    public static HotkeyIndex create(
+            final Map<Component, List<HotkeyInfo>> hotkeys, final int modCount) {
+        final Map<Long, List<HotkeyInfo>> grouped = new LinkedHashMap<Long, List<HotkeyInfo>>();
+        for (final Map.Entry<Component, List<HotkeyInfo>> entry : hotkeys
+                .entrySet()) {
+            for (final HotkeyInfo hotkeyInfo : entry.getValue()) {
+                final HotkeyData hotkeyData = hotkeyInfo.getHotkeyData();
+                if (hotkeyData != null && hotkeyData.getKeyCode() != null
+                        && hotkeyInfo.getAction() != null) {
+                    final Long key = getKey(hotkeyData);
+                    List<HotkeyInfo> list = grouped.get(key);
+                    if (list == null) {
+                        list = new ArrayList<HotkeyInfo>(1);
+                        grouped.put(key, list);
+                    }
+                    list.add(hotkeyInfo);
+                }
+            }
+        }
+        return new HotkeyIndex(grouped, modCount);
+    }
+    
+    /**
+     * Returns index key for the specified hotkey data.
+     *
+     * @param hotkeyData
+     *            hotkey data
+     * @return index key for the specified hotkey data
+     */
+    public static long getKey(final HotkeyData hotkeyData) {
+        return getKey(hotkeyData.getKeyCode(), hotkeyData.isCtrl(),
+                hotkeyData.isAlt(), hotkeyData.isShift());
+    }
+    
+    /**
+     * Returns index key for the specified key event.
+     * Modifiers are checked the same way {@link HotkeyData#isTriggered} does.
+     *
+     * @param keyEvent
+     *            key event
+     * @return index key for the specified key event
+     */
+    public static long getKey(final KeyEvent keyEvent) {
+        return getKey(keyEvent.getKeyCode(), SwingUtils.isShortcut(keyEvent),
+                SwingUtils.isAlt(keyEvent), SwingUtils.isShift(keyEvent));
+    }
+    
+    /**
+     * Returns index key for the specified key code and modifiers.
+     *
+     * @param keyCode
+     *            key code
+     * @param isCtrl
+     *            whether CTRL modifier is required
+     * @param isAlt
+     *            whether ALT modifier is required
+     * @param isShift
+     *            whether SHIFT modifier is required
+     * @return index key for the specified key code and modifiers
+     */
+    public static long getKey(final int keyCode, final boolean isCtrl,
+            final boolean isAlt, final boolean isShift) {
+        return ((long) keyCode << 3) | (isCtrl ? CTRL : 0) | (isAlt ? ALT : 0)
+                | (isShift ? SHIFT : 0);
+    }
+    
+    /**
+     * Returns table slot for the specified key.
+     *
+     * @param key
+     *            index key
+     * @return table slot for the specified key
+     */
+    protected int slot(final long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) h & mask;
+    }
+    
+    /**
+     * Returns hotkeys entry for the specified key or null if there are no
+     * hotkeys registered for it.
+     *
+     * @param key
+     *            index key
+     * @return hotkeys entry for the specified key or null
+     */
+    public Entry get(final long key) {
+        int slot = slot(key);
+        Entry entry;
+        while ((entry = entries[slot]) != null) {
+            if (entry.key == key) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+    
+    /**
+     * Returns indexed hotkeys amount.
+     *
+     * @return indexed hotkeys amount
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Returns hotkeys modification count this index was built for.
+     *
+     * @return hotkeys modification count this index was built for
+     */
+    public int getModCount() {
+        return modCount;
+    }
+    
+    /**
+     * Hotkeys registered for a single index key.
+     */
+    public static final class Entry {
+        /**
+         * Index key.
+         */
+        protected final long key;
+        
+        /**
+         * Registered hotkeys.
+         */
+        protected final HotkeyInfo[] hotkeys;
+        
+        /**
+         * Whether each of the hotkeys was registered for a specific component.
+         */
+        protected final boolean[] bound;
+        
+        /**
+         * Constructs new hotkeys entry.
+         *
+         * @param key
+         *            index key
+         * @param hotkeys
+         *            registered hotkeys
+         */
+        protected Entry(final long key, final List<HotkeyInfo> hotkeys) {
+            super();
+            this.key = key;
+            this.hotkeys = hotkeys.toArray(new HotkeyInfo[hotkeys.size()]);
+            this.bound = new boolean[hotkeys.size()];
+            for (int i = 0; i < this.hotkeys.length; i++) {
+                bound[i] = this.hotkeys[i].getForComponent() != null;
+            }
+        }
+        
+        /**
+         * Returns hotkeys amount.
+         *
+         * @return hotkeys amount
+         */
+        public int size() {
+            return hotkeys.length;
+        }
+        
+        /**
+         * Returns hotkey at the specified index.
+         *
+         * @param index
+         *            hotkey index
+         * @return hotkey at the specified index
+         */
+        public HotkeyInfo get(final int index) {
+            return hotkeys[index];
+        }
+        
+        /**
+         * Returns whether hotkey at the specified index was registered for a
+         * specific component.
+         *
+         * @param index
+         *            hotkey index
+         * @return true if hotkey was registered for a specific component, false
+         *         otherwise
+         */
+        public boolean isBound(final int index) {
+            return bound[index];
+        }
+        
+        /**
+         * Returns whether hotkey at the specified index is still alive. Hotkey
+         * is considered dead when it was registered for a component which is
+         * already collected.
+         *
+         * @param index
+         *            hotkey index
+         * @return true if hotkey is still alive, false otherwise
+         */
+        public boolean isAlive(final int index) {
+            return !bound[index] || hotkeys[index].getForComponent() != null;
+        }
+    }
+}
@@ -19,6 +19,11 @@ package org.ocsoft.flatlaf.managers.hotkey;
 
 import java.awt.Component;
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
 import org.ocsoft.flatlaf.managers.language.data.TooltipWay;
 import org.ocsoft.flatlaf.utils.TextUtils;
@@ -54,6 +59,10 @@ public class HotkeyInfo {
     // Hotkey action
     private HotkeyRunnable action = null;
     
+    // Hotkey info change listeners
+    private final List<ChangeListener> changeListeners = new ArrayList<ChangeListener>(
+            1);
+    
     public HotkeyInfo() {
         super();
     }
@@ -97,6 +106,7 @@ public class HotkeyInfo {
     
     public HotkeyInfo setForComponent(Component forComponent) {
         this.forComponent = new WeakReference<Component>(forComponent);
+        fireStateChanged();
         return this;
     }
     
@@ -106,6 +116,7 @@ public class HotkeyInfo {
     
     public HotkeyInfo setHotkeyData(HotkeyData hotkeyData) {
         this.hotkeyData = hotkeyData;
+        fireStateChanged();
         return this;
     }
     
@@ -124,6 +135,32 @@ public class HotkeyInfo {
     
     public HotkeyInfo setAction(HotkeyRunnable action) {
         this.action = action;
+        fireStateChanged();
         return this;
     }
+    
+    public synchronized void addChangeListener(final ChangeListener listener) {
+        if (!changeListeners.contains(listener)) {
+            changeListeners.add(listener);
+        }
+    }
+    
+    public synchronized void removeChangeListener(
+            final ChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+    
+    private void fireStateChanged() {
+        final List<ChangeListener> listeners;
+        synchronized (this) {
+            if (changeListeners.isEmpty()) {
+                return;
+            }
+            listeners = new ArrayList<ChangeListener>(changeListeners);
+        }
+        final ChangeEvent changeEvent = new ChangeEvent(this);
+        for (final ChangeListener listener : listeners) {
+            listener.stateChanged(changeEvent);
+        }
+    }
 }
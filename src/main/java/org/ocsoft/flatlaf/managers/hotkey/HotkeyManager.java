@@ -32,7 +32,10 @@ import java.util.Map;
 import java.util.WeakHashMap;
 
 import javax.swing.AbstractButton;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
+import org.ocsoft.flatlaf.core.FlatLafInitializer;
 import org.ocsoft.flatlaf.managers.language.data.TooltipWay;
 import org.ocsoft.flatlaf.managers.tooltip.TooltipManager;
 import org.ocsoft.flatlaf.utils.SwingUtils;
@@ -84,6 +87,34 @@ public class HotkeyManager {
      */
     protected static Map<Container, List<HotkeyCondition>> containerConditions = new WeakHashMap<Container, List<HotkeyCondition>>();
     
+    /**
+     * Hotkeys lookup index used by the AWT key events listener.
+     * It is rebuilt from the hotkeys map whenever hotkeys modification count
+     * changes, so registering lots of hotkeys at once causes a single rebuild.
+     */
+    protected static volatile HotkeyIndex hotkeysIndex = HotkeyIndex.EMPTY;
+    
+    /**
+     * Hotkeys modification count.
+     * Incremented whenever hotkeys are registered, removed or modified.
+     */
+    protected static volatile int modCount = 0;
+    
+    /**
+     * Listener that marks hotkeys as modified whenever registered hotkey info
+     * or its hotkey data changes.
+     */
+    protected static final ChangeListener hotkeyChangeListener = new ChangeListener() {
+        @Override
+        public void stateChanged(final ChangeEvent e) {
+            // Hotkey info might have new hotkey data now
+            if (e.getSource() instanceof HotkeyInfo) {
+                listenHotkeyData(((HotkeyInfo) e.getSource()).getHotkeyData());
+            }
+            updateHotkeysIndex();
+        }
+    };
+    
     /**
      * Initialization mark.
      */
@@ -95,6 +126,7 @@ public class HotkeyManager {
     public static synchronized void initialize() {
         if (!initialized) {
             initialized = true;
+            final long start = System.nanoTime();
             
             // XStream aliases
             XmlUtils.processAnnotations(HotkeyData.class);
@@ -116,15 +148,20 @@ public class HotkeyManager {
                                 }
                                 
                                 // Ignore nonexisting hotkeys
-                                if (!hotkeyForEventExists(e)) {
+                                final HotkeyIndex.Entry entry = getHotkeysIndex()
+                                        .get(HotkeyIndex.getKey(e));
+                                if (entry == null) {
                                     return;
                                 }
                                 
-                                // Processing all added hotkeys
-                                processHotkeys(e);
+                                // Processing matching hotkeys
+                                processHotkeys(e, entry);
                             }
                         }
                     }, AWTEvent.KEY_EVENT_MASK);
+            
+            // Recording initialization time for the startup report
+            FlatLafInitializer.lazyManagerInitialized("HotkeyManager", start);
         }
     }
     
@@ -159,6 +196,37 @@ public class HotkeyManager {
         }
     }
     
+    /**
+     * Returns actual hotkeys lookup index.
+     * Index is rebuilt if hotkeys were modified since it was built.
+     *
+     * @return actual hotkeys lookup index
+     */
+    protected static HotkeyIndex getHotkeysIndex() {
+        final HotkeyIndex index = hotkeysIndex;
+        if (index.getModCount() == modCount) {
+            return index;
+        }
+        synchronized (sync) {
+            if (hotkeysIndex.getModCount() != modCount) {
+                hotkeysIndex = HotkeyIndex.create(hotkeys, modCount);
+            }
+            return hotkeysIndex;
+        }
+    }
+    
+    /**
+     * Marks hotkeys as modified so lookup index will be rebuilt on the next
+     * key event. This is called automatically by all manager methods and
+     * whenever registered HotkeyData or HotkeyInfo changes, but should be
+     * called manually if you modify map returned by {@link #getAllHotkeys()}.
+     */
+    public static void updateHotkeysIndex() {
+        synchronized (sync) {
+            modCount++;
+        }
+    }
+    
     /**
      * Returns whether at least one hotkey for the specified key event exists or
      * not.
@@ -169,16 +237,7 @@ public class HotkeyManager {
      *         false otherwise
      */
     protected static boolean hotkeyForEventExists(final KeyEvent keyEvent) {
-        final int hotkeyHash = SwingUtils.hotkeyToString(keyEvent).hashCode();
-        for (final Map.Entry<Component, List<HotkeyInfo>> entry : copyHotkeys()
-                .entrySet()) {
-            for (final HotkeyInfo hotkeyInfo : entry.getValue()) {
-                if (hotkeyInfo.getHotkeyData().hashCode() == hotkeyHash) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return getHotkeysIndex().get(HotkeyIndex.getKey(keyEvent)) != null;
     }
     
     /**
@@ -188,45 +247,59 @@ public class HotkeyManager {
      *            key event
      */
     protected static void processHotkeys(final KeyEvent e) {
-        final Map<Component, List<HotkeyInfo>> hotkeysCopy = copyHotkeys();
-        for (final Map.Entry<Component, List<HotkeyInfo>> entry : hotkeysCopy
-                .entrySet()) {
-            for (final HotkeyInfo hotkeyInfo : entry.getValue()) {
-                // Specified components
+        final HotkeyIndex.Entry entry = getHotkeysIndex().get(
+                HotkeyIndex.getKey(e));
+        if (entry != null) {
+            processHotkeys(e, entry);
+        }
+    }
+    
+    /**
+     * Processes registered hotkeys from the specified index entry.
+     *
+     * @param e
+     *            key event
+     * @param entry
+     *            hotkeys index entry matching key event
+     */
+    protected static void processHotkeys(final KeyEvent e,
+            final HotkeyIndex.Entry entry) {
+        for (int i = 0; i < entry.size(); i++) {
+            final HotkeyInfo hotkeyInfo = entry.get(i);
+            final HotkeyRunnable action = hotkeyInfo.getAction();
+            
+            // Skipping hotkeys which doesn't match anymore
+            if (action == null || !hotkeyInfo.getHotkeyData().isTriggered(e)) {
+                continue;
+            }
+            
+            // If there is no pointed components - hotkey will be global
+            if (!entry.isBound(i)) {
+                // Performing hotkey action
+                SwingUtils.invokeLater(action, e);
+            } else {
+                // Skipping hotkeys for collected components
                 final Component forComponent = hotkeyInfo.getForComponent();
-                
-                // If there is no pointed components - hotkey will be global
                 if (forComponent == null) {
-                    // Checking hotkey
-                    if (hotkeyInfo.getHotkeyData().isTriggered(e)
-                            && hotkeyInfo.getAction() != null) {
-                        // Performing hotkey action
-                        SwingUtils.invokeLater(hotkeyInfo.getAction(), e);
-                    }
-                } else {
-                    // Finding top component
-                    Component topComponent = hotkeyInfo.getTopComponent();
-                    topComponent = topComponent != null ? topComponent
-                            : SwingUtils.getWindowAncestor(forComponent);
-                    
-                    // Checking if componen or one of its childs has focus
-                    if (SwingUtils.hasFocusOwner(topComponent)) {
-                        // Checking hotkey
-                        if (hotkeyInfo.getHotkeyData().isTriggered(e)
-                                && hotkeyInfo.getAction() != null) {
-                            // Checking that hotkey meets parent containers
-                            // conditions
-                            if (meetsParentConditions(forComponent)) {
-                                // Transferring focus to hotkey component
-                                if (transferFocus) {
-                                    forComponent.requestFocusInWindow();
-                                }
-                                
-                                // Performing hotkey action
-                                SwingUtils.invokeLater(hotkeyInfo.getAction(),
-                                        e);
-                            }
+                    continue;
+                }
+                
+                // Finding top component
+                Component topComponent = hotkeyInfo.getTopComponent();
+                topComponent = topComponent != null ? topComponent
+                        : SwingUtils.getWindowAncestor(forComponent);
+                
+                // Checking if componen or one of its childs has focus
+                if (SwingUtils.hasFocusOwner(topComponent)) {
+                    // Checking that hotkey meets parent containers conditions
+                    if (meetsParentConditions(forComponent)) {
+                        // Transferring focus to hotkey component
+                        if (transferFocus) {
+                            forComponent.requestFocusInWindow();
                         }
+                        
+                        // Performing hotkey action
+                        SwingUtils.invokeLater(action, e);
                     }
                 }
             }
@@ -234,6 +307,11 @@ public class HotkeyManager {
     }
     
     protected static boolean meetsParentConditions(final Component forComponent) {
+        synchronized (sync) {
+            if (containerConditions.isEmpty()) {
+                return true;
+            }
+        }
         for (final Map.Entry<Container, List<HotkeyCondition>> entry : copyContainerConditions()
                 .entrySet()) {
             if (entry.getKey().isAncestorOf(forComponent)) {
@@ -437,7 +515,8 @@ public class HotkeyManager {
     /**
      * All added hotkeys. Make sure you know what you are doing if you want to
      * modify this map from outside, otherwise your actions might change
-     * HotkeyManager behavior.
+     * HotkeyManager behavior. Call {@link #updateHotkeysIndex()} after such
+     * modifications.
      */
     
     public static Map<Component, List<HotkeyInfo>> getAllHotkeys() {
@@ -449,11 +528,38 @@ public class HotkeyManager {
      */
     
     protected static void cacheHotkey(final HotkeyInfo hotkeyInfo) {
+        // Ensure HotkeyManager is initialized
+        initialize();
+        
         synchronized (sync) {
             final List<HotkeyInfo> hlist = getComponentHotkeysCache(hotkeyInfo
                     .getForComponent());
             hlist.add(hotkeyInfo);
             hotkeys.put(hotkeyInfo.getForComponent(), hlist);
+            modCount++;
+        }
+        
+        // Listening to hotkey changes
+        hotkeyInfo.addChangeListener(hotkeyChangeListener);
+        listenHotkeyData(hotkeyInfo.getHotkeyData());
+    }
+    
+    /**
+     * Adds hotkey change listener into the specified hotkey data.
+     * Listener is never removed from hotkey data since the same data might be
+     * used by a few hotkeys, changes of data that is not used anymore only
+     * cause an extra index rebuild.
+     *
+     * @param hotkeyData
+     *            hotkey data to listen
+     */
+    protected static void listenHotkeyData(final HotkeyData hotkeyData) {
+        if (hotkeyData != null) {
+            synchronized (hotkeyData) {
+                if (!hotkeyData.hasChangeListener(hotkeyChangeListener)) {
+                    hotkeyData.addChangeListener(hotkeyChangeListener);
+                }
+            }
         }
     }
     
@@ -461,8 +567,11 @@ public class HotkeyManager {
         synchronized (sync) {
             final List<HotkeyInfo> hlist = getComponentHotkeysCache(hotkeyInfo
                     .getForComponent());
-            hlist.remove(hotkeyInfo);
+            if (hlist.remove(hotkeyInfo)) {
+                modCount++;
+            }
         }
+        hotkeyInfo.removeChangeListener(hotkeyChangeListener);
     }
     
     protected static void clearHotkeysCache(final List<HotkeyInfo> hotkeys) {
@@ -472,8 +581,17 @@ public class HotkeyManager {
     }
     
     protected static void clearHotkeysCache(final Component component) {
+        final List<HotkeyInfo> removed;
         synchronized (sync) {
-            hotkeys.remove(component);
+            removed = hotkeys.remove(component);
+            if (removed != null) {
+                modCount++;
+            }
+        }
+        if (removed != null) {
+            for (final HotkeyInfo hotkeyInfo : removed) {
+                hotkeyInfo.removeChangeListener(hotkeyChangeListener);
+            }
         }
     }
     
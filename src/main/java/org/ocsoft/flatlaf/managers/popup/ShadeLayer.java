@@ -32,6 +32,7 @@ import javax.swing.SwingConstants;
 
 import org.ocsoft.flatlaf.extended.layout.AlignLayout;
 import org.ocsoft.flatlaf.utils.graphics.GraphicsUtils;
+import org.ocsoft.flatlaf.utils.swing.AnimationPulse;
 import org.ocsoft.flatlaf.utils.swing.WebTimer;
 import org.ocsoft.flatlaf.weblaf.FlatLafStyleConstants;
 
@@ -216,12 +217,13 @@ public class ShadeLayer extends PopupLayer {
                             public void actionPerformed(final ActionEvent e) {
                                 if (opacity < 100) {
                                     opacity += 25;
-                                    ShadeLayer.this.repaint();
+                                    AnimationPulse.repaint(ShadeLayer.this);
                                 } else {
                                     animator.stop();
                                 }
                             }
                         });
+                animator.setBackend(AnimationPulse.getInstance());
                 animator.start();
             } else {
                 opacity = 100;
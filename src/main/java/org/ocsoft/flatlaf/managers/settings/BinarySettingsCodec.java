@@ -0,0 +1,328 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.managers.settings;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Insets;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
+import org.ocsoft.flatlaf.utils.xml.XmlUtils;
+
+/**
+ * Settings group codec which stores settings in compact binary format.
+ * <p/>
+ * Common value types (Boolean, Integer, Long, Float, Double, String, Color,
+ * Point, Dimension, Rectangle and Insets) are written directly as primitives,
+ * so reading and writing them doesn't involve XStream at all. Any other value
+ * is stored as length-prefixed XML text and converted using XmlUtils.
+ * <p/>
+ * File layout: magic number, format version, group ID and name, entries count
+ * and then entries one by one - key, value type and value data.
+ *
+ * @author Mikle Garin
+ * @see org.ocsoft.flatlaf.managers.settings.SettingsCodec
+ * @see org.ocsoft.flatlaf.managers.settings.SettingsManager#setSettingsCodec(SettingsCodec)
+ */
+
+public class BinarySettingsCodec implements SettingsCodec {
+    /**
+     * Binary settings files extension.
+     */
+    public static final String EXTENSION = ".bin";
+    
+    /**
+     * Binary settings file magic number.
+     */
+    public static final int MAGIC = 0x57534731;
+    
+    /**
+     * Binary settings format version.
+     */
+    public static final int VERSION = 1;
+    
+    /**
+     * Strings encoding.
+     */
+    protected static final Charset UTF8 = Charset.forName("UTF-8");
+    
+    /**
+     * Value types.
+     */
+    protected static final int NULL = 0;
+    protected static final int BOOLEAN = 1;
+    protected static final int INTEGER = 2;
+    protected static final int LONG = 3;
+    protected static final int FLOAT = 4;
+    protected static final int DOUBLE = 5;
+    protected static final int STRING = 6;
+    protected static final int COLOR = 7;
+    protected static final int POINT = 8;
+    protected static final int DIMENSION = 9;
+    protected static final int RECTANGLE = 10;
+    protected static final int INSETS = 11;
+    protected static final int OBJECT = 12;
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getExtension() {
+        return EXTENSION;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final SettingsGroup settingsGroup, final OutputStream out)
+            throws IOException {
+        final DataOutputStream data = new DataOutputStream(
+                new BufferedOutputStream(out));
+        
+        // Header
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        writeString(data, settingsGroup.getId());
+        writeString(data, settingsGroup.getName());
+        
+        // Entries
+        final Map<String, Object> settings = settingsGroup.getSettings();
+        data.writeInt(settings.size());
+        for (final Map.Entry<String, Object> entry : settings.entrySet()) {
+            writeString(data, entry.getKey());
+            writeValue(data, entry.getValue());
+        }
+        
+        data.flush();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SettingsGroup read(final InputStream in) throws IOException {
+        final DataInputStream data = new DataInputStream(
+                new BufferedInputStream(in));
+        
+        // Header
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a binary settings file");
+        }
+        final int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary settings version: "
+                    + version);
+        }
+        final SettingsGroup settingsGroup = new SettingsGroup(
+                readString(data), readString(data));
+        
+        // Entries
+        final int count = data.readInt();
+        final Map<String, Object> settings = new HashMap<String, Object>(
+                Math.max(16, count * 4 / 3 + 1));
+        for (int i = 0; i < count; i++) {
+            final String key = readString(data);
+            final int type = data.readUnsignedByte();
+            try {
+                settings.put(key, readValue(data, type));
+            } catch (final IOException e) {
+                throw e;
+            } catch (final Throwable e) {
+                if (SettingsManager.isLoggingEnabled()) {
+                    FlatLafLogger.error(this,
+                            "Unable to load settings entry for group \""
+                                    + settingsGroup.getName()
+                                    + "\" under key \"" + key
+                                    + "\" due to unexpected exception:", e);
+                }
+            }
+        }
+        settingsGroup.setSettings(settings);
+        
+        return settingsGroup;
+    }
+    
+    /**
+     * Writes single settings value.
+     *
+     * @param data
+     *            output stream
+     * @param value
+     *            value to write
+     * @throws IOException
+     *             if value cannot be written
+     */
+    protected void writeValue(final DataOutputStream data, final Object value)
+            throws IOException {
+        if (value == null) {
+            data.writeByte(NULL);
+        } else if (value instanceof Boolean) {
+            data.writeByte(BOOLEAN);
+            data.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            data.writeByte(INTEGER);
+            data.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            data.writeByte(LONG);
+            data.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            data.writeByte(FLOAT);
+            data.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            data.writeByte(DOUBLE);
+            data.writeDouble((Double) value);
+        } else if (value instanceof String) {
+            data.writeByte(STRING);
+            writeString(data, (String) value);
+        } else if (value.getClass() == Color.class) {
+            data.writeByte(COLOR);
+            data.writeInt(((Color) value).getRGB());
+        } else if (value.getClass() == Point.class) {
+            final Point point = (Point) value;
+            data.writeByte(POINT);
+            data.writeInt(point.x);
+            data.writeInt(point.y);
+        } else if (value.getClass() == Dimension.class) {
+            final Dimension dimension = (Dimension) value;
+            data.writeByte(DIMENSION);
+            data.writeInt(dimension.width);
+            data.writeInt(dimension.height);
+        } else if (value.getClass() == Rectangle.class) {
+            final Rectangle rectangle = (Rectangle) value;
+            data.writeByte(RECTANGLE);
+            data.writeInt(rectangle.x);
+            data.writeInt(rectangle.y);
+            data.writeInt(rectangle.width);
+            data.writeInt(rectangle.height);
+        } else if (value.getClass() == Insets.class) {
+            final Insets insets = (Insets) value;
+            data.writeByte(INSETS);
+            data.writeInt(insets.top);
+            data.writeInt(insets.left);
+            data.writeInt(insets.bottom);
+            data.writeInt(insets.right);
+        } else {
+            data.writeByte(OBJECT);
+            writeString(data, XmlUtils.toXML(value));
+        }
+    }
+    
+    /**
+     * Reads single settings value of the specified type.
+     *
+     * @param data
+     *            input stream
+     * @param type
+     *            value type
+     * @return read value
+     * @throws IOException
+     *             if value cannot be read
+     */
+    protected Object readValue(final DataInputStream data, final int type)
+            throws IOException {
+        switch (type) {
+            case NULL:
+                return null;
+            case BOOLEAN:
+                return data.readBoolean();
+            case INTEGER:
+                return data.readInt();
+            case LONG:
+                return data.readLong();
+            case FLOAT:
+                return data.readFloat();
+            case DOUBLE:
+                return data.readDouble();
+            case STRING:
+                return readString(data);
+            case COLOR:
+                return new Color(data.readInt(), true);
+            case POINT:
+                return new Point(data.readInt(), data.readInt());
+            case DIMENSION:
+                return new Dimension(data.readInt(), data.readInt());
+            case RECTANGLE:
+                return new Rectangle(data.readInt(), data.readInt(),
+                        data.readInt(), data.readInt());
+            case INSETS:
+                return new Insets(data.readInt(), data.readInt(),
+                        data.readInt(), data.readInt());
+            case OBJECT:
+                // String is read before parsing so that unreadable object
+                // doesn't break the rest of the stream
+                return XmlUtils.fromXML(readString(data));
+            default:
+                throw new IOException("Unknown settings value type: " + type);
+        }
+    }
+    
+    /**
+     * Writes length-prefixed UTF-8 string, null strings are written with -1
+     * length.
+     *
+     * @param data
+     *            output stream
+     * @param string
+     *            string to write
+     * @throws IOException
+     *             if string cannot be written
+     */
+    protected void writeString(final DataOutputStream data, final String string)
+            throws IOException {
+        if (string == null) {
+            data.writeInt(-1);
+        } else {
+            final byte[] bytes = string.getBytes(UTF8);
+            data.writeInt(bytes.length);
+            data.write(bytes);
+        }
+    }
+    
+    /**
+     * Reads length-prefixed UTF-8 string.
+     *
+     * @param data
+     *            input stream
+     * @return read string
+     * @throws IOException
+     *             if string cannot be read
+     */
+    protected String readString(final DataInputStream data) throws IOException {
+        final int length = data.readInt();
+        if (length < 0) {
+            return null;
+        } else {
+            final byte[] bytes = new byte[length];
+            data.readFully(bytes);
+            return new String(bytes, UTF8);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.managers.settings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Settings group codec interface. It defines format in which settings groups
+ * are stored in their files.
+ *
+ * @author Mikle Garin
+ * @see org.ocsoft.flatlaf.managers.settings.SettingsManager#setSettingsCodec(SettingsCodec)
+ * @see org.ocsoft.flatlaf.managers.settings.XmlSettingsCodec
+ * @see org.ocsoft.flatlaf.managers.settings.BinarySettingsCodec
+ */
+
+public interface SettingsCodec {
+    /**
+     * Returns settings group files extension.
+     *
+     * @return settings group files extension
+     */
+    public String getExtension();
+    
+    /**
+     * Writes settings group into the specified stream.
+     *
+     * @param settingsGroup
+     *            settings group to write
+     * @param out
+     *            output stream
+     * @throws IOException
+     *             if settings group cannot be written
+     */
+    public void write(SettingsGroup settingsGroup, OutputStream out)
+            throws IOException;
+    
+    /**
+     * Reads settings group from the specified stream.
+     *
+     * @param in
+     *            input stream
+     * @return read settings group
+     * @throws IOException
+     *             if settings group cannot be read
+     */
+    public SettingsGroup read(InputStream in) throws IOException;
+}
@@ -0,0 +1,278 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.managers.settings;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
+
+/**
+ * Append-only settings group changes journal.
+ * <p/>
+ * Journal allows SettingsManager to save separate key changes without
+ * rewriting the whole settings group file. Each record contains single put or
+ * remove operation and is prefixed with its length, so partially written
+ * records can be detected and dropped.
+ * <p/>
+ * Journal header stores length and modification time of the settings group
+ * file it was started for. If that file was replaced since then, journal
+ * changes are already included into it and journal is considered outdated.
+ *
+ * @author Mikle Garin
+ * @see org.ocsoft.flatlaf.managers.settings.SettingsManager
+ */
+
+public final class SettingsJournal {
+    /**
+     * Journal file magic number.
+     */
+    public static final int MAGIC = 0x57534A31;
+    
+    /**
+     * Journal format version.
+     */
+    public static final int VERSION = 1;
+    
+    /**
+     * Journal header size in bytes.
+     */
+    public static final int HEADER_SIZE = 21;
+    
+    /**
+     * Special value marking removed settings in changes map.
+     */
+    public static final Object REMOVED = new Object();
+    
+    /**
+     * Record types.
+     */
+    private static final int PUT = 1;
+    private static final int REMOVE = 2;
+    
+    /**
+     * Codec used to write values.
+     */
+    private static final BinarySettingsCodec codec = new BinarySettingsCodec();
+    
+    /**
+     * Appends settings changes to the journal.
+     *
+     * @param journal
+     *            journal file
+     * @param file
+     *            settings group file
+     * @param changes
+     *            changed settings, removed settings are marked with
+     *            {@link #REMOVED} value
+     * @throws IOException
+     *             if changes cannot be written
+     */
+    public static void append(final File journal, final File file,
+            final Map<String, Object> changes) throws IOException {
+        final List<byte[]> records = new ArrayList<byte[]>(changes.size());
+        for (final Map.Entry<String, Object> change : changes.entrySet()) {
+            records.add(encode(change.getKey(), change.getValue()));
+        }
+        append(journal, file, records);
+    }
+    
+    /**
+     * Appends records encoded with {@link #encode(String, Object)} method to
+     * the journal.
+     *
+     * @param journal
+     *            journal file
+     * @param file
+     *            settings group file
+     * @param records
+     *            encoded records
+     * @throws IOException
+     *             if records cannot be written
+     */
+    public static void append(final File journal, final File file,
+            final Collection<byte[]> records) throws IOException {
+        final boolean create = !journal.exists()
+                || journal.length() < HEADER_SIZE;
+        
+        // Preparing data to write it at once
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream data = new DataOutputStream(bytes);
+        if (create) {
+            data.writeInt(MAGIC);
+            data.writeByte(VERSION);
+            data.writeLong(file.exists() ? file.length() : 0);
+            data.writeLong(file.exists() ? file.lastModified() : 0);
+        }
+        for (final byte[] record : records) {
+            data.writeInt(record.length);
+            data.write(record);
+        }
+        
+        // Writing journal records
+        final FileOutputStream out = new FileOutputStream(journal, !create);
+        try {
+            bytes.writeTo(out);
+        } finally {
+            out.close();
+        }
+    }
+    
+    /**
+     * Returns single setting change encoded into journal record. Encoded
+     * record doesn't reference the value anymore, so it can be safely written
+     * on another thread while the value is modified.
+     *
+     * @param key
+     *            setting key
+     * @param value
+     *            new setting value or {@link #REMOVED} value
+     * @return encoded journal record
+     * @throws IOException
+     *             if value cannot be encoded
+     */
+    public static byte[] encode(final String key, final Object value)
+            throws IOException {
+        final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+        final DataOutputStream record = new DataOutputStream(recordBytes);
+        if (value == REMOVED) {
+            record.writeByte(REMOVE);
+            codec.writeString(record, key);
+        } else {
+            record.writeByte(PUT);
+            codec.writeString(record, key);
+            codec.writeValue(record, value);
+        }
+        return recordBytes.toByteArray();
+    }
+    
+    /**
+     * Applies journal changes to the specified settings group.
+     * <p/>
+     * Partially written records at the end of the journal are dropped.
+     *
+     * @param journal
+     *            journal file
+     * @param file
+     *            settings group file
+     * @param settingsGroup
+     *            settings group to apply changes to
+     * @return true if journal changes were applied, false if journal is
+     *         outdated or damaged and should be removed
+     * @throws IOException
+     *             if journal cannot be read
+     */
+    public static boolean replay(final File journal, final File file,
+            final SettingsGroup settingsGroup) throws IOException {
+        final DataInputStream data = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(journal)));
+        long valid = 0;
+        boolean damaged = false;
+        try {
+            // Checking journal header
+            try {
+                if (data.readInt() != MAGIC || data.readUnsignedByte() != VERSION
+                        || data.readLong() != (file.exists() ? file.length() : 0)
+                        || data.readLong() != (file.exists() ? file.lastModified()
+                                : 0)) {
+                    return false;
+                }
+            } catch (final EOFException e) {
+                return false;
+            }
+            valid = HEADER_SIZE;
+            
+            // Applying records
+            while (true) {
+                final byte[] bytes;
+                try {
+                    final int length = data.readInt();
+                    if (length <= 0) {
+                        damaged = true;
+                        break;
+                    }
+                    bytes = new byte[length];
+                    data.readFully(bytes);
+                } catch (final EOFException e) {
+                    damaged = valid != journal.length();
+                    break;
+                }
+                valid += 4 + bytes.length;
+                applyRecord(bytes, settingsGroup);
+            }
+        } finally {
+            data.close();
+        }
+        
+        // Dropping partially written records
+        if (damaged) {
+            final RandomAccessFile raf = new RandomAccessFile(journal, "rw");
+            try {
+                raf.setLength(valid);
+            } finally {
+                raf.close();
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Applies single journal record to the specified settings group.
+     *
+     * @param bytes
+     *            record data
+     * @param settingsGroup
+     *            settings group to apply record to
+     */
+    private static void applyRecord(final byte[] bytes,
+            final SettingsGroup settingsGroup) {
+        String key = null;
+        try {
+            final DataInputStream record = new DataInputStream(
+                    new ByteArrayInputStream(bytes));
+            final int type = record.readUnsignedByte();
+            key = codec.readString(record);
+            if (type == PUT) {
+                settingsGroup.put(key,
+                        codec.readValue(record, record.readUnsignedByte()));
+            } else if (type == REMOVE) {
+                settingsGroup.remove(key);
+            }
+        } catch (final Throwable e) {
+            if (SettingsManager.isLoggingEnabled()) {
+                FlatLafLogger.error(SettingsJournal.class,
+                        "Unable to apply settings journal entry for group \""
+                                + settingsGroup.getName() + "\" under key \""
+                                + key + "\" due to unexpected exception:", e);
+            }
+        }
+    }
+}
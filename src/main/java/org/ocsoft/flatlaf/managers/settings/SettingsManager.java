@@ -25,9 +25,21 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -74,11 +86,31 @@ public class SettingsManager {
      */
     protected static String settingsFilesExtension = ".xml";
     
+    /**
+     * Default XML settings codec.
+     */
+    protected static final SettingsCodec xmlSettingsCodec = new XmlSettingsCodec();
+    
+    /**
+     * Settings groups codec.
+     */
+    protected static SettingsCodec settingsCodec = xmlSettingsCodec;
+    
     /**
      * Backup files extension.
      */
     protected static String backupFilesExtension = ".backup";
     
+    /**
+     * Temporary files extension.
+     */
+    protected static String tempFilesExtension = ".tmp";
+    
+    /**
+     * Journal files extension.
+     */
+    protected static String journalFilesExtension = ".journal";
+    
     /**
      * Default settings directory location.
      */
@@ -146,6 +178,38 @@ public class SettingsManager {
      */
     protected static final List<String> groupsToSaveOnChange = new ArrayList<String>();
     
+    /**
+     * Delayed settings changes to save, null changes mean that the whole group
+     * should be saved.
+     */
+    protected static final Map<String, Map<String, Object>> changesToSaveOnChange = new HashMap<String, Map<String, Object>>();
+    
+    /**
+     * Whether should append separate settings changes to the group journal
+     * instead of rewriting the whole settings group file or not. Journal is
+     * merged into the settings group file as soon as it grows larger than
+     * that file or journal compact size.
+     */
+    protected static boolean journalEnabled = true;
+    
+    /**
+     * Minimum journal size in bytes which causes it to be merged into the
+     * settings group file.
+     */
+    protected static long journalCompactSize = 16 * 1024;
+    
+    /**
+     * Whether should write changed settings groups in background or not. If
+     * set to false settings groups will be written within the thread which
+     * requested the save, which is usually EDT.
+     */
+    protected static boolean saveInBackground = true;
+    
+    /**
+     * Background settings groups writer.
+     */
+    protected static final SettingsWriter settingsWriter = new SettingsWriter();
+    
     /**
      * Whether settings log is enabled or not. Log will display what settings
      * are being loaded and saved and when that happens. Log might contain
@@ -185,6 +249,15 @@ public class SettingsManager {
             
             // Initializing sub-manager
             ComponentSettingsManager.initializeManager();
+            
+            // Writing pending changes on application exit
+            Runtime.getRuntime().addShutdownHook(
+                    new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            flush();
+                        }
+                    }, "SettingsManager.shutdownHook"));
         }
     }
     
@@ -996,7 +1069,7 @@ public class SettingsManager {
         
         // Save group if needed
         if (saveOnChange) {
-            delayedSaveSettingsGroup(group);
+            delayedSaveSettingsGroup(group, key, object);
         }
         
         // Inform about changes
@@ -1014,23 +1087,37 @@ public class SettingsManager {
     
     /**
      * Resets all settings within the specified settings group. This will also
-     * reset saved settings to ensure they won't be read again.
+     * reset saved settings to ensure they won't be read again. Settings group
+     * saves which are delayed or queued at the moment are dropped.
      *
      * @param group
      *            settings group
      */
     public static void resetGroup(final String group) {
-        // Removing group file if it exists
-        final File dir = new File(getGroupFilePath(group));
-        if (dir.exists() && dir.isDirectory()) {
-            final File file = getGroupFile(group, dir);
-            final File backupFile = getGroupBackupFile(group, dir);
-            FileUtils.deleteFiles(file, backupFile);
-        }
-        
-        // Resetting group if it was already loaded
-        if (groups.containsKey(group)) {
-            groups.remove(group);
+        synchronized (saveOnChangeLock) {
+            // Dropping delayed saves
+            groupsToSaveOnChange.remove(group);
+            changesToSaveOnChange.remove(group);
+            
+            // Dropping queued saves and removing group file if it exists
+            settingsWriter.reset(group, new Runnable() {
+                @Override
+                public void run() {
+                    final File dir = new File(getGroupFilePath(group));
+                    if (dir.exists() && dir.isDirectory()) {
+                        final File file = getGroupFile(group, dir);
+                        final File backupFile = getGroupBackupFile(group, dir);
+                        final File journalFile = getGroupJournalFile(group,
+                                dir);
+                        FileUtils.deleteFiles(file, backupFile, journalFile);
+                    }
+                }
+            });
+            
+            // Resetting group if it was already loaded
+            if (groups.containsKey(group)) {
+                groups.remove(group);
+            }
         }
     }
     
@@ -1063,7 +1150,7 @@ public class SettingsManager {
         
         // Forcing settings group save in case value was resetted
         if (oldValue != null) {
-            saveSettingsGroup(group);
+            delayedSaveSettingsGroup(group, key, SettingsJournal.REMOVED);
         }
         
         return (T) oldValue;
@@ -1100,6 +1187,11 @@ public class SettingsManager {
             final File file = getGroupFile(group, dir);
             final File backupFile = getGroupBackupFile(group, dir);
             
+            // Migrating settings group saved in XML format if codec was changed
+            if (!file.exists() && !backupFile.exists()) {
+                migrateSettingsGroup(group, dir);
+            }
+            
             // todo Modify read logic so that;
             // todo 1. Backup reading occurs only if original file cannot be
             // read
@@ -1124,7 +1216,9 @@ public class SettingsManager {
                 if (file.exists() && file.isFile()) {
                     try {
                         // Read single SettingsGroup
-                        settingsGroup = XmlUtils.fromXML(file);
+                        final long start = System.nanoTime();
+                        settingsGroup = readSettingsGroup(settingsCodec, file);
+                        final long time = (System.nanoTime() - start) / 1000000;
                         
                         // Saving settings group read state
                         groupState.put(group, new SettingsGroupState(
@@ -1135,7 +1229,7 @@ public class SettingsManager {
                                 : "loaded";
                         FlatLafLogger.info(SettingsManager.class,
                                 "Settings group \"" + group + "\" " + state
-                                        + " successfully");
+                                        + " successfully in " + time + " ms");
                     } catch (final Throwable e) {
                         FlatLafLogger.error(SettingsManager.class,
                                 "Unable to load settings group \"" + group
@@ -1158,6 +1252,15 @@ public class SettingsManager {
                 FlatLafLogger.info(SettingsManager.class, "Settings group \""
                         + group + "\" created successfully");
             }
+            
+            // Applying changes saved into journal
+            final File journalFile = getGroupJournalFile(group, dir);
+            if (journalFile.exists() && journalFile.isFile()) {
+                if (settingsGroup == null) {
+                    settingsGroup = new SettingsGroup(group);
+                }
+                replaySettingsJournal(settingsGroup, journalFile, file);
+            }
         } else {
             // No group setting dir exists, new SettingsGroup will be created
             groupState.put(group, new SettingsGroupState(ReadState.created));
@@ -1211,60 +1314,405 @@ public class SettingsManager {
      */
     public static void saveSettingsGroup(final SettingsGroup settingsGroup) {
         if (allowSave) {
-            try {
-                // Used values
-                final String group = settingsGroup.getName();
-                final File dir = new File(getGroupFilePath(group));
+            settingsWriter.save(settingsGroup);
+        }
+    }
+    
+    /**
+     * Queues specified settings group to be saved in background.
+     *
+     * @param settingsGroup
+     *            settings group to save
+     */
+    public static void saveSettingsGroupLater(final SettingsGroup settingsGroup) {
+        if (allowSave) {
+            settingsWriter.saveLater(settingsGroup);
+        }
+    }
+    
+    /**
+     * Saves all delayed and queued settings groups right away in the current
+     * thread and waits for the background save to finish. This method is
+     * called on application exit, but you can also call it to ensure that all
+     * changes are written.
+     */
+    public static void flush() {
+        synchronized (saveOnChangeLock) {
+            if (groupSaveScheduler != null) {
+                groupSaveScheduler.stop();
+            }
+            saveDelayedSettingsGroups();
+        }
+        settingsWriter.flush();
+    }
+    
+    /**
+     * Writes specified settings group into its file.
+     *
+     * @param settingsGroup
+     *            settings group to write
+     */
+    protected static void writeSettingsGroup(final SettingsGroup settingsGroup) {
+        final byte[] data;
+        try {
+            data = encodeSettingsGroup(settingsGroup);
+        } catch (final Throwable e) {
+            FlatLafLogger.error(SettingsManager.class,
+                    "Unable to save settings group \""
+                            + settingsGroup.getName()
+                            + "\" due to unexpected exception:", e);
+            return;
+        }
+        writeSettingsGroup(settingsGroup.getName(), data);
+    }
+    
+    /**
+     * Returns settings group encoded with the current settings codec. Encoded
+     * data doesn't reference settings values anymore, so it can be safely
+     * written on another thread while settings are modified.
+     *
+     * @param settingsGroup
+     *            settings group to encode
+     * @return encoded settings group
+     * @throws IOException
+     *             if settings group cannot be encoded
+     */
+    protected static byte[] encodeSettingsGroup(
+            final SettingsGroup settingsGroup) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        settingsCodec.write(settingsGroup, out);
+        return out.toByteArray();
+    }
+    
+    /**
+     * Writes settings group encoded with the current settings codec into its
+     * file.
+     * <p/>
+     * Settings are written into temporary file first and then moved to replace
+     * the settings file, so the file is never left partially written. Backup
+     * file exists while the settings file is being replaced and will be
+     * restored on next load if replacement fails.
+     *
+     * @param group
+     *            settings group name
+     * @param data
+     *            encoded settings group
+     */
+    protected static void writeSettingsGroup(final String group,
+            final byte[] data) {
+        try {
+            // Used values
+            final File dir = new File(getGroupFilePath(group));
+            
+            // Ensure group settings directory exists and perform save
+            if (FileUtils.ensureDirectoryExists(dir)) {
+                // Settings files
+                final File file = getGroupFile(group, dir);
+                final File tempFile = getGroupTempFile(group, dir);
                 
-                // Ensure group settings directory exists and perform save
-                if (FileUtils.ensureDirectoryExists(dir)) {
-                    // Settings file
-                    final File file = getGroupFile(group, dir);
-                    
-                    // Creating settings backup if there are old settings
-                    File backupFile = null;
-                    if (file.exists()) {
-                        backupFile = getGroupBackupFile(group, dir);
-                        FileUtils.copyFile(file, backupFile);
-                    }
-                    
-                    // Saving settings
-                    XmlUtils.toXML(settingsGroup, file);
-                    
-                    // Removing backup file if save was successful
-                    if (backupFile != null && backupFile.exists()) {
-                        FileUtils.deleteFile(backupFile);
+                // Saving settings into temporary file
+                final long start = System.nanoTime();
+                final OutputStream out = new FileOutputStream(tempFile);
+                try {
+                    out.write(data);
+                } finally {
+                    out.close();
+                }
+                
+                // Creating settings backup if there are old settings
+                File backupFile = null;
+                if (file.exists()) {
+                    backupFile = getGroupBackupFile(group, dir);
+                    FileUtils.copyFile(file, backupFile);
+                }
+                
+                // Replacing settings file
+                moveFile(tempFile, file);
+                
+                // Removing backup file if save was successful
+                if (backupFile != null && backupFile.exists()) {
+                    FileUtils.deleteFile(backupFile);
+                }
+                
+                // Removing journal since its changes are saved now
+                final File journalFile = getGroupJournalFile(group, dir);
+                if (journalFile.exists()) {
+                    FileUtils.deleteFile(journalFile);
+                }
+                
+                if (saveLoggingEnabled) {
+                    final long time = (System.nanoTime() - start) / 1000000;
+                    FlatLafLogger.info(SettingsManager.class,
+                            "Settings group \"" + group
+                                    + "\" saved successfully in " + time
+                                    + " ms");
+                }
+            } else {
+                throw new RuntimeException("Cannot create settings directory: "
+                        + dir.getAbsolutePath());
+            }
+        } catch (final Throwable e) {
+            FlatLafLogger.error(SettingsManager.class,
+                    "Unable to save settings group \"" + group
+                            + "\" due to unexpected exception:", e);
+        }
+    }
+    
+    /**
+     * Reads settings group from the specified file using specified codec.
+     *
+     * @param codec
+     *            settings codec
+     * @param file
+     *            settings group file
+     * @return read settings group
+     * @throws IOException
+     *             if settings group cannot be read
+     */
+    protected static SettingsGroup readSettingsGroup(final SettingsCodec codec,
+            final File file) throws IOException {
+        final InputStream in = new FileInputStream(file);
+        try {
+            return codec.read(in);
+        } finally {
+            in.close();
+        }
+    }
+    
+    /**
+     * Converts settings group stored in XML format into the format of the
+     * current settings codec. XML file is removed only after the settings
+     * group is successfully written in the new format.
+     *
+     * @param group
+     *            settings group name
+     * @param dir
+     *            settings group directory
+     */
+    protected static void migrateSettingsGroup(final String group,
+            final File dir) {
+        final String extension = xmlSettingsCodec.getExtension();
+        if (!settingsCodec.getExtension().equals(extension)) {
+            final File xmlFile = new File(dir, group + extension);
+            final File xmlBackupFile = new File(dir, group + extension
+                    + backupFilesExtension);
+            
+            // Restoring XML backup first
+            if (xmlBackupFile.exists() && xmlBackupFile.isFile()) {
+                FileUtils.copyFile(xmlBackupFile, xmlFile);
+                FileUtils.deleteFile(xmlBackupFile);
+            }
+            
+            if (xmlFile.exists() && xmlFile.isFile()) {
+                try {
+                    // Reading settings group and its journal
+                    final SettingsGroup settingsGroup = readSettingsGroup(
+                            xmlSettingsCodec, xmlFile);
+                    final File xmlJournalFile = new File(dir, group
+                            + extension + journalFilesExtension);
+                    if (xmlJournalFile.exists() && xmlJournalFile.isFile()) {
+                        replaySettingsJournal(settingsGroup, xmlJournalFile,
+                                xmlFile);
                     }
                     
-                    if (saveLoggingEnabled) {
+                    // Rewriting settings group with the current codec
+                    writeSettingsGroup(settingsGroup);
+                    if (getGroupFile(group, dir).exists()) {
+                        FileUtils.deleteFiles(xmlFile, xmlJournalFile);
+                        
                         FlatLafLogger.info(SettingsManager.class,
                                 "Settings group \"" + group
-                                        + "\" saved successfully");
+                                        + "\" migrated from XML format");
                     }
-                } else {
-                    throw new RuntimeException(
-                            "Cannot create settings directory: "
-                                    + dir.getAbsolutePath());
+                } catch (final Throwable e) {
+                    FlatLafLogger.error(SettingsManager.class,
+                            "Unable to migrate settings group \"" + group
+                                    + "\" due to unexpected exception:", e);
                 }
-            } catch (final Throwable e) {
-                FlatLafLogger.error(
-                        SettingsManager.class,
-                        "Unable to save settings group \""
-                                + settingsGroup.getName()
-                                + "\" due to unexpected exception:", e);
             }
         }
     }
     
+    /**
+     * Appends settings group changes to its journal. Journal is merged into
+     * the settings group file if it has grown too large.
+     *
+     * @param group
+     *            settings group name
+     * @param changes
+     *            changed settings, removed settings are marked with
+     *            {@link SettingsJournal#REMOVED} value
+     */
+    protected static void writeSettingsChanges(final String group,
+            final Map<String, Object> changes) {
+        final List<byte[]> records = new ArrayList<byte[]>(changes.size());
+        try {
+            for (final Map.Entry<String, Object> change : changes.entrySet()) {
+                records.add(SettingsJournal.encode(change.getKey(),
+                        change.getValue()));
+            }
+        } catch (final Throwable e) {
+            FlatLafLogger.error(SettingsManager.class,
+                    "Unable to save settings group \"" + group
+                            + "\" changes due to unexpected exception:", e);
+            return;
+        }
+        writeSettingsChanges(group, records);
+    }
+    
+    /**
+     * Appends settings group changes encoded with
+     * {@link SettingsJournal#encode(String, Object)} method to its journal.
+     * Journal is merged into the settings group file if it has grown too
+     * large.
+     *
+     * @param group
+     *            settings group name
+     * @param records
+     *            encoded settings changes
+     */
+    protected static void writeSettingsChanges(final String group,
+            final Collection<byte[]> records) {
+        try {
+            final File dir = new File(getGroupFilePath(group));
+            if (FileUtils.ensureDirectoryExists(dir)) {
+                final File file = getGroupFile(group, dir);
+                final File journalFile = getGroupJournalFile(group, dir);
+                
+                // Appending changes
+                SettingsJournal.append(journalFile, file, records);
+                if (saveLoggingEnabled) {
+                    FlatLafLogger.info(SettingsManager.class, records.size()
+                            + " change(s) of settings group \"" + group
+                            + "\" saved into journal");
+                }
+                
+                // Merging journal into settings group file
+                if (journalFile.length() > Math.max(journalCompactSize,
+                        file.length())) {
+                    final SettingsGroup settingsGroup = file.exists() ? readSettingsGroup(
+                            settingsCodec, file) : new SettingsGroup(group);
+                    replaySettingsJournal(settingsGroup, journalFile, file);
+                    writeSettingsGroup(settingsGroup);
+                }
+            } else {
+                throw new RuntimeException("Cannot create settings directory: "
+                        + dir.getAbsolutePath());
+            }
+        } catch (final Throwable e) {
+            FlatLafLogger.error(SettingsManager.class,
+                    "Unable to save settings group \"" + group
+                            + "\" changes due to unexpected exception:", e);
+        }
+    }
+    
+    /**
+     * Applies changes from the journal to the specified settings group.
+     * Outdated or unreadable journal is removed.
+     *
+     * @param settingsGroup
+     *            settings group to apply changes to
+     * @param journalFile
+     *            journal file
+     * @param file
+     *            settings group file
+     */
+    protected static void replaySettingsJournal(
+            final SettingsGroup settingsGroup, final File journalFile,
+            final File file) {
+        try {
+            if (!SettingsJournal.replay(journalFile, file, settingsGroup)) {
+                FileUtils.deleteFile(journalFile);
+            }
+        } catch (final Throwable e) {
+            FlatLafLogger.error(SettingsManager.class,
+                    "Unable to read settings group \""
+                            + settingsGroup.getName()
+                            + "\" journal due to unexpected exception:", e);
+            FileUtils.deleteFile(journalFile);
+        }
+    }
+    
+    /**
+     * Moves source file over the destination file, atomically if file system
+     * supports it.
+     *
+     * @param source
+     *            file to move
+     * @param destination
+     *            file to replace
+     * @throws IOException
+     *             if file cannot be moved
+     */
+    protected static void moveFile(final File source, final File destination)
+            throws IOException {
+        try {
+            Files.move(source.toPath(), destination.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), destination.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
     protected static File getGroupFile(final String group, final File dir) {
-        return new File(dir, group + settingsFilesExtension);
+        return new File(dir, group + settingsCodec.getExtension());
     }
     
     protected static File getGroupBackupFile(final String group, final File dir) {
-        return new File(dir, group + settingsFilesExtension
+        return new File(dir, group + settingsCodec.getExtension()
                 + backupFilesExtension);
     }
     
+    protected static File getGroupTempFile(final String group, final File dir) {
+        return new File(dir, group + settingsCodec.getExtension()
+                + tempFilesExtension);
+    }
+    
+    protected static File getGroupJournalFile(final String group, final File dir) {
+        return new File(dir, group + settingsCodec.getExtension()
+                + journalFilesExtension);
+    }
+    
+    /**
+     * Saves settings group in background or right away according to settings
+     * manager configuration.
+     *
+     * @param group
+     *            name of the settings group to save
+     */
+    protected static void performSettingsGroupSave(final String group) {
+        performSettingsGroupSave(group, null);
+    }
+    
+    /**
+     * Saves settings group changes in background or right away according to
+     * settings manager configuration. Changes are appended to the group
+     * journal if it is enabled, otherwise the whole group is saved.
+     *
+     * @param group
+     *            name of the settings group to save
+     * @param changes
+     *            changed settings or null to save the whole group
+     */
+    protected static void performSettingsGroupSave(final String group,
+            final Map<String, Object> changes) {
+        if (journalEnabled && changes != null) {
+            if (allowSave) {
+                if (saveInBackground) {
+                    settingsWriter.appendLater(group, changes);
+                } else {
+                    settingsWriter.append(group, changes);
+                }
+            }
+        } else if (saveInBackground) {
+            saveSettingsGroupLater(getSettingsGroup(group));
+        } else {
+            saveSettingsGroup(group);
+        }
+    }
+    
     /**
      * Delays settings group save or performs it immediately according to
      * settings manager configuration.
@@ -1273,6 +1721,22 @@ public class SettingsManager {
      *            name of the settings group to save
      */
     protected static void delayedSaveSettingsGroup(final String group) {
+        delayedSaveSettingsGroup(group, null, null);
+    }
+    
+    /**
+     * Delays settings group change save or performs it immediately according
+     * to settings manager configuration.
+     *
+     * @param group
+     *            name of the settings group to save
+     * @param key
+     *            changed settings key or null to save the whole group
+     * @param value
+     *            new settings value or {@link SettingsJournal#REMOVED}
+     */
+    protected static void delayedSaveSettingsGroup(final String group,
+            final String key, final Object value) {
         // Determining when we should save changes into file system
         if (saveOnChangeDelay > 0) {
             // Delaying save
@@ -1280,6 +1744,19 @@ public class SettingsManager {
                 // Adding group for delayed save
                 if (!groupsToSaveOnChange.contains(group)) {
                     groupsToSaveOnChange.add(group);
+                    changesToSaveOnChange.put(group,
+                            key != null ? new LinkedHashMap<String, Object>()
+                                    : null);
+                } else if (key == null) {
+                    changesToSaveOnChange.put(group, null);
+                }
+                
+                // Adding changed value
+                final Map<String, Object> changes = changesToSaveOnChange
+                        .get(group);
+                if (changes != null) {
+                    changes.remove(key);
+                    changes.put(key, value);
                 }
                 
                 // Launching scheduler if it is not yet launched
@@ -1292,12 +1769,7 @@ public class SettingsManager {
                                     @Override
                                     public void actionPerformed(
                                             final ActionEvent e) {
-                                        synchronized (saveOnChangeLock) {
-                                            for (final String group : groupsToSaveOnChange) {
-                                                saveSettingsGroup(group);
-                                            }
-                                            groupsToSaveOnChange.clear();
-                                        }
+                                        saveDelayedSettingsGroups();
                                     }
                                 });
                         groupSaveScheduler.setRepeats(false);
@@ -1309,7 +1781,22 @@ public class SettingsManager {
             }
         } else {
             // Saving right away
-            saveSettingsGroup(group);
+            performSettingsGroupSave(group,
+                    key != null ? Collections.singletonMap(key, value) : null);
+        }
+    }
+    
+    /**
+     * Saves all delayed settings groups and changes.
+     */
+    protected static void saveDelayedSettingsGroups() {
+        synchronized (saveOnChangeLock) {
+            for (final String group : groupsToSaveOnChange) {
+                performSettingsGroupSave(group,
+                        changesToSaveOnChange.get(group));
+            }
+            groupsToSaveOnChange.clear();
+            changesToSaveOnChange.clear();
         }
     }
     
@@ -1437,6 +1924,27 @@ public class SettingsManager {
         SettingsManager.settingsFilesExtension = settingsFilesExtension;
     }
     
+    /**
+     * Returns settings groups codec.
+     *
+     * @return settings groups codec
+     */
+    public static SettingsCodec getSettingsCodec() {
+        return settingsCodec;
+    }
+    
+    /**
+     * Sets settings groups codec. Settings groups saved in XML format will be
+     * converted into the new format when they are loaded next time.
+     *
+     * @param settingsCodec
+     *            new settings groups codec
+     */
+    public static void setSettingsCodec(final SettingsCodec settingsCodec) {
+        SettingsManager.settingsCodec = settingsCodec != null ? settingsCodec
+                : xmlSettingsCodec;
+    }
+    
     /**
      * Returns backup files extension.
      *
@@ -1566,6 +2074,74 @@ public class SettingsManager {
         SettingsManager.saveOnChange = saveOnChange;
     }
     
+    /**
+     * Returns whether should write changed settings groups in background or
+     * not.
+     *
+     * @return true if should write changed settings groups in background,
+     *         false otherwise
+     */
+    public static boolean isSaveInBackground() {
+        return saveInBackground;
+    }
+    
+    /**
+     * Sets whether should write changed settings groups in background or not.
+     *
+     * @param saveInBackground
+     *            whether should write changed settings groups in background or
+     *            not
+     */
+    public static void setSaveInBackground(final boolean saveInBackground) {
+        SettingsManager.saveInBackground = saveInBackground;
+    }
+    
+    /**
+     * Returns whether should append separate settings changes to the group
+     * journal instead of rewriting the whole settings group file or not.
+     *
+     * @return true if should append separate settings changes to the group
+     *         journal, false otherwise
+     */
+    public static boolean isJournalEnabled() {
+        return journalEnabled;
+    }
+    
+    /**
+     * Sets whether should append separate settings changes to the group
+     * journal instead of rewriting the whole settings group file or not.
+     *
+     * @param journalEnabled
+     *            whether should append separate settings changes to the group
+     *            journal or not
+     */
+    public static void setJournalEnabled(final boolean journalEnabled) {
+        SettingsManager.journalEnabled = journalEnabled;
+    }
+    
+    /**
+     * Returns minimum journal size in bytes which causes it to be merged into
+     * the settings group file.
+     *
+     * @return minimum journal size in bytes which causes it to be merged into
+     *         the settings group file
+     */
+    public static long getJournalCompactSize() {
+        return journalCompactSize;
+    }
+    
+    /**
+     * Sets minimum journal size in bytes which causes it to be merged into the
+     * settings group file.
+     *
+     * @param journalCompactSize
+     *            minimum journal size in bytes which causes it to be merged
+     *            into the settings group file
+     */
+    public static void setJournalCompactSize(final long journalCompactSize) {
+        SettingsManager.journalCompactSize = journalCompactSize;
+    }
+    
     /**
      * Sets whether should save provided default value in "get" calls or not.
      *
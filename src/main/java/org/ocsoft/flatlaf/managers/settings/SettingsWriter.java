@@ -0,0 +1,428 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.managers.settings;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
+
+/**
+ * Background writer for settings groups.
+ * <p/>
+ * Settings groups are encoded on the calling thread and queued as snapshots,
+ * so any further changes made to the group or its values do not affect the
+ * data being written. Multiple save requests for the
+ * same group are batched - only the latest snapshot queued before the write
+ * starts will actually be written. Writes are performed one by one within a
+ * single daemon thread which is started on the first request.
+ * <p/>
+ * Separate key changes can also be queued, those are appended to the settings
+ * group journal instead of rewriting the whole settings group file.
+ * <p/>
+ * Settings group reset drops any of its snapshots and changes encoded before
+ * the reset, so old settings values are never written back into the settings
+ * group file or its journal after the reset.
+ *
+ * @author Mikle Garin
+ * @see org.ocsoft.flatlaf.managers.settings.SettingsManager
+ */
+
+public class SettingsWriter {
+    /**
+     * Writer thread name.
+     */
+    public static final String THREAD_NAME = "SettingsManager.writer";
+    
+    /**
+     * Queue lock object.
+     */
+    protected final Object lock = new Object();
+    
+    /**
+     * Write lock object. Queued data is always taken from the queue and
+     * written under this lock, so writes of the same group never overtake each
+     * other and flush never misses data which is neither queued nor written.
+     */
+    protected final Object writeLock = new Object();
+    
+    /**
+     * Settings group snapshots and changes waiting to be written.
+     */
+    protected final Map<String, Snapshot> pending = new LinkedHashMap<String, Snapshot>();
+    
+    /**
+     * Settings groups reset counts. Data encoded before the group reset count
+     * has changed is outdated and will not be written.
+     */
+    protected final Map<String, Integer> resets = new HashMap<String, Integer>();
+    
+    /**
+     * Writer thread.
+     */
+    protected Thread thread = null;
+    
+    /**
+     * Queues settings group to be written in background.
+     *
+     * @param settingsGroup
+     *            settings group to save
+     */
+    public void saveLater(final SettingsGroup settingsGroup) {
+        final String group = settingsGroup.getName();
+        final int resetCount = getResetCount(group);
+        final byte[] data = encode(settingsGroup);
+        if (data != null) {
+            synchronized (lock) {
+                if (resetCount != getResetCount(group)) {
+                    return;
+                }
+                pending.remove(group);
+                pending.put(group, new Snapshot(group, data, null));
+                startThread();
+            }
+        }
+    }
+    
+    /**
+     * Writes settings group right away in the current thread. Any queued data
+     * of the same group is dropped as outdated.
+     *
+     * @param settingsGroup
+     *            settings group to save
+     */
+    public void save(final SettingsGroup settingsGroup) {
+        final String group = settingsGroup.getName();
+        final int resetCount = getResetCount(group);
+        final byte[] data = encode(settingsGroup);
+        if (data != null) {
+            synchronized (writeLock) {
+                synchronized (lock) {
+                    if (resetCount != getResetCount(group)) {
+                        return;
+                    }
+                    pending.remove(group);
+                }
+                write(new Snapshot(group, data, null));
+            }
+        }
+    }
+    
+    /**
+     * Queues settings group changes to be appended to its journal in
+     * background.
+     *
+     * @param group
+     *            settings group name
+     * @param changes
+     *            changed settings, removed settings are marked with
+     *            {@link SettingsJournal#REMOVED} value
+     */
+    public void appendLater(final String group,
+            final Map<String, Object> changes) {
+        final int resetCount = getResetCount(group);
+        final Map<String, byte[]> records = encode(group, changes);
+        if (records != null) {
+            synchronized (lock) {
+                if (resetCount != getResetCount(group)) {
+                    return;
+                }
+                queueChanges(group, records);
+                startThread();
+            }
+        }
+    }
+    
+    /**
+     * Appends settings group changes to its journal right away in the current
+     * thread together with any queued data of the same group.
+     *
+     * @param group
+     *            settings group name
+     * @param changes
+     *            changed settings, removed settings are marked with
+     *            {@link SettingsJournal#REMOVED} value
+     */
+    public void append(final String group, final Map<String, Object> changes) {
+        final int resetCount = getResetCount(group);
+        final Map<String, byte[]> records = encode(group, changes);
+        if (records != null) {
+            synchronized (writeLock) {
+                final Snapshot snapshot;
+                synchronized (lock) {
+                    if (resetCount != getResetCount(group)) {
+                        return;
+                    }
+                    snapshot = queueChanges(group, records);
+                    pending.remove(group);
+                }
+                write(snapshot);
+            }
+        }
+    }
+    
+    /**
+     * Drops all queued data of the specified settings group and performs its
+     * reset. Reset is performed while no data is being written, so it can
+     * safely remove settings group files.
+     *
+     * @param group
+     *            settings group name
+     * @param reset
+     *            settings group reset
+     */
+    public void reset(final String group, final Runnable reset) {
+        synchronized (writeLock) {
+            synchronized (lock) {
+                resets.put(group, getResetCount(group) + 1);
+                pending.remove(group);
+            }
+            reset.run();
+        }
+    }
+    
+    /**
+     * Writes all queued settings groups in the current thread and waits for
+     * the write being performed in background to finish.
+     */
+    public void flush() {
+        while (writeNext()) {
+            // Writing until queue is empty
+        }
+    }
+    
+    /**
+     * Returns amount of settings groups waiting to be written.
+     *
+     * @return amount of settings groups waiting to be written
+     */
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+    
+    /**
+     * Returns amount of times specified settings group was reset.
+     *
+     * @param group
+     *            settings group name
+     * @return amount of times specified settings group was reset
+     */
+    protected int getResetCount(final String group) {
+        synchronized (lock) {
+            final Integer count = resets.get(group);
+            return count != null ? count : 0;
+        }
+    }
+    
+    /**
+     * Adds changes to the queued data of the specified settings group.
+     *
+     * @param group
+     *            settings group name
+     * @param changes
+     *            encoded settings changes
+     * @return queued settings group data
+     */
+    protected Snapshot queueChanges(final String group,
+            final Map<String, byte[]> changes) {
+        Snapshot snapshot = pending.get(group);
+        if (snapshot == null) {
+            snapshot = new Snapshot(group, null,
+                    new LinkedHashMap<String, byte[]>());
+            pending.put(group, snapshot);
+        } else if (snapshot.changes == null) {
+            snapshot.changes = new LinkedHashMap<String, byte[]>();
+        }
+        snapshot.changes.putAll(changes);
+        return snapshot;
+    }
+    
+    /**
+     * Starts writer thread if it is not yet running and notifies it about new
+     * data.
+     */
+    protected void startThread() {
+        synchronized (lock) {
+            if (thread == null) {
+                thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        processQueue();
+                    }
+                }, THREAD_NAME);
+                thread.setDaemon(true);
+                thread.start();
+            }
+            lock.notifyAll();
+        }
+    }
+    
+    /**
+     * Writes queued settings groups until writer is interrupted.
+     */
+    protected void processQueue() {
+        while (true) {
+            synchronized (lock) {
+                while (pending.isEmpty()) {
+                    try {
+                        lock.wait();
+                    } catch (final InterruptedException e) {
+                        thread = null;
+                        return;
+                    }
+                }
+            }
+            writeNext();
+        }
+    }
+    
+    /**
+     * Removes the oldest queued data and writes it.
+     *
+     * @return true if anything was written, false if queue is empty
+     */
+    protected boolean writeNext() {
+        synchronized (writeLock) {
+            final Snapshot snapshot;
+            synchronized (lock) {
+                final Iterator<Snapshot> iterator = pending.values()
+                        .iterator();
+                if (!iterator.hasNext()) {
+                    return false;
+                }
+                snapshot = iterator.next();
+                iterator.remove();
+            }
+            write(snapshot);
+            return true;
+        }
+    }
+    
+    /**
+     * Writes settings group snapshot and changes made after it.
+     *
+     * @param snapshot
+     *            settings group snapshot
+     */
+    protected void write(final Snapshot snapshot) {
+        try {
+            if (snapshot.data != null) {
+                SettingsManager.writeSettingsGroup(snapshot.group,
+                        snapshot.data);
+            }
+            if (snapshot.changes != null && !snapshot.changes.isEmpty()) {
+                SettingsManager.writeSettingsChanges(snapshot.group,
+                        snapshot.changes.values());
+            }
+        } catch (final Throwable e) {
+            FlatLafLogger.error(SettingsWriter.class,
+                    "Unable to save settings group \"" + snapshot.group
+                            + "\" due to unexpected exception:", e);
+        }
+    }
+    
+    /**
+     * Returns settings group encoded into data which can be safely written in
+     * background, or null if it cannot be encoded.
+     *
+     * @param settingsGroup
+     *            settings group to encode
+     * @return encoded settings group
+     */
+    protected byte[] encode(final SettingsGroup settingsGroup) {
+        try {
+            return SettingsManager.encodeSettingsGroup(settingsGroup);
+        } catch (final Throwable e) {
+            FlatLafLogger.error(SettingsWriter.class,
+                    "Unable to save settings group \""
+                            + settingsGroup.getName()
+                            + "\" due to unexpected exception:", e);
+            return null;
+        }
+    }
+    
+    /**
+     * Returns settings changes encoded into journal records which can be
+     * safely written in background, or null if those cannot be encoded.
+     *
+     * @param group
+     *            settings group name
+     * @param changes
+     *            changed settings
+     * @return encoded settings changes
+     */
+    protected Map<String, byte[]> encode(final String group,
+            final Map<String, Object> changes) {
+        try {
+            final Map<String, byte[]> records = new LinkedHashMap<String, byte[]>(
+                    changes.size());
+            for (final Map.Entry<String, Object> change : changes.entrySet()) {
+                records.put(change.getKey(), SettingsJournal.encode(
+                        change.getKey(), change.getValue()));
+            }
+            return records;
+        } catch (final Throwable e) {
+            FlatLafLogger.error(SettingsWriter.class,
+                    "Unable to save settings group \"" + group
+                            + "\" changes due to unexpected exception:", e);
+            return null;
+        }
+    }
+    
+    /**
+     * Settings group snapshot and changes made after it.
+     */
+    protected static class Snapshot {
+        /**
+         * Settings group name.
+         */
+        protected final String group;
+        
+        /**
+         * Encoded settings group, null if only changes should be written.
+         */
+        protected final byte[] data;
+        
+        /**
+         * Encoded settings changes made after the snapshot.
+         */
+        protected Map<String, byte[]> changes;
+        
+        /**
+         * Constructs new settings group snapshot.
+         *
+         * @param group
+         *            settings group name
+         * @param data
+         *            encoded settings group
+         * @param changes
+         *            encoded settings changes made after the snapshot
+         */
+        public Snapshot(final String group, final byte[] data,
+                final Map<String, byte[]> changes) {
+            super();
+            this.group = group;
+            this.data = data;
+            this.changes = changes;
+        }
+    }
+}
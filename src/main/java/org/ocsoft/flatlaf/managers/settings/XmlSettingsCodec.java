@@ -0,0 +1,70 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.managers.settings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import org.ocsoft.flatlaf.utils.xml.XmlUtils;
+
+/**
+ * Settings group codec which stores settings in XML format using XStream and
+ * SettingsConverter. This is the default SettingsManager codec.
+ *
+ * @author Mikle Garin
+ * @see org.ocsoft.flatlaf.managers.settings.SettingsConverter
+ * @see org.ocsoft.flatlaf.utils.xml.XmlUtils
+ */
+
+public class XmlSettingsCodec implements SettingsCodec {
+    /**
+     * Settings files encoding.
+     */
+    public static final String ENCODING = "UTF-8";
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getExtension() {
+        return SettingsManager.getSettingsFilesExtension();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final SettingsGroup settingsGroup, final OutputStream out)
+            throws IOException {
+        final Writer writer = new OutputStreamWriter(out, ENCODING);
+        XmlUtils.toXML(settingsGroup, writer);
+        writer.flush();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SettingsGroup read(final InputStream in) throws IOException {
+        return XmlUtils.fromXML(new InputStreamReader(in, ENCODING));
+    }
+}
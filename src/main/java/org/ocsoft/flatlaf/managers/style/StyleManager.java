@@ -33,6 +33,7 @@ import org.ocsoft.flatlaf.managers.style.skin.web.WebSkin;
 import org.ocsoft.flatlaf.utils.LafUtils;
 import org.ocsoft.flatlaf.utils.laf.Styleable;
 import org.ocsoft.flatlaf.utils.ninepatch.NinePatchIcon;
+import org.ocsoft.flatlaf.utils.ninepatch.NinePatchUtils;
 import org.ocsoft.flatlaf.utils.reflection.ReflectUtils;
 import org.ocsoft.flatlaf.utils.xml.XmlUtils;
 
@@ -298,6 +299,11 @@ public class StyleManager {
         // Updating currently applied skin
         currentSkin = skin;
         
+        // Creating skin shade icons in advance on a background thread
+        if (skin != null) {
+            NinePatchUtils.precomputeShadeIcons(skin.getShadeIcons());
+        }
+        
         // Applying new skin to all existing skinnable components
         for (final Map.Entry<JComponent, WebLafSkin> entry : appliedSkins
                 .entrySet()) {
@@ -0,0 +1,1030 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.managers.style.data;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.GraphicsEnvironment;
+import java.awt.Insets;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.ocsoft.flatlaf.core.constants.FlatLafConstants;
+import org.ocsoft.flatlaf.managers.settings.SettingsManager;
+import org.ocsoft.flatlaf.managers.style.SupportedComponent;
+import org.ocsoft.flatlaf.utils.ImageUtils;
+import org.ocsoft.flatlaf.utils.ninepatch.NinePatchIcon;
+import org.ocsoft.flatlaf.utils.ninepatch.NinePatchInterval;
+import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
+import org.ocsoft.flatlaf.utils.xml.ResourceFile;
+import org.ocsoft.flatlaf.utils.xml.ResourceLocation;
+import org.ocsoft.flatlaf.utils.xml.XmlUtils;
+
+/**
+ * This class provides methods to compile skin information into a compact
+ * binary bundle and to load it back without XML parsing.
+ * <p/>
+ * Bundle contains fully resolved skin styles together with painters and their
+ * property values, so loading it doesn't involve XStream at all. Bundle also
+ * keeps the list of skin XML files and images it was compiled from and their
+ * checksum, bundle is only used while that checksum matches current files and
+ * library version.
+ * <p/>
+ * Bundle can be compiled at build time using {@link #compile(Class, String)}
+ * and placed near the skin XML file with {@link #BUNDLE_EXTENSION} added to
+ * its name. Otherwise bundle is compiled on the first launch into the
+ * {@link #getCacheDirectory()} and used on the next launches.
+ *
+ * @author Mikle Garin
+ * @see org.ocsoft.flatlaf.managers.style.skin.CustomSkin
+ */
+
+public final class SkinBundle {
+    /**
+     * Whether skin bundles should be used or not.
+     */
+    public static boolean enabled = true;
+    
+    /**
+     * Directory where skin bundles compiled on the first launch are stored.
+     * If not specified "skins" directory inside of the default settings
+     * directory is used.
+     *
+     * @see org.ocsoft.flatlaf.managers.settings.SettingsManager#getDefaultSettingsDir()
+     */
+    public static String cacheDirectory = null;
+    
+    /**
+     * Name of the directory inside of the default settings directory where
+     * skin bundles are stored by default.
+     */
+    private static final String CACHE_DIRECTORY_NAME = "skins";
+    
+    /**
+     * Extension added to skin XML file name to get its bundle file name.
+     */
+    public static final String BUNDLE_EXTENSION = ".bin";
+    
+    /**
+     * Bundle format marks.
+     */
+    private static final int MAGIC = 0x464C5342;
+    private static final int VERSION = 2;
+    
+    /**
+     * Bundle strings charset.
+     */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    
+    /**
+     * Property value types.
+     */
+    private static final byte NULL = 0;
+    private static final byte IGNORED = 1;
+    private static final byte STRING = 2;
+    private static final byte BOOLEAN = 3;
+    private static final byte INTEGER = 4;
+    private static final byte LONG = 5;
+    private static final byte FLOAT = 6;
+    private static final byte DOUBLE = 7;
+    private static final byte COLOR = 8;
+    private static final byte INSETS = 9;
+    private static final byte DIMENSION = 10;
+    private static final byte POINT = 11;
+    private static final byte FONT = 12;
+    private static final byte ENUM = 13;
+    private static final byte NINE_PATCH_ICON = 14;
+    
+    /**
+     * Images referenced by the skin XML files being parsed in the current
+     * thread, null if skin XML is not being parsed for bundle.
+     */
+    private static final ThreadLocal<List<ResourceFile>> images = new ThreadLocal<List<ResourceFile>>();
+    
+    /**
+     * Returns skin information for the skin XML file located near the
+     * specified class. Skin bundle is used if there is an up-to-date one,
+     * otherwise skin XML is parsed and new bundle is stored into cache
+     * directory for the next launches.
+     *
+     * @param nearClass
+     *            class near which skin XML file is located
+     * @param location
+     *            skin XML file location
+     * @return skin information
+     */
+    public static SkinInfo loadSkinInfo(final Class<?> nearClass,
+            final String location) {
+        // Custom resources replace XML files content so bundles can't be used
+        final boolean useBundles = enabled
+                && !SkinInfoConverter.hasCustomResources();
+        final File cacheFile = getCacheFile(nearClass, location);
+        if (useBundles) {
+            // Bundle compiled at build time
+            final URL bundle = nearClass.getResource(location
+                    + BUNDLE_EXTENSION);
+            SkinInfo skinInfo = bundle != null ? readSafely(bundle, nearClass,
+                    location) : null;
+            if (skinInfo != null) {
+                return skinInfo;
+            }
+            
+            // Bundle compiled on one of the previous launches
+            skinInfo = cacheFile.exists() ? readSafely(cacheFile, nearClass,
+                    location) : null;
+            if (skinInfo != null) {
+                return skinInfo;
+            }
+        }
+        
+        // Parsing skin XML
+        final List<ResourceFile> skinImages = new ArrayList<ResourceFile>();
+        final SkinInfo skinInfo = parse(nearClass.getResource(location),
+                skinImages);
+        
+        // Compiling bundle for the next launches
+        // Images cannot be loaded in headless environment so it is skipped
+        if (useBundles && skinInfo != null
+                && !GraphicsEnvironment.isHeadless()) {
+            try {
+                writeBundle(skinInfo, skinImages, nearClass, location,
+                        cacheFile);
+            } catch (final Throwable e) {
+                FlatLafLogger.warn(SkinBundle.class, "Unable to compile skin \""
+                        + location + "\" bundle: " + e.toString());
+            }
+        }
+        return skinInfo;
+    }
+    
+    /**
+     * Compiles bundle for the skin XML file located near the specified class.
+     * This method is intended to be used at build time, compiled bundle is
+     * placed near the skin XML file.
+     *
+     * @param nearClass
+     *            class near which skin XML file is located
+     * @param location
+     *            skin XML file location
+     * @return compiled bundle file
+     * @throws IOException
+     *             if skin XML cannot be compiled or bundle cannot be written
+     */
+    public static File compile(final Class<?> nearClass, final String location)
+            throws IOException {
+        final URL url = nearClass.getResource(location);
+        if (url == null || !"file".equals(url.getProtocol())) {
+            throw new IOException("Skin \"" + location
+                    + "\" is not a file near class: " + nearClass.getName());
+        }
+        final List<ResourceFile> skinImages = new ArrayList<ResourceFile>();
+        final SkinInfo skinInfo = parse(url, skinImages);
+        final File bundle = new File(url.getPath() + BUNDLE_EXTENSION);
+        writeBundle(skinInfo, skinImages, nearClass, location, bundle);
+        return bundle;
+    }
+    
+    /**
+     * Informs that image resource is referenced by the skin XML file being
+     * parsed. Referenced images are added into the bundle sources, so that
+     * bundle is recompiled when they change.
+     *
+     * @param image
+     *            referenced image resource
+     */
+    public static void addImage(final ResourceFile image) {
+        final List<ResourceFile> skinImages = images.get();
+        if (skinImages != null) {
+            for (final ResourceFile added : skinImages) {
+                if (added.getLocation() == image.getLocation()
+                        && added.getSource().equals(image.getSource())
+                        && equal(added.getClassName(), image.getClassName())) {
+                    return;
+                }
+            }
+            skinImages.add(image);
+        }
+    }
+    
+    /**
+     * Returns skin information parsed from the specified skin XML file and
+     * collects images referenced by it.
+     *
+     * @param url
+     *            skin XML file URL
+     * @param skinImages
+     *            list to collect referenced images into
+     * @return skin information parsed from the specified skin XML file
+     */
+    private static SkinInfo parse(final URL url,
+            final List<ResourceFile> skinImages) {
+        final List<ResourceFile> previous = images.get();
+        images.set(skinImages);
+        try {
+            return XmlUtils.fromXML(url);
+        } finally {
+            if (previous != null) {
+                images.set(previous);
+            } else {
+                images.remove();
+            }
+        }
+    }
+    
+    /**
+     * Returns cache file for the bundle of the specified skin XML file.
+     *
+     * @param nearClass
+     *            class near which skin XML file is located
+     * @param location
+     *            skin XML file location
+     * @return cache file for the bundle of the specified skin XML file
+     */
+    public static File getCacheFile(final Class<?> nearClass, final String location) {
+        final String name = (nearClass.getName() + "." + location).replaceAll(
+                "[^A-Za-z0-9._-]", "_");
+        return new File(getCacheDirectory(), name + BUNDLE_EXTENSION);
+    }
+    
+    /**
+     * Returns directory where skin bundles compiled on the first launch are
+     * stored.
+     *
+     * @return directory where skin bundles compiled on the first launch are
+     *         stored
+     */
+    public static File getCacheDirectory() {
+        if (cacheDirectory != null) {
+            return new File(cacheDirectory);
+        } else {
+            return new File(SettingsManager.getDefaultSettingsDir(),
+                    CACHE_DIRECTORY_NAME);
+        }
+    }
+    
+    /**
+     * Returns skin information read from the specified bundle or null if it
+     * cannot be read or is outdated.
+     *
+     * @param bundle
+     *            bundle file or URL
+     * @param nearClass
+     *            class near which skin XML file is located
+     * @param location
+     *            skin XML file location
+     * @return skin information read from the specified bundle or null
+     */
+    private static SkinInfo readSafely(final Object bundle,
+            final Class<?> nearClass, final String location) {
+        try {
+            // Bundle is read into memory instead of being memory-mapped so
+            // that outdated bundle file can be replaced right away
+            final InputStream is = bundle instanceof File ? new FileInputStream(
+                    (File) bundle) : ((URL) bundle).openStream();
+            return readBundle(ByteBuffer.wrap(readBytes(is)), nearClass,
+                    location);
+        } catch (final Throwable e) {
+            FlatLafLogger.warn(SkinBundle.class, "Unable to read skin \""
+                    + location + "\" bundle: " + e.toString());
+            return null;
+        }
+    }
+    
+    /**
+     * Returns skin information read from the bundle or null if bundle is
+     * outdated.
+     *
+     * @param buffer
+     *            bundle content
+     * @param nearClass
+     *            class near which skin XML file is located
+     * @param location
+     *            skin XML file location
+     * @return skin information read from the bundle or null
+     * @throws IOException
+     *             if bundle is incorrect or its sources cannot be read
+     */
+    private static SkinInfo readBundle(final ByteBuffer buffer,
+            final Class<?> nearClass, final String location) throws IOException {
+        // Checking format
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+        
+        final ClassLoader loader = nearClass.getClassLoader();
+        
+        // Checking that bundle sources are intact
+        final List<ResourceFile> sources = readSources(buffer);
+        final int xmlCount = buffer.getInt();
+        final long checksum = buffer.getLong();
+        final ResourceFile main = sources.get(0);
+        if (!main.getSource().equals(location)
+                || !nearClass.getName().equals(main.getClassName())
+                || checksum != getChecksum(sources, loader)) {
+            return null;
+        }
+        
+        // Skin information
+        final SkinInfo skinInfo = new SkinInfo();
+        skinInfo.setId(readString(buffer));
+        skinInfo.setName(readString(buffer));
+        skinInfo.setDescription(readString(buffer));
+        skinInfo.setAuthor(readString(buffer));
+        skinInfo.setSupportedSystems(readString(buffer));
+        skinInfo.setSkinClass(readString(buffer));
+        skinInfo.setIncludes(new ArrayList<ResourceFile>(sources.subList(1,
+                xmlCount)));
+        
+        // Skin styles
+        final int stylesCount = buffer.getInt();
+        final List<ComponentStyle> styles = new ArrayList<ComponentStyle>(
+                stylesCount);
+        for (int i = 0; i < stylesCount; i++) {
+            final ComponentStyle style = new ComponentStyle();
+            style.setType(SupportedComponent.valueOf(readString(buffer)));
+            style.setId(readString(buffer));
+            style.setExtendsId(readString(buffer));
+            style.setComponentProperties(readProperties(buffer, loader));
+            style.setUIProperties(readProperties(buffer, loader));
+            final int paintersCount = buffer.getInt();
+            final List<PainterStyle> painters = new ArrayList<PainterStyle>(
+                    paintersCount);
+            for (int j = 0; j < paintersCount; j++) {
+                final PainterStyle painter = new PainterStyle();
+                painter.setId(readString(buffer));
+                painter.setBase(buffer.get() != 0);
+                painter.setPainterClass(readString(buffer));
+                painter.setProperties(readProperties(buffer, loader));
+                painters.add(painter);
+            }
+            style.setPainters(painters);
+            styles.add(style);
+        }
+        skinInfo.setStyles(styles);
+        
+        // Skin styles cache
+        final int typesCount = buffer.getInt();
+        final Map<SupportedComponent, Map<String, ComponentStyle>> stylesCache = new LinkedHashMap<SupportedComponent, Map<String, ComponentStyle>>(
+                SupportedComponent.values().length);
+        for (int i = 0; i < typesCount; i++) {
+            final SupportedComponent type = SupportedComponent
+                    .valueOf(readString(buffer));
+            final int count = buffer.getInt();
+            final Map<String, ComponentStyle> componentStyles = new LinkedHashMap<String, ComponentStyle>(
+                    count);
+            for (int j = 0; j < count; j++) {
+                componentStyles.put(readString(buffer),
+                        styles.get(buffer.getInt()));
+            }
+            stylesCache.put(type, componentStyles);
+        }
+        skinInfo.setStylesCache(stylesCache);
+        
+        return skinInfo;
+    }
+    
+    /**
+     * Writes bundle for the specified skin information into the file.
+     *
+     * @param skinInfo
+     *            skin information
+     * @param skinImages
+     *            images referenced by skin XML files
+     * @param nearClass
+     *            class near which skin XML file is located
+     * @param location
+     *            skin XML file location
+     * @param file
+     *            bundle file
+     * @throws IOException
+     *             if skin contains unsupported values or bundle cannot be
+     *             written
+     */
+    private static void writeBundle(final SkinInfo skinInfo,
+            final List<ResourceFile> skinImages, final Class<?> nearClass,
+            final String location, final File file) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        
+        // Bundle sources
+        final List<ResourceFile> sources = new ArrayList<ResourceFile>();
+        sources.add(new ResourceFile(ResourceLocation.nearClass, location,
+                nearClass.getName()));
+        if (skinInfo.getIncludes() != null) {
+            sources.addAll(skinInfo.getIncludes());
+        }
+        final int xmlCount = sources.size();
+        sources.addAll(skinImages);
+        out.writeInt(sources.size());
+        for (final ResourceFile source : sources) {
+            writeString(out, source.getLocation().name());
+            writeString(out, source.getSource());
+            writeString(out, source.getClassName());
+        }
+        out.writeInt(xmlCount);
+        out.writeLong(getChecksum(sources, nearClass.getClassLoader()));
+        
+        // Skin information
+        writeString(out, skinInfo.getId());
+        writeString(out, skinInfo.getName());
+        writeString(out, skinInfo.getDescription());
+        writeString(out, skinInfo.getAuthor());
+        writeString(out, skinInfo.getSupportedSystems());
+        writeString(out, skinInfo.getSkinClass());
+        
+        // Skin styles
+        final List<ComponentStyle> styles = skinInfo.getStyles();
+        final Map<ComponentStyle, Integer> indices = new IdentityHashMap<ComponentStyle, Integer>(
+                styles.size());
+        out.writeInt(styles.size());
+        for (final ComponentStyle style : styles) {
+            indices.put(style, indices.size());
+            writeString(out, style.getType().name());
+            writeString(out, style.getId());
+            writeString(out, style.getExtendsId());
+            writeProperties(out, style.getComponentProperties());
+            writeProperties(out, style.getUIProperties());
+            final List<PainterStyle> painters = style.getPainters();
+            out.writeInt(painters.size());
+            for (final PainterStyle painter : painters) {
+                writeString(out, painter.getId());
+                out.writeByte(painter.isBase() ? 1 : 0);
+                writeString(out, painter.getPainterClass());
+                writeProperties(out, painter.getProperties());
+            }
+        }
+        
+        // Skin styles cache
+        final Map<SupportedComponent, Map<String, ComponentStyle>> stylesCache = skinInfo
+                .getStylesCache();
+        out.writeInt(stylesCache.size());
+        for (final Map.Entry<SupportedComponent, Map<String, ComponentStyle>> entry : stylesCache
+                .entrySet()) {
+            writeString(out, entry.getKey().name());
+            out.writeInt(entry.getValue().size());
+            for (final Map.Entry<String, ComponentStyle> style : entry
+                    .getValue().entrySet()) {
+                final Integer index = indices.get(style.getValue());
+                if (index == null) {
+                    throw new IOException("Cached style \"" + style.getKey()
+                            + "\" is missing in skin styles");
+                }
+                writeString(out, style.getKey());
+                out.writeInt(index);
+            }
+        }
+        out.close();
+        
+        // Replacing bundle file at once to avoid partially written bundles
+        final File dir = file.getAbsoluteFile().getParentFile();
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Unable to create directory: " + dir);
+        }
+        // Each write uses its own temporary file so that concurrent writes
+        // from different processes never clash
+        final File temp = File.createTempFile(file.getName(), ".tmp", dir);
+        try {
+            final FileOutputStream fos = new FileOutputStream(temp);
+            try {
+                bytes.writeTo(fos);
+            } finally {
+                fos.close();
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            temp.delete();
+        }
+    }
+    
+    /**
+     * Returns bundle sources read from the buffer.
+     *
+     * @param buffer
+     *            bundle data
+     * @return bundle sources
+     */
+    private static List<ResourceFile> readSources(final ByteBuffer buffer) {
+        final int sourcesCount = buffer.getInt();
+        final List<ResourceFile> sources = new ArrayList<ResourceFile>(
+                sourcesCount);
+        for (int i = 0; i < sourcesCount; i++) {
+            final ResourceLocation type = ResourceLocation.valueOf(readString(buffer));
+            sources.add(new ResourceFile(type, readString(buffer),
+                    readString(buffer)));
+        }
+        return sources;
+    }
+    
+    /**
+     * Returns checksum of the specified skin files content and library
+     * version. Library version is included since it defines how skin files
+     * are interpreted.
+     *
+     * @param sources
+     *            skin XML files and images
+     * @param loader
+     *            class loader used to load classes skin files are located near
+     * @return checksum of the specified skin files content and library version
+     * @throws IOException
+     *             if one of the files cannot be read
+     */
+    private static long getChecksum(final List<ResourceFile> sources,
+            final ClassLoader loader) throws IOException {
+        final CRC32 crc = new CRC32();
+        crc.update(FlatLafConstants.LIBRARY_VERSION.getBytes(UTF8));
+        for (final ResourceFile source : sources) {
+            crc.update(readBytes(openSource(source, loader)));
+        }
+        return crc.getValue();
+    }
+    
+    /**
+     * Returns whether specified strings are equal or not.
+     *
+     * @param s1
+     *            first string
+     * @param s2
+     *            second string
+     * @return true if specified strings are equal, false otherwise
+     */
+    private static boolean equal(final String s1, final String s2) {
+        return s1 == null ? s2 == null : s1.equals(s2);
+    }
+    
+    /**
+     * Returns input stream for the specified skin file.
+     *
+     * @param source
+     *            skin XML file or image
+     * @param loader
+     *            class loader used to load class skin file is located near
+     * @return input stream for the specified skin file
+     * @throws IOException
+     *             if file cannot be opened
+     */
+    private static InputStream openSource(final ResourceFile source,
+            final ClassLoader loader) throws IOException {
+        final InputStream is;
+        switch (source.getLocation()) {
+            case url:
+                is = new URL(source.getSource()).openStream();
+                break;
+            
+            case filePath:
+                is = new FileInputStream(source.getSource());
+                break;
+            
+            default:
+                is = forName(source.getClassName(), loader).getResourceAsStream(
+                        source.getSource());
+                break;
+        }
+        if (is == null) {
+            throw new IOException("Unable to read skin file \""
+                    + source.getSource() + "\" near class \""
+                    + source.getClassName() + "\"");
+        }
+        return is;
+    }
+    
+    /**
+     * Returns class with the specified name loaded by the specified class
+     * loader, or by the context class loader if the specified one cannot
+     * load it.
+     *
+     * @param className
+     *            class name
+     * @param loader
+     *            class loader, null for the bootstrap class loader
+     * @return class with the specified name
+     * @throws IOException
+     *             if class cannot be found
+     */
+    private static Class<?> forName(final String className,
+            final ClassLoader loader) throws IOException {
+        try {
+            return Class.forName(className, false, loader);
+        } catch (final ClassNotFoundException e) {
+            final ClassLoader context = Thread.currentThread()
+                    .getContextClassLoader();
+            if (context != null && context != loader) {
+                try {
+                    return Class.forName(className, false, context);
+                } catch (final ClassNotFoundException ignored) {
+                    // Reporting the original exception below
+                }
+            }
+            throw new IOException(e);
+        }
+    }
+    
+    /**
+     * Returns all bytes read from the specified stream. Stream is closed
+     * afterwards.
+     *
+     * @param is
+     *            input stream
+     * @return all bytes read from the specified stream
+     * @throws IOException
+     *             if stream cannot be read
+     */
+    private static byte[] readBytes(final InputStream is) throws IOException {
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            is.close();
+        }
+    }
+    
+    /**
+     * Writes string which might be null.
+     *
+     * @param out
+     *            output stream
+     * @param string
+     *            string to write
+     * @throws IOException
+     *             if string cannot be written
+     */
+    private static void writeString(final DataOutputStream out,
+            final String string) throws IOException {
+        if (string == null) {
+            out.writeInt(-1);
+        } else {
+            final byte[] bytes = string.getBytes(UTF8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+    
+    /**
+     * Returns string which might be null.
+     *
+     * @param buffer
+     *            bundle content
+     * @return read string
+     */
+    private static String readString(final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        } else {
+            final byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, UTF8);
+        }
+    }
+    
+    /**
+     * Writes properties map which might be null.
+     *
+     * @param out
+     *            output stream
+     * @param properties
+     *            properties to write
+     * @throws IOException
+     *             if one of values is not supported or cannot be written
+     */
+    private static void writeProperties(final DataOutputStream out,
+            final Map<String, Object> properties) throws IOException {
+        if (properties == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(properties.size());
+            for (final Map.Entry<String, Object> property : properties
+                    .entrySet()) {
+                writeString(out, property.getKey());
+                writeValue(out, property.getKey(), property.getValue());
+            }
+        }
+    }
+    
+    /**
+     * Returns properties map which might be null.
+     *
+     * @param buffer
+     *            bundle content
+     * @param loader
+     *            class loader used to load value classes
+     * @return read properties map
+     * @throws IOException
+     *             if one of values cannot be read
+     */
+    private static Map<String, Object> readProperties(final ByteBuffer buffer,
+            final ClassLoader loader) throws IOException {
+        final int size = buffer.getInt();
+        if (size < 0) {
+            return null;
+        } else {
+            // Using LinkedHashMap to keep properties order intact
+            final Map<String, Object> properties = new LinkedHashMap<String, Object>(
+                    size);
+            for (int i = 0; i < size; i++) {
+                final String name = readString(buffer);
+                properties.put(name, readValue(buffer, loader));
+            }
+            return properties;
+        }
+    }
+    
+    /**
+     * Writes property value.
+     *
+     * @param out
+     *            output stream
+     * @param name
+     *            property name
+     * @param value
+     *            property value
+     * @throws IOException
+     *             if value is not supported or cannot be written
+     */
+    private static void writeValue(final DataOutputStream out,
+            final String name, final Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value == IgnoredValue.VALUE) {
+            out.writeByte(IGNORED);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeByte((Boolean) value ? 1 : 0);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value.getClass() == Color.class) {
+            out.writeByte(COLOR);
+            out.writeInt(((Color) value).getRGB());
+        } else if (value.getClass() == Insets.class) {
+            final Insets insets = (Insets) value;
+            out.writeByte(INSETS);
+            writeInsets(out, insets);
+        } else if (value.getClass() == Dimension.class) {
+            final Dimension dimension = (Dimension) value;
+            out.writeByte(DIMENSION);
+            out.writeInt(dimension.width);
+            out.writeInt(dimension.height);
+        } else if (value.getClass() == Point.class) {
+            final Point point = (Point) value;
+            out.writeByte(POINT);
+            out.writeInt(point.x);
+            out.writeInt(point.y);
+        } else if (value.getClass() == Font.class) {
+            final Font font = (Font) value;
+            out.writeByte(FONT);
+            writeString(out, font.getName());
+            out.writeInt(font.getStyle());
+            out.writeFloat(font.getSize2D());
+        } else if (value instanceof Enum) {
+            final Enum<?> e = (Enum<?>) value;
+            out.writeByte(ENUM);
+            writeString(out, e.getDeclaringClass().getName());
+            writeString(out, e.name());
+        } else if (value.getClass() == NinePatchIcon.class) {
+            final NinePatchIcon icon = (NinePatchIcon) value;
+            final BufferedImage image = icon.getRawImage();
+            final int w = image.getWidth();
+            final int h = image.getHeight();
+            out.writeByte(NINE_PATCH_ICON);
+            out.writeInt(w);
+            out.writeInt(h);
+            for (final int rgb : image.getRGB(0, 0, w, h, null, 0, w)) {
+                out.writeInt(rgb);
+            }
+            writeIntervals(out, icon.getHorizontalStretch());
+            writeIntervals(out, icon.getVerticalStretch());
+            writeInsets(out, icon.getMargin());
+        } else {
+            throw new IOException("Property \"" + name + "\" value type "
+                    + value.getClass().getName() + " is not supported");
+        }
+    }
+    
+    /**
+     * Returns property value.
+     *
+     * @param buffer
+     *            bundle content
+     * @param loader
+     *            class loader used to load value classes
+     * @return read property value
+     * @throws IOException
+     *             if value cannot be read
+     */
+    private static Object readValue(final ByteBuffer buffer,
+            final ClassLoader loader) throws IOException {
+        final byte type = buffer.get();
+        switch (type) {
+            case NULL:
+                return null;
+            
+            case IGNORED:
+                return IgnoredValue.VALUE;
+            
+            case STRING:
+                return readString(buffer);
+            
+            case BOOLEAN:
+                return buffer.get() != 0;
+            
+            case INTEGER:
+                return buffer.getInt();
+            
+            case LONG:
+                return buffer.getLong();
+            
+            case FLOAT:
+                return buffer.getFloat();
+            
+            case DOUBLE:
+                return buffer.getDouble();
+            
+            case COLOR:
+                return new Color(buffer.getInt(), true);
+            
+            case INSETS:
+                return readInsets(buffer);
+            
+            case DIMENSION:
+                return new Dimension(buffer.getInt(), buffer.getInt());
+            
+            case POINT:
+                return new Point(buffer.getInt(), buffer.getInt());
+            
+            case FONT: {
+                final String name = readString(buffer);
+                final int style = buffer.getInt();
+                return new Font(name, style, 1).deriveFont(buffer.getFloat());
+            }
+            
+            case ENUM: {
+                final String className = readString(buffer);
+                final String name = readString(buffer);
+                final Object[] constants = forName(className, loader)
+                        .getEnumConstants();
+                if (constants != null) {
+                    for (final Object constant : constants) {
+                        if (((Enum<?>) constant).name().equals(name)) {
+                            return constant;
+                        }
+                    }
+                }
+                throw new IOException("Unknown enum constant: " + className
+                        + "." + name);
+            }
+            
+            case NINE_PATCH_ICON: {
+                final int w = buffer.getInt();
+                final int h = buffer.getInt();
+                final int[] pixels = new int[w * h];
+                buffer.asIntBuffer().get(pixels);
+                buffer.position(buffer.position() + pixels.length * 4);
+                BufferedImage image = new BufferedImage(w, h,
+                        BufferedImage.TYPE_INT_ARGB);
+                image.setRGB(0, 0, w, h, pixels, 0, w);
+                if (!GraphicsEnvironment.isHeadless()) {
+                    // Same image format as the one parsed from XML
+                    image = ImageUtils.createCompatibleImage(image);
+                }
+                final NinePatchIcon icon = NinePatchIcon.create(image);
+                icon.setHorizontalStretch(readIntervals(buffer));
+                icon.setVerticalStretch(readIntervals(buffer));
+                icon.setMargin(readInsets(buffer));
+                return icon;
+            }
+            
+            default:
+                throw new IOException("Unknown property value type: " + type);
+        }
+    }
+    
+    /**
+     * Writes insets.
+     *
+     * @param out
+     *            output stream
+     * @param insets
+     *            insets to write
+     * @throws IOException
+     *             if insets cannot be written
+     */
+    private static void writeInsets(final DataOutputStream out,
+            final Insets insets) throws IOException {
+        out.writeInt(insets.top);
+        out.writeInt(insets.left);
+        out.writeInt(insets.bottom);
+        out.writeInt(insets.right);
+    }
+    
+    /**
+     * Returns read insets.
+     *
+     * @param buffer
+     *            bundle content
+     * @return read insets
+     */
+    private static Insets readInsets(final ByteBuffer buffer) {
+        return new Insets(buffer.getInt(), buffer.getInt(), buffer.getInt(),
+                buffer.getInt());
+    }
+    
+    /**
+     * Writes nine-patch intervals.
+     *
+     * @param out
+     *            output stream
+     * @param intervals
+     *            intervals to write
+     * @throws IOException
+     *             if intervals cannot be written
+     */
+    private static void writeIntervals(final DataOutputStream out,
+            final List<NinePatchInterval> intervals) throws IOException {
+        out.writeInt(intervals.size());
+        for (final NinePatchInterval interval : intervals) {
+            out.writeInt(interval.getStart());
+            out.writeInt(interval.getEnd());
+            out.writeByte(interval.isPixel() ? 1 : 0);
+        }
+    }
+    
+    /**
+     * Returns read nine-patch intervals.
+     *
+     * @param buffer
+     *            bundle content
+     * @return read nine-patch intervals
+     */
+    private static List<NinePatchInterval> readIntervals(final ByteBuffer buffer) {
+        final int size = buffer.getInt();
+        final List<NinePatchInterval> intervals = new ArrayList<NinePatchInterval>(
+                size);
+        for (int i = 0; i < size; i++) {
+            final int start = buffer.getInt();
+            final int end = buffer.getInt();
+            intervals.add(new NinePatchInterval(start, end, buffer.get() != 0));
+        }
+        return intervals;
+    }
+}
@@ -26,6 +26,7 @@ import javax.swing.JComponent;
 import org.ocsoft.flatlaf.managers.style.SupportedComponent;
 import org.ocsoft.flatlaf.utils.TextUtils;
 import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
+import org.ocsoft.flatlaf.utils.xml.ResourceFile;
 
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 import com.thoughtworks.xstream.annotations.XStreamConverter;
@@ -89,6 +90,11 @@ public final class SkinInfo implements Serializable {
      */
     private transient Map<SupportedComponent, Map<String, ComponentStyle>> stylesCache;
     
+    /**
+     * Files included into this skin, including files included by them.
+     */
+    private transient List<ResourceFile> includes;
+    
     /**
      * Constructs new skin information.
      */
@@ -248,6 +254,26 @@ public final class SkinInfo implements Serializable {
         this.styles = styles;
     }
     
+    /**
+     * Returns files included into this skin, including files included by
+     * them.
+     *
+     * @return files included into this skin
+     */
+    public List<ResourceFile> getIncludes() {
+        return includes;
+    }
+    
+    /**
+     * Sets files included into this skin.
+     *
+     * @param includes
+     *            files included into this skin
+     */
+    public void setIncludes(final List<ResourceFile> includes) {
+        this.includes = includes;
+    }
+    
     /**
      * Returns skin styles cache map.
      *
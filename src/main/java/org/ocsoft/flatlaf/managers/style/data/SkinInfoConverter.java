@@ -143,6 +143,8 @@ public class SkinInfoConverter extends ReflectionConverter {
         // Reading all additional included files
         // This operation performed in the end when all required information is
         // read from XML
+        final List<ResourceFile> allIncludes = new ArrayList<ResourceFile>(
+                includes);
         for (int i = 0; i < includes.size(); i++) {
             final ResourceFile resourceFile = includes.get(i);
             
@@ -169,7 +171,11 @@ public class SkinInfoConverter extends ReflectionConverter {
             // Included styles order is preserved to preserve styles override
             // order
             styles.addAll(i, include.getStyles());
+            if (include.getIncludes() != null) {
+                allIncludes.addAll(include.getIncludes());
+            }
         }
+        skinInfo.setIncludes(allIncludes);
         
         // Saving all read styles into the skin
         // At this point there might be more than one style with the same ID
@@ -422,6 +428,15 @@ public class SkinInfoConverter extends ReflectionConverter {
         return paintersMap;
     }
     
+    /**
+     * Returns whether any custom resources were added or not.
+     *
+     * @return true if any custom resources were added, false otherwise
+     */
+    public static boolean hasCustomResources() {
+        return !resourceMap.isEmpty();
+    }
+    
     /**
      * Adds custom resource that will be used to change the default resources
      * load strategy. To put it simple - XML will be taken from this map instead
@@ -17,14 +17,17 @@
 
 package org.ocsoft.flatlaf.managers.style.skin;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import javax.swing.JComponent;
 
 import org.ocsoft.flatlaf.managers.style.SupportedComponent;
 import org.ocsoft.flatlaf.managers.style.data.ComponentStyle;
+import org.ocsoft.flatlaf.managers.style.data.SkinBundle;
 import org.ocsoft.flatlaf.managers.style.data.SkinInfo;
-import org.ocsoft.flatlaf.utils.xml.XmlUtils;
+import org.ocsoft.flatlaf.utils.ninepatch.ShadeIconKey;
 
 /**
  * This theme is used by StyleManager for cases when theme settings are stored
@@ -52,10 +55,11 @@ public class CustomSkin extends WebLafSkin {
      *
      * @param location
      *            skin info XML location relative to this class
+     * @see org.ocsoft.flatlaf.managers.style.data.SkinBundle
      */
     public CustomSkin(final String location) {
         super();
-        this.skinInfo = XmlUtils.fromXML(this.getClass().getResource(location));
+        this.skinInfo = SkinBundle.loadSkinInfo(this.getClass(), location);
     }
     
     /**
@@ -134,4 +138,16 @@ public class CustomSkin extends WebLafSkin {
             final SupportedComponent type) {
         return skinInfo.getStyle(component, type);
     }
+    
+    @Override
+    public List<ShadeIconKey> getShadeIcons() {
+        final List<ShadeIconKey> shadeIcons = new ArrayList<ShadeIconKey>();
+        for (final Map<String, ComponentStyle> styles : skinInfo
+                .getStylesCache().values()) {
+            for (final ComponentStyle style : styles.values()) {
+                collectShadeIcons(style, shadeIcons);
+            }
+        }
+        return shadeIcons;
+    }
 }
\ No newline at end of file
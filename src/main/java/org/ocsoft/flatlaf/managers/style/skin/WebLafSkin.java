@@ -20,6 +20,7 @@ package org.ocsoft.flatlaf.managers.style.skin;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +36,9 @@ import org.ocsoft.flatlaf.managers.style.data.ComponentStyle;
 import org.ocsoft.flatlaf.managers.style.data.IgnoredValue;
 import org.ocsoft.flatlaf.managers.style.data.PainterStyle;
 import org.ocsoft.flatlaf.utils.LafUtils;
+import org.ocsoft.flatlaf.utils.ninepatch.ShadeIconKey;
+import org.ocsoft.flatlaf.utils.ninepatch.ShadeIconsProvider;
+import org.ocsoft.flatlaf.utils.reflection.PropertyBinder;
 import org.ocsoft.flatlaf.utils.reflection.ReflectUtils;
 import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
 import org.ocsoft.flatlaf.utils.system.FlatLafSystemUtils;
@@ -269,9 +273,13 @@ public abstract class WebLafSkin {
                 }
                 
                 // Installing painter into the UI
-                final String setterMethod = ReflectUtils
-                        .getSetterMethodName(painterId);
-                ReflectUtils.callMethod(ui, setterMethod, painter);
+                final PropertyBinder painterSetter = PropertyBinder
+                        .getSetterBinder(ui.getClass(), painterId, painter);
+                if (painterSetter == null) {
+                    throw new StyleException("Unable to install painter \""
+                            + painterId + "\" into UI: " + ui);
+                }
+                painterSetter.bind(ui, painter);
             }
             
             // Applying UI properties
@@ -491,32 +499,31 @@ public abstract class WebLafSkin {
         }
         
         // Trying to use setter method to apply the specified value
-        try {
-            final String setterMethod = ReflectUtils.getSetterMethodName(field);
-            ReflectUtils.callMethod(object, setterMethod, value);
-            return true;
-        } catch (final NoSuchMethodException e) {
-            FlatLafLogger.error(WebLafSkin.class, e);
-        } catch (final InvocationTargetException e) {
-            FlatLafLogger.error(WebLafSkin.class, e);
-        } catch (final IllegalAccessException e) {
-            FlatLafLogger.error(WebLafSkin.class, e);
+        // Setter and field binders are resolved only once per class
+        final Class<?> objectClass = object.getClass();
+        final PropertyBinder setter = PropertyBinder.getSetterBinder(
+                objectClass, field, value);
+        if (setter != null) {
+            try {
+                setter.bind(object, value);
+                return true;
+            } catch (final Throwable e) {
+                FlatLafLogger.error(WebLafSkin.class, e);
+            }
         }
         
         // Applying field value directly
-        try {
-            final Field actualField = ReflectUtils.getField(object.getClass(),
-                    field);
-            actualField.setAccessible(true);
-            actualField.set(object, value);
-            return true;
-        } catch (final NoSuchFieldException e) {
-            FlatLafLogger.error(WebLafSkin.class, e);
-            return false;
-        } catch (final IllegalAccessException e) {
-            FlatLafLogger.error(WebLafSkin.class, e);
-            return false;
+        final PropertyBinder fieldSetter = PropertyBinder.getFieldBinder(
+                objectClass, field);
+        if (fieldSetter != null) {
+            try {
+                fieldSetter.bind(object, value);
+                return true;
+            } catch (final Throwable e) {
+                FlatLafLogger.error(WebLafSkin.class, e);
+            }
         }
+        return false;
     }
     
     /**
@@ -582,6 +589,54 @@ public abstract class WebLafSkin {
         return getFieldValue(ui, pid);
     }
     
+    /**
+     * Returns parameters of shade icons used by painters of this skin. These
+     * shade icons are created in advance when this skin gets applied so that
+     * components do not have to wait for them when they are first displayed.
+     * <p/>
+     * By default skin doesn't provide any shade icons.
+     *
+     * @return parameters of shade icons used by painters of this skin
+     */
+    public List<ShadeIconKey> getShadeIcons() {
+        return new ArrayList<ShadeIconKey>(0);
+    }
+    
+    /**
+     * Collects parameters of shade icons used by painters of the specified
+     * component style. Only painters implementing {@link ShadeIconsProvider}
+     * are created and asked for their shade icons.
+     *
+     * @param style
+     *            component style
+     * @param shadeIcons
+     *            shade icons parameters list to fill
+     */
+    protected void collectShadeIcons(final ComponentStyle style,
+            final List<ShadeIconKey> shadeIcons) {
+        for (final PainterStyle painterStyle : style.getPainters()) {
+            final Class<?> painterClass = ReflectUtils
+                    .getClassSafely(painterStyle.getPainterClass());
+            if (painterClass != null
+                    && ShadeIconsProvider.class.isAssignableFrom(painterClass)) {
+                try {
+                    final ShadeIconsProvider painter = ReflectUtils
+                            .createInstance(painterClass);
+                    applyProperties(painter, painterStyle.getProperties(), null);
+                    for (final ShadeIconKey key : painter.getShadeIcons()) {
+                        if (!shadeIcons.contains(key)) {
+                            shadeIcons.add(key);
+                        }
+                    }
+                } catch (final Throwable e) {
+                    FlatLafLogger.error(this,
+                            "Unable to retrieve shade icons from painter \""
+                                    + painterStyle.getPainterClass() + "\"", e);
+                }
+            }
+        }
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -26,6 +26,8 @@ import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.Stroke;
 import java.awt.geom.GeneralPath;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.swing.JComponent;
 
@@ -35,11 +37,15 @@ import org.ocsoft.flatlaf.managers.focus.DefaultFocusTracker;
 import org.ocsoft.flatlaf.managers.focus.FocusManager;
 import org.ocsoft.flatlaf.managers.focus.FocusTracker;
 import org.ocsoft.flatlaf.utils.LafUtils;
+import org.ocsoft.flatlaf.utils.filters.BlurType;
 import org.ocsoft.flatlaf.utils.graphics.GraphicsUtils;
 import org.ocsoft.flatlaf.utils.graphics.ShapeCache;
 import org.ocsoft.flatlaf.utils.laf.PainterShapeProvider;
 import org.ocsoft.flatlaf.utils.ninepatch.NinePatchIcon;
 import org.ocsoft.flatlaf.utils.ninepatch.NinePatchUtils;
+import org.ocsoft.flatlaf.utils.ninepatch.ShadeIconKey;
+import org.ocsoft.flatlaf.utils.ninepatch.ShadeIconsProvider;
+import org.ocsoft.flatlaf.utils.reflection.ReflectUtils;
 import org.ocsoft.flatlaf.utils.swing.DataProvider;
 import org.ocsoft.flatlaf.weblaf.FlatLafStyleConstants;
 
@@ -52,7 +58,7 @@ import org.ocsoft.flatlaf.weblaf.FlatLafStyleConstants;
 
 public class WebDecorationPainter<E extends JComponent> extends
         AbstractPainter<E> implements PainterShapeProvider<E>,
-        PartialDecoration {
+        PartialDecoration, ShadeIconsProvider {
     /**
      * todo 1. Border stroke -> create stroke format for XML and allow to
      * specify it there (XStream converter for Stroke) todo 2. Inner shadow
@@ -74,6 +80,7 @@ public class WebDecorationPainter<E extends JComponent> extends
     protected int round = WebDecorationPainterStyle.round;
     protected int shadeWidth = WebDecorationPainterStyle.shadeWidth;
     protected float shadeTransparency = WebDecorationPainterStyle.shadeTransparency;
+    protected BlurType shadeBlurType = FlatLafStyleConstants.shadeBlurType;
     protected Stroke borderStroke = WebDecorationPainterStyle.borderStroke;
     protected Color borderColor = WebDecorationPainterStyle.borderColor;
     protected Color disabledBorderColor = WebDecorationPainterStyle.disabledBorderColor;
@@ -103,6 +110,15 @@ public class WebDecorationPainter<E extends JComponent> extends
     protected int w;
     protected int h;
     
+    /**
+     * Shape settings array reused on each paint, whether deprecated shape
+     * settings method is overridden or not and whether shapes can be shared
+     * between components or not.
+     */
+    protected final int[] shapeSettings = new int[13];
+    protected Boolean legacyShapeSettings;
+    protected Boolean sharedShapes;
+    
     /**
      * {@inheritDoc}
      */
@@ -256,6 +272,28 @@ public class WebDecorationPainter<E extends JComponent> extends
         }
     }
     
+    /**
+     * Returns decoration shade blur type.
+     *
+     * @return decoration shade blur type
+     */
+    public BlurType getShadeBlurType() {
+        return shadeBlurType;
+    }
+    
+    /**
+     * Sets decoration shade blur type.
+     *
+     * @param blurType
+     *            new decoration shade blur type
+     */
+    public void setShadeBlurType(final BlurType blurType) {
+        if (this.shadeBlurType != blurType) {
+            this.shadeBlurType = blurType;
+            repaint();
+        }
+    }
+    
     /**
      * Returns decoration border stroke.
      *
@@ -586,6 +624,20 @@ public class WebDecorationPainter<E extends JComponent> extends
         }
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<ShadeIconKey> getShadeIcons() {
+        // Only wide shades are painted using shade icon
+        final List<ShadeIconKey> shadeIcons = new ArrayList<ShadeIconKey>(1);
+        if (!undecorated && shadeWidth >= 4) {
+            shadeIcons.add(new ShadeIconKey(false, shadeWidth, round,
+                    shadeTransparency, shadeBlurType));
+        }
+        return shadeIcons;
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -657,7 +709,7 @@ public class WebDecorationPainter<E extends JComponent> extends
         } else {
             // Retrieve shade 9-patch icon
             final NinePatchIcon shade = NinePatchUtils.getShadeIcon(shadeWidth,
-                    round, shadeTransparency);
+                    round, shadeTransparency, shadeBlurType);
             
             // Calculate shade bounds and paint it
             final int x = actualPaintLeft ? 0 : -shadeWidth * 2;
@@ -759,13 +811,23 @@ public class WebDecorationPainter<E extends JComponent> extends
      * @return decoration border shape
      */
     protected Shape getShape(final E c, final boolean background) {
-        return ShapeCache.getShape(c, background ? BACKGROUND_SHAPE
-                : BORDER_SHAPE, new DataProvider<Shape>() {
+        final String shapeId = background ? BACKGROUND_SHAPE : BORDER_SHAPE;
+        final DataProvider<Shape> shapeProvider = new DataProvider<Shape>() {
             @Override
             public Shape provide() {
                 return createShape(c, background);
             }
-        }, getCachedShapeSettings(c));
+        };
+        if (isLegacyShapeSettings()) {
+            return ShapeCache.getShape(c, shapeId, shapeProvider,
+                    getCachedShapeSettings(c));
+        } else if (isSharedShapes()) {
+            return ShapeCache.getSharedShape(c, getClass(), shapeId,
+                    shapeProvider, getShapeSettings(c));
+        } else {
+            return ShapeCache.getShape(c, shapeId, shapeProvider,
+                    getShapeSettings(c));
+        }
     }
     
     /**
@@ -774,14 +836,86 @@ public class WebDecorationPainter<E extends JComponent> extends
      * @param c
      *            painted component
      * @return an array of shape settings cached along with the shape
+     * @deprecated override {@link #getShapeSettings(JComponent)} instead,
+     *             this method is only used when overridden
      */
-    
+    @Deprecated
     protected Object[] getCachedShapeSettings(final E c) {
         return new Object[] { w, h, ltr, round, shadeWidth, paintTop,
                 paintLeft, paintBottom, paintRight, paintTopLine,
                 paintLeftLine, paintBottomLine, paintRightLine };
     }
     
+    /**
+     * Returns shape settings cached along with the shape. Returned array is
+     * reused on each call.
+     * <p/>
+     * Shapes are shared between all components painted by the same painter
+     * class with equal settings, so settings must include every value
+     * {@link #createShape(JComponent, boolean)} depends on. Override this
+     * method along with the shape creation method if shape depends on any
+     * additional values.
+     *
+     * @param c
+     *            painted component
+     * @return shape settings cached along with the shape
+     */
+    protected int[] getShapeSettings(final E c) {
+        final int[] s = shapeSettings;
+        s[0] = w;
+        s[1] = h;
+        s[2] = ltr ? 1 : 0;
+        s[3] = round;
+        s[4] = shadeWidth;
+        s[5] = paintTop ? 1 : 0;
+        s[6] = paintLeft ? 1 : 0;
+        s[7] = paintBottom ? 1 : 0;
+        s[8] = paintRight ? 1 : 0;
+        s[9] = paintTopLine ? 1 : 0;
+        s[10] = paintLeftLine ? 1 : 0;
+        s[11] = paintBottomLine ? 1 : 0;
+        s[12] = paintRightLine ? 1 : 0;
+        return s;
+    }
+    
+    /**
+     * Returns whether deprecated {@link #getCachedShapeSettings(JComponent)}
+     * method is overridden and should be used instead of
+     * {@link #getShapeSettings(JComponent)} or not.
+     *
+     * @return true if deprecated shape settings method should be used, false
+     *         otherwise
+     */
+    protected boolean isLegacyShapeSettings() {
+        if (legacyShapeSettings == null) {
+            legacyShapeSettings = ReflectUtils.isOverridden(getClass(),
+                    WebDecorationPainter.class, "getCachedShapeSettings",
+                    JComponent.class);
+        }
+        return legacyShapeSettings;
+    }
+    
+    /**
+     * Returns whether decoration shapes can be shared between components
+     * with equal shape settings or not. Shapes are not shared if shape
+     * creation method is overridden while shape settings method is not, since
+     * in that case settings might not include all values shape depends on.
+     *
+     * @return true if decoration shapes can be shared between components,
+     *         false otherwise
+     */
+    protected boolean isSharedShapes() {
+        if (sharedShapes == null) {
+            sharedShapes = !ReflectUtils.isOverridden(getClass(),
+                    WebDecorationPainter.class, "createShape",
+                    JComponent.class, boolean.class)
+                    || ReflectUtils.isOverridden(getClass(),
+                            WebDecorationPainter.class, "getShapeSettings",
+                            JComponent.class);
+        }
+        return sharedShapes;
+    }
+    
     /**
      * Returns decoration border shape.
      *
@@ -17,8 +17,11 @@
 
 package org.ocsoft.flatlaf.managers.style.skin.web;
 
+import java.util.List;
+
 import javax.swing.JPanel;
 
+import org.ocsoft.flatlaf.utils.ninepatch.ShadeIconKey;
 import org.ocsoft.flatlaf.weblaf.panel.PanelPainter;
 
 /**
@@ -66,6 +69,21 @@ public class WebPopOverPainter<E extends JPanel> extends WebPopupPainter<E>
         return popOverFocused ? shadeTransparency : shadeTransparency * 0.7f;
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<ShadeIconKey> getShadeIcons() {
+        // Both focused and unfocused shades are used
+        final List<ShadeIconKey> shadeIcons = super.getShadeIcons();
+        if (shadeWidth > 0) {
+            shadeIcons.add(new ShadeIconKey(false, shadeWidth, round * 2,
+                    popOverFocused ? shadeTransparency * 0.7f
+                            : shadeTransparency, shadeBlurType));
+        }
+        return shadeIcons;
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -24,18 +24,25 @@ import java.awt.Insets;
 import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.geom.GeneralPath;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.swing.JComponent;
 import javax.swing.SwingConstants;
 
 import org.ocsoft.flatlaf.extended.painter.AbstractPainter;
 import org.ocsoft.flatlaf.utils.ColorUtils;
+import org.ocsoft.flatlaf.utils.filters.BlurType;
 import org.ocsoft.flatlaf.utils.graphics.GraphicsUtils;
 import org.ocsoft.flatlaf.utils.graphics.ShapeCache;
 import org.ocsoft.flatlaf.utils.laf.PainterShapeProvider;
 import org.ocsoft.flatlaf.utils.ninepatch.NinePatchIcon;
 import org.ocsoft.flatlaf.utils.ninepatch.NinePatchUtils;
+import org.ocsoft.flatlaf.utils.ninepatch.ShadeIconKey;
+import org.ocsoft.flatlaf.utils.ninepatch.ShadeIconsProvider;
+import org.ocsoft.flatlaf.utils.reflection.ReflectUtils;
 import org.ocsoft.flatlaf.utils.swing.DataProvider;
+import org.ocsoft.flatlaf.weblaf.FlatLafStyleConstants;
 
 /**
  * Web-styled popup painter for any type of components. It is generally used for
@@ -48,7 +55,7 @@ import org.ocsoft.flatlaf.utils.swing.DataProvider;
 
 
 public class WebPopupPainter<E extends JComponent> extends AbstractPainter<E>
-        implements PainterShapeProvider<E>, SwingConstants {
+        implements PainterShapeProvider<E>, ShadeIconsProvider, SwingConstants {
     /**
      * Shape cache keys.
      */
@@ -65,6 +72,7 @@ public class WebPopupPainter<E extends JComponent> extends AbstractPainter<E>
     protected int round = WebPopupPainterStyle.round;
     protected int shadeWidth = WebPopupPainterStyle.shadeWidth;
     protected float shadeTransparency = WebPopupPainterStyle.shadeTransparency;
+    protected BlurType shadeBlurType = FlatLafStyleConstants.shadeBlurType;
     protected int cornerWidth = WebPopupPainterStyle.cornerWidth;
     protected float transparency = WebPopupPainterStyle.transparency;
     
@@ -76,6 +84,13 @@ public class WebPopupPainter<E extends JComponent> extends AbstractPainter<E>
     protected int relativeCorner = 0;
     protected int cornerAlignment = -1;
     
+    /**
+     * Shape settings array reused on each paint and whether deprecated shape
+     * settings method is overridden or not.
+     */
+    protected final int[] shapeSettings = new int[9];
+    protected Boolean legacyShapeSettings;
+    
     /**
      * Returns popup style.
      *
@@ -196,6 +211,30 @@ public class WebPopupPainter<E extends JComponent> extends AbstractPainter<E>
         }
     }
     
+    /**
+     * Returns popup shade blur type.
+     *
+     * @return popup shade blur type
+     */
+    public BlurType getShadeBlurType() {
+        return shadeBlurType;
+    }
+    
+    /**
+     * Sets popup shade blur type.
+     *
+     * @param blurType
+     *            new popup shade blur type
+     */
+    public void setShadeBlurType(final BlurType blurType) {
+        if (this.shadeBlurType != blurType) {
+            this.shadeBlurType = blurType;
+            if (transparent) {
+                repaint();
+            }
+        }
+    }
+    
     /**
      * Returns popup dropdown style corner width.
      *
@@ -453,7 +492,7 @@ public class WebPopupPainter<E extends JComponent> extends AbstractPainter<E>
             final Dimension popupSize) {
         if (shadeWidth > 0) {
             final NinePatchIcon shade = NinePatchUtils.getShadeIcon(shadeWidth,
-                    round * 2, getCurrentShadeTransparency());
+                    round * 2, getCurrentShadeTransparency(), shadeBlurType);
             shade.setComponent(popup);
             shade.paintIcon(g2d, getShadeBounds(popupSize));
         }
@@ -470,6 +509,19 @@ public class WebPopupPainter<E extends JComponent> extends AbstractPainter<E>
         return shadeTransparency;
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<ShadeIconKey> getShadeIcons() {
+        final List<ShadeIconKey> shadeIcons = new ArrayList<ShadeIconKey>(1);
+        if (shadeWidth > 0) {
+            shadeIcons.add(new ShadeIconKey(false, shadeWidth, round * 2,
+                    getCurrentShadeTransparency(), shadeBlurType));
+        }
+        return shadeIcons;
+    }
+    
     /**
      * Paints popup background fill.
      *
@@ -571,22 +623,22 @@ public class WebPopupPainter<E extends JComponent> extends AbstractPainter<E>
             final boolean fill) {
         switch (popupStyle) {
         case simple: {
-            return ShapeCache.getShape(popup, fill ? SIMPLE_FILL_SHAPE
+            return getCachedShape(popup, fill ? SIMPLE_FILL_SHAPE
                     : SIMPLE_BORDER_SHAPE, new DataProvider<Shape>() {
                 @Override
                 public Shape provide() {
                     return createSimpleShape(popup, popupSize, fill);
                 }
-            }, getCachedShapeSettings(popup));
+            });
         }
         case dropdown: {
-            return ShapeCache.getShape(popup, fill ? DROPDOWN_FILL_SHAPE
+            return getCachedShape(popup, fill ? DROPDOWN_FILL_SHAPE
                     : DROPDOWN_BORDER_SHAPE, new DataProvider<Shape>() {
                 @Override
                 public Shape provide() {
                     return createDropdownShape(popup, popupSize, fill);
                 }
-            }, getCachedShapeSettings(popup));
+            });
         }
         default: {
             return null;
@@ -594,19 +646,83 @@ public class WebPopupPainter<E extends JComponent> extends AbstractPainter<E>
         }
     }
     
+    /**
+     * Returns popup shape cached along with its settings.
+     *
+     * @param popup
+     *            popup component
+     * @param shapeId
+     *            unique shape ID
+     * @param shapeProvider
+     *            shape provider
+     * @return popup shape cached along with its settings
+     */
+    protected Shape getCachedShape(final E popup, final String shapeId,
+            final DataProvider<Shape> shapeProvider) {
+        if (isLegacyShapeSettings()) {
+            return ShapeCache.getShape(popup, shapeId, shapeProvider,
+                    getCachedShapeSettings(popup));
+        } else {
+            return ShapeCache.getShape(popup, shapeId, shapeProvider,
+                    getShapeSettings(popup));
+        }
+    }
+    
     /**
      * Returns an array of shape settings cached along with the shape.
      *
      * @param popup
      *            popup component
      * @return an array of shape settings cached along with the shape
+     * @deprecated override {@link #getShapeSettings(JComponent)} instead,
+     *             this method is only used when overridden
      */
+    @Deprecated
     protected Object[] getCachedShapeSettings(final E popup) {
         return new Object[] { round, shadeWidth, cornerWidth, cornerSide,
                 relativeCorner, cornerAlignment, popup.getSize(),
                 popup.getComponentOrientation().isLeftToRight() };
     }
     
+    /**
+     * Returns shape settings cached along with the shape. Returned array is
+     * reused on each call.
+     *
+     * @param popup
+     *            popup component
+     * @return shape settings cached along with the shape
+     */
+    protected int[] getShapeSettings(final E popup) {
+        final int[] s = shapeSettings;
+        s[0] = round;
+        s[1] = shadeWidth;
+        s[2] = cornerWidth;
+        s[3] = cornerSide;
+        s[4] = relativeCorner;
+        s[5] = cornerAlignment;
+        s[6] = popup.getWidth();
+        s[7] = popup.getHeight();
+        s[8] = popup.getComponentOrientation().isLeftToRight() ? 1 : 0;
+        return s;
+    }
+    
+    /**
+     * Returns whether deprecated {@link #getCachedShapeSettings(JComponent)}
+     * method is overridden and should be used instead of
+     * {@link #getShapeSettings(JComponent)} or not.
+     *
+     * @return true if deprecated shape settings method should be used, false
+     *         otherwise
+     */
+    protected boolean isLegacyShapeSettings() {
+        if (legacyShapeSettings == null) {
+            legacyShapeSettings = ReflectUtils.isOverridden(getClass(),
+                    WebPopupPainter.class, "getCachedShapeSettings",
+                    JComponent.class);
+        }
+        return legacyShapeSettings;
+    }
+    
     /**
      * Creates and returns simple popup shape.
      *
@@ -754,13 +870,13 @@ public class WebPopupPainter<E extends JComponent> extends AbstractPainter<E>
      */
     protected Shape getDropdownCornerShape(final E popupMenu,
             final Dimension menuSize, final boolean fill) {
-        return ShapeCache.getShape(popupMenu, fill ? "dropdown-corner-fill"
+        return getCachedShape(popupMenu, fill ? "dropdown-corner-fill"
                 : "dropdown-corner-border", new DataProvider<Shape>() {
             @Override
             public Shape provide() {
                 return createDropdownCornerShape(popupMenu, menuSize, fill);
             }
-        }, getCachedShapeSettings(popupMenu));
+        });
     }
     
     /**
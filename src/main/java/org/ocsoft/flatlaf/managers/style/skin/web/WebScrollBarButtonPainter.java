@@ -34,6 +34,7 @@ import javax.swing.plaf.ButtonUI;
 import org.ocsoft.flatlaf.extended.painter.AbstractPainter;
 import org.ocsoft.flatlaf.laf.button.FlatButtonUI;
 import org.ocsoft.flatlaf.utils.graphics.ShapeCache;
+import org.ocsoft.flatlaf.utils.reflection.ReflectUtils;
 import org.ocsoft.flatlaf.utils.swing.DataProvider;
 import org.ocsoft.flatlaf.weblaf.scroll.ScrollBarButtonPainter;
 import org.ocsoft.flatlaf.weblaf.scroll.ScrollBarButtonType;
@@ -75,6 +76,14 @@ public class WebScrollBarButtonPainter<E extends AbstractButton> extends
     protected ScrollBarButtonType buttonType;
     protected JScrollBar scrollbar;
     
+    /**
+     * Shape settings array and insets reused on each paint and whether
+     * deprecated shape settings method is overridden or not.
+     */
+    protected final int[] shapeSettings = new int[9];
+    protected final Insets shapeInsets = new Insets(0, 0, 0, 0);
+    protected Boolean legacyShapeSettings;
+    
     /**
      * Constructs new scroll bar button painter.
      */
@@ -333,13 +342,19 @@ public class WebScrollBarButtonPainter<E extends AbstractButton> extends
      * @return popup border shape
      */
     protected Shape getArrowButtonShape(final Rectangle bounds, final E button) {
-        return ShapeCache.getShape(button, ARROW_BUTTON_SHAPE,
-                new DataProvider<Shape>() {
-                    @Override
-                    public Shape provide() {
-                        return createArrowButtonShape(bounds, button);
-                    }
-                }, getCachedShapeSettings(button));
+        final DataProvider<Shape> shapeProvider = new DataProvider<Shape>() {
+            @Override
+            public Shape provide() {
+                return createArrowButtonShape(bounds, button);
+            }
+        };
+        if (isLegacyShapeSettings()) {
+            return ShapeCache.getShape(button, ARROW_BUTTON_SHAPE,
+                    shapeProvider, getCachedShapeSettings(button));
+        } else {
+            return ShapeCache.getShape(button, ARROW_BUTTON_SHAPE,
+                    shapeProvider, getShapeSettings(button));
+        }
     }
     
     /**
@@ -348,13 +363,57 @@ public class WebScrollBarButtonPainter<E extends AbstractButton> extends
      * @param button
      *            button component
      * @return an array of shape settings cached along with the shape
+     * @deprecated override {@link #getShapeSettings(AbstractButton)} instead,
+     *             this method is only used when overridden
      */
+    @Deprecated
     protected Object[] getCachedShapeSettings(final E button) {
         return new Object[] { button.getSize(), button.getInsets(), buttonType,
                 button.getComponentOrientation().isLeftToRight(),
                 scrollbar.getOrientation() };
     }
     
+    /**
+     * Returns shape settings cached along with the shape. Returned array is
+     * reused on each call.
+     *
+     * @param button
+     *            button component
+     * @return shape settings cached along with the shape
+     */
+    protected int[] getShapeSettings(final E button) {
+        final Insets i = button.getInsets(shapeInsets);
+        final int[] s = shapeSettings;
+        s[0] = button.getWidth();
+        s[1] = button.getHeight();
+        s[2] = i.top;
+        s[3] = i.left;
+        s[4] = i.bottom;
+        s[5] = i.right;
+        s[6] = buttonType != null ? buttonType.ordinal() : -1;
+        s[7] = button.getComponentOrientation().isLeftToRight() ? 1 : 0;
+        s[8] = scrollbar.getOrientation();
+        return s;
+    }
+    
+    /**
+     * Returns whether deprecated
+     * {@link #getCachedShapeSettings(AbstractButton)} method is overridden and
+     * should be used instead of {@link #getShapeSettings(AbstractButton)} or
+     * not.
+     *
+     * @return true if deprecated shape settings method should be used, false
+     *         otherwise
+     */
+    protected boolean isLegacyShapeSettings() {
+        if (legacyShapeSettings == null) {
+            legacyShapeSettings = ReflectUtils.isOverridden(getClass(),
+                    WebScrollBarButtonPainter.class, "getCachedShapeSettings",
+                    AbstractButton.class);
+        }
+        return legacyShapeSettings;
+    }
+    
     /**
      * Returns arrow button shape.
      *
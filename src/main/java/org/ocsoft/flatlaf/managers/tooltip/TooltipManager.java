@@ -39,6 +39,7 @@ import java.util.WeakHashMap;
 import javax.swing.Icon;
 import javax.swing.JComponent;
 
+import org.ocsoft.flatlaf.core.FlatLafInitializer;
 import org.ocsoft.flatlaf.managers.glasspane.GlassPaneManager;
 import org.ocsoft.flatlaf.managers.glasspane.WebGlassPane;
 import org.ocsoft.flatlaf.managers.hotkey.Hotkey;
@@ -87,6 +88,7 @@ public class TooltipManager {
     public static synchronized void initialize() {
         if (!initialized) {
             initialized = true;
+            final long start = System.nanoTime();
             
             // Tooltips hide listener
             Toolkit.getDefaultToolkit().addAWTEventListener(
@@ -98,6 +100,9 @@ public class TooltipManager {
                             }
                         }
                     }, AWTEvent.MOUSE_WHEEL_EVENT_MASK);
+            
+            // Recording initialization time for the startup report
+            FlatLafInitializer.lazyManagerInitialized("TooltipManager", start);
         }
     }
     
@@ -251,6 +256,9 @@ public class TooltipManager {
     protected static WebCustomTooltip addTooltip(final Component component,
             final JComponent tooltip, final TooltipWay tooltipWay,
             final int delay, final boolean clear) {
+        // Ensure TooltipManager is initialized
+        initialize();
+        
         // Erase old tooltip if more than one not allowed in this case
         if (clear) {
             removeTooltips(component);
@@ -565,6 +573,9 @@ public class TooltipManager {
     
     protected static WebCustomTooltip showOneTimeTooltip(
             final WebCustomTooltip customTooltip, final boolean destroyOnClose) {
+        // Ensure TooltipManager is initialized
+        initialize();
+        
         // Checking if component is properly set and showing
         if (customTooltip.getComponent() == null
                 || !customTooltip.getComponent().isShowing()) {
@@ -0,0 +1,291 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.utils;
+
+import java.awt.Font;
+import java.awt.geom.AffineTransform;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class provides a set of utilities to work with fonts.
+ * <p/>
+ * Derived fonts are cached globally, so painters and components requesting
+ * the same derived font receive the same font instance instead of deriving a
+ * new one each time. This also allows font metrics caches to work properly
+ * since they rely on font equality. Cache is thread-safe and bounded.
+ *
+ * @author Mikle Garin
+ */
+
+public final class FontUtils {
+    /**
+     * Maximum amount of cached derived fonts.
+     */
+    public static int derivedFontsCacheSize = 512;
+    
+    /**
+     * Derived fonts cache.
+     */
+    private static final Map<DerivedFontKey, Font> derivedFonts = new ConcurrentHashMap<DerivedFontKey, Font>();
+    
+    /**
+     * Derived fonts cache statistics.
+     */
+    private static final AtomicLong hits = new AtomicLong(0);
+    private static final AtomicLong misses = new AtomicLong(0);
+    private static final AtomicLong evictions = new AtomicLong(0);
+    
+    /**
+     * Returns derived font with the specified style.
+     *
+     * @param font
+     *            original font
+     * @param style
+     *            new font style
+     * @return derived font with the specified style
+     */
+    public static Font getDerivedFont(final Font font, final int style) {
+        return getDerivedFont(font, style, font.getSize2D(), null);
+    }
+    
+    /**
+     * Returns derived font with the specified size.
+     *
+     * @param font
+     *            original font
+     * @param size
+     *            new font size
+     * @return derived font with the specified size
+     */
+    public static Font getDerivedFont(final Font font, final float size) {
+        return getDerivedFont(font, font.getStyle(), size, null);
+    }
+    
+    /**
+     * Returns derived font with the specified style and size.
+     *
+     * @param font
+     *            original font
+     * @param style
+     *            new font style
+     * @param size
+     *            new font size
+     * @return derived font with the specified style and size
+     */
+    public static Font getDerivedFont(final Font font, final int style,
+            final float size) {
+        return getDerivedFont(font, style, size, null);
+    }
+    
+    /**
+     * Returns derived font with the specified transform.
+     *
+     * @param font
+     *            original font
+     * @param transform
+     *            new font transform
+     * @return derived font with the specified transform
+     */
+    public static Font getDerivedFont(final Font font,
+            final AffineTransform transform) {
+        return getDerivedFont(font, font.getStyle(), font.getSize2D(),
+                transform);
+    }
+    
+    /**
+     * Returns derived font with the specified style, size and transform. Font
+     * is taken from the cache if it was already derived before.
+     *
+     * @param font
+     *            original font
+     * @param style
+     *            new font style
+     * @param size
+     *            new font size
+     * @param transform
+     *            new font transform, null to keep original font transform
+     * @return derived font with the specified style, size and transform
+     */
+    public static Font getDerivedFont(final Font font, final int style,
+            final float size, final AffineTransform transform) {
+        // Retrieving cached font
+        final DerivedFontKey key = new DerivedFontKey(font, style, size,
+                transform);
+        Font derivedFont = derivedFonts.get(key);
+        if (derivedFont != null) {
+            hits.incrementAndGet();
+            return derivedFont;
+        }
+        
+        // Deriving new font
+        misses.incrementAndGet();
+        derivedFont = font.deriveFont(style, size);
+        if (transform != null) {
+            derivedFont = derivedFont.deriveFont(transform);
+        }
+        final Font cached = derivedFonts.put(key, derivedFont);
+        if (cached == null) {
+            trimDerivedFontsCache();
+        }
+        return derivedFont;
+    }
+    
+    /**
+     * Evicts some cached fonts if cache size limit is exceeded. Evicted fonts
+     * are not necessarily the least recently used ones, cache only has to keep
+     * its size bounded.
+     */
+    private static void trimDerivedFontsCache() {
+        final int limit = Math.max(0, derivedFontsCacheSize);
+        if (derivedFonts.size() > limit) {
+            final int target = limit * 3 / 4;
+            final Iterator<DerivedFontKey> iterator = derivedFonts.keySet()
+                    .iterator();
+            while (iterator.hasNext() && derivedFonts.size() > target) {
+                iterator.next();
+                iterator.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+    
+    /**
+     * Clears derived fonts cache.
+     */
+    public static void clearDerivedFontsCache() {
+        derivedFonts.clear();
+    }
+    
+    /**
+     * Returns amount of cached derived fonts.
+     *
+     * @return amount of cached derived fonts
+     */
+    public static int getDerivedFontsCount() {
+        return derivedFonts.size();
+    }
+    
+    /**
+     * Returns amount of derived font requests served from the cache.
+     *
+     * @return amount of derived font requests served from the cache
+     */
+    public static long getDerivedFontsHits() {
+        return hits.get();
+    }
+    
+    /**
+     * Returns amount of derived font requests which required font derivation.
+     *
+     * @return amount of derived font requests which required font derivation
+     */
+    public static long getDerivedFontsMisses() {
+        return misses.get();
+    }
+    
+    /**
+     * Returns amount of derived fonts evicted from the cache.
+     *
+     * @return amount of derived fonts evicted from the cache
+     */
+    public static long getDerivedFontsEvictions() {
+        return evictions.get();
+    }
+    
+    /**
+     * Derived font cache key.
+     */
+    private static final class DerivedFontKey {
+        /**
+         * Original font.
+         */
+        private final Font font;
+        
+        /**
+         * New font style.
+         */
+        private final int style;
+        
+        /**
+         * New font size.
+         */
+        private final float size;
+        
+        /**
+         * New font transform.
+         */
+        private final AffineTransform transform;
+        
+        /**
+         * Constructs new derived font cache key.
+         *
+         * @param font
+         *            original font
+         * @param style
+         *            new font style
+         * @param size
+         *            new font size
+         * @param transform
+         *            new font transform
+         */
+        public DerivedFontKey(final Font font, final int style,
+                final float size, final AffineTransform transform) {
+            super();
+            this.font = font;
+            this.style = style;
+            this.size = size;
+            this.transform = transform != null ? new AffineTransform(
+                    transform) : null;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DerivedFontKey)) {
+                return false;
+            }
+            final DerivedFontKey key = (DerivedFontKey) o;
+            return style == key.style
+                    && Float.compare(size, key.size) == 0
+                    && font.equals(key.font)
+                    && (transform == null ? key.transform == null : transform
+                            .equals(key.transform));
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            int result = font.hashCode();
+            result = 31 * result + style;
+            result = 31 * result + Float.floatToIntBits(size);
+            result = 31 * result
+                    + (transform != null ? transform.hashCode() : 0);
+            return result;
+        }
+    }
+}
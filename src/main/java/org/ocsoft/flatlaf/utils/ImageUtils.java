@@ -35,16 +35,26 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import javax.swing.Icon;
 import javax.swing.ImageIcon;
 
 import org.ocsoft.flatlaf.core.constants.FlatLafConstants;
+import org.ocsoft.flatlaf.managers.settings.SettingsManager;
+import org.ocsoft.flatlaf.utils.collection.ImageCache;
+import org.ocsoft.flatlaf.utils.collection.ImageCacheKey;
 import org.ocsoft.flatlaf.utils.file.FileUtils;
+import org.ocsoft.flatlaf.utils.file.ThumbnailCache;
+import org.ocsoft.flatlaf.utils.filters.BlurType;
 import org.ocsoft.flatlaf.utils.filters.ImageFilterUtils;
 import org.ocsoft.flatlaf.utils.filters.ShadowFilter;
 import org.ocsoft.flatlaf.utils.graphics.GraphicsUtils;
@@ -277,55 +287,51 @@ public final class ImageUtils {
      * Merges few images into single one
      */
     
-    private static final Map<String, ImageIcon> mergedIconsCache = new HashMap<String, ImageIcon>();
+    public static final long DEFAULT_MERGED_CACHE_SIZE = 8 * 1024 * 1024;
+    
+    private static final ImageCache<ImageCacheKey, ImageIcon> mergedIconsCache = new ImageCache<ImageCacheKey, ImageIcon>(
+            DEFAULT_MERGED_CACHE_SIZE);
+    
+    public static ImageCache<ImageCacheKey, ImageIcon> getMergedIconsCache() {
+        return mergedIconsCache;
+    }
     
     public static void clearMergedIconsCache() {
         mergedIconsCache.clear();
     }
     
     public static ImageIcon mergeIcons(final List<ImageIcon> icons) {
-        return mergeIcons(null, icons);
+        return mergeIcons((ImageCacheKey) null, icons);
     }
     
     public static ImageIcon mergeIcons(final String key,
             final List<ImageIcon> icons) {
-        // Icon is cached already
-        if (key != null && mergedIconsCache.containsKey(key)) {
-            return mergedIconsCache.get(key);
-        }
-        
-        // No icons given
-        if (icons == null || icons.size() == 0) {
-            return null;
-        }
-        
-        // Single icon given
-        if (icons.size() == 1) {
-            return icons.get(0);
-        }
-        
-        final Image[] images = new Image[icons.size()];
-        int i = 0;
-        for (final ImageIcon icon : icons) {
-            images[i] = icon != null ? icon.getImage() : null;
-            i++;
-        }
-        final ImageIcon icon = new ImageIcon(mergeImages(images));
-        if (key != null) {
-            mergedIconsCache.put(key, icon);
-        }
-        return icon;
+        return mergeIcons(key != null ? new ImageCacheKey(key) : null, icons);
+    }
+    
+    public static ImageIcon mergeIcons(final ImageCacheKey key,
+            final List<ImageIcon> icons) {
+        return mergeIcons(key, icons != null ? icons
+                .toArray(new ImageIcon[icons.size()]) : null);
     }
     
     public static ImageIcon mergeIcons(final ImageIcon... icons) {
-        return mergeIcons(null, icons);
+        return mergeIcons((ImageCacheKey) null, icons);
     }
     
     public static ImageIcon mergeIcons(final String key,
             final ImageIcon... icons) {
+        return mergeIcons(key != null ? new ImageCacheKey(key) : null, icons);
+    }
+    
+    public static ImageIcon mergeIcons(final ImageCacheKey key,
+            final ImageIcon... icons) {
         // Icon is cached already
-        if (key != null && mergedIconsCache.containsKey(key)) {
-            return mergedIconsCache.get(key);
+        if (key != null) {
+            final ImageIcon cached = mergedIconsCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
         }
         
         // No icons given
@@ -344,28 +350,42 @@ public final class ImageUtils {
             images[i] = icon != null ? icon.getImage() : null;
             i++;
         }
-        final ImageIcon icon = new ImageIcon(mergeImages(images));
+        final ImageIcon icon = new ImageIcon(
+                mergeImages((ImageCacheKey) null, images));
         if (key != null) {
             mergedIconsCache.put(key, icon);
         }
         return icon;
     }
     
-    private static final Map<String, BufferedImage> mergedImagesCache = new HashMap<String, BufferedImage>();
+    private static final ImageCache<ImageCacheKey, BufferedImage> mergedImagesCache = new ImageCache<ImageCacheKey, BufferedImage>(
+            DEFAULT_MERGED_CACHE_SIZE);
+    
+    public static ImageCache<ImageCacheKey, BufferedImage> getMergedImagesCache() {
+        return mergedImagesCache;
+    }
     
     public static void clearMergedImagesCache() {
         mergedImagesCache.clear();
     }
     
     public static BufferedImage mergeImages(final Image... images) {
-        return mergeImages(null, images);
+        return mergeImages((ImageCacheKey) null, images);
     }
     
     public static BufferedImage mergeImages(final String key,
             final Image... images) {
+        return mergeImages(key != null ? new ImageCacheKey(key) : null, images);
+    }
+    
+    public static BufferedImage mergeImages(final ImageCacheKey key,
+            final Image... images) {
         // Image is cached already
-        if (key != null && mergedImagesCache.containsKey(key)) {
-            return mergedImagesCache.get(key);
+        if (key != null) {
+            final BufferedImage cached = mergedImagesCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
         }
         
         // No images given
@@ -689,16 +709,44 @@ public final class ImageUtils {
     }
     
     public static ImageIcon createThumbnailIcon(final String src, final int size) {
+        // Checking persistent thumbnails cache first
+        final File file = new File(src);
+        final ThumbnailCache cache = isThumbnailCacheEnabled() ? getThumbnailCache()
+                : null;
+        if (cache != null && FileUtils.isFile(file)) {
+            final ImageIcon cached = cache.get(file, size);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        
         // Retrieving image to create thumbnail from
-        final ImageIcon icon = getImageIcon(src);
+        // Image is decoded only at resolution required for the thumbnail
+        // Full image is not kept in memory when thumbnail is stored on disk
+        final ImageIcon subsampled = isSubsampledDecoding() ? readSubsampledImage(
+                file, size) : null;
+        final ImageIcon icon = subsampled != null ? subsampled : getImageIcon(
+                src, cache == null);
         if (icon != null) {
+            // Original image size
+            final Dimension original = subsampled != null ? getOriginalSize(subsampled)
+                    : new Dimension(icon.getIconWidth(), icon.getIconHeight());
+            
             // Creating and caching thumbnail
             final ImageIcon imageIcon = createPreviewIcon(icon.getImage(), size);
             
             // Saving image size
             if (imageIcon != null) {
-                imageIcon.setDescription(icon.getIconWidth() + "x"
-                        + icon.getIconHeight());
+                imageIcon.setDescription(original.width + "x"
+                        + original.height);
+                
+                // Storing thumbnail
+                if (cache != null && imageIcon.getIconWidth() > 0
+                        && FileUtils.isFile(file)) {
+                    cache.put(file, size,
+                            getBufferedImage(imageIcon.getImage()),
+                            original.width, original.height);
+                }
             }
             
             return imageIcon;
@@ -707,6 +755,162 @@ public final class ImageUtils {
         }
     }
     
+    /**
+     * Subsampled image decoding
+     */
+    
+    private static boolean subsampledDecoding = true;
+    
+    public static synchronized boolean isSubsampledDecoding() {
+        return subsampledDecoding;
+    }
+    
+    public static synchronized void setSubsampledDecoding(
+            final boolean subsampledDecoding) {
+        ImageUtils.subsampledDecoding = subsampledDecoding;
+    }
+    
+    /**
+     * Returns image decoded with the lowest resolution sufficient to create a
+     * preview with the specified length. Embedded thumbnail is used instead if
+     * it is large enough. Returned icon description contains original image
+     * size. Returns null if image cannot be read this way.
+     *
+     * @param file
+     *            image file
+     * @param length
+     *            preview length
+     * @return subsampled image or null if image cannot be read this way
+     */
+    public static ImageIcon readSubsampledImage(final File file,
+            final int length) {
+        if (!FileUtils.isFile(file)) {
+            return null;
+        }
+        ImageInputStream stream = null;
+        ImageReader reader = null;
+        try {
+            stream = ImageIO.createImageInputStream(file);
+            if (stream == null) {
+                return null;
+            }
+            final Iterator<ImageReader> readers = ImageIO
+                    .getImageReaders(stream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            reader = readers.next();
+            reader.setInput(stream, true, true);
+            
+            final int width = reader.getWidth(0);
+            final int height = reader.getHeight(0);
+            final int max = Math.max(width, height);
+            BufferedImage image = null;
+            
+            // Embedded thumbnail
+            if (max > length && reader.readerSupportsThumbnails()
+                    && reader.hasThumbnails(0)) {
+                for (int i = 0; i < reader.getNumThumbnails(0); i++) {
+                    if (Math.max(reader.getThumbnailWidth(0, i),
+                            reader.getThumbnailHeight(0, i)) >= length
+                            && (long) reader.getThumbnailWidth(0, i) * height == (long) reader
+                                    .getThumbnailHeight(0, i) * width) {
+                        image = reader.readThumbnail(0, i);
+                        break;
+                    }
+                }
+            }
+            
+            // Subsampled image
+            // Twice the required resolution is kept for better scaling quality
+            if (image == null) {
+                final ImageReadParam param = reader.getDefaultReadParam();
+                final int subsampling = Math.max(1, max / (length * 2));
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                image = reader.read(0, param);
+            }
+            
+            final ImageIcon icon = new ImageIcon(image);
+            icon.setDescription(width + "x" + height);
+            return icon;
+        } catch (final Throwable e) {
+            return null;
+        } finally {
+            if (reader != null) {
+                reader.dispose();
+            }
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (final IOException e) {
+                    // Ignored
+                }
+            }
+        }
+    }
+    
+    /**
+     * Returns original image size stored in subsampled image description.
+     *
+     * @param icon
+     *            subsampled image icon
+     * @return original image size
+     */
+    private static Dimension getOriginalSize(final ImageIcon icon) {
+        final String description = icon.getDescription();
+        if (description != null) {
+            final int index = description.indexOf('x');
+            if (index > 0) {
+                try {
+                    return new Dimension(Integer.parseInt(description
+                            .substring(0, index)), Integer.parseInt(description
+                            .substring(index + 1)));
+                } catch (final NumberFormatException e) {
+                    // Not a size description
+                }
+            }
+        }
+        return new Dimension(icon.getIconWidth(), icon.getIconHeight());
+    }
+    
+    /**
+     * Persistent thumbnails cache
+     * It is disabled by default, default cache is stored in "thumbnails"
+     * directory inside of the settings manager default directory.
+     */
+    
+    public static final String DEFAULT_THUMBNAILS_DIR_NAME = "thumbnails";
+    
+    private static boolean thumbnailCacheEnabled = false;
+    
+    private static ThumbnailCache thumbnailCache = null;
+    
+    public static synchronized boolean isThumbnailCacheEnabled() {
+        return thumbnailCacheEnabled;
+    }
+    
+    public static synchronized void setThumbnailCacheEnabled(
+            final boolean enabled) {
+        ImageUtils.thumbnailCacheEnabled = enabled;
+    }
+    
+    public static synchronized ThumbnailCache getThumbnailCache() {
+        if (thumbnailCache == null) {
+            thumbnailCache = new ThumbnailCache(new File(
+                    SettingsManager.getDefaultSettingsDir(),
+                    DEFAULT_THUMBNAILS_DIR_NAME),
+                    ThumbnailCache.DEFAULT_MAX_SIZE);
+        }
+        return thumbnailCache;
+    }
+    
+    public static synchronized void setThumbnailCache(
+            final ThumbnailCache thumbnailCache) {
+        ImageUtils.thumbnailCache = thumbnailCache;
+    }
+    
     public static ImageIcon createPreviewIcon(final ImageIcon image,
             final int size) {
         return createPreviewIcon(image.getImage(), size);
@@ -804,7 +1008,8 @@ public final class ImageUtils {
      * Image read methods
      */
     
-    private static final Map<String, ImageIcon> iconsCache = new HashMap<String, ImageIcon>();
+    private static final Map<String, ImageIcon> iconsCache = Collections
+            .synchronizedMap(new HashMap<String, ImageIcon>());
     
     public static boolean isImageCached(final String src) {
         return iconsCache.containsKey(src) && iconsCache.get(src) != null;
@@ -1002,12 +1207,21 @@ public final class ImageUtils {
      * Scaled preview creation
      */
     
-    private static final Map<String, ImageIcon> sizedPreviewCache = new HashMap<String, ImageIcon>();
+    public static final long DEFAULT_SIZED_PREVIEW_CACHE_SIZE = 16 * 1024 * 1024;
+    
+    private static final ImageCache<String, ImageIcon> sizedPreviewCache = new ImageCache<String, ImageIcon>(
+            DEFAULT_SIZED_PREVIEW_CACHE_SIZE);
+    
+    public static ImageCache<String, ImageIcon> getSizedPreviewCache() {
+        return sizedPreviewCache;
+    }
     
     public static ImageIcon getSizedImagePreview(final String src,
             final int length, final boolean drawBorder) {
-        if (sizedPreviewCache.containsKey(length + IMAGE_CACHE_SEPARATOR + src)) {
-            return sizedPreviewCache.get(length + IMAGE_CACHE_SEPARATOR + src);
+        final ImageIcon cached = sizedPreviewCache.get(length
+                + IMAGE_CACHE_SEPARATOR + src);
+        if (cached != null) {
+            return cached;
         } else {
             final ImageIcon icon = createThumbnailIcon(src, length);
             final ImageIcon sized = createSizedImagePreview(icon, length,
@@ -1019,8 +1233,9 @@ public final class ImageUtils {
     
     public static ImageIcon getSizedImagePreview(final String id,
             final ImageIcon icon, final int length, final boolean drawBorder) {
-        if (sizedPreviewCache.containsKey(id)) {
-            return sizedPreviewCache.get(id);
+        final ImageIcon cached = sizedPreviewCache.get(id);
+        if (cached != null) {
+            return cached;
         } else {
             final ImageIcon sized = createSizedImagePreview(icon, length,
                     drawBorder);
@@ -1205,6 +1420,13 @@ public final class ImageUtils {
     public static BufferedImage createImageShade(final int w, final int h,
             final Shape shape, final int shadeWidth, final float shadeOpacity,
             final Color clearColor) {
+        return createImageShade(w, h, shape, shadeWidth, shadeOpacity,
+                clearColor, FlatLafStyleConstants.shadeBlurType);
+    }
+    
+    public static BufferedImage createImageShade(final int w, final int h,
+            final Shape shape, final int shadeWidth, final float shadeOpacity,
+            final Color clearColor, final BlurType blurType) {
         // todo Properly use height
         final int width = shadeWidth * 2 + w;
         @SuppressWarnings("UnusedDeclaration")
@@ -1221,7 +1443,8 @@ public final class ImageUtils {
         ig.dispose();
         
         // Creating shade image
-        final ShadowFilter sf = new ShadowFilter(shadeWidth, 0, 0, shadeOpacity);
+        final ShadowFilter sf = new ShadowFilter(shadeWidth, 0, 0,
+                shadeOpacity, blurType);
         final BufferedImage shade = sf.filter(bi, null);
         
         // Clipping shade image
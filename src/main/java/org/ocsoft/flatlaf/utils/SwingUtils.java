@@ -1068,7 +1068,8 @@ public final class SwingUtils {
     public static <C extends Component> C setPlainFont(final C component,
             final boolean apply) {
         if (apply && component != null && component.getFont() != null) {
-            component.setFont(component.getFont().deriveFont(Font.PLAIN));
+            component.setFont(FontUtils.getDerivedFont(component.getFont(),
+                    Font.PLAIN));
         }
         return component;
     }
@@ -1112,7 +1113,8 @@ public final class SwingUtils {
     public static <C extends Component> C setBoldFont(final C component,
             final boolean apply) {
         if (apply && component != null && component.getFont() != null) {
-            component.setFont(component.getFont().deriveFont(Font.BOLD));
+            component.setFont(FontUtils.getDerivedFont(component.getFont(),
+                    Font.BOLD));
         }
         return component;
     }
@@ -1156,7 +1158,8 @@ public final class SwingUtils {
     public static <C extends Component> C setItalicFont(final C component,
             final boolean apply) {
         if (apply && component != null && component.getFont() != null) {
-            component.setFont(component.getFont().deriveFont(Font.ITALIC));
+            component.setFont(FontUtils.getDerivedFont(component.getFont(),
+                    Font.ITALIC));
         }
         return component;
     }
@@ -1175,7 +1178,8 @@ public final class SwingUtils {
     public static <C extends Component> C setFontSize(final C component,
             final int fontSize) {
         if (component != null && component.getFont() != null) {
-            component.setFont(component.getFont().deriveFont((float) fontSize));
+            component.setFont(FontUtils.getDerivedFont(component.getFont(),
+                    (float) fontSize));
         }
         return component;
     }
@@ -1195,7 +1199,8 @@ public final class SwingUtils {
             final int change) {
         if (component != null && component.getFont() != null) {
             final Font font = component.getFont();
-            component.setFont(font.deriveFont((float) font.getSize() + change));
+            component.setFont(FontUtils.getDerivedFont(font,
+                    (float) font.getSize() + change));
         }
         return component;
     }
@@ -1248,7 +1253,8 @@ public final class SwingUtils {
     public static <C extends Component> C setFontStyle(final C component,
             final int style) {
         if (component != null && component.getFont() != null) {
-            component.setFont(component.getFont().deriveFont(style));
+            component.setFont(FontUtils.getDerivedFont(component.getFont(),
+                    style));
         }
         return component;
     }
@@ -1292,8 +1298,8 @@ public final class SwingUtils {
     public static <C extends Component> C setFontSizeAndStyle(
             final C component, final int fontSize, final int style) {
         if (component != null && component.getFont() != null) {
-            component.setFont(component.getFont().deriveFont(style,
-                    (float) fontSize));
+            component.setFont(FontUtils.getDerivedFont(component.getFont(),
+                    style, (float) fontSize));
         }
         return component;
     }
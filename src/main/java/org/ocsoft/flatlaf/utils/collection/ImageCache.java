@@ -0,0 +1,401 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.utils.collection;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
+
+/**
+ * Memory-sensitive images cache bounded by the total size of cached images.
+ * <p/>
+ * Recently used images are strongly referenced until their total size exceeds
+ * the size limit. Least recently used images are then evicted into a second
+ * level where they are only softly referenced, so they can still be returned
+ * until garbage collector decides to reclaim them. Any image returned from the
+ * second level becomes strongly referenced again.
+ * <p/>
+ * All cache operations are thread-safe.
+ *
+ * @param <K>
+ *            key type
+ * @param <V>
+ *            cached image type, either Image or Icon
+ * @author Mikle Garin
+ */
+
+public class ImageCache<K, V> {
+    /**
+     * Strongly referenced images ordered from the least to the most recently
+     * used.
+     */
+    protected final LinkedHashMap<K, V> images = new LinkedHashMap<K, V>(16,
+            0.75f, true);
+    
+    /**
+     * Evicted images which are softly referenced.
+     */
+    protected final Map<K, SoftValue<K, V>> evicted = new HashMap<K, SoftValue<K, V>>();
+    
+    /**
+     * Queue of evicted images reclaimed by garbage collector.
+     */
+    protected final ReferenceQueue<V> queue = new ReferenceQueue<V>();
+    
+    /**
+     * Maximum total size of strongly referenced images in bytes.
+     */
+    protected long maxSize;
+    
+    /**
+     * Current total size of strongly referenced images in bytes.
+     */
+    protected long size = 0;
+    
+    /**
+     * Cache statistics.
+     */
+    protected long hits = 0;
+    protected long softHits = 0;
+    protected long misses = 0;
+    protected long evictions = 0;
+    
+    /**
+     * Constructs new images cache.
+     *
+     * @param maxSize
+     *            maximum total size of strongly referenced images in bytes
+     */
+    public ImageCache(final long maxSize) {
+        super();
+        setMaxSize(maxSize);
+    }
+    
+    /**
+     * Returns cached image or null if it is not cached.
+     *
+     * @param key
+     *            image key
+     * @return cached image or null if it is not cached
+     */
+    public synchronized V get(final K key) {
+        expungeStaleEntries();
+        final V image = images.get(key);
+        if (image != null) {
+            hits++;
+            return image;
+        }
+        final SoftValue<K, V> softValue = evicted.remove(key);
+        final V restored = softValue != null ? softValue.get() : null;
+        if (restored != null) {
+            softHits++;
+            store(key, restored);
+            return restored;
+        }
+        misses++;
+        return null;
+    }
+    
+    /**
+     * Returns whether image with the specified key is cached and still
+     * available or not. This doesn't affect cache statistics.
+     *
+     * @param key
+     *            image key
+     * @return true if image with the specified key is cached and still
+     *         available, false otherwise
+     */
+    public synchronized boolean contains(final K key) {
+        expungeStaleEntries();
+        if (images.containsKey(key)) {
+            return true;
+        }
+        final SoftValue<K, V> softValue = evicted.get(key);
+        return softValue != null && softValue.get() != null;
+    }
+    
+    /**
+     * Caches image under the specified key.
+     *
+     * @param key
+     *            image key
+     * @param image
+     *            image to cache
+     */
+    public synchronized void put(final K key, final V image) {
+        expungeStaleEntries();
+        removeImpl(key);
+        if (image != null) {
+            store(key, image);
+        }
+    }
+    
+    /**
+     * Removes image with the specified key from cache.
+     *
+     * @param key
+     *            image key
+     */
+    public synchronized void remove(final K key) {
+        expungeStaleEntries();
+        removeImpl(key);
+    }
+    
+    /**
+     * Removes all cached images. Statistics are not affected.
+     */
+    public synchronized void clear() {
+        images.clear();
+        evicted.clear();
+        size = 0;
+    }
+    
+    /**
+     * Returns maximum total size of strongly referenced images in bytes.
+     *
+     * @return maximum total size of strongly referenced images in bytes
+     */
+    public synchronized long getMaxSize() {
+        return maxSize;
+    }
+    
+    /**
+     * Sets maximum total size of strongly referenced images in bytes.
+     *
+     * @param maxSize
+     *            maximum total size of strongly referenced images in bytes
+     */
+    public synchronized void setMaxSize(final long maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Invalid cache size: "
+                    + maxSize);
+        }
+        this.maxSize = maxSize;
+        trim();
+    }
+    
+    /**
+     * Returns current total size of strongly referenced images in bytes.
+     *
+     * @return current total size of strongly referenced images in bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+    
+    /**
+     * Returns amount of strongly referenced images.
+     *
+     * @return amount of strongly referenced images
+     */
+    public synchronized int getCount() {
+        return images.size();
+    }
+    
+    /**
+     * Returns amount of evicted images which might still be available.
+     *
+     * @return amount of evicted images which might still be available
+     */
+    public synchronized int getSoftCount() {
+        expungeStaleEntries();
+        return evicted.size();
+    }
+    
+    /**
+     * Returns amount of requests served from strongly referenced images.
+     *
+     * @return amount of requests served from strongly referenced images
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    /**
+     * Returns amount of requests served from evicted images.
+     *
+     * @return amount of requests served from evicted images
+     */
+    public synchronized long getSoftHits() {
+        return softHits;
+    }
+    
+    /**
+     * Returns amount of requests for images which were not available.
+     *
+     * @return amount of requests for images which were not available
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+    /**
+     * Returns amount of images evicted due to size limit.
+     *
+     * @return amount of images evicted due to size limit
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+    
+    /**
+     * Resets cache statistics.
+     */
+    public synchronized void resetStatistics() {
+        hits = 0;
+        softHits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+    
+    /**
+     * Stores strongly referenced image and evicts least recently used images
+     * if needed.
+     *
+     * @param key
+     *            image key
+     * @param image
+     *            image to store
+     */
+    protected void store(final K key, final V image) {
+        images.put(key, image);
+        size += sizeOf(image);
+        trim();
+    }
+    
+    /**
+     * Removes image with the specified key from both cache levels.
+     *
+     * @param key
+     *            image key
+     */
+    protected void removeImpl(final K key) {
+        final V image = images.remove(key);
+        if (image != null) {
+            size -= sizeOf(image);
+        }
+        evicted.remove(key);
+    }
+    
+    /**
+     * Evicts least recently used images until cache size fits the limit.
+     */
+    protected void trim() {
+        final Iterator<Map.Entry<K, V>> iterator = images.entrySet()
+                .iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            final Map.Entry<K, V> entry = iterator.next();
+            iterator.remove();
+            size -= sizeOf(entry.getValue());
+            evicted.put(entry.getKey(), new SoftValue<K, V>(entry.getKey(),
+                    entry.getValue(), queue));
+            evictions++;
+        }
+    }
+    
+    /**
+     * Removes evicted images reclaimed by garbage collector.
+     */
+    protected void expungeStaleEntries() {
+        Reference<? extends V> reference;
+        while ((reference = queue.poll()) != null) {
+            if (reference instanceof SoftValue) {
+                final Object key = ((SoftValue<?, ?>) reference).key;
+                if (evicted.get(key) == reference) {
+                    evicted.remove(key);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Returns approximate memory size of the specified image in bytes.
+     *
+     * @param image
+     *            image or icon
+     * @return approximate memory size of the specified image in bytes
+     */
+    protected long sizeOf(final V image) {
+        if (image instanceof ImageIcon) {
+            final Image i = ((ImageIcon) image).getImage();
+            return i != null ? sizeOf(i) : 0;
+        } else if (image instanceof Icon) {
+            final Icon icon = (Icon) image;
+            return 4L * icon.getIconWidth() * icon.getIconHeight();
+        } else if (image instanceof Image) {
+            return sizeOf((Image) image);
+        } else {
+            return 0;
+        }
+    }
+    
+    /**
+     * Returns approximate memory size of the specified image in bytes.
+     *
+     * @param image
+     *            image
+     * @return approximate memory size of the specified image in bytes
+     */
+    protected static long sizeOf(final Image image) {
+        if (image instanceof BufferedImage) {
+            final DataBuffer buffer = ((BufferedImage) image).getRaster()
+                    .getDataBuffer();
+            return (long) buffer.getSize() * buffer.getNumBanks()
+                    * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+        } else {
+            return 4L * Math.max(0, image.getWidth(null))
+                    * Math.max(0, image.getHeight(null));
+        }
+    }
+    
+    /**
+     * Soft reference to evicted image which remembers its key.
+     */
+    protected static class SoftValue<K, V> extends SoftReference<V> {
+        /**
+         * Image key.
+         */
+        protected final K key;
+        
+        /**
+         * Constructs new soft reference to evicted image.
+         *
+         * @param key
+         *            image key
+         * @param image
+         *            evicted image
+         * @param queue
+         *            reference queue
+         */
+        public SoftValue(final K key, final V image,
+                final ReferenceQueue<V> queue) {
+            super(image, queue);
+            this.key = key;
+        }
+    }
+}
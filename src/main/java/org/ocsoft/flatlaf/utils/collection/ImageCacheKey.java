@@ -0,0 +1,83 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.utils.collection;
+
+import java.util.Arrays;
+
+/**
+ * Structured images cache key. It is compared by its parts, so there is no
+ * need to concatenate key parts into a string with a separator.
+ *
+ * @author Mikle Garin
+ * @see org.ocsoft.flatlaf.utils.collection.ImageCache
+ */
+
+public final class ImageCacheKey {
+    /**
+     * Key parts.
+     */
+    private final Object[] parts;
+    
+    /**
+     * Precomputed key hash code.
+     */
+    private final int hash;
+    
+    /**
+     * Constructs new key from the specified parts.
+     *
+     * @param parts
+     *            key parts
+     */
+    public ImageCacheKey(final Object... parts) {
+        super();
+        this.parts = parts;
+        this.hash = Arrays.hashCode(parts);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ImageCacheKey)) {
+            return false;
+        }
+        final ImageCacheKey other = (ImageCacheKey) obj;
+        return hash == other.hash && Arrays.equals(parts, other.parts);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return Arrays.toString(parts);
+    }
+}
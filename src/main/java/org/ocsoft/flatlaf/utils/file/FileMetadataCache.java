@@ -0,0 +1,623 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.utils.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
+
+/**
+ * Thread-safe bounded cache of file metadata used by FileUtils.
+ * <p/>
+ * All cached properties of a single file are stored together under its
+ * absolute path. Least recently used files are evicted once the amount of
+ * cached files exceeds the size limit.
+ * <p/>
+ * Parent directories of the cached files are watched using WatchService, so
+ * cached metadata is dropped as soon as file is created, modified or removed.
+ * Amount of watched directories is bounded as well, files cached under the
+ * directory which is no longer watched are dropped from the cache.
+ *
+ * @author Mikle Garin
+ * @see org.ocsoft.flatlaf.utils.file.FileUtils
+ */
+
+public class FileMetadataCache {
+    /**
+     * Cached file properties.
+     */
+    public static final int IS_DRIVE = 0;
+    public static final int IS_COMPUTER = 1;
+    public static final int IS_CD_DRIVE = 2;
+    public static final int IS_FILE = 3;
+    public static final int IS_DIRECTORY = 4;
+    public static final int IS_HIDDEN = 5;
+    public static final int DISPLAY_NAME = 6;
+    public static final int DESCRIPTION = 7;
+    public static final int TYPE_DESCRIPTION = 8;
+    public static final int CREATION_DATE = 9;
+    public static final int MODIFICATION_DATE = 10;
+    public static final int LENGTH = 11;
+    public static final int LAST_MODIFIED = 12;
+    
+    /**
+     * Amount of cached file properties.
+     */
+    public static final int PROPERTIES_COUNT = 13;
+    
+    /**
+     * Value returned for properties which are not cached.
+     */
+    public static final Object NOT_CACHED = new Object();
+    
+    /**
+     * Default maximum amount of cached files.
+     * Cache temporarily grows beyond this limit while directories are listed,
+     * see {@link #reserveCapacity(int)}.
+     */
+    public static final int DEFAULT_MAX_SIZE = 65536;
+    
+    /**
+     * Default maximum amount of watched directories.
+     */
+    public static final int DEFAULT_MAX_WATCHED = 256;
+    
+    /**
+     * Watcher thread name.
+     */
+    public static final String THREAD_NAME = "FileMetadataCache.watcher";
+    
+    /**
+     * Special value for cached null values.
+     */
+    protected static final Object NULL = new Object();
+    
+    /**
+     * Cached files ordered from the least to the most recently used.
+     */
+    protected final LinkedHashMap<String, Entry> entries;
+    
+    /**
+     * Watched directories ordered from the least to the most recently used.
+     */
+    protected final LinkedHashMap<Path, WatchKey> watched;
+    
+    /**
+     * Maximum amount of cached files.
+     */
+    protected int maxSize;
+    
+    /**
+     * Capacity temporarily reserved over maximum size by directory listings.
+     */
+    protected int reservedSize = 0;
+    
+    /**
+     * Maximum amount of watched directories.
+     */
+    protected int maxWatched;
+    
+    /**
+     * Whether cached files should be watched for changes or not.
+     */
+    protected boolean watchEnabled = true;
+    
+    /**
+     * Watch service, null if not yet created or not supported.
+     */
+    protected WatchService watchService = null;
+    
+    /**
+     * Whether watch service is not supported.
+     */
+    protected boolean watchUnsupported = false;
+    
+    /**
+     * Last watched directory, files are usually cached directory by
+     * directory.
+     */
+    protected String lastDirPath = null;
+    protected Path lastDir = null;
+    
+    /**
+     * Cache statistics.
+     */
+    protected long hits = 0;
+    protected long misses = 0;
+    protected long invalidations = 0;
+    
+    /**
+     * Constructs new file metadata cache with default limits.
+     */
+    public FileMetadataCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_MAX_WATCHED);
+    }
+    
+    /**
+     * Constructs new file metadata cache with the specified limits.
+     *
+     * @param maxSize
+     *            maximum amount of cached files
+     * @param maxWatched
+     *            maximum amount of watched directories
+     */
+    public FileMetadataCache(final int maxSize, final int maxWatched) {
+        super();
+        this.maxSize = maxSize;
+        this.maxWatched = maxWatched;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+        this.watched = new LinkedHashMap<Path, WatchKey>(16, 0.75f, true);
+    }
+    
+    /**
+     * Returns cached file property value or {@link #NOT_CACHED} if it is not
+     * cached.
+     *
+     * @param path
+     *            absolute file path
+     * @param property
+     *            file property
+     * @return cached file property value or {@link #NOT_CACHED}
+     */
+    public synchronized Object get(final String path, final int property) {
+        final Entry entry = entries.get(path);
+        final Object value = entry != null ? entry.values[property] : null;
+        if (value != null) {
+            hits++;
+            return value == NULL ? null : value;
+        } else {
+            misses++;
+            return NOT_CACHED;
+        }
+    }
+    
+    /**
+     * Caches file property value.
+     *
+     * @param path
+     *            absolute file path
+     * @param property
+     *            file property
+     * @param value
+     *            file property value
+     */
+    public synchronized void put(final String path, final int property,
+            final Object value) {
+        Entry entry = entries.get(path);
+        if (entry == null) {
+            entry = new Entry(watch(path));
+            entries.put(path, entry);
+            trimToCapacity();
+        }
+        entry.values[property] = value != null ? value : NULL;
+    }
+    
+    /**
+     * Caches basic file attributes read at once, for example while listing
+     * directory.
+     *
+     * @param path
+     *            absolute file path
+     * @param isFile
+     *            whether file is a normal file or not
+     * @param isDirectory
+     *            whether file is a directory or not
+     * @param isHidden
+     *            whether file is hidden or not
+     * @param length
+     *            file length
+     * @param lastModified
+     *            file modification time
+     */
+    public synchronized void putAttributes(final String path,
+            final boolean isFile, final boolean isDirectory,
+            final boolean isHidden, final long length, final long lastModified) {
+        put(path, IS_FILE, isFile);
+        final Entry entry = entries.get(path);
+        if (entry == null) {
+            return;
+        }
+        final Object[] values = entry.values;
+        values[IS_DIRECTORY] = isDirectory;
+        values[IS_HIDDEN] = isHidden;
+        values[LENGTH] = length;
+        values[LAST_MODIFIED] = lastModified;
+    }
+    
+    /**
+     * Clears specified property for all cached files.
+     *
+     * @param property
+     *            file property
+     */
+    public synchronized void clear(final int property) {
+        for (final Entry entry : entries.values()) {
+            entry.values[property] = null;
+        }
+    }
+    
+    /**
+     * Clears specified property for the file under the specified path.
+     *
+     * @param path
+     *            absolute file path
+     * @param property
+     *            file property
+     */
+    public synchronized void clear(final String path, final int property) {
+        final Entry entry = entries.get(path);
+        if (entry != null) {
+            entry.values[property] = null;
+        }
+    }
+    
+    /**
+     * Clears all properties for the file under the specified path.
+     *
+     * @param path
+     *            absolute file path
+     */
+    public synchronized void clear(final String path) {
+        entries.remove(path);
+    }
+    
+    /**
+     * Clears all cached files.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+    
+    /**
+     * Returns amount of cached files.
+     *
+     * @return amount of cached files
+     */
+    public synchronized int getSize() {
+        return entries.size();
+    }
+    
+    /**
+     * Returns maximum amount of cached files.
+     *
+     * @return maximum amount of cached files
+     */
+    public synchronized int getMaxSize() {
+        return maxSize;
+    }
+    
+    /**
+     * Sets maximum amount of cached files.
+     *
+     * @param maxSize
+     *            maximum amount of cached files
+     */
+    public synchronized void setMaxSize(final int maxSize) {
+        this.maxSize = maxSize;
+        trimToCapacity();
+    }
+    
+    /**
+     * Temporarily raises cache capacity by the specified amount of files.
+     * This is used while listing directories so that attributes prefetched
+     * for the listed files are not evicted before they are used. Each
+     * reservation must be followed by {@link #releaseCapacity(int)} with the
+     * same amount once listing is finished.
+     *
+     * @param size
+     *            amount of files to reserve capacity for
+     */
+    public synchronized void reserveCapacity(final int size) {
+        reservedSize += size;
+    }
+    
+    /**
+     * Releases capacity previously reserved by
+     * {@link #reserveCapacity(int)} and evicts least recently used files
+     * which no longer fit into the cache.
+     *
+     * @param size
+     *            amount of files to release capacity for
+     */
+    public synchronized void releaseCapacity(final int size) {
+        reservedSize = Math.max(0, reservedSize - size);
+        trimToCapacity();
+    }
+    
+    /**
+     * Evicts least recently used files until cache fits into its current
+     * capacity.
+     */
+    protected void trimToCapacity() {
+        while (entries.size() > maxSize + reservedSize) {
+            final Iterator<Entry> iterator = entries.values().iterator();
+            iterator.next();
+            iterator.remove();
+        }
+    }
+    
+    /**
+     * Clears all properties for the files located directly in the directory
+     * under the specified path.
+     *
+     * @param dirPath
+     *            absolute directory path
+     */
+    public synchronized void clearDirectory(final String dirPath) {
+        final String prefix = dirPath.endsWith(File.separator) ? dirPath
+                : dirPath + File.separator;
+        final Iterator<String> iterator = entries.keySet().iterator();
+        while (iterator.hasNext()) {
+            final String path = iterator.next();
+            if (path.startsWith(prefix)
+                    && path.indexOf(File.separatorChar, prefix.length()) == -1) {
+                iterator.remove();
+            }
+        }
+    }
+    
+    /**
+     * Returns amount of watched directories.
+     *
+     * @return amount of watched directories
+     */
+    public synchronized int getWatchedCount() {
+        return watched.size();
+    }
+    
+    /**
+     * Returns maximum amount of watched directories.
+     *
+     * @return maximum amount of watched directories
+     */
+    public synchronized int getMaxWatched() {
+        return maxWatched;
+    }
+    
+    /**
+     * Sets maximum amount of watched directories.
+     *
+     * @param maxWatched
+     *            maximum amount of watched directories
+     */
+    public synchronized void setMaxWatched(final int maxWatched) {
+        this.maxWatched = maxWatched;
+        while (watched.size() > maxWatched) {
+            unwatchEldest();
+        }
+    }
+    
+    /**
+     * Returns whether cached files are watched for changes or not.
+     *
+     * @return true if cached files are watched for changes, false otherwise
+     */
+    public synchronized boolean isWatchEnabled() {
+        return watchEnabled;
+    }
+    
+    /**
+     * Sets whether cached files should be watched for changes or not. Note
+     * that without watching cached values are only cleared manually.
+     *
+     * @param watchEnabled
+     *            whether cached files should be watched for changes or not
+     */
+    public synchronized void setWatchEnabled(final boolean watchEnabled) {
+        this.watchEnabled = watchEnabled;
+        if (!watchEnabled) {
+            while (!watched.isEmpty()) {
+                unwatchEldest();
+            }
+        }
+    }
+    
+    /**
+     * Returns amount of cache hits.
+     *
+     * @return amount of cache hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    /**
+     * Returns amount of cache misses.
+     *
+     * @return amount of cache misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+    /**
+     * Returns amount of files invalidated due to file system changes.
+     *
+     * @return amount of files invalidated due to file system changes
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+    
+    /**
+     * Starts watching parent directory of the file under the specified path.
+     *
+     * @param path
+     *            absolute file path
+     * @return watched directory or null if file is not watched
+     */
+    protected Path watch(final String path) {
+        if (!watchEnabled || watchUnsupported) {
+            return null;
+        }
+        try {
+            final Path dir;
+            final int index = path.lastIndexOf(File.separatorChar);
+            if (lastDir != null && index == lastDirPath.length()
+                    && path.startsWith(lastDirPath)) {
+                dir = lastDir;
+            } else {
+                dir = Paths.get(path).getParent();
+                if (dir == null) {
+                    return null;
+                }
+            }
+            if (watched.get(dir) == null) {
+                if (watchService == null) {
+                    watchService = FileSystems.getDefault().newWatchService();
+                    final Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            processEvents();
+                        }
+                    }, THREAD_NAME);
+                    thread.setDaemon(true);
+                    thread.start();
+                }
+                watched.put(dir, dir.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY));
+                while (watched.size() > maxWatched) {
+                    unwatchEldest();
+                }
+            }
+            if (dir != lastDir) {
+                lastDir = dir;
+                lastDirPath = dir.toString();
+            }
+            return dir;
+        } catch (final UnsupportedOperationException e) {
+            watchUnsupported = true;
+            return null;
+        } catch (final IOException e) {
+            return null;
+        } catch (final RuntimeException e) {
+            // Virtual or inaccessible file system objects
+            return null;
+        }
+    }
+    
+    /**
+     * Stops watching the least recently used directory and drops files cached
+     * under it, since they can no longer be tracked.
+     */
+    protected void unwatchEldest() {
+        final Iterator<Map.Entry<Path, WatchKey>> iterator = watched
+                .entrySet().iterator();
+        final Map.Entry<Path, WatchKey> eldest = iterator.next();
+        iterator.remove();
+        eldest.getValue().cancel();
+        invalidateDirectory(eldest.getKey());
+    }
+    
+    /**
+     * Drops all files cached under the specified directory.
+     *
+     * @param dir
+     *            directory
+     */
+    protected void invalidateDirectory(final Path dir) {
+        final Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (dir.equals(iterator.next().parent)) {
+                iterator.remove();
+                invalidations++;
+            }
+        }
+    }
+    
+    /**
+     * Processes file system events until watch service is closed.
+     */
+    protected void processEvents() {
+        while (true) {
+            final WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (final InterruptedException e) {
+                return;
+            } catch (final ClosedWatchServiceException e) {
+                return;
+            }
+            final Path dir = (Path) key.watchable();
+            synchronized (this) {
+                for (final WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        invalidateDirectory(dir);
+                    } else {
+                        final Path file = dir.resolve((Path) event.context());
+                        if (entries.remove(file.toString()) != null) {
+                            invalidations++;
+                        }
+                    }
+                }
+                
+                // Directory itself is modified as well
+                if (entries.remove(dir.toString()) != null) {
+                    invalidations++;
+                }
+                
+                if (!key.reset() && watched.remove(dir) != null) {
+                    // Directory is no longer accessible
+                    invalidateDirectory(dir);
+                    FlatLafLogger.debug(FileMetadataCache.class,
+                            "Stopped watching removed directory: " + dir);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Cached file properties.
+     */
+    protected static class Entry {
+        /**
+         * Watched parent directory.
+         */
+        protected final Path parent;
+        
+        /**
+         * Cached property values.
+         */
+        protected final Object[] values = new Object[PROPERTIES_COUNT];
+        
+        /**
+         * Constructs new cached file properties entry.
+         *
+         * @param parent
+         *            watched parent directory
+         */
+        public Entry(final Path parent) {
+            super();
+            this.parent = parent;
+        }
+    }
+}
@@ -37,6 +37,12 @@ import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
 import java.security.MessageDigest;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
@@ -64,6 +70,7 @@ import org.ocsoft.flatlaf.utils.filefilter.CustomFileFilter;
 import org.ocsoft.flatlaf.utils.general.Filter;
 import org.ocsoft.flatlaf.utils.swing.WebTimer;
 import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
+import org.ocsoft.flatlaf.utils.system.FlatLafSystemUtils;
 import org.ocsoft.flatlaf.weblaf.FlatLafStyleConstants;
 
 /**
@@ -75,6 +82,9 @@ import org.ocsoft.flatlaf.weblaf.FlatLafStyleConstants;
  * simply call the corresponding clearCache method, for example: For method
  * "isHidden" you will need to call "clearIsHiddenCache" and all cached values
  * will be resetted.
+ * <p/>
+ * All those caches are stored in a single bounded FileMetadataCache which also
+ * drops cached values when watched files change on disk.
  *
  * @author Mikle Garin
  */
@@ -140,59 +150,15 @@ public final class FileUtils {
             ';', '.', ',', '%', '$', '@', '#', '^', '{', '}', '[', ']', ']' };
     
     /**
-     * Cache for "isDrive" method result.
+     * Amount of files by which metadata cache capacity is reserved at once
+     * while directory is being listed.
      */
-    private static final Map<String, Boolean> isDriveCache = new HashMap<String, Boolean>();
+    private static final int LISTING_CAPACITY_STEP = 1024;
     
     /**
-     * Cache for "isComputer" method result.
+     * Cache for file metadata methods results.
      */
-    private static final Map<String, Boolean> isComputerCache = new HashMap<String, Boolean>();
-    
-    /**
-     * Cache for "isCdDrive" method result.
-     */
-    private static final Map<String, Boolean> isCdDriveCache = new HashMap<String, Boolean>();
-    
-    /**
-     * Cache for "isFile" method result.
-     */
-    private static final Map<String, Boolean> isFileCache = new HashMap<String, Boolean>();
-    
-    /**
-     * Cache for "isDirectory" method result.
-     */
-    private static final Map<String, Boolean> isDirectoryCache = new HashMap<String, Boolean>();
-    
-    /**
-     * Cache for "isHidden" method result.
-     */
-    private static final Map<String, Boolean> isHiddenCache = new HashMap<String, Boolean>();
-    
-    /**
-     * Cache for "getDisplayFileName" method result.
-     */
-    private static final Map<String, String> displayFileNameCache = new HashMap<String, String>();
-    
-    /**
-     * Cache for "getFileDescription" method result.
-     */
-    private static final Map<String, FileDescription> fileDescriptionCache = new HashMap<String, FileDescription>();
-    
-    /**
-     * Cache for "getFileTypeDescription" method result.
-     */
-    private static final Map<String, String> fileTypeDescriptionCache = new HashMap<String, String>();
-    
-    /**
-     * Cache for "getDisplayFileCreationDate" method result.
-     */
-    private static final Map<String, String> displayFileCreationDateCache = new HashMap<String, String>();
-    
-    /**
-     * Cache for "getDisplayFileModificationDate" method result.
-     */
-    private static final Map<String, String> displayFileModificationDateCache = new HashMap<String, String>();
+    private static final FileMetadataCache metadataCache = new FileMetadataCache();
     
     /**
      * File extension icons cache lock.
@@ -226,6 +192,18 @@ public final class FileUtils {
         }
     }
     
+    /**
+     * Clears all caches for files located directly in the specified directory.
+     * Unlike {@link #clearFilesCaches(File...)} this doesn't require directory
+     * to be listed.
+     *
+     * @param directory
+     *            directory to process
+     */
+    public static void clearDirectoryFilesCaches(final File directory) {
+        metadataCache.clearDirectory(directory.getAbsolutePath());
+    }
+    
     /**
      * Clears all caches for specified file.
      *
@@ -243,17 +221,29 @@ public final class FileUtils {
      *            file path
      */
     public static void clearFileCaches(final String path) {
-        clearDisplayFileNameCache(path);
-        clearIsHiddenCache(path);
-        clearIsFileCache(path);
-        clearIsDirectoryCache(path);
-        clearIsComputerCache(path);
-        clearIsDriveCache(path);
-        clearIsCdDriveCache(path);
-        clearFileDescriptionCache(path);
-        clearFileTypeDescriptionCache(path);
-        clearDisplayFileCreationDateCache(path);
-        clearDisplayFileModificationDateCache(path);
+        metadataCache.clear(path);
+    }
+    
+    /**
+     * Returns cache used by file metadata methods.
+     *
+     * @return cache used by file metadata methods
+     */
+    public static FileMetadataCache getMetadataCache() {
+        return metadataCache;
+    }
+    
+    /**
+     * Returns date formatted for display.
+     *
+     * @param time
+     *            time in milliseconds
+     * @return date formatted for display
+     */
+    private static String formatDate(final long time) {
+        synchronized (sdf) {
+            return sdf.format(new Date(time));
+        }
     }
     
     /**
@@ -451,8 +441,135 @@ public final class FileUtils {
      */
     public static File[] listFiles(final File directory,
             final FileFilter fileFilter) {
-        final File[] files = directory.listFiles(fileFilter);
-        return files != null ? files : new File[0];
+        final List<File> files = new ArrayList<File>();
+        listFiles(directory, fileFilter, Integer.MAX_VALUE,
+                new FileChunkListener() {
+                    @Override
+                    public void filesListed(final List<File> chunk) {
+                        files.addAll(chunk);
+                    }
+                });
+        return files.toArray(new File[files.size()]);
+    }
+    
+    /**
+     * Lists directory files and passes them into listener in chunks of the
+     * specified size.
+     * <p/>
+     * Basic attributes of each listed file are read only once and cached, so
+     * following isFile, isDirectory, isHidden, getFileLength and
+     * getLastModified calls (including calls made by the file filter) do not
+     * access the file system again.
+     *
+     * @param directory
+     *            directory to look into
+     * @param fileFilter
+     *            file filter, might be null
+     * @param chunkSize
+     *            maximum amount of files passed into listener at once
+     * @param listener
+     *            listener receiving listed files
+     */
+    public static void listFiles(final File directory,
+            final FileFilter fileFilter, final int chunkSize,
+            final FileChunkListener listener) {
+        // Special file system objects (like Windows shell folders) are listed
+        // using their own implementation
+        DirectoryStream<Path> stream = null;
+        if (directory.getClass() == File.class) {
+            try {
+                stream = Files.newDirectoryStream(directory.toPath());
+            } catch (final IOException e) {
+                stream = null;
+            } catch (final InvalidPathException e) {
+                stream = null;
+            }
+        }
+        
+        List<File> chunk = new ArrayList<File>(Math.min(chunkSize, 256));
+        if (stream != null) {
+            int listed = 0;
+            int reserved = 0;
+            try {
+                for (final Path path : stream) {
+                    // Making sure prefetched attributes are not evicted
+                    // before listed files are used
+                    if (listed++ % LISTING_CAPACITY_STEP == 0) {
+                        metadataCache.reserveCapacity(LISTING_CAPACITY_STEP);
+                        reserved += LISTING_CAPACITY_STEP;
+                    }
+                    
+                    final File file = new File(directory, path.getFileName()
+                            .toString());
+                    cacheAttributes(file, path);
+                    if (fileFilter == null || fileFilter.accept(file)) {
+                        chunk.add(file);
+                        if (chunk.size() >= chunkSize) {
+                            listener.filesListed(chunk);
+                            chunk = new ArrayList<File>(Math.min(chunkSize,
+                                    256));
+                        }
+                    }
+                }
+            } catch (final RuntimeException e) {
+                // Directory became inaccessible while being listed
+                FlatLafLogger.error(FileUtils.class, e);
+            } finally {
+                metadataCache.releaseCapacity(reserved);
+                try {
+                    stream.close();
+                } catch (final IOException e) {
+                    FlatLafLogger.error(FileUtils.class, e);
+                }
+            }
+        } else {
+            final File[] files = directory.listFiles(fileFilter);
+            if (files != null) {
+                for (final File file : files) {
+                    chunk.add(file);
+                    if (chunk.size() >= chunkSize) {
+                        listener.filesListed(chunk);
+                        chunk = new ArrayList<File>(Math.min(chunkSize, 256));
+                    }
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            listener.filesListed(chunk);
+        }
+    }
+    
+    /**
+     * Reads basic file attributes at once and caches them.
+     *
+     * @param file
+     *            file to process
+     * @param path
+     *            file path
+     */
+    private static void cacheAttributes(final File file, final Path path) {
+        try {
+            final BasicFileAttributes attributes;
+            final boolean hidden;
+            if (FlatLafSystemUtils.isWindows()) {
+                final DosFileAttributes dosAttributes = Files.readAttributes(
+                        path, DosFileAttributes.class);
+                attributes = dosAttributes;
+                hidden = dosAttributes.isHidden();
+            } else {
+                attributes = Files.readAttributes(path,
+                        BasicFileAttributes.class);
+                hidden = file.getName().startsWith(".");
+            }
+            metadataCache.putAttributes(file.getAbsolutePath(),
+                    attributes.isRegularFile(), attributes.isDirectory(),
+                    hidden, attributes.size(), attributes.lastModifiedTime()
+                            .toMillis());
+        } catch (final IOException e) {
+            // Attributes will be requested separately when needed
+        } catch (final UnsupportedOperationException e) {
+            // Attributes will be requested separately when needed
+        }
     }
     
     /**
@@ -1139,7 +1256,7 @@ public final class FileUtils {
         final String name = getDisplayFileName(file);
         
         // File or image size
-        final String size = file.isFile() ? getDisplayFileSize(file)
+        final String size = isFile(file) ? getDisplayFileSize(file)
                 + (fileSize != null ? " (" + fileSize + ")" : "") : null;
         
         // File type description
@@ -1161,8 +1278,7 @@ public final class FileUtils {
      * @return file size to display
      */
     public static String getDisplayFileSize(final File file) {
-        // todo Cache this value
-        return getFileSizeString(file.length());
+        return getFileSizeString(getFileLength(file));
     }
     
     /**
@@ -1175,8 +1291,7 @@ public final class FileUtils {
      * @return file size to display
      */
     public static String getDisplayFileSize(final File file, final int digits) {
-        // todo Cache this value
-        return getFileSizeString(file.length(), digits);
+        return getFileSizeString(getFileLength(file), digits);
     }
     
     /**
@@ -2112,14 +2227,14 @@ public final class FileUtils {
      * Clears cache for "isDrive" method.
      */
     public static void clearIsDriveCache() {
-        isDriveCache.clear();
+        metadataCache.clear(FileMetadataCache.IS_DRIVE);
     }
     
     /**
      * Clears cache for "isDrive" method for specified file path.
      */
     public static void clearIsDriveCache(final String absolutePath) {
-        isDriveCache.remove(absolutePath);
+        metadataCache.clear(absolutePath, FileMetadataCache.IS_DRIVE);
     }
     
     /**
@@ -2132,11 +2247,13 @@ public final class FileUtils {
      */
     public static boolean isDrive(final File file) {
         final String absolutePath = file.getAbsolutePath();
-        if (isDriveCache.containsKey(absolutePath)) {
-            return isDriveCache.get(absolutePath);
+        final Object cached = metadataCache.get(absolutePath,
+                FileMetadataCache.IS_DRIVE);
+        if (cached != FileMetadataCache.NOT_CACHED) {
+            return (Boolean) cached;
         } else {
             final boolean isDrive = fsv.isDrive(file);
-            isDriveCache.put(absolutePath, isDrive);
+            metadataCache.put(absolutePath, FileMetadataCache.IS_DRIVE, isDrive);
             return isDrive;
         }
     }
@@ -2145,14 +2262,14 @@ public final class FileUtils {
      * Clears cache for "isComputer" method.
      */
     public static void clearIsComputerCache() {
-        isComputerCache.clear();
+        metadataCache.clear(FileMetadataCache.IS_COMPUTER);
     }
     
     /**
      * Clears cache for "isComputer" method for specified file path.
      */
     public static void clearIsComputerCache(final String absolutePath) {
-        isComputerCache.remove(absolutePath);
+        metadataCache.clear(absolutePath, FileMetadataCache.IS_COMPUTER);
     }
     
     /**
@@ -2165,11 +2282,14 @@ public final class FileUtils {
      */
     public static boolean isComputer(final File file) {
         final String absolutePath = file.getAbsolutePath();
-        if (isComputerCache.containsKey(absolutePath)) {
-            return isComputerCache.get(absolutePath);
+        final Object cached = metadataCache.get(absolutePath,
+                FileMetadataCache.IS_COMPUTER);
+        if (cached != FileMetadataCache.NOT_CACHED) {
+            return (Boolean) cached;
         } else {
             final boolean isComputer = fsv.isComputerNode(file);
-            isComputerCache.put(absolutePath, isComputer);
+            metadataCache.put(absolutePath, FileMetadataCache.IS_COMPUTER,
+                    isComputer);
             return isComputer;
         }
     }
@@ -2178,14 +2298,14 @@ public final class FileUtils {
      * Clears cache for "isCdDrive" method.
      */
     public static void clearIsCdDriveCache() {
-        isCdDriveCache.clear();
+        metadataCache.clear(FileMetadataCache.IS_CD_DRIVE);
     }
     
     /**
      * Clears cache for "isCdDrive" method for specified file path.
      */
     public static void clearIsCdDriveCache(final String absolutePath) {
-        isCdDriveCache.remove(absolutePath);
+        metadataCache.clear(absolutePath, FileMetadataCache.IS_CD_DRIVE);
     }
     
     /**
@@ -2201,8 +2321,10 @@ public final class FileUtils {
      */
     public static boolean isCdDrive(final File file) {
         final String absolutePath = file.getAbsolutePath();
-        if (isCdDriveCache.containsKey(absolutePath)) {
-            return isCdDriveCache.get(absolutePath);
+        final Object cached = metadataCache.get(absolutePath,
+                FileMetadataCache.IS_CD_DRIVE);
+        if (cached != FileMetadataCache.NOT_CACHED) {
+            return (Boolean) cached;
         } else {
             final boolean isCdDrive;
             if (file.getParent() == null) {
@@ -2220,7 +2342,8 @@ public final class FileUtils {
             } else {
                 isCdDrive = false;
             }
-            isCdDriveCache.put(absolutePath, isCdDrive);
+            metadataCache.put(absolutePath, FileMetadataCache.IS_CD_DRIVE,
+                    isCdDrive);
             return isCdDrive;
         }
     }
@@ -2229,14 +2352,14 @@ public final class FileUtils {
      * Clears cache for "isFile" method.
      */
     public static void clearIsFileCache() {
-        isFileCache.clear();
+        metadataCache.clear(FileMetadataCache.IS_FILE);
     }
     
     /**
      * Clears cache for "isFile" method for specified file path.
      */
     public static void clearIsFileCache(final String absolutePath) {
-        isFileCache.remove(absolutePath);
+        metadataCache.clear(absolutePath, FileMetadataCache.IS_FILE);
     }
     
     /**
@@ -2250,11 +2373,15 @@ public final class FileUtils {
     public static boolean isFile(final File file) {
         if (file == null) {
             return false;
-        } else if (isFileCache.containsKey(file.getAbsolutePath())) {
-            return isFileCache.get(file.getAbsolutePath());
+        }
+        final String absolutePath = file.getAbsolutePath();
+        final Object cached = metadataCache.get(absolutePath,
+                FileMetadataCache.IS_FILE);
+        if (cached != FileMetadataCache.NOT_CACHED) {
+            return (Boolean) cached;
         } else {
             final boolean isFile = file.isFile();
-            isFileCache.put(file.getAbsolutePath(), isFile);
+            metadataCache.put(absolutePath, FileMetadataCache.IS_FILE, isFile);
             return isFile;
         }
     }
@@ -2263,14 +2390,14 @@ public final class FileUtils {
      * Clears cache for "isDirectory" method.
      */
     public static void clearIsDirectoryCache() {
-        isDirectoryCache.clear();
+        metadataCache.clear(FileMetadataCache.IS_DIRECTORY);
     }
     
     /**
      * Clears cache for "isDirectory" method for specified file path.
      */
     public static void clearIsDirectoryCache(final String absolutePath) {
-        isDirectoryCache.remove(absolutePath);
+        metadataCache.clear(absolutePath, FileMetadataCache.IS_DIRECTORY);
     }
     
     /**
@@ -2283,11 +2410,16 @@ public final class FileUtils {
     public static boolean isDirectory(final File file) {
         if (file == null) {
             return false;
-        } else if (isDirectoryCache.containsKey(file.getAbsolutePath())) {
-            return isDirectoryCache.get(file.getAbsolutePath());
+        }
+        final String absolutePath = file.getAbsolutePath();
+        final Object cached = metadataCache.get(absolutePath,
+                FileMetadataCache.IS_DIRECTORY);
+        if (cached != FileMetadataCache.NOT_CACHED) {
+            return (Boolean) cached;
         } else {
             final boolean isDirectory = file.isDirectory();
-            isDirectoryCache.put(file.getAbsolutePath(), isDirectory);
+            metadataCache.put(absolutePath, FileMetadataCache.IS_DIRECTORY,
+                    isDirectory);
             return isDirectory;
         }
     }
@@ -2296,14 +2428,14 @@ public final class FileUtils {
      * Clears cache for "isHidden" method.
      */
     public static void clearIsHiddenCache() {
-        isHiddenCache.clear();
+        metadataCache.clear(FileMetadataCache.IS_HIDDEN);
     }
     
     /**
      * Clears cache for "isHidden" method for specified file path.
      */
     public static void clearIsHiddenCache(final String absolutePath) {
-        isHiddenCache.remove(absolutePath);
+        metadataCache.clear(absolutePath, FileMetadataCache.IS_HIDDEN);
     }
     
     /**
@@ -2316,13 +2448,18 @@ public final class FileUtils {
     public static boolean isHidden(File file) {
         if (file == null) {
             return false;
-        } else if (isHiddenCache.containsKey(file.getAbsolutePath())) {
-            return isHiddenCache.get(file.getAbsolutePath());
+        }
+        final String absolutePath = file.getAbsolutePath();
+        final Object cached = metadataCache.get(absolutePath,
+                FileMetadataCache.IS_HIDDEN);
+        if (cached != FileMetadataCache.NOT_CACHED) {
+            return (Boolean) cached;
         } else {
             file = file.getAbsoluteFile();
             final boolean isHidden = file.getParentFile() != null
                     && file.isHidden();
-            isHiddenCache.put(file.getAbsolutePath(), isHidden);
+            metadataCache.put(absolutePath, FileMetadataCache.IS_HIDDEN,
+                    isHidden);
             return isHidden;
         }
     }
@@ -2331,14 +2468,14 @@ public final class FileUtils {
      * Clears cache for "getFileDescription" method.
      */
     public static void clearFileDescriptionCache() {
-        fileDescriptionCache.clear();
+        metadataCache.clear(FileMetadataCache.DESCRIPTION);
     }
     
     /**
      * Clears cache for "getFileDescription" method for specified file path.
      */
     public static void clearFileDescriptionCache(final String absolutePath) {
-        fileDescriptionCache.remove(absolutePath);
+        metadataCache.clear(absolutePath, FileMetadataCache.DESCRIPTION);
     }
     
     /**
@@ -2352,12 +2489,16 @@ public final class FileUtils {
      */
     public static FileDescription getFileDescription(final File file,
             final String fileSize) {
-        if (fileDescriptionCache.containsKey(file.getAbsolutePath())) {
-            return fileDescriptionCache.get(file.getAbsolutePath());
+        final String absolutePath = file.getAbsolutePath();
+        final Object cached = metadataCache.get(absolutePath,
+                FileMetadataCache.DESCRIPTION);
+        if (cached != FileMetadataCache.NOT_CACHED) {
+            return (FileDescription) cached;
         } else {
             final FileDescription fileDescription = createFileDescription(file,
                     fileSize);
-            fileDescriptionCache.put(file.getAbsolutePath(), fileDescription);
+            metadataCache.put(absolutePath, FileMetadataCache.DESCRIPTION,
+                    fileDescription);
             return fileDescription;
         }
     }
@@ -2366,14 +2507,14 @@ public final class FileUtils {
      * Clears cache for "getDisplayFileName" method.
      */
     public static void clearDisplayFileNameCache() {
-        displayFileNameCache.clear();
+        metadataCache.clear(FileMetadataCache.DISPLAY_NAME);
     }
     
     /**
      * Clears cache for "getDisplayFileName" method for specified file path.
      */
     public static void clearDisplayFileNameCache(final String absolutePath) {
-        displayFileNameCache.remove(absolutePath);
+        metadataCache.clear(absolutePath, FileMetadataCache.DISPLAY_NAME);
     }
     
     /**
@@ -2385,14 +2526,17 @@ public final class FileUtils {
      */
     public static String getDisplayFileName(final File file) {
         final String absolutePath = file.getAbsolutePath();
-        if (displayFileNameCache.containsKey(absolutePath)) {
-            return displayFileNameCache.get(absolutePath);
+        final Object cached = metadataCache.get(absolutePath,
+                FileMetadataCache.DISPLAY_NAME);
+        if (cached != FileMetadataCache.NOT_CACHED) {
+            return (String) cached;
         } else {
             String name = fsv.getSystemDisplayName(file);
             if (name == null || name.trim().equals("")) {
                 name = getFileTypeDescription(file);
             }
-            displayFileNameCache.put(absolutePath, name);
+            metadataCache.put(absolutePath, FileMetadataCache.DISPLAY_NAME,
+                    name);
             return name;
         }
     }
@@ -2401,7 +2545,7 @@ public final class FileUtils {
      * Clears cache for "getDisplayFileCreationDate" method.
      */
     public static void clearDisplayFileCreationDateCache() {
-        displayFileCreationDateCache.clear();
+        metadataCache.clear(FileMetadataCache.CREATION_DATE);
     }
     
     /**
@@ -2410,7 +2554,7 @@ public final class FileUtils {
      */
     public static void clearDisplayFileCreationDateCache(
             final String absolutePath) {
-        displayFileCreationDateCache.remove(absolutePath);
+        metadataCache.clear(absolutePath, FileMetadataCache.CREATION_DATE);
     }
     
     /**
@@ -2422,11 +2566,13 @@ public final class FileUtils {
      */
     public static String getDisplayFileCreationDate(final File file) {
         final String absolutePath = file.getAbsolutePath();
-        if (displayFileCreationDateCache.containsKey(absolutePath)) {
-            return displayFileCreationDateCache.get(absolutePath);
+        final Object cached = metadataCache.get(absolutePath,
+                FileMetadataCache.CREATION_DATE);
+        if (cached != FileMetadataCache.NOT_CACHED) {
+            return (String) cached;
         } else {
-            final String date = sdf.format(new Date(file.lastModified()));
-            displayFileCreationDateCache.put(absolutePath, date);
+            final String date = formatDate(getLastModified(file));
+            metadataCache.put(absolutePath, FileMetadataCache.CREATION_DATE, date);
             return date;
         }
     }
@@ -2435,7 +2581,7 @@ public final class FileUtils {
      * Clears cache for "getDisplayFileModificationDate" method.
      */
     public static void clearDisplayFileModificationDateCache() {
-        displayFileModificationDateCache.clear();
+        metadataCache.clear(FileMetadataCache.MODIFICATION_DATE);
     }
     
     /**
@@ -2444,7 +2590,7 @@ public final class FileUtils {
      */
     public static void clearDisplayFileModificationDateCache(
             final String absolutePath) {
-        displayFileModificationDateCache.remove(absolutePath);
+        metadataCache.clear(absolutePath, FileMetadataCache.MODIFICATION_DATE);
     }
     
     /**
@@ -2456,27 +2602,98 @@ public final class FileUtils {
      */
     public static String getDisplayFileModificationDate(final File file) {
         final String absolutePath = file.getAbsolutePath();
-        if (displayFileModificationDateCache.containsKey(absolutePath)) {
-            return displayFileModificationDateCache.get(absolutePath);
+        final Object cached = metadataCache.get(absolutePath,
+                FileMetadataCache.MODIFICATION_DATE);
+        if (cached != FileMetadataCache.NOT_CACHED) {
+            return (String) cached;
         } else {
-            final String date = sdf.format(new Date(file.lastModified()));
-            displayFileModificationDateCache.put(absolutePath, date);
+            final String date = formatDate(getLastModified(file));
+            metadataCache.put(absolutePath, FileMetadataCache.MODIFICATION_DATE, date);
             return date;
         }
     }
     
+    /**
+     * Clears cache for "getFileLength" method.
+     */
+    public static void clearFileLengthCache() {
+        metadataCache.clear(FileMetadataCache.LENGTH);
+    }
+    
+    /**
+     * Clears cache for "getFileLength" method for specified file path.
+     */
+    public static void clearFileLengthCache(final String absolutePath) {
+        metadataCache.clear(absolutePath, FileMetadataCache.LENGTH);
+    }
+    
+    /**
+     * Returns file length.
+     *
+     * @param file
+     *            file to process
+     * @return file length
+     */
+    public static long getFileLength(final File file) {
+        final String absolutePath = file.getAbsolutePath();
+        final Object cached = metadataCache.get(absolutePath,
+                FileMetadataCache.LENGTH);
+        if (cached != FileMetadataCache.NOT_CACHED) {
+            return (Long) cached;
+        } else {
+            final long length = file.length();
+            metadataCache.put(absolutePath, FileMetadataCache.LENGTH, length);
+            return length;
+        }
+    }
+    
+    /**
+     * Clears cache for "getLastModified" method.
+     */
+    public static void clearLastModifiedCache() {
+        metadataCache.clear(FileMetadataCache.LAST_MODIFIED);
+    }
+    
+    /**
+     * Clears cache for "getLastModified" method for specified file path.
+     */
+    public static void clearLastModifiedCache(final String absolutePath) {
+        metadataCache.clear(absolutePath, FileMetadataCache.LAST_MODIFIED);
+    }
+    
+    /**
+     * Returns file modification time.
+     *
+     * @param file
+     *            file to process
+     * @return file modification time
+     */
+    public static long getLastModified(final File file) {
+        final String absolutePath = file.getAbsolutePath();
+        final Object cached = metadataCache.get(absolutePath,
+                FileMetadataCache.LAST_MODIFIED);
+        if (cached != FileMetadataCache.NOT_CACHED) {
+            return (Long) cached;
+        } else {
+            final long lastModified = file.lastModified();
+            metadataCache.put(absolutePath, FileMetadataCache.LAST_MODIFIED,
+                    lastModified);
+            return lastModified;
+        }
+    }
+    
     /**
      * Clears cache for "getFileTypeDescription" method.
      */
     public static void clearFileTypeDescriptionCache() {
-        fileTypeDescriptionCache.clear();
+        metadataCache.clear(FileMetadataCache.TYPE_DESCRIPTION);
     }
     
     /**
      * Clears cache for "getFileTypeDescription" method for specified file path.
      */
     public static void clearFileTypeDescriptionCache(final String absolutePath) {
-        fileTypeDescriptionCache.remove(absolutePath);
+        metadataCache.clear(absolutePath, FileMetadataCache.TYPE_DESCRIPTION);
     }
     
     /**
@@ -2491,11 +2708,14 @@ public final class FileUtils {
             return "";
         } else {
             final String absolutePath = file.getAbsolutePath();
-            if (fileTypeDescriptionCache.containsKey(absolutePath)) {
-                return fileTypeDescriptionCache.get(absolutePath);
+            final Object cached = metadataCache.get(absolutePath,
+                    FileMetadataCache.TYPE_DESCRIPTION);
+            if (cached != FileMetadataCache.NOT_CACHED) {
+                return (String) cached;
             } else {
                 final String description = fsv.getSystemTypeDescription(file);
-                fileTypeDescriptionCache.put(absolutePath, description);
+                metadataCache.put(absolutePath,
+                        FileMetadataCache.TYPE_DESCRIPTION, description);
                 return description;
             }
         }
@@ -0,0 +1,499 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.utils.file;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
+
+/**
+ * Persistent disk-backed thumbnails store.
+ * <p/>
+ * Each thumbnail is stored in a separate file named after a digest of the
+ * source file absolute path, length, modification date and requested thumbnail
+ * length, so changed source files simply stop matching their old thumbnails.
+ * Stored thumbnails also keep the original image size which is used as the
+ * thumbnail icon description.
+ * <p/>
+ * Total size of stored thumbnails is limited; least recently used thumbnails
+ * are removed first. Usage order survives restarts through thumbnail files
+ * modification dates which are updated on each read.
+ * <p/>
+ * All cache operations are thread-safe.
+ *
+ * @author Mikle Garin
+ * @see org.ocsoft.flatlaf.utils.ImageUtils#createThumbnailIcon(String, int)
+ */
+
+public class ThumbnailCache {
+    /**
+     * Default maximum total size of stored thumbnails in bytes.
+     */
+    public static final long DEFAULT_MAX_SIZE = 64 * 1024 * 1024;
+    
+    /**
+     * Thumbnail files extension.
+     */
+    public static final String EXTENSION = ".thumb";
+    
+    /**
+     * Thumbnail file header mark.
+     */
+    protected static final int MAGIC = 0x57544831;
+    
+    /**
+     * Thumbnail image format.
+     */
+    protected static final String FORMAT = "png";
+    
+    /**
+     * Key characters encoding.
+     */
+    protected static final Charset UTF8 = Charset.forName("UTF-8");
+    
+    /**
+     * Hex digits used for file names.
+     */
+    protected static final char[] HEX = "0123456789abcdef".toCharArray();
+    
+    /**
+     * Thumbnails directory.
+     */
+    protected final File directory;
+    
+    /**
+     * Stored thumbnail sizes ordered from the least to the most recently used.
+     * Loaded from the directory on first access.
+     */
+    protected LinkedHashMap<String, Long> entries = null;
+    
+    /**
+     * Maximum total size of stored thumbnails in bytes.
+     */
+    protected long maxSize;
+    
+    /**
+     * Current total size of stored thumbnails in bytes.
+     */
+    protected long size = 0;
+    
+    /**
+     * Cache statistics.
+     */
+    protected long hits = 0;
+    protected long misses = 0;
+    protected long evictions = 0;
+    
+    /**
+     * Constructs new thumbnails cache.
+     *
+     * @param directory
+     *            thumbnails directory
+     * @param maxSize
+     *            maximum total size of stored thumbnails in bytes
+     */
+    public ThumbnailCache(final File directory, final long maxSize) {
+        super();
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+    
+    /**
+     * Returns thumbnails directory.
+     *
+     * @return thumbnails directory
+     */
+    public File getDirectory() {
+        return directory;
+    }
+    
+    /**
+     * Returns stored thumbnail for the specified file or null if it is not
+     * stored or outdated. Original image size is set as icon description.
+     *
+     * @param file
+     *            source image file
+     * @param length
+     *            thumbnail length
+     * @return stored thumbnail for the specified file or null
+     */
+    public ImageIcon get(final File file, final int length) {
+        final String name = getName(file, length);
+        synchronized (this) {
+            loadEntries();
+            if (!entries.containsKey(name)) {
+                misses++;
+                return null;
+            }
+        }
+        final File thumbFile = new File(directory, name);
+        try {
+            final ImageIcon thumbnail = readThumbnail(thumbFile);
+            synchronized (this) {
+                // Access-ordered map moves entry to the end
+                if (entries.get(name) != null) {
+                    hits++;
+                }
+            }
+            thumbFile.setLastModified(System.currentTimeMillis());
+            return thumbnail;
+        } catch (final Throwable e) {
+            // Damaged or removed thumbnail file
+            synchronized (this) {
+                remove(name);
+                misses++;
+            }
+            return null;
+        }
+    }
+    
+    /**
+     * Stores thumbnail for the specified file.
+     *
+     * @param file
+     *            source image file
+     * @param length
+     *            thumbnail length
+     * @param thumbnail
+     *            thumbnail image
+     * @param width
+     *            original image width
+     * @param height
+     *            original image height
+     */
+    public void put(final File file, final int length,
+            final BufferedImage thumbnail, final int width, final int height) {
+        if (maxSize <= 0 || thumbnail == null) {
+            return;
+        }
+        final String name = getName(file, length);
+        final File thumbFile = new File(directory, name);
+        File tempFile = null;
+        try {
+            if (!directory.exists() && !directory.mkdirs()) {
+                return;
+            }
+            
+            // Each write uses its own temporary file so that concurrent writes
+            // of the same thumbnail never clash
+            tempFile = File.createTempFile(name, ".tmp", directory);
+            writeThumbnail(tempFile, thumbnail, width, height);
+            synchronized (this) {
+                loadEntries();
+                remove(name);
+                if (!tempFile.renameTo(thumbFile)) {
+                    tempFile.delete();
+                    return;
+                }
+                final long fileSize = thumbFile.length();
+                entries.put(name, fileSize);
+                size += fileSize;
+                evict();
+            }
+        } catch (final Throwable e) {
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+            FlatLafLogger.error(ThumbnailCache.class,
+                    "Unable to store thumbnail for file: " + file, e);
+        }
+    }
+    
+    /**
+     * Removes all thumbnails stored for the specified file with the specified
+     * length.
+     *
+     * @param file
+     *            source image file
+     * @param length
+     *            thumbnail length
+     */
+    public synchronized void remove(final File file, final int length) {
+        loadEntries();
+        remove(getName(file, length));
+    }
+    
+    /**
+     * Removes all stored thumbnails.
+     */
+    public synchronized void clear() {
+        loadEntries();
+        for (final String name : entries.keySet()) {
+            new File(directory, name).delete();
+        }
+        entries.clear();
+        size = 0;
+    }
+    
+    /**
+     * Returns maximum total size of stored thumbnails in bytes.
+     *
+     * @return maximum total size of stored thumbnails in bytes
+     */
+    public synchronized long getMaxSize() {
+        return maxSize;
+    }
+    
+    /**
+     * Sets maximum total size of stored thumbnails in bytes.
+     * Least recently used thumbnails are removed if cache exceeds new size.
+     *
+     * @param maxSize
+     *            maximum total size of stored thumbnails in bytes
+     */
+    public synchronized void setMaxSize(final long maxSize) {
+        this.maxSize = maxSize;
+        if (entries != null) {
+            evict();
+        }
+    }
+    
+    /**
+     * Returns current total size of stored thumbnails in bytes.
+     *
+     * @return current total size of stored thumbnails in bytes
+     */
+    public synchronized long getSize() {
+        loadEntries();
+        return size;
+    }
+    
+    /**
+     * Returns stored thumbnails count.
+     *
+     * @return stored thumbnails count
+     */
+    public synchronized int getCount() {
+        loadEntries();
+        return entries.size();
+    }
+    
+    /**
+     * Returns cache hits count.
+     *
+     * @return cache hits count
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    /**
+     * Returns cache misses count.
+     *
+     * @return cache misses count
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+    /**
+     * Returns removed least recently used thumbnails count.
+     *
+     * @return removed least recently used thumbnails count
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+    
+    /**
+     * Resets cache statistics.
+     */
+    public synchronized void resetStatistics() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+    
+    /**
+     * Loads stored thumbnails list from the directory if it wasn't loaded yet.
+     * Files are ordered by their modification date which is updated on each
+     * thumbnail read.
+     */
+    protected void loadEntries() {
+        if (entries != null) {
+            return;
+        }
+        entries = new LinkedHashMap<String, Long>(64, 0.75f, true);
+        size = 0;
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            final Map<File, Long> dates = new HashMap<File, Long>(
+                    files.length);
+            for (final File file : files) {
+                dates.put(file, file.lastModified());
+            }
+            Arrays.sort(files, new Comparator<File>() {
+                @Override
+                public int compare(final File f1, final File f2) {
+                    final long d1 = dates.get(f1);
+                    final long d2 = dates.get(f2);
+                    return d1 < d2 ? -1 : d1 > d2 ? 1 : 0;
+                }
+            });
+            for (final File file : files) {
+                final String name = file.getName();
+                if (name.endsWith(EXTENSION)) {
+                    final long length = file.length();
+                    entries.put(name, length);
+                    size += length;
+                } else if (name.endsWith(".tmp")) {
+                    // Leftovers of interrupted writes
+                    file.delete();
+                }
+            }
+        }
+        evict();
+    }
+    
+    /**
+     * Removes least recently used thumbnails until cache fits maximum size.
+     */
+    protected void evict() {
+        final Iterator<Map.Entry<String, Long>> iterator = entries.entrySet()
+                .iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            final Map.Entry<String, Long> entry = iterator.next();
+            new File(directory, entry.getKey()).delete();
+            size -= entry.getValue();
+            iterator.remove();
+            evictions++;
+        }
+    }
+    
+    /**
+     * Removes stored thumbnail with the specified name.
+     *
+     * @param name
+     *            thumbnail file name
+     */
+    protected void remove(final String name) {
+        final Long length = entries.remove(name);
+        if (length != null) {
+            size -= length;
+            new File(directory, name).delete();
+        }
+    }
+    
+    /**
+     * Returns thumbnail file name for the specified source file and thumbnail
+     * length.
+     *
+     * @param file
+     *            source image file
+     * @param length
+     *            thumbnail length
+     * @return thumbnail file name
+     */
+    protected String getName(final File file, final int length) {
+        final String key = file.getAbsolutePath() + "|"
+                + FileUtils.getFileLength(file) + "|"
+                + FileUtils.getLastModified(file) + "|" + length;
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-1").digest(
+                    key.getBytes(UTF8));
+            final char[] name = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                name[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+                name[i * 2 + 1] = HEX[digest[i] & 0xF];
+            }
+            return new String(name) + EXTENSION;
+        } catch (final Throwable e) {
+            return Integer.toHexString(key.hashCode()) + EXTENSION;
+        }
+    }
+    
+    /**
+     * Reads thumbnail from the specified file.
+     *
+     * @param file
+     *            thumbnail file
+     * @return thumbnail icon with original image size as description
+     * @throws IOException
+     *             if thumbnail file cannot be read
+     */
+    protected ImageIcon readThumbnail(final File file) throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Unknown thumbnail format: " + file);
+            }
+            final int width = in.readInt();
+            final int height = in.readInt();
+            final BufferedImage image = ImageIO.read(in);
+            if (image == null) {
+                throw new IOException("Unable to decode thumbnail: " + file);
+            }
+            final ImageIcon icon = new ImageIcon(image);
+            icon.setDescription(width + "x" + height);
+            return icon;
+        } finally {
+            in.close();
+        }
+    }
+    
+    /**
+     * Writes thumbnail into the specified file.
+     *
+     * @param file
+     *            thumbnail file
+     * @param thumbnail
+     *            thumbnail image
+     * @param width
+     *            original image width
+     * @param height
+     *            original image height
+     * @throws IOException
+     *             if thumbnail file cannot be written
+     */
+    protected void writeThumbnail(final File file,
+            final BufferedImage thumbnail, final int width, final int height)
+            throws IOException {
+        final DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(width);
+            out.writeInt(height);
+            if (!ImageIO.write(thumbnail, FORMAT, out)) {
+                throw new IOException("Unable to encode thumbnail: " + file);
+            }
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.utils.filters;
+
+/**
+ * This enumeration represents available image blur algorithms.
+ *
+ * @author Mikle Garin
+ * @see org.ocsoft.flatlaf.utils.filters.GaussianFilter
+ * @see org.ocsoft.flatlaf.utils.filters.FastGaussianFilter
+ */
+
+public enum BlurType {
+    /**
+     * Precise Gaussian kernel convolution.
+     * Its cost grows linearly with blur radius.
+     */
+    gaussian,
+    
+    /**
+     * Three-pass box blur approximating Gaussian blur.
+     * Its cost doesn't depend on blur radius.
+     */
+    fastGaussian;
+    
+    /**
+     * Returns new blur filter for this blur type.
+     *
+     * @param radius
+     *            blur radius
+     * @return new blur filter for this blur type
+     */
+    public AbstractBufferedImageOp createFilter(final float radius) {
+        switch (this) {
+            case fastGaussian:
+                return new FastGaussianFilter(radius);
+            
+            default:
+                return new GaussianFilter(radius);
+        }
+    }
+}
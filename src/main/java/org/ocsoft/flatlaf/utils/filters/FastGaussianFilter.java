@@ -0,0 +1,435 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.utils.filters;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A filter which approximates Gaussian blur with three successive box blurs.
+ * <p/>
+ * Box sizes are chosen so that the resulting blur has the same standard
+ * deviation as the kernel created by {@link GaussianFilter} for the same
+ * radius. Each box pass uses running sums and takes constant time per pixel
+ * regardless of the radius. Passes over large images are split into row or
+ * column chunks processed in parallel on the pool shared by all filters.
+ *
+ * @author Mikle Garin
+ * @see org.ocsoft.flatlaf.utils.filters.GaussianFilter
+ */
+
+public class FastGaussianFilter extends AbstractBufferedImageOp {
+    /**
+     * Minimum image pixels amount to process its passes in parallel.
+     */
+    public static int parallelThreshold = 256 * 256;
+    
+    /**
+     * Pixels amount processed by single parallel chunk.
+     */
+    public static int chunkSize = 16384;
+    
+    /**
+     * Threads amount of the pool shared by all filters.
+     */
+    public static int threadsAmount = Runtime.getRuntime()
+            .availableProcessors();
+    
+    /**
+     * Pool shared by all filters.
+     */
+    private static ForkJoinPool pool = null;
+    
+    /**
+     * Box blurs amount.
+     */
+    protected static final int PASSES = 3;
+    
+    /**
+     * Blur radius.
+     */
+    protected float radius;
+    
+    /**
+     * Whether should process passes in parallel or not.
+     */
+    protected boolean parallel = true;
+    
+    /**
+     * Construct a filter with default radius.
+     */
+    public FastGaussianFilter() {
+        this(2);
+    }
+    
+    /**
+     * Construct a filter with the specified radius.
+     *
+     * @param radius
+     *            blur radius in pixels
+     */
+    public FastGaussianFilter(final float radius) {
+        super();
+        setRadius(radius);
+    }
+    
+    /**
+     * Sets blur radius.
+     *
+     * @param radius
+     *            blur radius in pixels
+     */
+    public void setRadius(final float radius) {
+        this.radius = radius;
+    }
+    
+    /**
+     * Returns blur radius.
+     *
+     * @return blur radius
+     */
+    public float getRadius() {
+        return radius;
+    }
+    
+    /**
+     * Sets whether should process passes over large images in parallel or
+     * not.
+     *
+     * @param parallel
+     *            whether should process passes over large images in parallel
+     *            or not
+     */
+    public void setParallel(final boolean parallel) {
+        this.parallel = parallel;
+    }
+    
+    /**
+     * Returns whether passes over large images are processed in parallel or
+     * not.
+     *
+     * @return true if passes over large images are processed in parallel,
+     *         false otherwise
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+    
+    @Override
+    public BufferedImage filter(final BufferedImage src, BufferedImage dst) {
+        final int width = src.getWidth();
+        final int height = src.getHeight();
+        
+        if (dst == null) {
+            dst = createCompatibleDestImage(src, null);
+        }
+        
+        int[] inPixels = new int[width * height];
+        int[] outPixels = new int[width * height];
+        getRGB(src, 0, 0, width, height, inPixels);
+        
+        // Horizontal and vertical passes for each box, result of each pair of
+        // passes returns to the source array
+        final boolean inParallel = parallel
+                && width * height >= parallelThreshold;
+        final int[] sizes = getBoxSizes(radius, PASSES);
+        for (final int size : sizes) {
+            if (size > 1) {
+                blur(inPixels, outPixels, width, height, size / 2, true,
+                        inParallel);
+                blur(outPixels, inPixels, width, height, size / 2, false,
+                        inParallel);
+            }
+        }
+        
+        setRGB(dst, 0, 0, width, height, inPixels);
+        return dst;
+    }
+    
+    /**
+     * Returns odd box sizes which successive application approximates
+     * Gaussian blur with the specified radius.
+     *
+     * @param radius
+     *            blur radius
+     * @param amount
+     *            boxes amount
+     * @return box sizes
+     */
+    public static int[] getBoxSizes(final float radius, final int amount) {
+        // Same standard deviation as GaussianFilter kernel uses
+        final double sigma = radius / 3;
+        final double variance = 12 * sigma * sigma;
+        int lower = (int) Math.floor(Math.sqrt(variance / amount + 1));
+        if (lower % 2 == 0) {
+            lower--;
+        }
+        final int upper = lower + 2;
+        final long lowerAmount = Math.round((variance - amount * lower
+                * lower - 4 * amount * lower - 3 * amount)
+                / (-4 * lower - 4));
+        final int[] sizes = new int[amount];
+        for (int i = 0; i < amount; i++) {
+            sizes[i] = i < lowerAmount ? lower : upper;
+        }
+        return sizes;
+    }
+    
+    /**
+     * Blurs rows or columns of the specified pixels with box of the specified
+     * radius.
+     *
+     * @param inPixels
+     *            source pixels
+     * @param outPixels
+     *            result pixels
+     * @param width
+     *            pixels width
+     * @param height
+     *            pixels height
+     * @param radius
+     *            box radius
+     * @param horizontal
+     *            whether should blur rows or columns
+     * @param parallel
+     *            whether should process rows or columns in parallel or not
+     */
+    public static void blur(final int[] inPixels, final int[] outPixels,
+            final int width, final int height, final int radius,
+            final boolean horizontal, final boolean parallel) {
+        final int length = horizontal ? height : width;
+        if (parallel && length > 1) {
+            getPool().invoke(
+                    new RangeAction(inPixels, outPixels, width, height, radius,
+                            horizontal, 0, length));
+        } else if (horizontal) {
+            blurRows(inPixels, outPixels, width, height, radius, 0, length);
+        } else {
+            blurColumns(inPixels, outPixels, width, height, radius, 0, length);
+        }
+    }
+    
+    /**
+     * Blurs the specified rows of the specified pixels with box of the
+     * specified radius.
+     *
+     * @param inPixels
+     *            source pixels
+     * @param outPixels
+     *            result pixels
+     * @param width
+     *            pixels width
+     * @param height
+     *            pixels height
+     * @param radius
+     *            box radius
+     * @param fromRow
+     *            first row to process
+     * @param toRow
+     *            row after the last one to process
+     */
+    protected static void blurRows(final int[] inPixels,
+            final int[] outPixels, final int width, final int height,
+            final int radius, final int fromRow, final int toRow) {
+        // Fixed point reciprocal of box size replaces division
+        final int size = radius * 2 + 1;
+        final long multiplier = ((1L << 32) + size - 1) / size;
+        final long half = size / 2;
+        final int last = width - 1;
+        
+        for (int y = fromRow; y < toRow; y++) {
+            final int offset = y * width;
+            
+            // Initial sums with clamped edges
+            long a = 0, r = 0, g = 0, b = 0;
+            for (int i = -radius; i <= radius; i++) {
+                final int rgb = inPixels[offset + clamp(i, last)];
+                a += rgb >>> 24;
+                r += (rgb >> 16) & 0xff;
+                g += (rgb >> 8) & 0xff;
+                b += rgb & 0xff;
+            }
+            
+            for (int x = 0; x < width; x++) {
+                outPixels[offset + x] = (int) ((a + half) * multiplier >>> 32) << 24
+                        | (int) ((r + half) * multiplier >>> 32) << 16
+                        | (int) ((g + half) * multiplier >>> 32) << 8
+                        | (int) ((b + half) * multiplier >>> 32);
+                
+                // Moving box
+                final int in = inPixels[offset + clamp(x + radius + 1, last)];
+                final int out = inPixels[offset + clamp(x - radius, last)];
+                a += (in >>> 24) - (out >>> 24);
+                r += ((in >> 16) & 0xff) - ((out >> 16) & 0xff);
+                g += ((in >> 8) & 0xff) - ((out >> 8) & 0xff);
+                b += (in & 0xff) - (out & 0xff);
+            }
+        }
+    }
+    
+    /**
+     * Blurs the specified columns of the specified pixels with box of the
+     * specified radius. Columns are processed together row by row to keep
+     * memory access sequential.
+     *
+     * @param inPixels
+     *            source pixels
+     * @param outPixels
+     *            result pixels
+     * @param width
+     *            pixels width
+     * @param height
+     *            pixels height
+     * @param radius
+     *            box radius
+     * @param fromColumn
+     *            first column to process
+     * @param toColumn
+     *            column after the last one to process
+     */
+    protected static void blurColumns(final int[] inPixels,
+            final int[] outPixels, final int width, final int height,
+            final int radius, final int fromColumn, final int toColumn) {
+        // Fixed point reciprocal of box size replaces division
+        final int size = radius * 2 + 1;
+        final long multiplier = ((1L << 32) + size - 1) / size;
+        final long half = size / 2;
+        final int last = height - 1;
+        final int columns = toColumn - fromColumn;
+        
+        // Initial sums with clamped edges
+        final long[] a = new long[columns];
+        final long[] r = new long[columns];
+        final long[] g = new long[columns];
+        final long[] b = new long[columns];
+        for (int i = -radius; i <= radius; i++) {
+            final int offset = clamp(i, last) * width + fromColumn;
+            for (int c = 0; c < columns; c++) {
+                final int rgb = inPixels[offset + c];
+                a[c] += rgb >>> 24;
+                r[c] += (rgb >> 16) & 0xff;
+                g[c] += (rgb >> 8) & 0xff;
+                b[c] += rgb & 0xff;
+            }
+        }
+        
+        for (int y = 0; y < height; y++) {
+            final int offset = y * width + fromColumn;
+            final int inOffset = clamp(y + radius + 1, last) * width
+                    + fromColumn;
+            final int outOffset = clamp(y - radius, last) * width + fromColumn;
+            for (int c = 0; c < columns; c++) {
+                outPixels[offset + c] = (int) ((a[c] + half) * multiplier >>> 32) << 24
+                        | (int) ((r[c] + half) * multiplier >>> 32) << 16
+                        | (int) ((g[c] + half) * multiplier >>> 32) << 8
+                        | (int) ((b[c] + half) * multiplier >>> 32);
+                
+                // Moving box
+                final int in = inPixels[inOffset + c];
+                final int out = inPixels[outOffset + c];
+                a[c] += (in >>> 24) - (out >>> 24);
+                r[c] += ((in >> 16) & 0xff) - ((out >> 16) & 0xff);
+                g[c] += ((in >> 8) & 0xff) - ((out >> 8) & 0xff);
+                b[c] += (in & 0xff) - (out & 0xff);
+            }
+        }
+    }
+    
+    /**
+     * Returns index clamped into [0, last] range.
+     *
+     * @param index
+     *            index to clamp
+     * @param last
+     *            last allowed index
+     * @return clamped index
+     */
+    private static int clamp(final int index, final int last) {
+        return index < 0 ? 0 : index > last ? last : index;
+    }
+    
+    /**
+     * Returns pool shared by all filters.
+     *
+     * @return pool shared by all filters
+     */
+    private static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(Math.max(1, threadsAmount));
+        }
+        return pool;
+    }
+    
+    /**
+     * Rows or columns range blur action.
+     */
+    private static class RangeAction extends RecursiveAction {
+        /**
+         * Serialization version.
+         */
+        private static final long serialVersionUID = -1872650964185093377L;
+        
+        /**
+         * Action data.
+         */
+        private final int[] inPixels;
+        private final int[] outPixels;
+        private final int width;
+        private final int height;
+        private final int radius;
+        private final boolean horizontal;
+        private final int from;
+        private final int to;
+        
+        /**
+         * Constructs new rows or columns range blur action.
+         */
+        public RangeAction(final int[] inPixels, final int[] outPixels,
+                final int width, final int height, final int radius,
+                final boolean horizontal, final int from, final int to) {
+            super();
+            this.inPixels = inPixels;
+            this.outPixels = outPixels;
+            this.width = width;
+            this.height = height;
+            this.radius = radius;
+            this.horizontal = horizontal;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            final int amount = to - from;
+            final int length = horizontal ? width : height;
+            if (amount > 1 && amount * length > chunkSize) {
+                final int middle = from + amount / 2;
+                invokeAll(new RangeAction(inPixels, outPixels, width, height,
+                        radius, horizontal, from, middle), new RangeAction(
+                        inPixels, outPixels, width, height, radius,
+                        horizontal, middle, to));
+            } else if (horizontal) {
+                blurRows(inPixels, outPixels, width, height, radius, from, to);
+            } else {
+                blurColumns(inPixels, outPixels, width, height, radius, from,
+                        to);
+            }
+        }
+    }
+}
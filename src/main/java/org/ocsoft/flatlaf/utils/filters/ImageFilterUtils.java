@@ -81,6 +81,28 @@ public final class ImageFilterUtils {
         return new GaussianFilter(radius).filter(src, dst);
     }
     
+    public static BufferedImage applyGaussianFilter(final Image src,
+            final Image dst, final float radius, final BlurType blurType) {
+        return applyGaussianFilter(ImageUtils.getBufferedImage(src),
+                ImageUtils.getBufferedImage(dst), radius, blurType);
+    }
+    
+    public static BufferedImage applyGaussianFilter(final BufferedImage src,
+            final BufferedImage dst, final float radius, final BlurType blurType) {
+        return blurType.createFilter(radius).filter(src, dst);
+    }
+    
+    public static BufferedImage applyFastGaussianFilter(final Image src,
+            final Image dst, final float radius) {
+        return applyFastGaussianFilter(ImageUtils.getBufferedImage(src),
+                ImageUtils.getBufferedImage(dst), radius);
+    }
+    
+    public static BufferedImage applyFastGaussianFilter(
+            final BufferedImage src, final BufferedImage dst, final float radius) {
+        return new FastGaussianFilter(radius).filter(src, dst);
+    }
+    
     /**
      * Applies zoom blur filter to image
      */
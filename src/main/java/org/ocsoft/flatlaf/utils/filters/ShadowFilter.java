@@ -53,6 +53,7 @@ public class ShadowFilter extends AbstractBufferedImageOp {
     private boolean addMargins = false;
     private boolean shadowOnly = true;
     private int shadowColor = 0xff000000;
+    private BlurType blurType = BlurType.gaussian;
     
     public ShadowFilter() {
     }
@@ -65,6 +66,12 @@ public class ShadowFilter extends AbstractBufferedImageOp {
         this.opacity = opacity;
     }
     
+    public ShadowFilter(final int radius, final int xOffset, final int yOffset,
+            final float opacity, final BlurType blurType) {
+        this(radius, xOffset, yOffset, opacity);
+        this.blurType = blurType;
+    }
+    
     public void setXOffset(final int xOffset) {
         this.xOffset = xOffset;
     }
@@ -133,6 +140,25 @@ public class ShadowFilter extends AbstractBufferedImageOp {
         return shadowOnly;
     }
     
+    /**
+     * Set the algorithm used to blur the shadow.
+     *
+     * @param blurType
+     *            the shadow blur algorithm.
+     */
+    public void setBlurType(final BlurType blurType) {
+        this.blurType = blurType;
+    }
+    
+    /**
+     * Get the algorithm used to blur the shadow.
+     *
+     * @return the shadow blur algorithm
+     */
+    public BlurType getBlurType() {
+        return blurType;
+    }
+    
     protected void transformSpace(final Rectangle r) {
         if (addMargins) {
             r.width += Math.abs(xOffset) + 2 * radius;
@@ -163,7 +189,7 @@ public class ShadowFilter extends AbstractBufferedImageOp {
                 BufferedImage.TYPE_INT_ARGB);
         new BandCombineOp(extractAlpha, null).filter(src.getRaster(),
                 shadow.getRaster());
-        shadow = new GaussianFilter(radius).filter(shadow, null);
+        shadow = blurType.createFilter(radius).filter(shadow, null);
         
         final Graphics2D g = dst.createGraphics();
         g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER,
@@ -22,7 +22,10 @@ import java.awt.Insets;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.Shape;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.WeakHashMap;
 
@@ -37,10 +40,6 @@ import org.ocsoft.flatlaf.utils.swing.DataProvider;
  */
 
 public final class ShapeCache {
-    /**
-     * todo 1. Improve shape settings key generation/usage performance
-     */
-    
     /**
      * Separator for settings cached within single key.
      */
@@ -49,12 +48,56 @@ public final class ShapeCache {
     /**
      * Shapes cache map.
      */
-    private static final Map<Component, Map<String, CachedShape>> shapeCache = new WeakHashMap<Component, Map<String, CachedShape>>();
+    private static final Map<Component, ComponentShapes> shapeCache = new WeakHashMap<Component, ComponentShapes>();
+    
+    /**
+     * Default maximum amount of shapes kept in shared shapes cache.
+     */
+    public static final int DEFAULT_SHARED_CACHE_LIMIT = 1000;
+    
+    /**
+     * Maximum amount of shapes kept in shared shapes cache.
+     */
+    private static int sharedCacheLimit = DEFAULT_SHARED_CACHE_LIMIT;
+    
+    /**
+     * Shared shapes cache statistics.
+     */
+    private static long sharedHits = 0;
+    private static long sharedMisses = 0;
+    private static long sharedEvictions = 0;
+    
+    /**
+     * Shapes shared between identically configured components, ordered from
+     * the least to the most recently used.
+     */
+    private static final LinkedHashMap<SharedKey, Shape> sharedCache = new LinkedHashMap<SharedKey, Shape>(
+            16, 0.75f, true) {
+        /**
+         * Serialization version.
+         */
+        private static final long serialVersionUID = 3719046284137765301L;
+        
+        @Override
+        protected boolean removeEldestEntry(
+                final Map.Entry<SharedKey, Shape> eldest) {
+            if (size() > sharedCacheLimit) {
+                sharedEvictions++;
+                return true;
+            } else {
+                return false;
+            }
+        }
+    };
     
     /**
      * Returns cached component shape. If shape is not yet cached it will be
      * created. If shape settings are changed from the last time it was queued
      * it will be re-created.
+     * <p/>
+     * This method combines settings into a string key on each call, consider
+     * using {@link #getShape(java.awt.Component, String, DataProvider, int[])}
+     * in frequently painted components.
      *
      * @param component
      *            component for which shape is cached
@@ -72,29 +115,312 @@ public final class ShapeCache {
             final String shapeId, final DataProvider<T> shapeProvider,
             final Object... settings) {
         final String settingsKey = combineSettingsKey(settings);
-        Map<String, CachedShape> cacheById = shapeCache.get(component);
-        if (cacheById == null) {
-            // Shape is not yet cached
-            final Shape shape = shapeProvider.provide();
-            cacheById = new HashMap<String, CachedShape>(1);
-            cacheById.put(shapeId, new CachedShape(settingsKey, shape));
-            shapeCache.put(component, cacheById);
-            return (T) shape;
+        final ComponentShapes shapes = getComponentShapes(component);
+        final CachedShape<T> cachedShape = shapes.get(shapeId);
+        if (cachedShape != null && cachedShape.matches(settingsKey)) {
+            // Returning cached shape
+            shapes.hits++;
+            return cachedShape.getShape();
         } else {
-            final CachedShape cachedShape = cacheById.get(shapeId);
-            if (cachedShape == null
-                    || !cachedShape.getKey().equals(settingsKey)) {
-                // Shape is not yet cached or cache entry is outdated
-                final Shape shape = shapeProvider.provide();
-                cacheById.put(shapeId, new CachedShape(settingsKey, shape));
-                return (T) shape;
-            } else {
-                // Returning cached shape
-                return (T) cachedShape.getShape();
+            // Shape is not yet cached or cache entry is outdated
+            shapes.misses++;
+            final T shape = shapeProvider.provide();
+            shapes.put(shapeId, new CachedShape<T>(settingsKey, null, 0L,
+                    shape));
+            return shape;
+        }
+    }
+    
+    /**
+     * Returns cached component shape. If shape is not yet cached it will be
+     * created. If shape settings are changed from the last time it was queued
+     * it will be re-created.
+     * <p/>
+     * Settings are compared field by field without creating any string keys.
+     * Provided array is copied only when shape is re-created, so it is safe to
+     * reuse it between calls.
+     *
+     * @param component
+     *            component for which shape is cached
+     * @param shapeId
+     *            unique shape ID
+     * @param shapeProvider
+     *            shape provider
+     * @param settings
+     *            shape settings used as a shape key
+     * @param <T>
+     *            shape type
+     * @return cached component shape
+     */
+    public static <T extends Shape> T getShape(final Component component,
+            final String shapeId, final DataProvider<T> shapeProvider,
+            final int[] settings) {
+        final ComponentShapes shapes = getComponentShapes(component);
+        final CachedShape<T> cachedShape = shapes.get(shapeId);
+        if (cachedShape != null && cachedShape.matches(settings)) {
+            // Returning cached shape
+            shapes.hits++;
+            return cachedShape.getShape();
+        } else {
+            // Shape is not yet cached or cache entry is outdated
+            shapes.misses++;
+            final T shape = shapeProvider.provide();
+            shapes.put(shapeId, new CachedShape<T>(null, settings.clone(), 0L,
+                    shape));
+            return shape;
+        }
+    }
+    
+    /**
+     * Returns cached component shape. If shape is not yet cached it will be
+     * created. If shape key is changed from the last time it was queued it
+     * will be re-created.
+     * <p/>
+     * Key should be precomputed by the caller and has to uniquely identify
+     * shape settings, for example by packing them into separate bits.
+     *
+     * @param component
+     *            component for which shape is cached
+     * @param shapeId
+     *            unique shape ID
+     * @param shapeProvider
+     *            shape provider
+     * @param key
+     *            precomputed shape settings key
+     * @param <T>
+     *            shape type
+     * @return cached component shape
+     */
+    public static <T extends Shape> T getShape(final Component component,
+            final String shapeId, final DataProvider<T> shapeProvider,
+            final long key) {
+        final ComponentShapes shapes = getComponentShapes(component);
+        final CachedShape<T> cachedShape = shapes.get(shapeId);
+        if (cachedShape != null && cachedShape.matches(key)) {
+            // Returning cached shape
+            shapes.hits++;
+            return cachedShape.getShape();
+        } else {
+            // Shape is not yet cached or cache entry is outdated
+            shapes.misses++;
+            final T shape = shapeProvider.provide();
+            shapes.put(shapeId, new CachedShape<T>(null, null, key, shape));
+            return shape;
+        }
+    }
+    
+    /**
+     * Returns cached component shape which is also shared with all other
+     * components having exactly the same shape settings. If shape is not yet
+     * cached it will be taken from shared cache or created. If shape settings
+     * are changed from the last time it was queued it will be re-created.
+     * <p/>
+     * Shape should be fully defined by the specified type, shape ID and
+     * settings, otherwise differently looking components might end up sharing
+     * the same shape. Settings must include every value shape provider reads,
+     * like component size, orientation and painter settings. Shapes which
+     * depend on component or painter instance state that cannot be included
+     * into settings should be cached with
+     * {@link #getShape(java.awt.Component, String, DataProvider, int[])}
+     * instead. Shared shapes should never be modified.
+     *
+     * @param component
+     *            component for which shape is cached
+     * @param type
+     *            type of the object creating the shape, usually painter class
+     * @param shapeId
+     *            unique shape ID
+     * @param shapeProvider
+     *            shape provider
+     * @param settings
+     *            shape settings used as a shape key
+     * @param <T>
+     *            shape type
+     * @return cached component shape
+     */
+    public static <T extends Shape> T getSharedShape(final Component component,
+            final Class<?> type, final String shapeId,
+            final DataProvider<T> shapeProvider, final int[] settings) {
+        final ComponentShapes shapes = getComponentShapes(component);
+        final CachedShape<T> cachedShape = shapes.get(shapeId);
+        if (cachedShape != null && cachedShape.matches(settings)) {
+            // Returning cached shape
+            shapes.hits++;
+            return cachedShape.getShape();
+        } else {
+            // Shape is not yet cached for this component or outdated
+            shapes.misses++;
+            final int[] key = settings.clone();
+            final SharedKey sharedKey = new SharedKey(type, shapeId, key);
+            T shape;
+            synchronized (sharedCache) {
+                shape = getSharedShape(sharedKey);
+                if (shape != null) {
+                    sharedHits++;
+                } else {
+                    sharedMisses++;
+                }
+            }
+            if (shape == null) {
+                shape = shapeProvider.provide();
+                synchronized (sharedCache) {
+                    sharedCache.put(sharedKey, shape);
+                }
+            }
+            shapes.put(shapeId, new CachedShape<T>(null, key, 0L, shape));
+            return shape;
+        }
+    }
+    
+    /**
+     * Returns shape from the shared shapes cache or null if it is not cached.
+     * Shared cache lock must be held by the caller.
+     *
+     * @param sharedKey
+     *            shared shape key
+     * @param <T>
+     *            shape type, shapes with the same key always have the same type
+     * @return shape from the shared shapes cache or null if it is not cached
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Shape> T getSharedShape(final SharedKey sharedKey) {
+        return (T) sharedCache.get(sharedKey);
+    }
+    
+    /**
+     * Returns maximum amount of shapes kept in shared shapes cache.
+     *
+     * @return maximum amount of shapes kept in shared shapes cache
+     */
+    public static int getSharedCacheLimit() {
+        synchronized (sharedCache) {
+            return sharedCacheLimit;
+        }
+    }
+    
+    /**
+     * Sets maximum amount of shapes kept in shared shapes cache. Least
+     * recently used shapes are evicted when this limit is exceeded.
+     *
+     * @param limit
+     *            maximum amount of shapes kept in shared shapes cache
+     */
+    public static void setSharedCacheLimit(final int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Invalid shared cache limit: "
+                    + limit);
+        }
+        synchronized (sharedCache) {
+            sharedCacheLimit = limit;
+            final Iterator<SharedKey> iterator = sharedCache.keySet()
+                    .iterator();
+            while (sharedCache.size() > sharedCacheLimit) {
+                iterator.next();
+                iterator.remove();
+                sharedEvictions++;
             }
         }
     }
     
+    /**
+     * Returns amount of shapes currently kept in shared shapes cache.
+     *
+     * @return amount of shapes currently kept in shared shapes cache
+     */
+    public static int getSharedCacheSize() {
+        synchronized (sharedCache) {
+            return sharedCache.size();
+        }
+    }
+    
+    /**
+     * Returns amount of shared shapes requests served from shared cache.
+     *
+     * @return amount of shared shapes cache hits
+     */
+    public static long getSharedCacheHits() {
+        synchronized (sharedCache) {
+            return sharedHits;
+        }
+    }
+    
+    /**
+     * Returns amount of shared shapes requests which required shape creation.
+     *
+     * @return amount of shared shapes cache misses
+     */
+    public static long getSharedCacheMisses() {
+        synchronized (sharedCache) {
+            return sharedMisses;
+        }
+    }
+    
+    /**
+     * Returns amount of shapes evicted from shared cache due to its limit.
+     *
+     * @return amount of shapes evicted from shared cache
+     */
+    public static long getSharedCacheEvictions() {
+        synchronized (sharedCache) {
+            return sharedEvictions;
+        }
+    }
+    
+    /**
+     * Clears shared shapes cache and its statistics. Shapes already cached for
+     * components are not affected.
+     */
+    public static void clearSharedCache() {
+        synchronized (sharedCache) {
+            sharedCache.clear();
+            sharedHits = 0;
+            sharedMisses = 0;
+            sharedEvictions = 0;
+        }
+    }
+    
+    /**
+     * Returns amount of cached shapes requests for the specified component
+     * which were served from cache.
+     *
+     * @param component
+     *            component for which shapes are cached
+     * @return amount of cache hits for the specified component
+     */
+    public static int getHits(final Component component) {
+        final ComponentShapes shapes = shapeCache.get(component);
+        return shapes != null ? shapes.hits : 0;
+    }
+    
+    /**
+     * Returns amount of cached shapes requests for the specified component
+     * which required shape creation.
+     *
+     * @param component
+     *            component for which shapes are cached
+     * @return amount of cache misses for the specified component
+     */
+    public static int getMisses(final Component component) {
+        final ComponentShapes shapes = shapeCache.get(component);
+        return shapes != null ? shapes.misses : 0;
+    }
+    
+    /**
+     * Returns shapes cached for the specified component.
+     *
+     * @param component
+     *            component for which shapes are cached
+     * @return shapes cached for the specified component
+     */
+    private static ComponentShapes getComponentShapes(final Component component) {
+        ComponentShapes shapes = shapeCache.get(component);
+        if (shapes == null) {
+            shapes = new ComponentShapes();
+            shapeCache.put(component, shapes);
+        }
+        return shapes;
+    }
+    
     /**
      * Combines shape settings into a single key for cache map and returns it.
      *
@@ -135,25 +461,102 @@ public final class ShapeCache {
         }
     }
     
+    /**
+     * Shapes cached for a single component along with cache statistics.
+     */
+    private static class ComponentShapes {
+        private final Map<String, CachedShape<?>> shapes = new HashMap<String, CachedShape<?>>(
+                1);
+        private int hits = 0;
+        private int misses = 0;
+        
+        /**
+         * Returns shape cached under the specified ID. Shape ID is always used
+         * for shapes of the same type, so cached shape has requested type.
+         */
+        @SuppressWarnings("unchecked")
+        private <T extends Shape> CachedShape<T> get(final String shapeId) {
+            return (CachedShape<T>) shapes.get(shapeId);
+        }
+        
+        private void put(final String shapeId,
+                final CachedShape<?> cachedShape) {
+            shapes.put(shapeId, cachedShape);
+        }
+    }
+    
+    /**
+     * Shared shapes cache key.
+     */
+    private static class SharedKey {
+        private final Class<?> type;
+        private final String shapeId;
+        private final int[] settings;
+        private final int hash;
+        
+        public SharedKey(final Class<?> type, final String shapeId,
+                final int[] settings) {
+            super();
+            this.type = type;
+            this.shapeId = shapeId;
+            this.settings = settings;
+            this.hash = 31 * (31 * type.hashCode() + shapeId.hashCode())
+                    + Arrays.hashCode(settings);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+        
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof SharedKey)) {
+                return false;
+            }
+            final SharedKey other = (SharedKey) obj;
+            return hash == other.hash && type == other.type
+                    && shapeId.equals(other.shapeId)
+                    && Arrays.equals(settings, other.settings);
+        }
+    }
+    
     /**
      * Cached shape class.
      */
-    private static class CachedShape {
+    private static class CachedShape<T extends Shape> {
         private final String key;
-        private final Shape shape;
+        private final int[] settings;
+        private final long longKey;
+        private final T shape;
         
-        public CachedShape(final String key, final Shape shape) {
+        public CachedShape(final String key, final int[] settings,
+                final long longKey, final T shape) {
             super();
             this.key = key;
+            this.settings = settings;
+            this.longKey = longKey;
             this.shape = shape;
         }
         
-        private String getKey() {
-            return key;
+        private boolean matches(final String key) {
+            return this.key != null && this.key.equals(key);
+        }
+        
+        private boolean matches(final int[] settings) {
+            return this.settings != null
+                    && Arrays.equals(this.settings, settings);
+        }
+        
+        private boolean matches(final long longKey) {
+            return key == null && settings == null && this.longKey == longKey;
         }
         
-        private Shape getShape() {
+        private T getShape() {
             return shape;
         }
     }
-}
\ No newline at end of file
+}
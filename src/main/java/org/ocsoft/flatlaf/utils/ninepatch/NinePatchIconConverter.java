@@ -18,8 +18,11 @@
 package org.ocsoft.flatlaf.utils.ninepatch;
 
 import org.ocsoft.flatlaf.managers.style.data.ComponentStyleConverter;
+import org.ocsoft.flatlaf.managers.style.data.SkinBundle;
 import org.ocsoft.flatlaf.utils.reflection.ReflectUtils;
 import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
+import org.ocsoft.flatlaf.utils.xml.ResourceFile;
+import org.ocsoft.flatlaf.utils.xml.ResourceLocation;
 
 import com.thoughtworks.xstream.converters.UnmarshallingContext;
 import com.thoughtworks.xstream.converters.reflection.ReflectionConverter;
@@ -84,6 +87,11 @@ public class NinePatchIconConverter extends ReflectionConverter {
                 return null;
             } else {
                 final String iconPath = reader.getValue();
+                
+                // Skin bundle should be updated when icon changes
+                SkinBundle.addImage(new ResourceFile(
+                        ResourceLocation.nearClass, iconPath, nearClass));
+                
                 try {
                     return new NinePatchIcon(
                             nearRealClass.getResource(iconPath));
@@ -26,16 +26,27 @@ import java.awt.geom.Area;
 import java.awt.geom.RoundRectangle2D;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.ocsoft.flatlaf.extended.painter.NinePatchIconPainter;
 import org.ocsoft.flatlaf.extended.painter.NinePatchStatePainter;
+import org.ocsoft.flatlaf.utils.DaemonThreadFactory;
 import org.ocsoft.flatlaf.utils.ImageUtils;
 import org.ocsoft.flatlaf.utils.collection.CollectionUtils;
+import org.ocsoft.flatlaf.utils.filters.BlurType;
 import org.ocsoft.flatlaf.utils.filters.ShadowFilter;
 import org.ocsoft.flatlaf.utils.graphics.GraphicsUtils;
+import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
 import org.ocsoft.flatlaf.utils.xml.ResourceFile;
 import org.ocsoft.flatlaf.utils.xml.ResourceMap;
 import org.ocsoft.flatlaf.utils.xml.XmlUtils;
@@ -59,10 +70,27 @@ public final class NinePatchUtils {
     public static final String OUTER_SHADE_PREFIX = "outer";
     public static final String INNER_SHADE_PREFIX = "inner";
     
+    /**
+     * Maximum amount of cached shade nine-patch icons.
+     */
+    public static int shadeIconCacheSize = 64;
+    
     /**
      * Shade nine-patch icons cache.
      */
-    private static final Map<String, NinePatchIcon> shadeIconCache = new HashMap<String, NinePatchIcon>();
+    private static final ConcurrentMap<ShadeIconKey, NinePatchIcon> shadeIconCache = new ConcurrentHashMap<ShadeIconKey, NinePatchIcon>();
+    
+    /**
+     * Shade nine-patch icons precomputed for the current skin. These icons are
+     * never evicted from the cache.
+     */
+    private static volatile Set<ShadeIconKey> precomputedShadeIcons = Collections
+            .emptySet();
+    
+    /**
+     * Shade nine-patch icons precomputation executor.
+     */
+    private static ExecutorService precomputeExecutor = null;
     
     /**
      * Returns cached shade nine-patch icon.
@@ -77,18 +105,146 @@ public final class NinePatchUtils {
      */
     public static NinePatchIcon getShadeIcon(final int shadeWidth,
             final int round, final float shadeOpacity) {
-        final String key = OUTER_SHADE_PREFIX + ";" + shadeWidth + ";" + round
-                + ";" + shadeOpacity;
-        if (shadeIconCache.containsKey(key)) {
-            return shadeIconCache.get(key);
+        return getShadeIcon(shadeWidth, round, shadeOpacity,
+                FlatLafStyleConstants.shadeBlurType);
+    }
+    
+    /**
+     * Returns cached shade nine-patch icon.
+     *
+     * @param shadeWidth
+     *            shade width
+     * @param round
+     *            corners round
+     * @param shadeOpacity
+     *            shade opacity
+     * @param blurType
+     *            blur algorithm used to create shade
+     * @return cached shade nine-patch icon
+     */
+    public static NinePatchIcon getShadeIcon(final int shadeWidth,
+            final int round, final float shadeOpacity, final BlurType blurType) {
+        return getShadeIcon(new ShadeIconKey(false, shadeWidth, round,
+                shadeOpacity, blurType));
+    }
+    
+    /**
+     * Returns cached shade nine-patch icon for the specified shade parameters.
+     * Icon is created and cached if it is not cached yet.
+     *
+     * @param key
+     *            shade parameters
+     * @return cached shade nine-patch icon
+     */
+    public static NinePatchIcon getShadeIcon(final ShadeIconKey key) {
+        final NinePatchIcon cached = shadeIconCache.get(key);
+        if (cached != null) {
+            return cached;
         } else {
-            final NinePatchIcon ninePatchIcon = createShadeIcon(shadeWidth,
-                    round, shadeOpacity);
-            shadeIconCache.put(key, ninePatchIcon);
+            // Icon created concurrently by another thread is preferred
+            final NinePatchIcon ninePatchIcon = createShadeIcon(key);
+            final NinePatchIcon existing = shadeIconCache.putIfAbsent(key,
+                    ninePatchIcon);
+            if (existing != null) {
+                return existing;
+            }
+            trimShadeIconCache();
             return ninePatchIcon;
         }
     }
     
+    /**
+     * Returns new shade nine-patch icon for the specified shade parameters.
+     *
+     * @param key
+     *            shade parameters
+     * @return new shade nine-patch icon
+     */
+    public static NinePatchIcon createShadeIcon(final ShadeIconKey key) {
+        if (key.isInner()) {
+            return createInnerShadeIcon(key.getShadeWidth(), key.getRound(),
+                    key.getShadeOpacity(), key.getBlurType());
+        } else {
+            return createShadeIcon(key.getShadeWidth(), key.getRound(),
+                    key.getShadeOpacity(), key.getBlurType());
+        }
+    }
+    
+    /**
+     * Creates and caches shade nine-patch icons for the specified shade
+     * parameters on a background thread. Icons which are already cached are
+     * skipped. Precomputed icons are kept in cache until next precomputation
+     * request replaces them.
+     *
+     * @param keys
+     *            shade parameters
+     */
+    public static void precomputeShadeIcons(final Collection<ShadeIconKey> keys) {
+        final Set<ShadeIconKey> precomputed = Collections
+                .unmodifiableSet(new LinkedHashSet<ShadeIconKey>(keys));
+        precomputedShadeIcons = precomputed;
+        if (precomputed.size() > 0) {
+            getPrecomputeExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (final ShadeIconKey key : precomputed) {
+                        if (precomputedShadeIcons != precomputed) {
+                            // Newer request replaced this one
+                            break;
+                        }
+                        try {
+                            getShadeIcon(key);
+                        } catch (final Throwable e) {
+                            FlatLafLogger.error(NinePatchUtils.class,
+                                    "Unable to precompute shade icon: " + key,
+                                    e);
+                        }
+                    }
+                }
+            });
+        }
+    }
+    
+    /**
+     * Clears shade nine-patch icons cache.
+     */
+    public static void clearShadeIconCache() {
+        shadeIconCache.clear();
+    }
+    
+    /**
+     * Evicts some cached shade icons if cache size limit is exceeded.
+     * Precomputed icons are never evicted, other evicted icons are not
+     * necessarily the least recently used ones.
+     */
+    private static void trimShadeIconCache() {
+        final int limit = Math.max(0, shadeIconCacheSize);
+        if (shadeIconCache.size() > limit) {
+            final Set<ShadeIconKey> precomputed = precomputedShadeIcons;
+            final int target = Math.max(limit * 3 / 4, precomputed.size());
+            final Iterator<ShadeIconKey> iterator = shadeIconCache.keySet()
+                    .iterator();
+            while (iterator.hasNext() && shadeIconCache.size() > target) {
+                if (!precomputed.contains(iterator.next())) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Returns shade nine-patch icons precomputation executor.
+     *
+     * @return shade nine-patch icons precomputation executor
+     */
+    private static synchronized ExecutorService getPrecomputeExecutor() {
+        if (precomputeExecutor == null) {
+            precomputeExecutor = Executors
+                    .newSingleThreadExecutor(new DaemonThreadFactory());
+        }
+        return precomputeExecutor;
+    }
+    
     /**
      * Returns shade nine-patch icon.
      *
@@ -102,6 +258,25 @@ public final class NinePatchUtils {
      */
     public static NinePatchIcon createShadeIcon(final int shadeWidth,
             final int round, final float shadeOpacity) {
+        return createShadeIcon(shadeWidth, round, shadeOpacity,
+                FlatLafStyleConstants.shadeBlurType);
+    }
+    
+    /**
+     * Returns shade nine-patch icon blurred with the specified algorithm.
+     *
+     * @param shadeWidth
+     *            shade width
+     * @param round
+     *            corners round
+     * @param shadeOpacity
+     *            shade opacity
+     * @param blurType
+     *            shade blur algorithm
+     * @return shade nine-patch icon
+     */
+    public static NinePatchIcon createShadeIcon(final int shadeWidth,
+            final int round, final float shadeOpacity, final BlurType blurType) {
         // Calculating width for temprorary image
         final int inner = Math.max(shadeWidth, round) / 2;
         final int width = shadeWidth * 2 + inner * 2;
@@ -117,7 +292,8 @@ public final class NinePatchUtils {
         ig.dispose();
         
         // Creating shade image
-        final ShadowFilter sf = new ShadowFilter(shadeWidth, 0, 0, shadeOpacity);
+        final ShadowFilter sf = new ShadowFilter(shadeWidth, 0, 0,
+                shadeOpacity, blurType);
         final BufferedImage shade = sf.filter(bi, null);
         
         // Clipping shade image
@@ -158,16 +334,8 @@ public final class NinePatchUtils {
      */
     public static NinePatchIcon getInnerShadeIcon(final int shadeWidth,
             final int round, final float shadeOpacity) {
-        final String key = INNER_SHADE_PREFIX + ";" + shadeWidth + ";" + round
-                + ";" + shadeOpacity;
-        if (shadeIconCache.containsKey(key)) {
-            return shadeIconCache.get(key);
-        } else {
-            final NinePatchIcon ninePatchIcon = createInnerShadeIcon(
-                    shadeWidth, round, shadeOpacity);
-            shadeIconCache.put(key, ninePatchIcon);
-            return ninePatchIcon;
-        }
+        return getShadeIcon(new ShadeIconKey(true, shadeWidth, round,
+                shadeOpacity, FlatLafStyleConstants.shadeBlurType));
     }
     
     /**
@@ -183,6 +351,26 @@ public final class NinePatchUtils {
      */
     public static NinePatchIcon createInnerShadeIcon(final int shadeWidth,
             final int round, final float shadeOpacity) {
+        return createInnerShadeIcon(shadeWidth, round, shadeOpacity,
+                FlatLafStyleConstants.shadeBlurType);
+    }
+    
+    /**
+     * Returns inner shade nine-patch icon blurred with the specified
+     * algorithm.
+     *
+     * @param shadeWidth
+     *            shade width
+     * @param round
+     *            corners round
+     * @param shadeOpacity
+     *            shade opacity
+     * @param blurType
+     *            shade blur algorithm
+     * @return inner shade nine-patch icon
+     */
+    public static NinePatchIcon createInnerShadeIcon(final int shadeWidth,
+            final int round, final float shadeOpacity, final BlurType blurType) {
         // Calculating width for temprorary image
         final int inner = Math.max(shadeWidth, round);
         int width = shadeWidth * 2 + inner * 2;
@@ -201,7 +389,8 @@ public final class NinePatchUtils {
         ig.dispose();
         
         // Creating shade image
-        final ShadowFilter sf = new ShadowFilter(shadeWidth, 0, 0, shadeOpacity);
+        final ShadowFilter sf = new ShadowFilter(shadeWidth, 0, 0,
+                shadeOpacity, blurType);
         final BufferedImage shade = sf.filter(bi, null);
         
         // Clipping shade image
@@ -0,0 +1,178 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.utils.ninepatch;
+
+import org.ocsoft.flatlaf.utils.filters.BlurType;
+
+/**
+ * Shade nine-patch icon parameters.
+ * <p/>
+ * Used as a key within shade nine-patch icons cache and to describe shade
+ * icons which should be created in advance.
+ *
+ * @author Mikle Garin
+ * @see org.ocsoft.flatlaf.utils.ninepatch.NinePatchUtils#getShadeIcon(ShadeIconKey)
+ * @see org.ocsoft.flatlaf.utils.ninepatch.NinePatchUtils#precomputeShadeIcons(java.util.Collection)
+ */
+
+public final class ShadeIconKey {
+    /**
+     * Whether this is an inner shade or not.
+     */
+    private final boolean inner;
+    
+    /**
+     * Shade width.
+     */
+    private final int shadeWidth;
+    
+    /**
+     * Corners round.
+     */
+    private final int round;
+    
+    /**
+     * Shade opacity.
+     */
+    private final float shadeOpacity;
+    
+    /**
+     * Shade blur algorithm.
+     */
+    private final BlurType blurType;
+    
+    /**
+     * Cached hash code.
+     */
+    private final int hashCode;
+    
+    /**
+     * Constructs new shade icon parameters.
+     *
+     * @param inner
+     *            whether this is an inner shade or not
+     * @param shadeWidth
+     *            shade width
+     * @param round
+     *            corners round
+     * @param shadeOpacity
+     *            shade opacity
+     * @param blurType
+     *            shade blur algorithm
+     */
+    public ShadeIconKey(final boolean inner, final int shadeWidth,
+            final int round, final float shadeOpacity, final BlurType blurType) {
+        super();
+        this.inner = inner;
+        this.shadeWidth = shadeWidth;
+        this.round = round;
+        this.shadeOpacity = shadeOpacity;
+        this.blurType = blurType;
+        
+        int hash = inner ? 1 : 0;
+        hash = 31 * hash + shadeWidth;
+        hash = 31 * hash + round;
+        hash = 31 * hash + Float.floatToIntBits(shadeOpacity);
+        hash = 31 * hash + blurType.ordinal();
+        this.hashCode = hash;
+    }
+    
+    /**
+     * Returns whether this is an inner shade or not.
+     *
+     * @return true if this is an inner shade, false otherwise
+     */
+    public boolean isInner() {
+        return inner;
+    }
+    
+    /**
+     * Returns shade width.
+     *
+     * @return shade width
+     */
+    public int getShadeWidth() {
+        return shadeWidth;
+    }
+    
+    /**
+     * Returns corners round.
+     *
+     * @return corners round
+     */
+    public int getRound() {
+        return round;
+    }
+    
+    /**
+     * Returns shade opacity.
+     *
+     * @return shade opacity
+     */
+    public float getShadeOpacity() {
+        return shadeOpacity;
+    }
+    
+    /**
+     * Returns shade blur algorithm.
+     *
+     * @return shade blur algorithm
+     */
+    public BlurType getBlurType() {
+        return blurType;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ShadeIconKey)) {
+            return false;
+        }
+        final ShadeIconKey key = (ShadeIconKey) obj;
+        return inner == key.inner
+                && shadeWidth == key.shadeWidth
+                && round == key.round
+                && Float.floatToIntBits(shadeOpacity) == Float
+                        .floatToIntBits(key.shadeOpacity)
+                && blurType == key.blurType;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        final String prefix = inner ? NinePatchUtils.INNER_SHADE_PREFIX
+                : NinePatchUtils.OUTER_SHADE_PREFIX;
+        return prefix + ";" + shadeWidth + ";" + round + ";" + shadeOpacity
+                + ";" + blurType;
+    }
+}
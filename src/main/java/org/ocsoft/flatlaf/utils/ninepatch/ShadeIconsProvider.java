@@ -0,0 +1,39 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.utils.ninepatch;
+
+import java.util.List;
+
+/**
+ * This interface is implemented by painters which use cached shade nine-patch
+ * icons. It allows skins to find out which shade icons their painters will
+ * use and create those icons in advance.
+ *
+ * @author Mikle Garin
+ * @see org.ocsoft.flatlaf.utils.ninepatch.NinePatchUtils#precomputeShadeIcons(java.util.Collection)
+ */
+
+public interface ShadeIconsProvider {
+    /**
+     * Returns parameters of shade icons used by this painter with its current
+     * settings.
+     *
+     * @return parameters of shade icons used by this painter
+     */
+    public List<ShadeIconKey> getShadeIcons();
+}
@@ -0,0 +1,267 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.utils.reflection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
+
+/**
+ * Compiled object property binder.
+ * <p/>
+ * Binder resolves property setter method or field only once and keeps a
+ * method handle for it, so applying property value afterwards is a direct
+ * invocation without any method lookup. Binders are cached per class and
+ * property name, setter binders are also separated by value type since setter
+ * overload is chosen by it.
+ *
+ * @author Mikle Garin
+ * @see org.ocsoft.flatlaf.utils.reflection.ReflectUtils
+ */
+
+public final class PropertyBinder {
+    /**
+     * Generic binder handle type.
+     */
+    private static final MethodType BINDER_TYPE = MethodType.methodType(
+            void.class, Object.class, Object.class);
+    
+    /**
+     * Marker for properties which cannot be bound.
+     */
+    private static final PropertyBinder NONE = new PropertyBinder(null, null);
+    
+    /**
+     * Setter binders cached per class.
+     */
+    private static final ClassValue<ConcurrentMap<BinderKey, PropertyBinder>> setterBinders = new BinderCache();
+    
+    /**
+     * Field binders cached per class.
+     */
+    private static final ClassValue<ConcurrentMap<BinderKey, PropertyBinder>> fieldBinders = new BinderCache();
+    
+    /**
+     * Method handle accepting object and property value.
+     */
+    private final MethodHandle handle;
+    
+    /**
+     * Bound setter method or field description.
+     */
+    private final String description;
+    
+    /**
+     * Constructs new property binder.
+     *
+     * @param handle
+     *            method handle accepting object and property value
+     * @param description
+     *            bound setter method or field description
+     */
+    private PropertyBinder(final MethodHandle handle, final String description) {
+        super();
+        this.handle = handle;
+        this.description = description;
+    }
+    
+    /**
+     * Applies property value to the specified object.
+     *
+     * @param object
+     *            object instance
+     * @param value
+     *            property value
+     * @throws Throwable
+     *             any exception thrown by setter method or on value conversion
+     */
+    public void bind(final Object object, final Object value) throws Throwable {
+        handle.invokeExact(object, value);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return description;
+    }
+    
+    /**
+     * Returns setter binder for the specified class property and value or null
+     * if there is no fitting setter method. Setter is searched the same way
+     * {@link ReflectUtils#callMethod(Object, String, Object...)} does that.
+     *
+     * @param aClass
+     *            object class
+     * @param property
+     *            property name
+     * @param value
+     *            property value
+     * @return setter binder for the specified class property and value or null
+     */
+    public static PropertyBinder getSetterBinder(final Class<?> aClass,
+            final String property, final Object value) {
+        final Class<?> valueType = value != null ? value.getClass() : null;
+        final ConcurrentMap<BinderKey, PropertyBinder> binders = setterBinders
+                .get(aClass);
+        final BinderKey key = new BinderKey(property, valueType);
+        PropertyBinder binder = binders.get(key);
+        if (binder == null) {
+            binder = createSetterBinder(aClass, property, value);
+            binders.putIfAbsent(key, binder);
+        }
+        return binder != NONE ? binder : null;
+    }
+    
+    /**
+     * Returns field binder for the specified class property or null if there
+     * is no such field.
+     *
+     * @param aClass
+     *            object class
+     * @param property
+     *            property name
+     * @return field binder for the specified class property or null
+     */
+    public static PropertyBinder getFieldBinder(final Class<?> aClass,
+            final String property) {
+        final ConcurrentMap<BinderKey, PropertyBinder> binders = fieldBinders
+                .get(aClass);
+        final BinderKey key = new BinderKey(property, null);
+        PropertyBinder binder = binders.get(key);
+        if (binder == null) {
+            binder = createFieldBinder(aClass, property);
+            binders.putIfAbsent(key, binder);
+        }
+        return binder != NONE ? binder : null;
+    }
+    
+    /**
+     * Returns new setter binder or {@link #NONE} if it cannot be created.
+     *
+     * @param aClass
+     *            object class
+     * @param property
+     *            property name
+     * @param value
+     *            property value
+     * @return new setter binder or {@link #NONE} if it cannot be created
+     */
+    private static synchronized PropertyBinder createSetterBinder(
+            final Class<?> aClass, final String property, final Object value) {
+        // Synchronized since methods lookup cache is not thread-safe
+        try {
+            final String setterName = ReflectUtils.getSetterMethodName(property);
+            final Method setter = ReflectUtils.getMethod(aClass, setterName,
+                    new Object[] { value });
+            final MethodHandle handle = MethodHandles.lookup()
+                    .unreflect(setter).asType(BINDER_TYPE);
+            return new PropertyBinder(handle, setter.toString());
+        } catch (final Throwable e) {
+            FlatLafLogger.error(PropertyBinder.class, e);
+            return NONE;
+        }
+    }
+    
+    /**
+     * Returns new field binder or {@link #NONE} if it cannot be created.
+     *
+     * @param aClass
+     *            object class
+     * @param property
+     *            property name
+     * @return new field binder or {@link #NONE} if it cannot be created
+     */
+    private static PropertyBinder createFieldBinder(final Class<?> aClass,
+            final String property) {
+        try {
+            final Field field = ReflectUtils.getField(aClass, property);
+            field.setAccessible(true);
+            final MethodHandle handle = MethodHandles.lookup()
+                    .unreflectSetter(field).asType(BINDER_TYPE);
+            return new PropertyBinder(handle, field.toString());
+        } catch (final Throwable e) {
+            FlatLafLogger.error(PropertyBinder.class, e);
+            return NONE;
+        }
+    }
+    
+    /**
+     * Per-class binders cache.
+     */
+    private static final class BinderCache extends
+            ClassValue<ConcurrentMap<BinderKey, PropertyBinder>> {
+        @Override
+        protected ConcurrentMap<BinderKey, PropertyBinder> computeValue(
+                final Class<?> type) {
+            return new ConcurrentHashMap<BinderKey, PropertyBinder>();
+        }
+    }
+    
+    /**
+     * Binder key within single class binders.
+     */
+    private static final class BinderKey {
+        /**
+         * Property name.
+         */
+        private final String property;
+        
+        /**
+         * Property value type, null for null values and field binders.
+         */
+        private final Class<?> valueType;
+        
+        /**
+         * Constructs new binder key.
+         *
+         * @param property
+         *            property name
+         * @param valueType
+         *            property value type
+         */
+        public BinderKey(final String property, final Class<?> valueType) {
+            super();
+            this.property = property;
+            this.valueType = valueType;
+        }
+        
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof BinderKey)) {
+                return false;
+            }
+            final BinderKey key = (BinderKey) obj;
+            return property.equals(key.property)
+                    && valueType == key.valueType;
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * property.hashCode()
+                    + (valueType != null ? valueType.hashCode() : 0);
+        }
+    }
+}
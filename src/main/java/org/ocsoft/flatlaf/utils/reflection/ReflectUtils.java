@@ -1452,6 +1452,35 @@ public final class ReflectUtils {
         return buf.append(")").toString();
     }
     
+    /**
+     * Returns whether method declared in the base class is overridden by the
+     * specified class or any of its superclasses extending base class.
+     *
+     * @param aClass
+     *            class to check
+     * @param baseClass
+     *            class declaring the method
+     * @param methodName
+     *            method name
+     * @param parameterTypes
+     *            method parameter types
+     * @return true if method is overridden, false otherwise
+     */
+    public static boolean isOverridden(final Class<?> aClass,
+            final Class<?> baseClass, final String methodName,
+            final Class<?>... parameterTypes) {
+        for (Class<?> type = aClass; type != null && type != baseClass; type = type
+                .getSuperclass()) {
+            try {
+                type.getDeclaredMethod(methodName, parameterTypes);
+                return true;
+            } catch (final NoSuchMethodException e) {
+                // Checking superclass
+            }
+        }
+        return false;
+    }
+    
     /**
      * Returns cloned object.
      *
@@ -0,0 +1,455 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.utils.swing;
+
+import java.awt.Component;
+import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JComponent;
+import javax.swing.RepaintManager;
+import javax.swing.SwingUtilities;
+
+import org.ocsoft.flatlaf.utils.collection.CollectionUtils;
+import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
+
+/**
+ * Global animation pulse which synchronizes all animations to frames.
+ * <p/>
+ * This is a WebTimer backend, so any existing animator can be moved onto the
+ * pulse by setting its backend. Instead of ticking on its own schedule each
+ * animator is ticked within the closest pulse frame once its delay passes, so
+ * all animators are processed within a single Event Dispatch Thread call per
+ * frame. Repaints requested through {@link #repaint(java.awt.Component)}
+ * during a frame are merged and painted in one RepaintManager pass at the end
+ * of that frame.
+ * <p/>
+ * Pulse only runs while there is at least one active animation and goes idle
+ * as soon as the last one is stopped.
+ * <p/>
+ * Timers which should not fire their events in Event Dispatch Thread are not
+ * synchronized to frames and are passed to the shared timer backend instead.
+ *
+ * @author Mikle Garin
+ * @see org.ocsoft.flatlaf.utils.swing.WebTimerBackend
+ */
+public class AnimationPulse implements WebTimerBackend {
+    /**
+     * Default pulse frame rate.
+     */
+    public static int defaultFrameRate = 60;
+    
+    /**
+     * Shared pulse instance.
+     */
+    private static AnimationPulse instance;
+    
+    /**
+     * Active animations.
+     */
+    protected final Map<WebTimer, Animation> animations = new LinkedHashMap<WebTimer, Animation>();
+    
+    /**
+     * Regions to repaint at the end of the current frame.
+     */
+    protected final Map<Component, Rectangle> dirtyRegions = new LinkedHashMap<Component, Rectangle>();
+    
+    /**
+     * Pulse frame rate.
+     */
+    protected int frameRate;
+    
+    /**
+     * Timer driving pulse frames, null when pulse is idle.
+     */
+    protected WebTimer driver = null;
+    
+    /**
+     * Whether frame is being processed at the moment or not.
+     */
+    protected boolean inFrame = false;
+    
+    /**
+     * Returns shared pulse instance.
+     *
+     * @return shared pulse instance
+     */
+    public static synchronized AnimationPulse getInstance() {
+        if (instance == null) {
+            instance = new AnimationPulse(defaultFrameRate);
+        }
+        return instance;
+    }
+    
+    /**
+     * Requests full component repaint within the current pulse frame.
+     *
+     * @param component
+     *            component to repaint
+     */
+    public static void repaint(final Component component) {
+        repaint(component, 0, 0, component.getWidth(), component.getHeight());
+    }
+    
+    /**
+     * Requests component area repaint within the current pulse frame. Repaint
+     * is requested directly if there is no frame being processed.
+     *
+     * @param component
+     *            component to repaint
+     * @param x
+     *            area X coordinate
+     * @param y
+     *            area Y coordinate
+     * @param width
+     *            area width
+     * @param height
+     *            area height
+     */
+    public static void repaint(final Component component, final int x,
+            final int y, final int width, final int height) {
+        getInstance().addDirtyRegion(component, x, y, width, height);
+    }
+    
+    /**
+     * Constructs new animation pulse.
+     *
+     * @param frameRate
+     *            pulse frame rate
+     */
+    public AnimationPulse(final int frameRate) {
+        super();
+        setFrameRate(frameRate);
+    }
+    
+    /**
+     * Returns pulse frame rate.
+     *
+     * @return pulse frame rate
+     */
+    public synchronized int getFrameRate() {
+        return frameRate;
+    }
+    
+    /**
+     * Sets pulse frame rate.
+     *
+     * @param frameRate
+     *            pulse frame rate
+     */
+    public synchronized void setFrameRate(final int frameRate) {
+        if (frameRate <= 0) {
+            throw new IllegalArgumentException("Invalid frame rate: "
+                    + frameRate);
+        }
+        this.frameRate = frameRate;
+        if (driver != null) {
+            driver.setDelay(getFrameDelay());
+        }
+    }
+    
+    /**
+     * Returns delay between frames in milliseconds.
+     *
+     * @return delay between frames in milliseconds
+     */
+    protected long getFrameDelay() {
+        return Math.max(1, 1000 / frameRate);
+    }
+    
+    /**
+     * Returns whether pulse is active or idle.
+     *
+     * @return true if pulse is active, false if it is idle
+     */
+    public synchronized boolean isActive() {
+        return driver != null;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void start(final WebTimer timer) {
+        if (animations.containsKey(timer)) {
+            return;
+        }
+        
+        // Frames are processed in Event Dispatch Thread
+        if (!timer.isUseEventDispatchThread()) {
+            getFallbackBackend().start(timer);
+            return;
+        }
+        
+        final Animation animation = new Animation(timer);
+        final long actualInitialDelay = timer.getInitialDelay() < 0 ? timer
+                .getDelay() : timer.getInitialDelay();
+        animation.deadline = System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(actualInitialDelay);
+        timer.sleepStart = System.currentTimeMillis();
+        timer.sleepTime = actualInitialDelay;
+        animations.put(timer, animation);
+        
+        // Waking up pulse
+        if (driver == null) {
+            driver = new WebTimer("AnimationPulse", getFrameDelay(),
+                    new ActionListener() {
+                        @Override
+                        public void actionPerformed(final ActionEvent e) {
+                            frame();
+                        }
+                    });
+            driver.setBackend(SharedTimerBackend.getInstance());
+            driver.setUseDaemonThread(true);
+            driver.start();
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void stop(final WebTimer timer) {
+        if (animations.remove(timer) == null) {
+            getFallbackBackend().stop(timer);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean isRunning(final WebTimer timer) {
+        return animations.containsKey(timer)
+                || getFallbackBackend().isRunning(timer);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized int getTimersCount() {
+        return animations.size();
+    }
+    
+    /**
+     * Returns backend used to run timers which should not fire their events
+     * in Event Dispatch Thread.
+     *
+     * @return backend used to run timers outside of Event Dispatch Thread
+     */
+    protected WebTimerBackend getFallbackBackend() {
+        return SharedTimerBackend.getInstance();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getThreadsCount() {
+        // Pulse driver thread is accounted by shared timer backend
+        return 0;
+    }
+    
+    /**
+     * Processes single pulse frame. Should be called in Event Dispatch Thread.
+     */
+    protected void frame() {
+        // Collecting animations which should be ticked within this frame
+        final List<Animation> due;
+        final long frameDelay;
+        synchronized (this) {
+            frameDelay = TimeUnit.MILLISECONDS.toNanos(getFrameDelay());
+            final long horizon = System.nanoTime() + frameDelay / 2;
+            due = new ArrayList<Animation>(animations.size());
+            for (final Animation animation : animations.values()) {
+                if (animation.deadline - horizon <= 0) {
+                    due.add(animation);
+                }
+            }
+        }
+        
+        // Ticking animations
+        inFrame = true;
+        try {
+            for (final Animation animation : due) {
+                tick(animation, frameDelay);
+            }
+        } finally {
+            inFrame = false;
+        }
+        
+        // Painting all changes at once
+        flushDirtyRegions();
+        
+        // Going idle if there is nothing left to animate
+        synchronized (this) {
+            if (animations.isEmpty() && driver != null) {
+                driver.stop();
+                driver = null;
+            }
+        }
+    }
+    
+    /**
+     * Fires single animation cycle.
+     *
+     * @param animation
+     *            animation to tick
+     * @param frameDelay
+     *            delay between frames in nanoseconds
+     */
+    protected void tick(final Animation animation, final long frameDelay) {
+        final WebTimer timer = animation.timer;
+        synchronized (this) {
+            if (animations.get(timer) != animation) {
+                return;
+            }
+            if (!timer.isCycleAllowed(timer.cycleCount)) {
+                animations.remove(timer);
+                return;
+            }
+        }
+        
+        // Firing events
+        final ActionEvent actionEvent = timer.createActionEvent();
+        for (final ActionListener listener : CollectionUtils.copy(timer
+                .getListeners())) {
+            try {
+                listener.actionPerformed(actionEvent);
+            } catch (final Throwable e) {
+                FlatLafLogger.error(this, e);
+            }
+        }
+        
+        // Scheduling next cycle
+        synchronized (this) {
+            if (animations.get(timer) != animation) {
+                return;
+            }
+            timer.cycleCount++;
+            if (timer.isRepeats() && timer.isCycleAllowed(timer.cycleCount)) {
+                // Keeping animation rate while staying aligned with frames
+                final long now = System.nanoTime();
+                final long delay = TimeUnit.MILLISECONDS.toNanos(timer
+                        .getDelay());
+                animation.deadline += delay;
+                if (animation.deadline - now < -frameDelay) {
+                    animation.deadline = now + delay;
+                }
+                timer.sleepStart = System.currentTimeMillis();
+                timer.sleepTime = timer.getDelay();
+            } else {
+                animations.remove(timer);
+            }
+        }
+    }
+    
+    /**
+     * Adds component area into current frame dirty regions or requests its
+     * repaint directly if there is no frame being processed.
+     *
+     * @param component
+     *            component to repaint
+     * @param x
+     *            area X coordinate
+     * @param y
+     *            area Y coordinate
+     * @param width
+     *            area width
+     * @param height
+     *            area height
+     */
+    protected void addDirtyRegion(final Component component, final int x,
+            final int y, final int width, final int height) {
+        if (inFrame && SwingUtilities.isEventDispatchThread()) {
+            final Rectangle region = dirtyRegions.get(component);
+            if (region == null) {
+                dirtyRegions.put(component, new Rectangle(x, y, width,
+                        height));
+            } else {
+                region.add(new Rectangle(x, y, width, height));
+            }
+        } else {
+            component.repaint(x, y, width, height);
+        }
+    }
+    
+    /**
+     * Passes all collected dirty regions to RepaintManager and paints them in
+     * a single pass.
+     */
+    protected void flushDirtyRegions() {
+        if (dirtyRegions.isEmpty()) {
+            return;
+        }
+        final Map<RepaintManager, Boolean> managers = new IdentityHashMap<RepaintManager, Boolean>(
+                1);
+        for (final Map.Entry<Component, Rectangle> entry : dirtyRegions
+                .entrySet()) {
+            final Component component = entry.getKey();
+            final Rectangle r = entry.getValue();
+            if (component instanceof JComponent) {
+                final RepaintManager manager = RepaintManager
+                        .currentManager(component);
+                manager.addDirtyRegion((JComponent) component, r.x, r.y,
+                        r.width, r.height);
+                managers.put(manager, Boolean.TRUE);
+            } else {
+                component.repaint(r.x, r.y, r.width, r.height);
+            }
+        }
+        dirtyRegions.clear();
+        for (final RepaintManager manager : managers.keySet()) {
+            manager.paintDirtyRegions();
+        }
+    }
+    
+    /**
+     * Single active animation.
+     */
+    protected static class Animation {
+        /**
+         * Animation timer.
+         */
+        protected final WebTimer timer;
+        
+        /**
+         * Next cycle deadline in nanoseconds.
+         */
+        protected long deadline;
+        
+        /**
+         * Constructs new animation for the specified timer.
+         *
+         * @param timer
+         *            animation timer
+         */
+        public Animation(final WebTimer timer) {
+            super();
+            this.timer = timer;
+        }
+    }
+}
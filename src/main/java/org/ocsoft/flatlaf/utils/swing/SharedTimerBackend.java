@@ -0,0 +1,588 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.utils.swing;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.swing.SwingUtilities;
+
+import org.ocsoft.flatlaf.utils.collection.CollectionUtils;
+import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
+
+/**
+ * WebTimer backend that runs all timers off a single shared scheduler thread.
+ * <p/>
+ * Scheduler keeps running timers in a deadline queue and sleeps only until the
+ * closest deadline, so any amount of running timers costs a single waiting
+ * thread. Events which should be fired in Event Dispatch Thread are posted
+ * there without blocking the scheduler, other events are fired from a small
+ * pool of worker threads which only live while there is something to execute.
+ * <p/>
+ * Two scheduler threads might exist at most - one daemon and one user thread,
+ * so that timers using daemon threads still allow JVM to shutdown. Scheduler
+ * thread stops after a short idle period when there are no running timers.
+ * <p/>
+ * Just like thread-per-timer execution each next cycle delay starts only
+ * after previous cycle events were fired. Unlike it stopping timer doesn't wait
+ * for events which are already being fired outside of the Event Dispatch
+ * Thread.
+ *
+ * @author Mikle Garin
+ * @see org.ocsoft.flatlaf.utils.swing.WebTimerBackend
+ */
+public class SharedTimerBackend implements WebTimerBackend {
+    /**
+     * Time in milliseconds idle scheduler and worker threads are kept alive.
+     */
+    public static long keepAliveTime = 1000;
+    
+    /**
+     * Shared backend instance.
+     */
+    private static SharedTimerBackend instance;
+    
+    /**
+     * Lock for all scheduling operations.
+     */
+    protected final ReentrantLock lock = new ReentrantLock();
+    
+    /**
+     * Currently running timers and their tasks.
+     */
+    protected final Map<WebTimer, Task> tasks = new IdentityHashMap<WebTimer, Task>();
+    
+    /**
+     * Scheduler for timers using daemon threads.
+     */
+    protected final Scheduler daemonScheduler;
+    
+    /**
+     * Scheduler for timers using user threads.
+     */
+    protected final Scheduler userScheduler;
+    
+    /**
+     * Workers executing events outside of Event Dispatch Thread.
+     */
+    protected final ThreadPoolExecutor workers;
+    
+    /**
+     * Task sequence number used to keep tasks with equal deadlines in order.
+     */
+    protected long sequence = 0;
+    
+    /**
+     * Returns shared backend instance.
+     *
+     * @return shared backend instance
+     */
+    public static synchronized SharedTimerBackend getInstance() {
+        if (instance == null) {
+            instance = new SharedTimerBackend();
+        }
+        return instance;
+    }
+    
+    /**
+     * Constructs new shared timer backend.
+     */
+    public SharedTimerBackend() {
+        super();
+        daemonScheduler = new Scheduler(WebTimer.defaultThreadName
+                + "-daemon", true);
+        userScheduler = new Scheduler(WebTimer.defaultThreadName, false);
+        workers = new ThreadPoolExecutor(0, Integer.MAX_VALUE, keepAliveTime,
+                TimeUnit.MILLISECONDS, new SynchronousQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger number = new AtomicInteger(0);
+                    
+                    @Override
+                    public Thread newThread(final Runnable r) {
+                        final Thread thread = new Thread(r,
+                                WebTimer.defaultThreadName + "-worker-"
+                                        + number.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void start(final WebTimer timer) {
+        lock.lock();
+        try {
+            if (tasks.containsKey(timer)) {
+                return;
+            }
+            final Scheduler scheduler = timer.isUseDaemonThread() ? daemonScheduler
+                    : userScheduler;
+            final Task task = new Task(timer, scheduler);
+            tasks.put(timer, task);
+            
+            // Initial delay
+            final long actualInitialDelay = timer.getInitialDelay() < 0 ? timer
+                    .getDelay() : timer.getInitialDelay();
+            scheduler.schedule(task, actualInitialDelay);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stop(final WebTimer timer) {
+        lock.lock();
+        try {
+            final Task task = tasks.remove(timer);
+            if (task != null) {
+                task.cancelled = true;
+                task.scheduler.cancel(task);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRunning(final WebTimer timer) {
+        lock.lock();
+        try {
+            return tasks.containsKey(timer);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getTimersCount() {
+        lock.lock();
+        try {
+            return tasks.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getThreadsCount() {
+        lock.lock();
+        try {
+            return (daemonScheduler.thread != null ? 1 : 0)
+                    + (userScheduler.thread != null ? 1 : 0)
+                    + workers.getPoolSize();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Fires timer events for the specified task in the thread requested by
+     * the timer. Task is passed back to scheduler once all events are fired.
+     *
+     * @param task
+     *            task to fire events for
+     */
+    protected void fire(final Task task) {
+        final WebTimer timer = task.timer;
+        
+        // Checking if we sould stop execution
+        if (task.cancelled || !timer.isCycleAllowed(timer.cycleCount)) {
+            complete(task, false);
+            return;
+        }
+        
+        // Event and local listeners copy
+        final ActionEvent actionEvent = timer.createActionEvent();
+        final List<ActionListener> listenerList = CollectionUtils
+                .copy(timer.getListeners());
+        
+        // Dispatch event in chosen way
+        if (timer.isUseEventDispatchThread()) {
+            if (timer.isCoalesce() || listenerList.size() <= 1) {
+                // Merge all events into single call to event dispatch thread
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        fire(task, listenerList, 0, listenerList.size(),
+                                actionEvent);
+                    }
+                });
+            } else {
+                // Make separate event calls to event dispatch thread
+                fireSeparately(task, listenerList, 0, actionEvent);
+            }
+        } else {
+            // Execute events in a worker thread
+            workers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    fire(task, listenerList, 0, listenerList.size(),
+                            actionEvent);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Fires event for each listener in a separate Event Dispatch Thread call,
+     * one after another.
+     *
+     * @param task
+     *            task to fire events for
+     * @param listeners
+     *            listeners to notify
+     * @param index
+     *            index of the listener to notify next
+     * @param actionEvent
+     *            event to fire
+     */
+    protected void fireSeparately(final Task task,
+            final List<ActionListener> listeners, final int index,
+            final ActionEvent actionEvent) {
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                final boolean last = index == listeners.size() - 1;
+                fire(task, listeners, index, index + 1, actionEvent, last);
+                if (!last) {
+                    fireSeparately(task, listeners, index + 1, actionEvent);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Fires event for the specified range of listeners and completes cycle.
+     *
+     * @param task
+     *            task to fire events for
+     * @param listeners
+     *            listeners to notify
+     * @param from
+     *            first listener index, inclusive
+     * @param to
+     *            last listener index, exclusive
+     * @param actionEvent
+     *            event to fire
+     */
+    protected void fire(final Task task, final List<ActionListener> listeners,
+            final int from, final int to, final ActionEvent actionEvent) {
+        fire(task, listeners, from, to, actionEvent, true);
+    }
+    
+    /**
+     * Fires event for the specified range of listeners.
+     *
+     * @param task
+     *            task to fire events for
+     * @param listeners
+     *            listeners to notify
+     * @param from
+     *            first listener index, inclusive
+     * @param to
+     *            last listener index, exclusive
+     * @param actionEvent
+     *            event to fire
+     * @param complete
+     *            whether cycle should be completed afterwards or not
+     */
+    protected void fire(final Task task, final List<ActionListener> listeners,
+            final int from, final int to, final ActionEvent actionEvent,
+            final boolean complete) {
+        try {
+            if (!task.cancelled) {
+                for (int i = from; i < to; i++) {
+                    listeners.get(i).actionPerformed(actionEvent);
+                }
+            }
+        } catch (final Throwable e) {
+            FlatLafLogger.error(this, e);
+        } finally {
+            if (complete) {
+                complete(task, true);
+            }
+        }
+    }
+    
+    /**
+     * Completes current task cycle and schedules next one if needed.
+     *
+     * @param task
+     *            completed task
+     * @param fired
+     *            whether events were fired within this cycle or not
+     */
+    protected void complete(final Task task, final boolean fired) {
+        lock.lock();
+        try {
+            task.scheduler.inFlight--;
+            if (task.cancelled) {
+                task.scheduler.signal();
+                return;
+            }
+            
+            final WebTimer timer = task.timer;
+            if (fired) {
+                timer.cycleCount++;
+            }
+            if (fired && timer.isRepeats()
+                    && timer.isCycleAllowed(timer.cycleCount)) {
+                // Waiting for next execution
+                task.scheduler.schedule(task, timer.getDelay());
+            } else {
+                // Removing finished timer
+                tasks.remove(timer);
+                task.scheduler.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Single running timer task.
+     */
+    protected class Task implements Comparable<Task> {
+        /**
+         * Running timer.
+         */
+        protected final WebTimer timer;
+        
+        /**
+         * Scheduler this task is running within.
+         */
+        protected final Scheduler scheduler;
+        
+        /**
+         * Next cycle deadline in nanoseconds.
+         */
+        protected long deadline;
+        
+        /**
+         * Task sequence number for tasks with equal deadlines.
+         */
+        protected long number;
+        
+        /**
+         * Whether this task was cancelled or not.
+         */
+        protected volatile boolean cancelled = false;
+        
+        /**
+         * Constructs new task for the specified timer.
+         *
+         * @param timer
+         *            running timer
+         * @param scheduler
+         *            scheduler this task is running within
+         */
+        public Task(final WebTimer timer, final Scheduler scheduler) {
+            super();
+            this.timer = timer;
+            this.scheduler = scheduler;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int compareTo(final Task other) {
+            if (deadline != other.deadline) {
+                return deadline - other.deadline < 0 ? -1 : 1;
+            }
+            return number < other.number ? -1 : number > other.number ? 1 : 0;
+        }
+    }
+    
+    /**
+     * Deadline queue served by a single thread.
+     */
+    protected class Scheduler implements Runnable {
+        /**
+         * Scheduler thread name.
+         */
+        protected final String name;
+        
+        /**
+         * Whether scheduler thread is a daemon or not.
+         */
+        protected final boolean daemon;
+        
+        /**
+         * Tasks waiting for their deadlines.
+         */
+        protected final PriorityQueue<Task> queue = new PriorityQueue<Task>();
+        
+        /**
+         * Condition used to wait for the closest deadline.
+         */
+        protected final Condition changed = lock.newCondition();
+        
+        /**
+         * Amount of tasks currently firing their events.
+         */
+        protected int inFlight = 0;
+        
+        /**
+         * Scheduler thread, null when scheduler is idle.
+         */
+        protected Thread thread = null;
+        
+        /**
+         * Constructs new scheduler.
+         *
+         * @param name
+         *            scheduler thread name
+         * @param daemon
+         *            whether scheduler thread is a daemon or not
+         */
+        public Scheduler(final String name, final boolean daemon) {
+            super();
+            this.name = name;
+            this.daemon = daemon;
+        }
+        
+        /**
+         * Schedules task cycle after the specified delay. Should be called
+         * under the lock.
+         *
+         * @param task
+         *            task to schedule
+         * @param delay
+         *            delay in milliseconds
+         */
+        protected void schedule(final Task task, final long delay) {
+            task.timer.sleepStart = System.currentTimeMillis();
+            task.timer.sleepTime = delay;
+            task.deadline = System.nanoTime()
+                    + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delay));
+            task.number = sequence++;
+            queue.add(task);
+            if (thread == null) {
+                thread = new Thread(this, name);
+                thread.setDaemon(daemon);
+                thread.start();
+            } else {
+                changed.signal();
+            }
+        }
+        
+        /**
+         * Removes task from the queue. Should be called under the lock.
+         *
+         * @param task
+         *            task to remove
+         */
+        protected void cancel(final Task task) {
+            queue.remove(task);
+            changed.signal();
+        }
+        
+        /**
+         * Wakes up scheduler thread. Should be called under the lock.
+         */
+        protected void signal() {
+            changed.signal();
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+            while (true) {
+                final Task task;
+                lock.lock();
+                try {
+                    task = awaitTask();
+                    if (task == null) {
+                        thread = null;
+                        return;
+                    }
+                    inFlight++;
+                } finally {
+                    lock.unlock();
+                }
+                fire(task);
+            }
+        }
+        
+        /**
+         * Waits for the next task deadline. Should be called under the lock.
+         *
+         * @return next task to fire or null if scheduler should stop
+         */
+        protected Task awaitTask() {
+            boolean idle = false;
+            while (true) {
+                final Task head = queue.peek();
+                try {
+                    if (head == null) {
+                        if (inFlight > 0) {
+                            // Waiting for events being fired
+                            changed.await();
+                        } else if (idle) {
+                            // Nothing left to do
+                            return null;
+                        } else {
+                            // Waiting for new timers
+                            changed.await(keepAliveTime, TimeUnit.MILLISECONDS);
+                            idle = true;
+                        }
+                    } else {
+                        idle = false;
+                        final long left = head.deadline - System.nanoTime();
+                        if (left <= 0) {
+                            return queue.poll();
+                        }
+                        changed.awaitNanos(left);
+                    }
+                } catch (final InterruptedException e) {
+                    // Scheduler thread should never be interrupted
+                    FlatLafLogger.error(SharedTimerBackend.this, e);
+                }
+            }
+        }
+    }
+}
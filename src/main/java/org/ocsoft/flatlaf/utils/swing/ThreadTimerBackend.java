@@ -0,0 +1,183 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.utils.swing;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
+
+/**
+ * WebTimer backend that creates a separate thread for each running timer.
+ * <p/>
+ * This is the original WebTimer execution model. It doesn't affect any other
+ * timers while waiting or dispatching events but each running timer costs a
+ * live thread.
+ *
+ * @author Mikle Garin
+ * @see org.ocsoft.flatlaf.utils.swing.WebTimerBackend
+ */
+public class ThreadTimerBackend implements WebTimerBackend {
+    /**
+     * Shared backend instance.
+     */
+    private static ThreadTimerBackend instance;
+    
+    /**
+     * Amount of currently live timer threads.
+     */
+    protected final AtomicInteger liveThreads = new AtomicInteger(0);
+    
+    /**
+     * Returns shared backend instance.
+     *
+     * @return shared backend instance
+     */
+    public static synchronized ThreadTimerBackend getInstance() {
+        if (instance == null) {
+            instance = new ThreadTimerBackend();
+        }
+        return instance;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void start(final WebTimer timer) {
+        // Saving current thread unique id
+        timer.lastId = timer.id;
+        timer.id++;
+        
+        // Starting new cycling thread
+        final int currentId = timer.lastId;
+        timer.exec = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                // Adding a live thread into map
+                timer.setAlive(currentId, true);
+                
+                try {
+                    // Initial delay
+                    final long actualInitialDelay = timer.getInitialDelay() < 0 ? timer
+                            .getDelay() : timer.getInitialDelay();
+                    if (actualInitialDelay > 0) {
+                        timer.sleepStart = System.currentTimeMillis();
+                        timer.sleepTime = actualInitialDelay;
+                        Thread.sleep(actualInitialDelay);
+                    }
+                    
+                    // Checking if we sould stop execution
+                    if (timer.shouldContinue(-1, currentId)) {
+                        // Clearing cycles count
+                        timer.cycleCount = 0;
+                        
+                        // Starting cycles execution
+                        if (timer.repeats) {
+                            // Repeated events
+                            while (timer.shouldContinue(timer.cycleCount,
+                                    currentId)) {
+                                // Firing events
+                                timer.fireActionPerformed();
+                                
+                                // Incrementing cycles count
+                                timer.cycleCount++;
+                                
+                                // Checking if we sould stop execution due to
+                                // changes through events
+                                if (!timer.shouldContinue(timer.cycleCount,
+                                        currentId)) {
+                                    break;
+                                }
+                                
+                                // Waiting for next execution
+                                if (timer.getDelay() > 0) {
+                                    final long currentDelay = timer.getDelay();
+                                    timer.sleepStart = System
+                                            .currentTimeMillis();
+                                    timer.sleepTime = currentDelay;
+                                    Thread.sleep(currentDelay);
+                                }
+                            }
+                        } else {
+                            // Single event
+                            timer.fireActionPerformed();
+                            
+                            // Incrementing cycles count
+                            timer.cycleCount++;
+                        }
+                    }
+                } catch (final InterruptedException e) {
+                    // Execution interrupted
+                } finally {
+                    // Removing finished thread from map
+                    timer.cleanUp(currentId);
+                    liveThreads.decrementAndGet();
+                }
+            }
+        }, timer.getName());
+        timer.exec.setDaemon(timer.isUseDaemonThread());
+        liveThreads.incrementAndGet();
+        timer.exec.start();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stop(final WebTimer timer) {
+        final Thread exec = timer.exec;
+        if (exec != null) {
+            // Interrupt thread
+            exec.interrupt();
+            
+            // Stop execution from inside
+            timer.setAlive(timer.lastId, false);
+            
+            // Wait for execution to stop
+            try {
+                exec.join();
+            } catch (final InterruptedException e) {
+                FlatLafLogger.error(this, e);
+            }
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRunning(final WebTimer timer) {
+        return timer.exec != null && timer.exec.isAlive();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getTimersCount() {
+        return liveThreads.get();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getThreadsCount() {
+        return liveThreads.get();
+    }
+}
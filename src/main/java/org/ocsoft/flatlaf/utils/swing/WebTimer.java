@@ -21,22 +21,26 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Hashtable;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.swing.SwingUtilities;
 
 import org.ocsoft.flatlaf.utils.TimeUtils;
 import org.ocsoft.flatlaf.utils.collection.CollectionUtils;
-import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
 
 /**
  * This timer is a small extension for standart javax.swing.Timer. Instead of
- * running in a single queue it creates separate Threads for each timer and does
- * not affect event-dispatching thread, until events are dispatched. This
- * basically means that you can use any number of Timer instances and you can
- * run them alltogether without having any issues.
+ * running in event-dispatching thread queue it waits for its cycles within a
+ * pluggable backend and does not affect event-dispatching thread, until events
+ * are dispatched. By default all timers share a single scheduler thread with a
+ * deadline queue, so you can use any number of Timer instances and you can run
+ * them alltogether without having any issues. Separate thread for each timer
+ * can still be used through ThreadTimerBackend.
  * <p/>
  * Also this Timer implementation offers a variety of additional features and
  * improvements which standard timer doesn't have (for example you can dispatch
@@ -46,6 +50,7 @@ import org.ocsoft.flatlaf.utils.system.FlatLafLogger;
  * @author Mikle Garin
  * @see javax.swing.Timer
  * @see org.ocsoft.flatlaf.utils.swing.TimerActionListener
+ * @see org.ocsoft.flatlaf.utils.swing.WebTimerBackend
  */
 public class WebTimer {
     /**
@@ -71,6 +76,17 @@ public class WebTimer {
      */
     public static boolean useEdtByDefault = true;
     
+    /**
+     * Backend used by timers which do not have their own backend specified.
+     */
+    private static WebTimerBackend defaultBackend = null;
+    
+    /**
+     * Backends which were used to run timers so far.
+     */
+    private static final Set<WebTimerBackend> usedBackends = Collections
+            .newSetFromMap(new IdentityHashMap<WebTimerBackend, Boolean>());
+    
     /**
      * Timer event listeners list.
      */
@@ -108,10 +124,20 @@ public class WebTimer {
     protected int cycleCount = 0;
     
     /**
-     * Last timer thread.
+     * Last timer thread, used only by thread-per-timer backend.
      */
     protected Thread exec = null;
     
+    /**
+     * Timer execution backend, null to use default backend.
+     */
+    protected WebTimerBackend backend = null;
+    
+    /**
+     * Backend which executes this timer at the moment.
+     */
+    protected WebTimerBackend runningBackend = null;
+    
     /**
      * Delay between timer cycles in milliseconds.
      */
@@ -605,6 +631,37 @@ public class WebTimer {
         return this;
     }
     
+    /**
+     * Returns timer execution backend or null if default backend is used.
+     *
+     * @return timer execution backend or null if default backend is used
+     */
+    public WebTimerBackend getBackend() {
+        return backend;
+    }
+    
+    /**
+     * Sets timer execution backend, null to use default backend. This option
+     * should be set before starting timer to have any effect.
+     *
+     * @param backend
+     *            timer execution backend
+     * @return this timer
+     */
+    public WebTimer setBackend(final WebTimerBackend backend) {
+        this.backend = backend;
+        return this;
+    }
+    
+    /**
+     * Returns backend which should be used to run this timer.
+     *
+     * @return backend which should be used to run this timer
+     */
+    protected WebTimerBackend getActualBackend() {
+        return backend != null ? backend : getDefaultBackend();
+    }
+    
     /**
      * Returns time passed in milliseconds since curent cycle start. Cycle
      * includes its delay time and execution time.
@@ -754,11 +811,11 @@ public class WebTimer {
      * @return true if this timer is running, false otherwise
      */
     public synchronized boolean isRunning() {
-        return exec != null && exec.isAlive();
+        return runningBackend != null && runningBackend.isRunning(this);
     }
     
     /**
-     * Starts timer execution thread.
+     * Starts timer execution using its backend.
      */
     protected synchronized void startExec() {
         // Ignore if timer is already running
@@ -766,75 +823,11 @@ public class WebTimer {
             return;
         }
         
-        // Saving current thread unique id
-        lastId = id;
-        id++;
-        
-        // Starting new cycling thread
-        final int currentId = lastId;
-        exec = new Thread(new Runnable() {
-            @Override
-            public void run() {
-                // Adding a live thread into map
-                setAlive(currentId, true);
-                
-                try {
-                    // Initial delay
-                    final long actualInitialDelay = getInitialDelay() < 0 ? getDelay()
-                            : getInitialDelay();
-                    if (actualInitialDelay > 0) {
-                        sleepStart = System.currentTimeMillis();
-                        sleepTime = actualInitialDelay;
-                        Thread.sleep(actualInitialDelay);
-                    }
-                    
-                    // Checking if we sould stop execution
-                    if (shouldContinue(-1, currentId)) {
-                        // Clearing cycles count
-                        cycleCount = 0;
-                        
-                        // Starting cycles execution
-                        if (repeats) {
-                            // Repeated events
-                            while (shouldContinue(cycleCount, currentId)) {
-                                // Firing events
-                                fireActionPerformed();
-                                
-                                // Incrementing cycles count
-                                cycleCount++;
-                                
-                                // Checking if we sould stop execution due to
-                                // changes through events
-                                if (!shouldContinue(cycleCount, currentId)) {
-                                    break;
-                                }
-                                
-                                // Waiting for next execution
-                                if (getDelay() > 0) {
-                                    final long currentDelay = getDelay();
-                                    sleepStart = System.currentTimeMillis();
-                                    sleepTime = currentDelay;
-                                    Thread.sleep(currentDelay);
-                                }
-                            }
-                        } else {
-                            // Single event
-                            fireActionPerformed();
-                            
-                            // Incrementing cycles count
-                            cycleCount++;
-                        }
-                    }
-                } catch (final InterruptedException e) {
-                    // Execution interrupted
-                }
-                
-                // Removing finished thread from map
-                cleanUp(currentId);
-            }
-        }, name);
-        exec.setDaemon(useDaemonThread);
-        exec.start();
+        // Starting execution within actual backend
+        runningBackend = getActualBackend();
+        registerBackend(runningBackend);
+        cycleCount = 0;
+        runningBackend.start(this);
     }
     
     /**
@@ -850,7 +843,7 @@ public class WebTimer {
      */
     protected boolean shouldContinue(final int cycle, final int id) {
         return running.get(id) && !Thread.currentThread().isInterrupted()
-                && (cyclesLimit <= 0 || cyclesLimit > cycle);
+                && isCycleAllowed(cycle);
     }
     
     /**
@@ -875,23 +868,25 @@ public class WebTimer {
         running.remove(id);
     }
     
+    /**
+     * Returns whether timer cycle with the specified number is allowed by
+     * cycles limit or not.
+     *
+     * @param cycle
+     *            cycle number
+     * @return true if timer cycle with the specified number is allowed by
+     *         cycles limit, false otherwise
+     */
+    protected boolean isCycleAllowed(final int cycle) {
+        return cyclesLimit <= 0 || cyclesLimit > cycle;
+    }
+    
     /**
      * Stops timer execution.
      */
     protected synchronized void stopExec() {
-        if (exec != null) {
-            // Interrupt thread
-            exec.interrupt();
-            
-            // Stop execution from inside
-            setAlive(lastId, false);
-            
-            // Wait for execution to stop
-            try {
-                exec.join();
-            } catch (final InterruptedException e) {
-                FlatLafLogger.error(this, e);
-            }
+        if (runningBackend != null) {
+            runningBackend.stop(this);
         }
     }
     
@@ -997,6 +992,73 @@ public class WebTimer {
                 + getInitialStringDelay() + ")";
     }
     
+    /**
+     * Returns backend used by timers which do not have their own backend
+     * specified.
+     *
+     * @return default timers backend
+     */
+    public static synchronized WebTimerBackend getDefaultBackend() {
+        if (defaultBackend == null) {
+            defaultBackend = SharedTimerBackend.getInstance();
+        }
+        return defaultBackend;
+    }
+    
+    /**
+     * Sets backend used by timers which do not have their own backend
+     * specified. Timers which are already running are not affected.
+     *
+     * @param backend
+     *            default timers backend, null to use shared scheduler backend
+     */
+    public static synchronized void setDefaultBackend(
+            final WebTimerBackend backend) {
+        defaultBackend = backend;
+    }
+    
+    /**
+     * Remembers backend used to run timers.
+     *
+     * @param backend
+     *            backend used to run timers
+     */
+    private static void registerBackend(final WebTimerBackend backend) {
+        synchronized (usedBackends) {
+            usedBackends.add(backend);
+        }
+    }
+    
+    /**
+     * Returns amount of currently running timers across all used backends.
+     *
+     * @return amount of currently running timers
+     */
+    public static int getRunningTimersCount() {
+        int count = 0;
+        synchronized (usedBackends) {
+            for (final WebTimerBackend backend : usedBackends) {
+                count += backend.getTimersCount();
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Returns amount of live threads used by timers across all used backends.
+     *
+     * @return amount of live threads used by timers
+     */
+    public static int getLiveThreadsCount() {
+        int count = 0;
+        synchronized (usedBackends) {
+            for (final WebTimerBackend backend : usedBackends) {
+                count += backend.getThreadsCount();
+            }
+        }
+        return count;
+    }
+    
     /**
      * Returns newly created and started timer that doesn't repeat and has the
      * specified delay and action listener.
@@ -0,0 +1,72 @@
+/*
+ * This file is part of WebLookAndFeel library.
+ *
+ * WebLookAndFeel library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WebLookAndFeel library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WebLookAndFeel library.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.ocsoft.flatlaf.utils.swing;
+
+/**
+ * This interface represents WebTimer execution backend.
+ * <p/>
+ * Backend decides which threads are used to wait for timer cycles and to
+ * dispatch timer events. Any backend should respect timer settings like delays,
+ * repeats, cycles limit, coalesce and event dispatch thread usage.
+ *
+ * @author Mikle Garin
+ * @see org.ocsoft.flatlaf.utils.swing.WebTimer
+ * @see org.ocsoft.flatlaf.utils.swing.SharedTimerBackend
+ * @see org.ocsoft.flatlaf.utils.swing.ThreadTimerBackend
+ */
+public interface WebTimerBackend {
+    /**
+     * Starts specified timer execution.
+     *
+     * @param timer
+     *            timer to start
+     */
+    public void start(WebTimer timer);
+    
+    /**
+     * Stops specified timer execution.
+     *
+     * @param timer
+     *            timer to stop
+     */
+    public void stop(WebTimer timer);
+    
+    /**
+     * Returns whether specified timer is running within this backend or not.
+     *
+     * @param timer
+     *            timer to check
+     * @return true if specified timer is running within this backend, false
+     *         otherwise
+     */
+    public boolean isRunning(WebTimer timer);
+    
+    /**
+     * Returns amount of timers currently running within this backend.
+     *
+     * @return amount of timers currently running within this backend
+     */
+    public int getTimersCount();
+    
+    /**
+     * Returns amount of live threads currently used by this backend.
+     *
+     * @return amount of live threads currently used by this backend
+     */
+    public int getThreadsCount();
+}
@@ -37,6 +37,8 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import javax.swing.ImageIcon;
 
@@ -81,7 +83,15 @@ public final class XmlUtils {
     /**
      * XStream instance.
      */
-    private static XStream xStream = null;
+    private static volatile XStream xStream = null;
+    
+    /**
+     * XStream configuration lock.
+     * XStream can be used from multiple threads at once but its configuration
+     * cannot be changed while it is in use, so configuration methods acquire
+     * write lock and serialization methods acquire read lock.
+     */
+    private static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
     
     /**
      * Returns global XStream instance configured with all required aliases and
@@ -91,18 +101,49 @@ public final class XmlUtils {
      */
     public static XStream getXStream() {
         if (xStream == null) {
-            initializeXStream();
+            synchronized (XmlUtils.class) {
+                if (xStream == null) {
+                    initializeXStream();
+                }
+            }
         }
         return xStream;
     }
     
+    /**
+     * Returns acquired lock for XStream configuration changes.
+     * Read lock is acquired instead if current thread is already using
+     * XStream, for example when some class aliases are processed within class
+     * initialization caused by deserialization, since read lock cannot be
+     * upgraded.
+     *
+     * @return acquired lock for XStream configuration changes
+     */
+    private static Lock lockConfiguration() {
+        final Lock l = lock.getReadHoldCount() > 0 ? lock.readLock() : lock
+                .writeLock();
+        l.lock();
+        return l;
+    }
+    
+    /**
+     * Returns acquired lock for XStream usage.
+     *
+     * @return acquired lock for XStream usage
+     */
+    private static Lock lockUsage() {
+        final Lock l = lock.readLock();
+        l.lock();
+        return l;
+    }
+    
     /**
      * Initializes global XStream instance.
      */
     private static void initializeXStream() {
         try {
             // XStream instnce initialization
-            xStream = new XStream(new DomDriver());
+            final XStream xStream = new XStream(new DomDriver());
             // xStream.setMode ( XStream.ID_REFERENCES );
             
             // Standart Java-classes aliases
@@ -134,6 +175,8 @@ public final class XmlUtils {
             // Additional WebLaF data classes aliases
             xStream.processAnnotations(ValuesTable.class);
             xStream.processAnnotations(Pair.class);
+            
+            XmlUtils.xStream = xStream;
         } catch (final Throwable e) {
             FlatLafLogger.error(XmlUtils.class, e);
         }
@@ -148,7 +191,12 @@ public final class XmlUtils {
      *            the type with XStream annotations
      */
     public static void processAnnotations(final Class type) {
-        getXStream().processAnnotations(type);
+        final Lock l = lockConfiguration();
+        try {
+            getXStream().processAnnotations(type);
+        } finally {
+            l.unlock();
+        }
     }
     
     /**
@@ -158,7 +206,12 @@ public final class XmlUtils {
      *            the types with XStream annotations
      */
     public static void processAnnotations(final Class[] types) {
-        getXStream().processAnnotations(types);
+        final Lock l = lockConfiguration();
+        try {
+            getXStream().processAnnotations(types);
+        } finally {
+            l.unlock();
+        }
     }
     
     /**
@@ -170,7 +223,12 @@ public final class XmlUtils {
      *            Type to be aliased
      */
     public static void alias(final String name, final Class type) {
-        getXStream().alias(name, type);
+        final Lock l = lockConfiguration();
+        try {
+            getXStream().alias(name, type);
+        } finally {
+            l.unlock();
+        }
     }
     
     /**
@@ -182,7 +240,12 @@ public final class XmlUtils {
      *            the Class containing such field
      */
     public static void useAttributeFor(final Class type, final String field) {
-        getXStream().useAttributeFor(type, field);
+        final Lock l = lockConfiguration();
+        try {
+            getXStream().useAttributeFor(type, field);
+        } finally {
+            l.unlock();
+        }
     }
     
     /**
@@ -194,7 +257,12 @@ public final class XmlUtils {
      *            name of the array field
      */
     public static void addImplicitArray(final Class type, final String field) {
-        getXStream().addImplicitArray(type, field);
+        final Lock l = lockConfiguration();
+        try {
+            getXStream().addImplicitArray(type, field);
+        } finally {
+            l.unlock();
+        }
     }
     
     /**
@@ -210,7 +278,12 @@ public final class XmlUtils {
      */
     public static void addImplicitArray(final Class type, final String field,
             final String itemName) {
-        getXStream().addImplicitArray(type, field, itemName);
+        final Lock l = lockConfiguration();
+        try {
+            getXStream().addImplicitArray(type, field, itemName);
+        } finally {
+            l.unlock();
+        }
     }
     
     /**
@@ -220,7 +293,12 @@ public final class XmlUtils {
      *            the new converter
      */
     public static void registerConverter(final Converter converter) {
-        getXStream().registerConverter(converter);
+        final Lock l = lockConfiguration();
+        try {
+            getXStream().registerConverter(converter);
+        } finally {
+            l.unlock();
+        }
     }
     
     /**
@@ -230,7 +308,12 @@ public final class XmlUtils {
      *            the new converter
      */
     public static void registerConverter(final SingleValueConverter converter) {
-        getXStream().registerConverter(converter);
+        final Lock l = lockConfiguration();
+        try {
+            getXStream().registerConverter(converter);
+        } finally {
+            l.unlock();
+        }
     }
     
     /**
@@ -244,8 +327,13 @@ public final class XmlUtils {
      */
     public static <T extends AliasProvider> void alias(
             final Class<T> aliasProvider) {
-        ReflectUtils.callStaticMethodSafely(aliasProvider,
-                AliasProvider.methodName, getXStream());
+        final Lock l = lockConfiguration();
+        try {
+            ReflectUtils.callStaticMethodSafely(aliasProvider,
+                    AliasProvider.methodName, getXStream());
+        } finally {
+            l.unlock();
+        }
     }
     
     /**
@@ -288,7 +376,12 @@ public final class XmlUtils {
      * @return serialized into XML object representation
      */
     public static String toXML(final Object obj) {
-        return getXStream().toXML(obj);
+        final Lock l = lockUsage();
+        try {
+            return getXStream().toXML(obj);
+        } finally {
+            l.unlock();
+        }
     }
     
     /**
@@ -300,7 +393,12 @@ public final class XmlUtils {
      *            output writer
      */
     public static void toXML(final Object obj, final Writer out) {
-        getXStream().toXML(obj, out);
+        final Lock l = lockUsage();
+        try {
+            getXStream().toXML(obj, out);
+        } finally {
+            l.unlock();
+        }
     }
     
     /**
@@ -312,7 +410,12 @@ public final class XmlUtils {
      *            output stream
      */
     public static void toXML(final Object obj, final OutputStream out) {
-        getXStream().toXML(obj, out);
+        final Lock l = lockUsage();
+        try {
+            getXStream().toXML(obj, out);
+        } finally {
+            l.unlock();
+        }
     }
     
     /**
@@ -326,7 +429,12 @@ public final class XmlUtils {
      */
     public static void toXML(final Object obj,
             final HierarchicalStreamWriter writer) {
-        getXStream().marshal(obj, writer);
+        final Lock l = lockUsage();
+        try {
+            getXStream().marshal(obj, writer);
+        } finally {
+            l.unlock();
+        }
     }
     
     /**
@@ -339,7 +447,12 @@ public final class XmlUtils {
      * @return deserialized object
      */
     public static <T> T fromXML(final Reader reader) {
-        return (T) getXStream().fromXML(reader);
+        final Lock l = lockUsage();
+        try {
+            return (T) getXStream().fromXML(reader);
+        } finally {
+            l.unlock();
+        }
     }
     
     /**
@@ -352,7 +465,12 @@ public final class XmlUtils {
      * @return deserialized object
      */
     public static <T> T fromXML(final InputStream input) {
-        return (T) getXStream().fromXML(input);
+        final Lock l = lockUsage();
+        try {
+            return (T) getXStream().fromXML(input);
+        } finally {
+            l.unlock();
+        }
     }
     
     /**
@@ -365,7 +483,12 @@ public final class XmlUtils {
      * @return deserialized object
      */
     public static <T> T fromXML(final URL url) {
-        return (T) getXStream().fromXML(url);
+        final Lock l = lockUsage();
+        try {
+            return (T) getXStream().fromXML(url);
+        } finally {
+            l.unlock();
+        }
     }
     
     /**
@@ -378,7 +501,12 @@ public final class XmlUtils {
      * @return deserialized object
      */
     public static <T> T fromXML(final File file) {
-        return (T) getXStream().fromXML(file);
+        final Lock l = lockUsage();
+        try {
+            return (T) getXStream().fromXML(file);
+        } finally {
+            l.unlock();
+        }
     }
     
     /**
@@ -391,7 +519,12 @@ public final class XmlUtils {
      * @return deserialized object
      */
     public static <T> T fromXML(final String xml) {
-        return (T) getXStream().fromXML(xml);
+        final Lock l = lockUsage();
+        try {
+            return (T) getXStream().fromXML(xml);
+        } finally {
+            l.unlock();
+        }
     }
     
     /**
@@ -33,6 +33,7 @@ import java.util.Map;
 import javax.swing.ImageIcon;
 
 import org.ocsoft.flatlaf.utils.ColorUtils;
+import org.ocsoft.flatlaf.utils.filters.BlurType;
 import org.ocsoft.flatlaf.utils.laf.FocusType;
 import org.ocsoft.flatlaf.utils.laf.ShadeType;
 
@@ -74,6 +75,12 @@ public class FlatLafStyleConstants {
     public static ShadeType shadeType = ShadeType.simple;
     public static float simpleShadeTransparency = 0.7f;
     
+    /**
+     * Blur algorithm used to create shade images by default. Painters may
+     * override it, for example through skin settings.
+     */
+    public static BlurType shadeBlurType = BlurType.gaussian;
+    
     /**
      * Disabled component icons transparency.
      */
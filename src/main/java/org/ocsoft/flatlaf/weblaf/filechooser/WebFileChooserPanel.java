@@ -1497,7 +1497,7 @@ public class WebFileChooserPanel extends WebPanel {
     public void reloadCurrentFolder() {
         // Clearing all caches for folder files
         if (currentFolder != null) {
-            FileUtils.clearFilesCaches(currentFolder.listFiles());
+            FileUtils.clearDirectoryFilesCaches(currentFolder);
         }
         
         // Updating view in a specific way
@@ -77,8 +77,15 @@ public class WebTreeModel<E extends DefaultMutableTreeNode> extends
      */
     public void insertNodesInto(final List<E> children, final E parent,
             final int index) {
-        for (int i = children.size() - 1; i >= 0; i--) {
-            parent.insert(children.get(i), index);
+        if (index == parent.getChildCount()) {
+            // Appending nodes one by one avoids shifting existing ones
+            for (int i = 0; i < children.size(); i++) {
+                parent.add(children.get(i));
+            }
+        } else {
+            for (int i = children.size() - 1; i >= 0; i--) {
+                parent.insert(children.get(i), index);
+            }
         }
         
         final int[] indices = new int[children.size()];
@@ -101,8 +108,15 @@ public class WebTreeModel<E extends DefaultMutableTreeNode> extends
      */
     public void insertNodesInto(final E[] children, final E parent,
             final int index) {
-        for (int i = children.length - 1; i >= 0; i--) {
-            parent.insert(children[i], index);
+        if (index == parent.getChildCount()) {
+            // Appending nodes one by one avoids shifting existing ones
+            for (int i = 0; i < children.length; i++) {
+                parent.add(children[i]);
+            }
+        } else {
+            for (int i = children.length - 1; i >= 0; i--) {
+                parent.insert(children[i], index);
+            }
         }
         
         final int[] indices = new int[children.length];
@@ -0,0 +1,267 @@
+package org.ocsoft.flatlaf.extended.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.After;
+import org.junit.Test;
+import org.ocsoft.flatlaf.weblaf.tree.AsyncUniqueNode;
+
+/**
+ * AsyncTreeModel chunked loading and cancellation tests.
+ *
+ * @author Mikle Garin
+ */
+
+public class AsyncTreeModelTest {
+    /**
+     * Tree node identified by its name.
+     */
+    private static class TestNode extends AsyncUniqueNode {
+        /**
+         * Serialization version.
+         */
+        private static final long serialVersionUID = 4385930461828562617L;
+        
+        public TestNode(final String id) {
+            super(id, id);
+        }
+    }
+    
+    /**
+     * Tree nodes data provider which loads root childs in chunks and waits
+     * for the permission to load "blocked" node childs.
+     */
+    private static class ChunksDataProvider extends
+            AbstractAsyncTreeDataProvider<AsyncUniqueNode> {
+        /**
+         * Root node.
+         */
+        private final AsyncUniqueNode root = new TestNode("root");
+        
+        /**
+         * Root childs chunks.
+         */
+        private final List<List<String>> chunks;
+        
+        /**
+         * Permission to load "blocked" node childs.
+         */
+        private final CountDownLatch unblock = new CountDownLatch(1);
+        
+        public ChunksDataProvider(final List<List<String>> chunks) {
+            super();
+            this.chunks = chunks;
+            setChildsComparator(new Comparator<AsyncUniqueNode>() {
+                @Override
+                public int compare(final AsyncUniqueNode n1,
+                        final AsyncUniqueNode n2) {
+                    return n1.getId().compareTo(n2.getId());
+                }
+            });
+        }
+        
+        @Override
+        public AsyncUniqueNode getRoot() {
+            return root;
+        }
+        
+        @Override
+        public void loadChilds(final AsyncUniqueNode node,
+                final ChildsListener<AsyncUniqueNode> listener) {
+            if (node == root) {
+                // Last chunk is passed as remaining childs
+                final ChildsChunkListener<AsyncUniqueNode> chunkListener = (ChildsChunkListener<AsyncUniqueNode>) listener;
+                for (int i = 0; i < chunks.size() - 1; i++) {
+                    chunkListener.childsChunkLoaded(createNodes(chunks.get(i)));
+                    
+                    // Next chunk is inserted among already inserted childs
+                    waitForEdt();
+                }
+                listener.childsLoadCompleted(createNodes(chunks.get(chunks
+                        .size() - 1)));
+            } else {
+                if (node.getId().equals("blocked")) {
+                    try {
+                        unblock.await(10, TimeUnit.SECONDS);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                listener.childsLoadCompleted(new ArrayList<AsyncUniqueNode>());
+            }
+        }
+        
+        /**
+         * Waits until events queued into EDT are processed.
+         */
+        private void waitForEdt() {
+            try {
+                onEdt(new Runnable() {
+                    @Override
+                    public void run() {
+                        // Nothing to do here
+                    }
+                });
+            } catch (final Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+        
+        /**
+         * Returns nodes with the specified IDs.
+         *
+         * @param ids
+         *            node IDs
+         * @return nodes with the specified IDs
+         */
+        private List<AsyncUniqueNode> createNodes(final List<String> ids) {
+            final List<AsyncUniqueNode> nodes = new ArrayList<AsyncUniqueNode>(
+                    ids.size());
+            for (final String id : ids) {
+                nodes.add(new TestNode(id));
+            }
+            return nodes;
+        }
+    }
+    
+    @After
+    public void tearDown() {
+        AsyncTreeQueue.setMaximumThreadsAmount(null,
+                AsyncTreeQueue.threadsAmount);
+    }
+    
+    @Test
+    public void chunksAreInsertedSorted() throws Exception {
+        final ChunksDataProvider provider = new ChunksDataProvider(
+                Arrays.asList(Arrays.asList("d", "b"), Arrays.asList("e"),
+                        Arrays.asList("a", "c")));
+        final AsyncTreeModel<AsyncUniqueNode> model = new AsyncTreeModel<AsyncUniqueNode>(
+                null, provider);
+        
+        loadChilds(model, model.getRoot());
+        
+        final List<String> ids = new ArrayList<String>();
+        onEdt(new Runnable() {
+            @Override
+            public void run() {
+                final AsyncUniqueNode root = model.getRoot();
+                for (int i = 0; i < model.getChildCount(root); i++) {
+                    ids.add(model.getChild(root, i).getId());
+                }
+            }
+        });
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), ids);
+        assertTrue(model.getRoot().isLoaded());
+    }
+    
+    @Test
+    public void pendingLoadsAreCancelled() throws Exception {
+        final ChunksDataProvider provider = new ChunksDataProvider(
+                Arrays.asList(Arrays.asList("blocked", "pending")));
+        final AsyncTreeModel<AsyncUniqueNode> model = new AsyncTreeModel<AsyncUniqueNode>(
+                null, provider);
+        loadChilds(model, model.getRoot());
+        
+        // Single thread is busy with blocked node so other load stays pending
+        AsyncTreeQueue.setMaximumThreadsAmount(null, 1);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final CountDownLatch failed = new CountDownLatch(1);
+        model.addAsyncTreeModelListener(new AsyncTreeModelAdapter<AsyncUniqueNode>() {
+            @Override
+            public void childsLoadFailed(final AsyncUniqueNode parent,
+                    final Throwable cause) {
+                if (parent.getId().equals("pending")) {
+                    failure.set(cause);
+                    failed.countDown();
+                }
+            }
+        });
+        final AsyncUniqueNode blocked = model.findNode("blocked");
+        final AsyncUniqueNode pending = model.findNode("pending");
+        onEdt(new Runnable() {
+            @Override
+            public void run() {
+                model.getChildCount(blocked);
+                model.getChildCount(pending);
+                model.cancelChildsLoad(model.getRoot());
+            }
+        });
+        
+        assertTrue(failed.await(10, TimeUnit.SECONDS));
+        assertTrue(failure.get() instanceof CancellationException);
+        assertTrue(pending.isWaiting());
+        
+        // Cancelled node loads its childs again when requested
+        provider.unblock.countDown();
+        loadChilds(model, pending);
+        assertTrue(pending.isLoaded());
+    }
+    
+    /**
+     * Requests node childs and waits until they are loaded.
+     *
+     * @param model
+     *            tree model
+     * @param node
+     *            node to load childs for
+     * @throws Exception
+     *             if childs are not loaded in time
+     */
+    private static void loadChilds(final AsyncTreeModel<AsyncUniqueNode> model,
+            final AsyncUniqueNode node) throws Exception {
+        final CountDownLatch loaded = new CountDownLatch(1);
+        final AsyncTreeModelAdapter<AsyncUniqueNode> listener = new AsyncTreeModelAdapter<AsyncUniqueNode>() {
+            @Override
+            public void childsLoadCompleted(final AsyncUniqueNode parent,
+                    final List<AsyncUniqueNode> childs) {
+                if (parent == node) {
+                    loaded.countDown();
+                }
+            }
+        };
+        model.addAsyncTreeModelListener(listener);
+        try {
+            onEdt(new Runnable() {
+                @Override
+                public void run() {
+                    model.getChildCount(node);
+                }
+            });
+            assertTrue(loaded.await(10, TimeUnit.SECONDS));
+            
+            // Waiting for the events queued by load completion
+            onEdt(new Runnable() {
+                @Override
+                public void run() {
+                    // Nothing to do here
+                }
+            });
+        } finally {
+            model.removeAsyncTreeModelListener(listener);
+        }
+    }
+    
+    /**
+     * Runs the specified runnable on EDT and waits for it to complete.
+     *
+     * @param runnable
+     *            runnable to run
+     * @throws Exception
+     *             if runnable fails
+     */
+    private static void onEdt(final Runnable runnable) throws Exception {
+        SwingUtilities.invokeAndWait(runnable);
+    }
+}
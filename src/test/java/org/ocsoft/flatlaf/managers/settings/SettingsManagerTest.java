@@ -0,0 +1,150 @@
+package org.ocsoft.flatlaf.managers.settings;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.ocsoft.flatlaf.utils.file.FileUtils;
+
+/**
+ * SettingsManager group reset and journal tests.
+ *
+ * @author Mikle Garin
+ */
+
+public class SettingsManagerTest {
+    /**
+     * Tested settings group.
+     */
+    private static final String GROUP = "SettingsManagerTest";
+    
+    /**
+     * Settings group directory.
+     */
+    private File dir;
+    
+    @BeforeClass
+    public static void initialize() {
+        SettingsManager.initialize();
+    }
+    
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("settings").toFile();
+        SettingsManager.setGroupFilePath(GROUP, dir.getAbsolutePath());
+        SettingsManager.setJournalEnabled(true);
+    }
+    
+    @After
+    public void tearDown() {
+        SettingsManager.resetGroup(GROUP);
+        SettingsManager.flush();
+        FileUtils.deleteFile(dir);
+    }
+    
+    @Test
+    public void changesAreAppendedToJournal() {
+        SettingsManager.set(GROUP, "first", 1);
+        SettingsManager.flush();
+        assertTrue(getJournalFile().exists());
+        
+        SettingsManager.set(GROUP, "second", "value");
+        SettingsManager.resetValue(GROUP, "first");
+        SettingsManager.flush();
+        assertTrue(getJournalFile().exists());
+        
+        // Reloading group from its file and journal
+        unloadGroup();
+        assertNull(SettingsManager.getInteger(GROUP, "first"));
+        assertEquals("value", SettingsManager.getString(GROUP, "second"));
+    }
+    
+    @Test
+    public void journalIsMergedIntoGroupFile() {
+        final long compactSize = SettingsManager.getJournalCompactSize();
+        try {
+            SettingsManager.setJournalCompactSize(0);
+            SettingsManager.set(GROUP, "first", 1);
+            SettingsManager.flush();
+            for (int i = 0; i < 10; i++) {
+                SettingsManager.set(GROUP, "first", i);
+                SettingsManager.flush();
+                
+                // Journal never outgrows the group file
+                assertTrue(!getJournalFile().exists()
+                        || getJournalFile().length() <= getGroupFile().length());
+            }
+            
+            unloadGroup();
+            assertEquals(Integer.valueOf(9),
+                    SettingsManager.getInteger(GROUP, "first"));
+        } finally {
+            SettingsManager.setJournalCompactSize(compactSize);
+        }
+    }
+    
+    @Test
+    public void resetGroupRemovesSavedSettings() {
+        SettingsManager.set(GROUP, "first", 1);
+        SettingsManager.flush();
+        SettingsManager.set(GROUP, "second", 2);
+        SettingsManager.flush();
+        
+        SettingsManager.resetGroup(GROUP);
+        SettingsManager.flush();
+        
+        assertFalse(getGroupFile().exists());
+        assertFalse(getJournalFile().exists());
+        unloadGroup();
+        assertNull(SettingsManager.getInteger(GROUP, "first"));
+        assertNull(SettingsManager.getInteger(GROUP, "second"));
+    }
+    
+    @Test
+    public void resetGroupDropsPendingSaves() {
+        // Change is still waiting for the delayed save at this point
+        SettingsManager.set(GROUP, "first", 1);
+        SettingsManager.resetGroup(GROUP);
+        SettingsManager.flush();
+        
+        assertFalse(getGroupFile().exists());
+        assertFalse(getJournalFile().exists());
+        assertNull(SettingsManager.getInteger(GROUP, "first"));
+    }
+    
+    /**
+     * Removes loaded settings group so that it is read from disk again.
+     */
+    private static void unloadGroup() {
+        synchronized (SettingsManager.saveOnChangeLock) {
+            SettingsManager.groups.remove(GROUP);
+        }
+    }
+    
+    /**
+     * Returns settings group file.
+     *
+     * @return settings group file
+     */
+    private File getGroupFile() {
+        return SettingsManager.getGroupFile(GROUP, dir);
+    }
+    
+    /**
+     * Returns settings group journal file.
+     *
+     * @return settings group journal file
+     */
+    private File getJournalFile() {
+        return SettingsManager.getGroupJournalFile(GROUP, dir);
+    }
+}
@@ -0,0 +1,150 @@
+package org.ocsoft.flatlaf.managers.style.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ocsoft.flatlaf.utils.file.FileUtils;
+import org.ocsoft.flatlaf.utils.xml.XmlUtils;
+
+/**
+ * SkinBundle checksum invalidation tests.
+ *
+ * @author Mikle Garin
+ */
+
+public class SkinBundleTest {
+    /**
+     * Class skin XML file is located near, it is loaded from the temporary
+     * directory so that skin XML can be modified.
+     */
+    public static class Anchor {
+    }
+    
+    /**
+     * Skin XML file location.
+     */
+    private static final String LOCATION = "skin.xml";
+    
+    /**
+     * Temporary classpath directory.
+     */
+    private File dir;
+    
+    /**
+     * Skin XML file.
+     */
+    private File xml;
+    
+    /**
+     * Class loader of the temporary classpath directory.
+     */
+    private URLClassLoader loader;
+    
+    /**
+     * Class skin XML file is located near.
+     */
+    private Class<?> nearClass;
+    
+    @Before
+    public void setUp() throws Exception {
+        // Skin aliases
+        XmlUtils.processAnnotations(SkinInfo.class);
+        
+        // Copying anchor class into temporary classpath directory
+        dir = Files.createTempDirectory("skins").toFile();
+        final String className = Anchor.class.getName().replace('.', '/')
+                + ".class";
+        final File classFile = new File(dir, className);
+        FileUtils.ensureDirectoryExists(classFile.getParentFile());
+        final InputStream is = Anchor.class.getClassLoader()
+                .getResourceAsStream(className);
+        try {
+            Files.copy(is, classFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            is.close();
+        }
+        
+        // Anchor class is loaded from temporary directory only
+        loader = new URLClassLoader(new URL[] { dir.toURI().toURL() }, null);
+        nearClass = loader.loadClass(Anchor.class.getName());
+        xml = new File(classFile.getParentFile(), LOCATION);
+    }
+    
+    @After
+    public void tearDown() throws IOException {
+        loader.close();
+        FileUtils.deleteFile(dir);
+    }
+    
+    @Test
+    public void compiledBundleIsRead() throws IOException {
+        writeSkin("First skin");
+        final File bundle = SkinBundle.compile(nearClass, LOCATION);
+        assertTrue(bundle.exists());
+        
+        assertEquals("First skin", loadSkinName());
+    }
+    
+    @Test
+    public void bundleIsInvalidatedBySkinChange() throws IOException {
+        writeSkin("First skin");
+        SkinBundle.compile(nearClass, LOCATION);
+        
+        // Outdated bundle is ignored and skin XML is parsed instead
+        writeSkin("Second skin");
+        assertEquals("Second skin", loadSkinName());
+        
+        // Bundle compiled again is used
+        SkinBundle.compile(nearClass, LOCATION);
+        assertEquals("Second skin", loadSkinName());
+    }
+    
+    /**
+     * Returns name of the skin loaded from bundle or XML file.
+     *
+     * @return name of the skin loaded from bundle or XML file
+     */
+    private String loadSkinName() {
+        final boolean enabled = SkinBundle.enabled;
+        final String cacheDirectory = SkinBundle.cacheDirectory;
+        try {
+            SkinBundle.enabled = true;
+            SkinBundle.cacheDirectory = new File(dir, "cache")
+                    .getAbsolutePath();
+            return SkinBundle.loadSkinInfo(nearClass, LOCATION).getName();
+        } finally {
+            SkinBundle.enabled = enabled;
+            SkinBundle.cacheDirectory = cacheDirectory;
+        }
+    }
+    
+    /**
+     * Writes skin XML file with the specified skin name.
+     *
+     * @param name
+     *            skin name
+     * @throws IOException
+     *             if skin XML file cannot be written
+     */
+    private void writeSkin(final String name) throws IOException {
+        final String skin = "<skin>\n" + "    <id>test.skin</id>\n"
+                + "    <name>" + name + "</name>\n"
+                + "    <supportedSystems>all</supportedSystems>\n"
+                + "    <class>" + Anchor.class.getName() + "</class>\n"
+                + "</skin>\n";
+        Files.write(xml.toPath(), skin.getBytes(Charset.forName("UTF-8")));
+    }
+}
@@ -0,0 +1,137 @@
+package org.ocsoft.flatlaf.utils.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * FileMetadataCache behavior tests.
+ *
+ * @author Mikle Garin
+ */
+
+public class FileMetadataCacheTest {
+    /**
+     * Tested cache.
+     */
+    private FileMetadataCache cache;
+    
+    @Before
+    public void setUp() {
+        cache = new FileMetadataCache(10, 0);
+        cache.setWatchEnabled(false);
+    }
+    
+    @Test
+    public void cachedValuesAreReturned() {
+        assertSame(FileMetadataCache.NOT_CACHED,
+                cache.get(path(0), FileMetadataCache.LENGTH));
+        
+        cache.put(path(0), FileMetadataCache.LENGTH, 42L);
+        cache.put(path(0), FileMetadataCache.DESCRIPTION, null);
+        
+        assertEquals(42L, cache.get(path(0), FileMetadataCache.LENGTH));
+        assertNull(cache.get(path(0), FileMetadataCache.DESCRIPTION));
+        assertSame(FileMetadataCache.NOT_CACHED,
+                cache.get(path(0), FileMetadataCache.IS_HIDDEN));
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+    
+    @Test
+    public void cacheIsBoundedByMaxSize() {
+        fill(0, 20);
+        
+        assertEquals(10, cache.getSize());
+        assertSame(FileMetadataCache.NOT_CACHED,
+                cache.get(path(9), FileMetadataCache.LENGTH));
+        assertEquals(10L, cache.get(path(10), FileMetadataCache.LENGTH));
+    }
+    
+    @Test
+    public void leastRecentlyUsedFilesAreEvicted() {
+        fill(0, 10);
+        
+        // Using the oldest file so that the next one is evicted instead
+        cache.get(path(0), FileMetadataCache.LENGTH);
+        fill(10, 11);
+        
+        assertEquals(0L, cache.get(path(0), FileMetadataCache.LENGTH));
+        assertSame(FileMetadataCache.NOT_CACHED,
+                cache.get(path(1), FileMetadataCache.LENGTH));
+    }
+    
+    @Test
+    public void reservedCapacityIsReleased() {
+        cache.reserveCapacity(10);
+        fill(0, 20);
+        assertEquals(20, cache.getSize());
+        assertEquals(0L, cache.get(path(0), FileMetadataCache.LENGTH));
+        
+        // Least recently used files are evicted once capacity is released
+        cache.releaseCapacity(10);
+        assertEquals(10, cache.getSize());
+        assertSame(FileMetadataCache.NOT_CACHED,
+                cache.get(path(1), FileMetadataCache.LENGTH));
+        assertEquals(0L, cache.get(path(0), FileMetadataCache.LENGTH));
+        
+        // Releasing more than reserved doesn't shrink cache below its limit
+        cache.releaseCapacity(5);
+        fill(20, 30);
+        assertEquals(10, cache.getSize());
+    }
+    
+    @Test
+    public void loweringMaxSizeEvictsFiles() {
+        fill(0, 10);
+        cache.setMaxSize(5);
+        
+        assertEquals(5, cache.getSize());
+        assertEquals(9L, cache.get(path(9), FileMetadataCache.LENGTH));
+    }
+    
+    @Test
+    public void directoryFilesAreCleared() {
+        final String dir = new File("dir").getAbsolutePath();
+        cache.put(new File(dir, "a").getAbsolutePath(),
+                FileMetadataCache.LENGTH, 1L);
+        cache.put(new File(dir, "b").getAbsolutePath(),
+                FileMetadataCache.LENGTH, 2L);
+        cache.put(path(0), FileMetadataCache.LENGTH, 3L);
+        
+        cache.clearDirectory(dir);
+        
+        assertEquals(1, cache.getSize());
+        assertEquals(3L, cache.get(path(0), FileMetadataCache.LENGTH));
+    }
+    
+    /**
+     * Caches length for the files with the specified indices.
+     *
+     * @param from
+     *            first file index, inclusive
+     * @param to
+     *            last file index, exclusive
+     */
+    private void fill(final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            cache.put(path(i), FileMetadataCache.LENGTH, (long) i);
+        }
+    }
+    
+    /**
+     * Returns absolute path of the file with the specified index.
+     *
+     * @param index
+     *            file index
+     * @return absolute path of the file with the specified index
+     */
+    private static String path(final int index) {
+        return new File("file" + index).getAbsolutePath();
+    }
+}
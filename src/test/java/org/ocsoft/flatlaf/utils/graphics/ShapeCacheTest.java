@@ -0,0 +1,174 @@
+package org.ocsoft.flatlaf.utils.graphics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Rectangle;
+
+import javax.swing.JPanel;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ocsoft.flatlaf.utils.swing.DataProvider;
+
+/**
+ * ShapeCache behavior tests.
+ *
+ * @author Mikle Garin
+ */
+
+public class ShapeCacheTest {
+    /**
+     * Shape provider counting created shapes.
+     */
+    private static class CountingProvider implements DataProvider<Rectangle> {
+        /**
+         * Amount of created shapes.
+         */
+        private int created = 0;
+        
+        @Override
+        public Rectangle provide() {
+            created++;
+            return new Rectangle(created, created);
+        }
+    }
+    
+    @Before
+    public void setUp() {
+        ShapeCache.clearSharedCache();
+    }
+    
+    @After
+    public void tearDown() {
+        ShapeCache.setSharedCacheLimit(ShapeCache.DEFAULT_SHARED_CACHE_LIMIT);
+        ShapeCache.clearSharedCache();
+    }
+    
+    @Test
+    public void sameSettingsReturnCachedShape() {
+        final JPanel component = new JPanel();
+        final CountingProvider provider = new CountingProvider();
+        
+        final Rectangle first = ShapeCache.getShape(component, "shape",
+                provider, new int[] { 1, 2 });
+        final Rectangle second = ShapeCache.getShape(component, "shape",
+                provider, new int[] { 1, 2 });
+        
+        assertSame(first, second);
+        assertEquals(1, provider.created);
+        assertEquals(1, ShapeCache.getHits(component));
+        assertEquals(1, ShapeCache.getMisses(component));
+    }
+    
+    @Test
+    public void changedSettingsRecreateShape() {
+        final JPanel component = new JPanel();
+        final CountingProvider provider = new CountingProvider();
+        final int[] settings = { 1, 2 };
+        
+        final Rectangle first = ShapeCache.getShape(component, "shape",
+                provider, settings);
+        
+        // Settings array is reused by callers, so it has to be copied
+        settings[1] = 3;
+        final Rectangle second = ShapeCache.getShape(component, "shape",
+                provider, settings);
+        
+        assertNotSame(first, second);
+        assertEquals(2, provider.created);
+        assertSame(second, ShapeCache.getShape(component, "shape", provider,
+                new int[] { 1, 3 }));
+    }
+    
+    @Test
+    public void keyedShapeIsRecreatedOnKeyChange() {
+        final JPanel component = new JPanel();
+        final CountingProvider provider = new CountingProvider();
+        
+        final Rectangle first = ShapeCache.getShape(component, "shape",
+                provider, 1L);
+        assertSame(first, ShapeCache.getShape(component, "shape", provider, 1L));
+        assertNotSame(first,
+                ShapeCache.getShape(component, "shape", provider, 2L));
+        assertEquals(2, provider.created);
+    }
+    
+    @Test
+    public void shapesAreCachedSeparatelyForComponents() {
+        final CountingProvider provider = new CountingProvider();
+        final int[] settings = { 5 };
+        
+        final Rectangle first = ShapeCache.getShape(new JPanel(), "shape",
+                provider, settings);
+        final Rectangle second = ShapeCache.getShape(new JPanel(), "shape",
+                provider, settings);
+        
+        assertNotSame(first, second);
+        assertEquals(2, provider.created);
+    }
+    
+    @Test
+    public void sharedShapeIsReusedByComponents() {
+        final CountingProvider provider = new CountingProvider();
+        final int[] settings = { 10, 20 };
+        
+        final Rectangle first = ShapeCache.getSharedShape(new JPanel(),
+                ShapeCacheTest.class, "shape", provider, settings);
+        final Rectangle second = ShapeCache.getSharedShape(new JPanel(),
+                ShapeCacheTest.class, "shape", provider, settings);
+        
+        assertSame(first, second);
+        assertEquals(1, provider.created);
+        assertEquals(1, ShapeCache.getSharedCacheHits());
+        assertEquals(1, ShapeCache.getSharedCacheMisses());
+        assertEquals(1, ShapeCache.getSharedCacheSize());
+    }
+    
+    @Test
+    public void sharedShapeIsNotReusedForOtherTypeOrSettings() {
+        final CountingProvider provider = new CountingProvider();
+        
+        final Rectangle first = ShapeCache.getSharedShape(new JPanel(),
+                ShapeCacheTest.class, "shape", provider, new int[] { 1 });
+        final Rectangle otherType = ShapeCache.getSharedShape(new JPanel(),
+                Object.class, "shape", provider, new int[] { 1 });
+        final Rectangle otherSettings = ShapeCache.getSharedShape(
+                new JPanel(), ShapeCacheTest.class, "shape", provider,
+                new int[] { 2 });
+        
+        assertNotSame(first, otherType);
+        assertNotSame(first, otherSettings);
+        assertEquals(3, provider.created);
+        assertEquals(3, ShapeCache.getSharedCacheSize());
+    }
+    
+    @Test
+    public void sharedCacheIsBoundedByLimit() {
+        final CountingProvider provider = new CountingProvider();
+        ShapeCache.setSharedCacheLimit(2);
+        
+        for (int i = 0; i < 3; i++) {
+            ShapeCache.getSharedShape(new JPanel(), ShapeCacheTest.class,
+                    "shape", provider, new int[] { i });
+        }
+        assertEquals(2, ShapeCache.getSharedCacheSize());
+        assertEquals(1, ShapeCache.getSharedCacheEvictions());
+        
+        // Least recently used shape was evicted
+        ShapeCache.getSharedShape(new JPanel(), ShapeCacheTest.class,
+                "shape", provider, new int[] { 0 });
+        assertEquals(4, provider.created);
+        
+        // Lowering limit evicts shapes right away
+        ShapeCache.setSharedCacheLimit(1);
+        assertEquals(1, ShapeCache.getSharedCacheSize());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeSharedCacheLimitIsRejected() {
+        ShapeCache.setSharedCacheLimit(-1);
+    }
+}